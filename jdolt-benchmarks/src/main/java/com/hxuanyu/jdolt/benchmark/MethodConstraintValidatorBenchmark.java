@@ -0,0 +1,58 @@
+package com.hxuanyu.jdolt.benchmark;
+
+import com.hxuanyu.jdolt.core.function.table.DoltDiff;
+import com.hxuanyu.jdolt.core.function.table.DoltLog;
+import com.hxuanyu.jdolt.util.validator.MethodConstraintValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MethodConstraintValidator} 的基准测试。每个参数构建器都会创建一个校验器，
+ * 因此构造开销和 checkAndMark 的开销都在每次调用的热路径上。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodConstraintValidatorBenchmark {
+
+    @Benchmark
+    public MethodConstraintValidator construct() {
+        return new MethodConstraintValidator(DoltLog.Params.class);
+    }
+
+    @Benchmark
+    public MethodConstraintValidator checkAndMarkLog() {
+        MethodConstraintValidator validator = new MethodConstraintValidator(DoltLog.Params.class);
+        validator.checkAndMark("revision");
+        validator.checkAndMark("tables");
+        validator.checkAndMark("parents");
+        validator.checkAndMark("decorate");
+        validator.checkRequired();
+        return validator;
+    }
+
+    @Benchmark
+    public MethodConstraintValidator checkAndMarkDiff() {
+        MethodConstraintValidator validator = new MethodConstraintValidator(DoltDiff.Params.class);
+        validator.checkAndMark("fromRevision");
+        validator.checkAndMark("toRevision");
+        validator.checkAndMark("withTable");
+        validator.checkRequired();
+        return validator;
+    }
+}
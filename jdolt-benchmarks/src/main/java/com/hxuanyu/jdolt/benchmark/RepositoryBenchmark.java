@@ -0,0 +1,74 @@
+package com.hxuanyu.jdolt.benchmark;
+
+import com.hxuanyu.jdolt.benchmark.stub.StubDoltDriver;
+import com.hxuanyu.jdolt.core.function.table.DoltDiff;
+import com.hxuanyu.jdolt.core.function.table.DoltLog;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.model.api.DoltLogInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过参数构建器执行表函数的端到端基准测试：参数校验、SQL 构建、JDBC 读取和结果物化。
+ * 数据来自 {@link StubDoltDriver}，测得的耗时只包含客户端部分。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"10", "1000"})
+    private int rows;
+
+    private DoltLog doltLog;
+    private DoltDiff doltDiff;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DoltConnectionManager connectionManager = new DoltConnectionManager(StubDoltDriver.dataSource(rows));
+        // 测量 JDBC 读取和物化，关闭缓存避免重复执行同一查询时命中缓存
+        connectionManager.setResultCache(null);
+        connectionManager.setHeadCache(null);
+        doltLog = DoltLog.getInstance(connectionManager);
+        doltDiff = DoltDiff.getInstance(connectionManager);
+    }
+
+    @Benchmark
+    public SqlExecuteResult doltLog() {
+        return doltLog.prepare().revision("main").execute();
+    }
+
+    @Benchmark
+    public List<DoltLogInfo> doltLogToObjectList() {
+        return doltLog.prepare().revision("main").execute().toObjectList(DoltLogInfo.class);
+    }
+
+    @Benchmark
+    public SqlExecuteResult doltDiff() {
+        return doltDiff.prepare()
+                .fromRevision("main~1")
+                .toRevision("main")
+                .withTable("products")
+                .execute();
+    }
+}
@@ -0,0 +1,73 @@
+package com.hxuanyu.jdolt.benchmark;
+
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SqlBuilder#build()} 的基准测试，覆盖表函数查询、系统表条件查询、存储过程调用和多行插入
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlBuilderBenchmark {
+
+    private final String[] diffParams = {"main~1", "main", "products"};
+    private final Object[][] insertRows = new Object[100][];
+
+    {
+        for (int i = 0; i < insertRows.length; i++) {
+            insertRows[i] = new Object[]{i, "product-" + i, i * 1.5d};
+        }
+    }
+
+    @Benchmark
+    public SqlBuilder.SqlTemplate tableFunction() {
+        return SqlBuilder.select()
+                .fromFunction("dolt_diff")
+                .withParams(diffParams)
+                .build();
+    }
+
+    @Benchmark
+    public SqlBuilder.SqlTemplate systemTableWithConditions() {
+        return SqlBuilder.select("name", "hash", "latest_commit_date")
+                .from("dolt_branches")
+                .where("name", "main")
+                .orderByDesc("latest_commit_date")
+                .limit(20)
+                .build();
+    }
+
+    @Benchmark
+    public SqlBuilder.SqlTemplate callProcedure() {
+        return SqlBuilder.callProcedure("DOLT_COMMIT")
+                .withParams("-A", "-m", "benchmark commit")
+                .build();
+    }
+
+    @Benchmark
+    public List<SqlBuilder.SqlTemplate> multiRowInsert() {
+        SqlBuilder builder = SqlBuilder.insertInto("products").columns("id", "name", "price");
+        for (Object[] row : insertRows) {
+            builder.values(row);
+        }
+        return builder.buildChunks(50);
+    }
+}
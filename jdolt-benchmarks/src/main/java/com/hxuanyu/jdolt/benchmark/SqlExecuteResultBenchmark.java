@@ -0,0 +1,81 @@
+package com.hxuanyu.jdolt.benchmark;
+
+import com.hxuanyu.jdolt.benchmark.stub.SyntheticTable;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.model.api.DoltLogInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SqlExecuteResult} 访问器和 {@link SqlExecuteResult#toObjectList(Class)} 的基准测试，
+ * 结果直接由合成的 dolt_log 行构造，不经过 JDBC
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlExecuteResultBenchmark {
+
+    @Param({"10", "1000"})
+    private int rows;
+
+    private SqlExecuteResult result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticTable table = SyntheticTable.doltLog(rows);
+        result = SqlExecuteResult.success("success", new RowSet(new RowSet.Columns(table.columns()), table.rows()));
+    }
+
+    @Benchmark
+    public void getStringByIndex(Blackhole blackhole) {
+        for (int i = 0, n = result.getRowCount(); i < n; i++) {
+            blackhole.consume(result.getString(i, "commit_hash"));
+            blackhole.consume(result.getString(i, "message"));
+        }
+    }
+
+    @Benchmark
+    public void getRow(Blackhole blackhole) {
+        for (int i = 0, n = result.getRowCount(); i < n; i++) {
+            Map<String, Object> row = result.getRow(i);
+            blackhole.consume(row.get("committer"));
+        }
+    }
+
+    @Benchmark
+    public List<Object> getColumn() {
+        return result.getColumn("commit_hash");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> getData() {
+        return result.getData();
+    }
+
+    @Benchmark
+    public List<DoltLogInfo> toObjectList() {
+        return result.toObjectList(DoltLogInfo.class);
+    }
+}
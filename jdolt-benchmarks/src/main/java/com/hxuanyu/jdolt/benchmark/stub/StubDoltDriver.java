@@ -0,0 +1,180 @@
+package com.hxuanyu.jdolt.benchmark.stub;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * 进程内的 JDBC 桩驱动，不访问网络，按 SQL 中的表函数返回预先生成的合成结果集：
+ * <ul>
+ *     <li>包含 {@code dolt_diff} 的查询返回 {@link SyntheticTable#doltDiff(int)}</li>
+ *     <li>包含 {@code dolt_log} 的查询返回 {@link SyntheticTable#doltLog(int)}</li>
+ *     <li>其他语句返回一行 {@code status = 0}</li>
+ * </ul>
+ * URL 格式为 {@code jdbc:stub-dolt:<database>?rows=<行数>}，行数默认 100。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class StubDoltDriver implements Driver {
+    public static final String URL_PREFIX = "jdbc:stub-dolt:";
+    private static final int DEFAULT_ROWS = 100;
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDoltDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 创建直接连接到桩驱动的数据源
+     *
+     * @param rows dolt_log / dolt_diff 结果集的行数
+     * @return 数据源
+     */
+    public static DataSource dataSource(int rows) {
+        Tables tables = new Tables(rows);
+        return new StubDataSource(tables);
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        return StubJdbc.connection(new Tables(parseRows(url)));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static int parseRows(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return DEFAULT_ROWS;
+        }
+        for (String pair : url.substring(query + 1).split("&")) {
+            if (pair.startsWith("rows=")) {
+                return Integer.parseInt(pair.substring("rows=".length()));
+            }
+        }
+        return DEFAULT_ROWS;
+    }
+
+    /**
+     * 一个连接可见的全部合成结果集，按行数生成一次后复用
+     */
+    static final class Tables {
+        private final SyntheticTable doltLog;
+        private final SyntheticTable doltDiff;
+        private final SyntheticTable status = SyntheticTable.single("status", 0);
+
+        Tables(int rows) {
+            this.doltLog = SyntheticTable.doltLog(rows);
+            this.doltDiff = SyntheticTable.doltDiff(rows);
+        }
+
+        SyntheticTable lookup(String sql) {
+            String lower = sql.toLowerCase(Locale.ROOT);
+            if (lower.contains("dolt_diff")) {
+                return doltDiff;
+            }
+            if (lower.contains("dolt_log")) {
+                return doltLog;
+            }
+            return status;
+        }
+    }
+
+    private static final class StubDataSource implements DataSource {
+        private final Tables tables;
+        private PrintWriter logWriter;
+        private int loginTimeout;
+
+        private StubDataSource(Tables tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return StubJdbc.connection(tables);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return logWriter;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+            this.logWriter = out;
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+            this.loginTimeout = seconds;
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return loginTimeout;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException("not a wrapper for " + iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
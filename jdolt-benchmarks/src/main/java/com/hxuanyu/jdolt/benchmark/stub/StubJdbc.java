@@ -0,0 +1,167 @@
+package com.hxuanyu.jdolt.benchmark.stub;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * 基于动态代理的 JDBC 对象，只实现客户端读取结果集需要的方法。
+ * 查询按 SQL 中出现的表函数名称返回对应的合成结果集，参数只做接收不做处理。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class StubJdbc {
+
+    private StubJdbc() {
+    }
+
+    static Connection connection(StubDoltDriver.Tables tables) {
+        boolean[] closed = {false};
+        boolean[] autoCommit = {true};
+        return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> preparedStatement(tables, (String) args[0]);
+            case "createStatement" -> statement(tables);
+            case "close" -> {
+                closed[0] = true;
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            case "isValid" -> !closed[0];
+            case "getAutoCommit" -> autoCommit[0];
+            case "setAutoCommit" -> {
+                autoCommit[0] = (Boolean) args[0];
+                yield null;
+            }
+            case "commit", "rollback", "setReadOnly", "setCatalog", "clearWarnings" -> null;
+            case "getCatalog" -> "shop";
+            case "getWarnings" -> null;
+            default -> objectMethod(proxy, method, args);
+        });
+    }
+
+    private static Statement statement(StubDoltDriver.Tables tables) {
+        ResultSet[] current = {null};
+        return proxy(Statement.class, (proxy, method, args) -> switch (method.getName()) {
+            case "executeQuery" -> current[0] = resultSet(tables.lookup((String) args[0]));
+            case "execute" -> {
+                current[0] = resultSet(tables.lookup((String) args[0]));
+                yield true;
+            }
+            case "executeUpdate" -> 0;
+            case "getResultSet" -> current[0];
+            case "getUpdateCount" -> -1;
+            case "setFetchSize", "setQueryTimeout", "setMaxRows", "close", "clearWarnings" -> null;
+            case "getWarnings" -> null;
+            default -> objectMethod(proxy, method, args);
+        });
+    }
+
+    private static PreparedStatement preparedStatement(StubDoltDriver.Tables tables, String sql) {
+        SyntheticTable table = tables.lookup(sql);
+        ResultSet[] current = {null};
+        int[] batch = {0};
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set")) {
+                // setObject/setString/setFetchSize 等只接收参数
+                return null;
+            }
+            return switch (name) {
+                case "executeQuery" -> current[0] = resultSet(table);
+                case "execute" -> {
+                    current[0] = resultSet(table);
+                    yield true;
+                }
+                case "executeUpdate" -> 1;
+                case "addBatch" -> {
+                    batch[0]++;
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    int[] counts = new int[batch[0]];
+                    Arrays.fill(counts, 1);
+                    batch[0] = 0;
+                    yield counts;
+                }
+                case "getResultSet" -> current[0];
+                case "getUpdateCount" -> -1;
+                case "close", "clearParameters", "clearBatch", "clearWarnings" -> null;
+                case "getWarnings" -> null;
+                default -> objectMethod(proxy, method, args);
+            };
+        });
+    }
+
+    private static ResultSet resultSet(SyntheticTable table) {
+        ResultSetMetaData metaData = metaData(table);
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++cursor[0] < table.rows().size();
+            case "getObject" -> {
+                Object value = value(table, cursor[0], args[0]);
+                wasNull[0] = value == null;
+                yield value;
+            }
+            case "getString" -> {
+                Object value = value(table, cursor[0], args[0]);
+                wasNull[0] = value == null;
+                yield value == null ? null : value.toString();
+            }
+            case "wasNull" -> wasNull[0];
+            case "getMetaData" -> metaData;
+            case "getRow" -> cursor[0] + 1;
+            case "setFetchSize", "close" -> null;
+            case "isClosed" -> false;
+            default -> objectMethod(proxy, method, args);
+        });
+    }
+
+    private static ResultSetMetaData metaData(SyntheticTable table) {
+        return proxy(ResultSetMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getColumnCount" -> table.columns().length;
+            case "getColumnName", "getColumnLabel" -> table.columns()[(Integer) args[0] - 1];
+            case "getColumnType" -> Types.OTHER;
+            default -> objectMethod(proxy, method, args);
+        });
+    }
+
+    private static Object value(SyntheticTable table, int row, Object column) {
+        if (column instanceof Integer index) {
+            return table.rows().get(row)[index - 1];
+        }
+        String label = (String) column;
+        String[] columns = table.columns();
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equalsIgnoreCase(label)) {
+                return table.rows().get(row)[i];
+            }
+        }
+        throw new IllegalArgumentException("unknown column: " + label);
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) throws SQLFeatureNotSupportedException {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "Stub" + proxy.getClass().getInterfaces()[0].getSimpleName();
+            case "unwrap", "isWrapperFor" -> throw new SQLFeatureNotSupportedException(method.getName());
+            default -> throw new SQLFeatureNotSupportedException(
+                    method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubJdbc.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
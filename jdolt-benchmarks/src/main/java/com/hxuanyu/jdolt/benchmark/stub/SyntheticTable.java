@@ -0,0 +1,102 @@
+package com.hxuanyu.jdolt.benchmark.stub;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 预先生成的合成结果集，行数据在创建时一次性生成，基准测试中只测量客户端读取和转换的开销。
+ * 随机数使用固定种子，保证每次运行的数据完全一致。
+ *
+ * @param columns 列名
+ * @param rows    行数据
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public record SyntheticTable(String[] columns, List<Object[]> rows) {
+
+    private static final String HASH_ALPHABET = "0123456789abcdefghijklmnopqrstuv";
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    /**
+     * 生成 {@code dolt_log} 结构的结果集
+     *
+     * @param rowCount 行数
+     * @return 结果集
+     */
+    public static SyntheticTable doltLog(int rowCount) {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[]{
+                    commitHash(random),
+                    "committer" + (i % 7),
+                    "committer" + (i % 7) + "@dolthub.com",
+                    BASE_TIME.minusMinutes(i * 13L),
+                    "update products batch " + i
+            });
+        }
+        return new SyntheticTable(new String[]{"commit_hash", "committer", "email", "date", "message"}, rows);
+    }
+
+    /**
+     * 生成 {@code dolt_diff} 结构的结果集，对应一张 (id, name, price) 的表
+     *
+     * @param rowCount 行数
+     * @return 结果集
+     */
+    public static SyntheticTable doltDiff(int rowCount) {
+        Random random = new Random(7);
+        String toCommit = commitHash(random);
+        String fromCommit = commitHash(random);
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            String diffType = switch (i % 3) {
+                case 0 -> "modified";
+                case 1 -> "added";
+                default -> "removed";
+            };
+            boolean hasTo = !"removed".equals(diffType);
+            boolean hasFrom = !"added".equals(diffType);
+            rows.add(new Object[]{
+                    hasTo ? (long) i : null,
+                    hasTo ? "product-" + i : null,
+                    hasTo ? random.nextInt(100_000) / 100d : null,
+                    toCommit,
+                    BASE_TIME,
+                    hasFrom ? (long) i : null,
+                    hasFrom ? "product-" + i + "-old" : null,
+                    hasFrom ? random.nextInt(100_000) / 100d : null,
+                    fromCommit,
+                    BASE_TIME.minusDays(1),
+                    diffType
+            });
+        }
+        return new SyntheticTable(new String[]{
+                "to_id", "to_name", "to_price", "to_commit", "to_commit_date",
+                "from_id", "from_name", "from_price", "from_commit", "from_commit_date",
+                "diff_type"}, rows);
+    }
+
+    /**
+     * 只有一行一列的结果集，用于存储过程和信息函数
+     *
+     * @param column 列名
+     * @param value  值
+     * @return 结果集
+     */
+    public static SyntheticTable single(String column, Object value) {
+        List<Object[]> rows = new ArrayList<>(1);
+        rows.add(new Object[]{value});
+        return new SyntheticTable(new String[]{column}, rows);
+    }
+
+    private static String commitHash(Random random) {
+        char[] chars = new char[32];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = HASH_ALPHABET.charAt(random.nextInt(HASH_ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,239 @@
+package com.hxuanyu.jdolt.cache;
+
+import com.hxuanyu.jdolt.metrics.OperationNames;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 分支相关读取的缓存，结果按读取时的引用状态（当前分支的 {@code dolt_hashof('HEAD')}、所有分支、标签和远程分支的哈希）
+ * 作为键的一部分缓存。
+ * <p>
+ * dolt_log、dolt_commits、dolt_history_$table 等系统表和 dolt_log 表函数的结果只由提交图决定，
+ * 在两次提交之间不会改变。每次读取先执行一条只返回哈希的状态查询（{@link #STATE_QUERY}），
+ * 状态与缓存时一致就直接返回缓存的结果。配置了信任窗口时，窗口内已验证过的状态被视为未改变，连状态查询也会省略。
+ * 未命中时在执行查询之后再执行一次状态查询，查询期间状态发生变化时结果只返回给调用方，不写入缓存，
+ * 避免把旧状态下读到的结果记在新状态下。状态查询与数据查询应当在同一个连接上执行（见 {@link #get}）。
+ * <p>
+ * 通过存储过程类执行的 commit、merge、reset 等操作会调用 {@link #invalidate()}，立即清空缓存和已验证的状态；
+ * 其它客户端的修改由状态查询发现，使用信任窗口时最多延迟一个窗口。
+ * <p>
+ * 未命中时比直接查询多两次状态查询，连接管理器默认不启用，需要通过
+ * {@link com.hxuanyu.jdolt.manager.DoltConnectionManager#setHeadCache(HeadValidatedCache)} 开启。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class HeadValidatedCache {
+    /**
+     * 默认不信任已验证的状态，每次读取都执行状态查询
+     */
+    public static final Duration DEFAULT_TRUST_WINDOW = Duration.ZERO;
+
+    /**
+     * 引用状态查询，只返回引用名称和哈希，与被缓存的查询相比开销很小
+     */
+    public static final SqlBuilder.SqlTemplate STATE_QUERY = new SqlBuilder.SqlTemplate(
+            "SELECT active_branch() AS name, dolt_hashof('HEAD') AS hash"
+                    + " UNION ALL SELECT name, hash FROM dolt_branches"
+                    + " UNION ALL SELECT tag_name, tag_hash FROM dolt_tags"
+                    + " UNION ALL SELECT name, hash FROM dolt_remote_branches",
+            List.of());
+
+    /**
+     * dolt_branches 中除 dirty 以外的列，dirty 随工作区变化，不能按提交状态缓存
+     */
+    private static final String[] BRANCH_COMMIT_COLUMNS = {
+            "name", "hash", "latest_committer", "latest_committer_email", "latest_commit_date",
+            "latest_commit_message", "remote", "branch"
+    };
+
+    private final ResultCache results;
+    private final long trustWindowNanos;
+    private final Map<String, KnownState> knownStates = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder trustedReads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder staleLoads = new LongAdder();
+
+    public HeadValidatedCache() {
+        this(ResultCache.DEFAULT_MAX_WEIGHT, DEFAULT_TRUST_WINDOW);
+    }
+
+    /**
+     * @param maxWeight   缓存结果的估算内存上限（字节）
+     * @param trustWindow 已验证状态的信任时长，为 0 时每次读取都执行状态查询
+     */
+    public HeadValidatedCache(long maxWeight, Duration trustWindow) {
+        if (trustWindow == null || trustWindow.isNegative()) {
+            throw new IllegalArgumentException("trustWindow 不能为空或负数");
+        }
+        this.results = new ResultCache(maxWeight);
+        this.trustWindowNanos = trustWindow.toNanos();
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @param validationCount   执行状态查询的次数
+     * @param trustedReadCount  在信任窗口内省略状态查询的次数
+     * @param invalidationCount 失效次数
+     * @param staleLoadCount    查询期间状态发生变化、结果没有写入缓存的次数
+     * @param results           结果缓存的统计
+     */
+    public record Stats(long validationCount, long trustedReadCount, long invalidationCount, long staleLoadCount,
+                        ResultCache.Stats results) {
+    }
+
+    /**
+     * 判断查询的结果是否只由提交图决定，可以按引用状态缓存
+     *
+     * @param sqlTemplate SQL 模板
+     * @return 可以缓存时返回 true
+     */
+    public static boolean isCacheable(SqlBuilder.SqlTemplate sqlTemplate) {
+        String sql = sqlTemplate.sql();
+        String name = OperationNames.of(sql);
+        switch (name) {
+            case "dolt_log":
+            case "dolt_commits":
+            case "dolt_commit_ancestors":
+            case "dolt_tags":
+                return true;
+            case "dolt_branches":
+                return selectsCommitColumnsOnly(sql);
+            default:
+                return name.startsWith("dolt_history_");
+        }
+    }
+
+    /**
+     * 查询 dolt_branches 中与工作区无关的列
+     *
+     * @return SQL 模板
+     */
+    public static SqlBuilder.SqlTemplate branchesQuery() {
+        return SqlBuilder.select(BRANCH_COMMIT_COLUMNS).from("dolt_branches").build();
+    }
+
+    private static boolean selectsCommitColumnsOnly(String sql) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int from = upper.indexOf(" FROM ");
+        if (from < 0) {
+            return false;
+        }
+        String selectList = upper.substring(0, from);
+        return !selectList.contains("*") && !selectList.contains("DIRTY");
+    }
+
+    /**
+     * 获取缓存的结果。先确定当前的引用状态，再以查询和状态为键读取缓存，未命中时执行查询。
+     *
+     * @param stateKey    已验证状态的归属，一般为分支名；为 null 时每次都执行状态查询且不记录状态（例如事务中）
+     * @param sqlTemplate 要执行的查询
+     * @param executor    执行查询的操作，状态查询也通过它执行；所有调用应使用同一个连接，
+     *                    否则状态和数据可能来自不同的会话（例如不同的副本）
+     * @return 查询结果
+     */
+    public RowSet get(String stateKey, SqlBuilder.SqlTemplate sqlTemplate, Function<SqlBuilder.SqlTemplate, RowSet> executor) {
+        String state = currentState(stateKey, executor);
+        List<Object> parameters = new ArrayList<>(sqlTemplate.parameters().size() + 1);
+        parameters.addAll(sqlTemplate.parameters());
+        parameters.add(state);
+        return results.get(new SqlBuilder.SqlTemplate(sqlTemplate.sql(), parameters), () -> executor.apply(sqlTemplate),
+                () -> isUnchanged(stateKey, state, executor));
+    }
+
+    /**
+     * 数据查询之后重新读取状态，状态已经变化时丢弃已验证的状态
+     */
+    private boolean isUnchanged(String stateKey, String state, Function<SqlBuilder.SqlTemplate, RowSet> executor) {
+        if (state.equals(digest(executor.apply(STATE_QUERY)))) {
+            return true;
+        }
+        if (stateKey != null) {
+            knownStates.remove(stateKey);
+        }
+        staleLoads.increment();
+        return false;
+    }
+
+    private String currentState(String stateKey, Function<SqlBuilder.SqlTemplate, RowSet> executor) {
+        boolean trusted = stateKey != null && trustWindowNanos > 0;
+        if (trusted) {
+            KnownState known = knownStates.get(stateKey);
+            if (known != null && System.nanoTime() - known.validatedAt < trustWindowNanos) {
+                trustedReads.increment();
+                return known.state;
+            }
+        }
+        long startEpoch = epoch.get();
+        validations.increment();
+        String state = digest(executor.apply(STATE_QUERY));
+        if (trusted) {
+            KnownState known = new KnownState(state, System.nanoTime());
+            knownStates.put(stateKey, known);
+            // 状态查询期间发生了失效，查询到的状态可能已经过时
+            if (epoch.get() != startEpoch) {
+                knownStates.remove(stateKey, known);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 引用状态的摘要，状态查询的每一行都参与计算
+     */
+    static String digest(RowSet rowSet) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < rowSet.size(); i++) {
+            for (Object value : rowSet.getValues(i)) {
+                messageDigest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+            messageDigest.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    /**
+     * 立即失效：清空缓存的结果和已验证的状态。通过本客户端修改了提交或引用后调用。
+     */
+    public void invalidate() {
+        epoch.incrementAndGet();
+        knownStates.clear();
+        results.invalidateAll();
+        invalidations.increment();
+    }
+
+    public Stats getStats() {
+        return new Stats(validations.sum(), trustedReads.sum(), invalidations.sum(), staleLoads.sum(), results.getStats());
+    }
+
+    public Duration getTrustWindow() {
+        return Duration.ofNanos(trustWindowNanos);
+    }
+
+    private record KnownState(String state, long validatedAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.hxuanyu.jdolt.cache;
+
+import com.hxuanyu.jdolt.metrics.OperationNames;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 判断表函数和信息函数的调用是否完全由提交哈希确定。
+ * <p>
+ * 所有修订版本参数都是完整提交哈希（允许 {@code ~n}、{@code ^n} 祖先后缀和 {@code ..}/{@code ...} 区间）时，
+ * 查询结果永远不会改变，可以安全地缓存。分支名、标签、{@code HEAD}、{@code WORKING}/{@code STAGED}
+ * 或者无法识别的选项都会使调用不可缓存。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class ImmutableQueries {
+    /**
+     * Dolt 提交哈希为 32 位 base32 字符
+     */
+    private static final Pattern PINNED_REVISION = Pattern.compile("\\^?[0-9a-v]{32}([~^][0-9]*)*");
+
+    private ImmutableQueries() {
+    }
+
+    /**
+     * 判断 SQL 模板对应的函数调用是否可以缓存
+     *
+     * @param sqlTemplate SQL 模板
+     * @return 结果不可变时返回 true
+     */
+    public static boolean isImmutable(SqlBuilder.SqlTemplate sqlTemplate) {
+        List<String> params = new ArrayList<>(sqlTemplate.parameters().size());
+        for (Object parameter : sqlTemplate.parameters()) {
+            if (!(parameter instanceof String)) {
+                return false;
+            }
+            params.add((String) parameter);
+        }
+        switch (OperationNames.of(sqlTemplate.sql())) {
+            case "dolt_diff":
+            case "dolt_diff_stat":
+            case "dolt_diff_summary":
+            case "dolt_patch":
+            case "dolt_schema_diff":
+                return diffPinned(params);
+            case "dolt_log":
+                return logPinned(params);
+            case "has_ancestor":
+            case "dolt_merge_base":
+                return params.size() == 2 && isPinned(params.get(0)) && isPinned(params.get(1));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 判断修订版本是否是完整提交哈希
+     *
+     * @param revision 修订版本
+     * @return 是否固定到提交
+     */
+    public static boolean isPinned(String revision) {
+        return revision != null && PINNED_REVISION.matcher(revision).matches();
+    }
+
+    /**
+     * diff 类函数的形式为 {@code (from, to[, table])} 或 {@code (from..to[, table])}
+     */
+    private static boolean diffPinned(List<String> params) {
+        List<String> positional = new ArrayList<>(params.size());
+        for (String param : params) {
+            if (!param.startsWith("-")) {
+                positional.add(param);
+            }
+        }
+        if (positional.isEmpty()) {
+            return false;
+        }
+        String first = positional.get(0);
+        if (first.contains("..")) {
+            return rangePinned(first);
+        }
+        return positional.size() >= 2 && isPinned(first) && isPinned(positional.get(1));
+    }
+
+    /**
+     * dolt_log 的位置参数都是修订版本，表名只出现在 {@code --tables} 之后
+     */
+    private static boolean logPinned(List<String> params) {
+        boolean hasRevision = false;
+        for (int i = 0; i < params.size(); i++) {
+            String param = params.get(i);
+            switch (param) {
+                case "--tables":
+                    while (i + 1 < params.size() && !params.get(i + 1).startsWith("-")) {
+                        i++;
+                    }
+                    break;
+                case "--min-parents":
+                    i++;
+                    break;
+                case "--decorate":
+                    // 装饰信息包含分支引用，分支移动后结果会变化
+                    if (i + 1 >= params.size() || !"no".equals(params.get(i + 1))) {
+                        return false;
+                    }
+                    i++;
+                    break;
+                case "--merges":
+                case "--parents":
+                case "--not":
+                    break;
+                default:
+                    if (param.startsWith("-")) {
+                        return false;
+                    }
+                    if (!(param.contains("..") ? rangePinned(param) : isPinned(param))) {
+                        return false;
+                    }
+                    hasRevision = true;
+            }
+        }
+        return hasRevision;
+    }
+
+    private static boolean rangePinned(String range) {
+        String separator = range.contains("...") ? "..." : "..";
+        int index = range.indexOf(separator);
+        return isPinned(range.substring(0, index)) && isPinned(range.substring(index + separator.length()));
+    }
+}
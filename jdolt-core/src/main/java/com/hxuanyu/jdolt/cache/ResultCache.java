@@ -0,0 +1,279 @@
+package com.hxuanyu.jdolt.cache;
+
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 不可变查询结果的缓存，只用于结果由提交哈希完全确定的查询（见 {@link ImmutableQueries}）。
+ * <p>
+ * 缓存键为规范化后的 SQL 加参数列表，容量按结果的估算内存占用（字节）限制，超出时按最近最少使用淘汰。
+ * 同一个键并发未命中时只有一个线程访问数据库，其余线程等待同一个结果。
+ * 命中时返回结果的副本，调用方修改返回的数据不会影响缓存。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ResultCache {
+    /**
+     * 默认容量 16 MiB
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 16L * 1024 * 1024;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long maxWeight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, CompletableFuture<RowSet>> loading = new ConcurrentHashMap<>();
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResultCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight 缓存结果的估算内存上限（字节）
+     */
+    public ResultCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight 必须大于 0");
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @param hitCount      命中次数
+     * @param missCount     未命中次数
+     * @param evictionCount 淘汰次数
+     * @param entryCount    当前条目数
+     * @param weight        当前估算占用（字节）
+     * @param maxWeight     容量上限（字节）
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount, int entryCount, long weight, long maxWeight) {
+
+        /**
+         * 命中率
+         *
+         * @return 命中率，没有请求时为 0
+         */
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0d : (double) hitCount / total;
+        }
+    }
+
+    /**
+     * 获取缓存的结果，未命中时执行 loader 并缓存其结果
+     *
+     * @param sqlTemplate SQL 模板
+     * @param loader      查询数据库的操作
+     * @return 查询结果
+     */
+    public RowSet get(SqlBuilder.SqlTemplate sqlTemplate, Supplier<RowSet> loader) {
+        return get(sqlTemplate, loader, () -> true);
+    }
+
+    /**
+     * 获取缓存的结果，未命中时执行 loader，并且只有 storeIf 在 loader 之后返回 true 时才缓存其结果
+     *
+     * @param sqlTemplate SQL 模板
+     * @param loader      查询数据库的操作
+     * @param storeIf     判断 loader 的结果是否仍然有效，例如查询期间数据是否发生了变化
+     * @return 查询结果
+     */
+    public RowSet get(SqlBuilder.SqlTemplate sqlTemplate, Supplier<RowSet> loader, BooleanSupplier storeIf) {
+        Key key = Key.of(sqlTemplate);
+        RowSet cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+        misses.increment();
+        CompletableFuture<RowSet> future = new CompletableFuture<>();
+        CompletableFuture<RowSet> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            RowSet loaded = loader.get();
+            // 缓存和等待中的线程使用独立的副本，loader 返回的对象交给调用方
+            RowSet stored = copy(loaded);
+            if (stored != null && storeIf.getAsBoolean()) {
+                put(key, stored);
+            }
+            future.complete(stored);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private static RowSet await(CompletableFuture<RowSet> future) {
+        try {
+            return copy(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 清空缓存，统计信息保留
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight, maxWeight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    private RowSet lookup(Key key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            return entry == null ? null : entry.rowSet;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Key key, RowSet rowSet) {
+        long entryWeight = key.weight() + weigh(rowSet);
+        if (entryWeight > maxWeight) {
+            // 单个结果超过容量时不缓存，避免清空整个缓存
+            return;
+        }
+        Entry entry = new Entry(rowSet, entryWeight);
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight;
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static RowSet copy(RowSet rowSet) {
+        if (rowSet == null) {
+            return null;
+        }
+        List<Object[]> rows = new ArrayList<>(rowSet.size());
+        for (int i = 0; i < rowSet.size(); i++) {
+            rows.add(rowSet.getValues(i).clone());
+        }
+        return new RowSet(rowSet.getColumns(), rows);
+    }
+
+    /**
+     * 估算结果集的内存占用，只需要数量级准确
+     */
+    static long weigh(RowSet rowSet) {
+        long total = 64;
+        for (int i = 0; i < rowSet.size(); i++) {
+            Object[] values = rowSet.getValues(i);
+            total += 16 + 8L * values.length;
+            for (Object value : values) {
+                total += weighValue(value);
+            }
+        }
+        return total;
+    }
+
+    private static long weighValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            return 40 + 2L * string.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (value instanceof BigDecimal) {
+            return 64;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 24;
+        }
+        if (value instanceof Temporal || value instanceof Date) {
+            return 48;
+        }
+        return 64;
+    }
+
+    private record Entry(RowSet rowSet, long weight) {
+    }
+
+    /**
+     * 缓存键，SQL 中连续的空白被合并，参数按顺序比较
+     */
+    private record Key(String sql, List<Object> parameters) {
+
+        static Key of(SqlBuilder.SqlTemplate sqlTemplate) {
+            String normalized = WHITESPACE.matcher(sqlTemplate.sql().trim()).replaceAll(" ");
+            return new Key(normalized, List.copyOf(sqlTemplate.parameters()));
+        }
+
+        long weight() {
+            long total = 64 + 2L * sql.length();
+            for (Object parameter : parameters) {
+                total += weighValue(parameter);
+            }
+            return total;
+        }
+    }
+}
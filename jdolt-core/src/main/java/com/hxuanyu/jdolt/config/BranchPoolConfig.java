@@ -0,0 +1,160 @@
+package com.hxuanyu.jdolt.config;
+
+import java.time.Duration;
+
+/**
+ * 分支连接池配置。
+ * <p>
+ * 每个分支（修订版本数据库 {@code db/branch}）对应一个按需创建的连接池，连接从外部数据源借出后切换到分支，
+ * 并在池中保留以便复用。该配置限制池的数量、每个池保留的空闲连接数以及所有分支池共同占用的连接总数。
+ * 分支连接都从外部数据源借出，{@link #getMaxTotalConnections()} 应小于外部连接池的大小，
+ * 为不带分支的普通操作留出连接。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BranchPoolConfig {
+
+    private final int maxPools;
+    private final int maxIdlePerPool;
+    private final int maxTotalConnections;
+    private final Duration idleTimeout;
+    private final Duration acquireTimeout;
+
+    private BranchPoolConfig(Builder builder) {
+        this.maxPools = builder.maxPools;
+        this.maxIdlePerPool = builder.maxIdlePerPool;
+        this.maxTotalConnections = builder.maxTotalConnections;
+        this.idleTimeout = builder.idleTimeout;
+        this.acquireTimeout = builder.acquireTimeout;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认配置
+     *
+     * @return 默认配置
+     */
+    public static BranchPoolConfig defaults() {
+        return newBuilder().build();
+    }
+
+    public int getMaxPools() {
+        return maxPools;
+    }
+
+    public int getMaxIdlePerPool() {
+        return maxIdlePerPool;
+    }
+
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /**
+     * Builder class for BranchPoolConfig.
+     */
+    public static class Builder {
+        private int maxPools = 64;
+        private int maxIdlePerPool = 2;
+        private int maxTotalConnections = 8;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 同时存在的分支池数量上限，超出时按最近最少使用的顺序关闭没有借出连接的池
+         *
+         * @param maxPools 分支池数量上限
+         * @return the Builder instance
+         */
+        public Builder maxPools(int maxPools) {
+            if (maxPools <= 0) {
+                throw new IllegalArgumentException("maxPools must be greater than 0");
+            }
+            this.maxPools = maxPools;
+            return this;
+        }
+
+        /**
+         * 每个分支池保留的空闲连接数上限
+         *
+         * @param maxIdlePerPool 空闲连接数上限
+         * @return the Builder instance
+         */
+        public Builder maxIdlePerPool(int maxIdlePerPool) {
+            if (maxIdlePerPool < 0) {
+                throw new IllegalArgumentException("maxIdlePerPool cannot be negative");
+            }
+            this.maxIdlePerPool = maxIdlePerPool;
+            return this;
+        }
+
+        /**
+         * 所有分支池合计占用的连接数上限（包括借出和空闲的连接）
+         *
+         * @param maxTotalConnections 连接总数上限
+         * @return the Builder instance
+         */
+        public Builder maxTotalConnections(int maxTotalConnections) {
+            if (maxTotalConnections <= 0) {
+                throw new IllegalArgumentException("maxTotalConnections must be greater than 0");
+            }
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        /**
+         * 分支池在没有任何访问后保留的时长，超时的池在下次获取分支连接时被关闭
+         *
+         * @param idleTimeout 空闲超时时间
+         * @return the Builder instance
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            if (idleTimeout == null || idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("idleTimeout cannot be null or negative");
+            }
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * 连接总数达到上限时等待可用连接的最长时间
+         *
+         * @param acquireTimeout 等待超时时间
+         * @return the Builder instance
+         */
+        public Builder acquireTimeout(Duration acquireTimeout) {
+            if (acquireTimeout == null || acquireTimeout.isNegative()) {
+                throw new IllegalArgumentException("acquireTimeout cannot be null or negative");
+            }
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        public BranchPoolConfig build() {
+            return new BranchPoolConfig(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BranchPoolConfig{" +
+                "maxPools=" + maxPools +
+                ", maxIdlePerPool=" + maxIdlePerPool +
+                ", maxTotalConnections=" + maxTotalConnections +
+                ", idleTimeout=" + idleTimeout +
+                ", acquireTimeout=" + acquireTimeout +
+                '}';
+    }
+}
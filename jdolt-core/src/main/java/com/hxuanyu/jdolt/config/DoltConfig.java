@@ -16,6 +16,7 @@ public class DoltConfig {
     private final String jdbcUrl;
     private final String username;
     private final String password;
+    private final int connectionPoolSize;
     private final Map<String, String> properties;
 
     /**
@@ -27,6 +28,7 @@ public class DoltConfig {
         this.jdbcUrl = builder.jdbcUrl;
         this.username = builder.username;
         this.password = builder.password;
+        this.connectionPoolSize = builder.connectionPoolSize;
         this.properties = Collections.unmodifiableMap(new HashMap<>(builder.properties));
     }
 
@@ -48,6 +50,15 @@ public class DoltConfig {
         return password;
     }
 
+    /**
+     * 普通（不固定分支）操作可同时使用的连接数，连接池大小和异步操作的并发上限都以此为基础计算
+     *
+     * @return 连接数
+     */
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
 
     public Map<String, String> getProperties() {
         return properties;
@@ -174,6 +185,7 @@ public class DoltConfig {
         return "DoltConfig{" +
                 "jdbcUrl='" + jdbcUrl + '\'' +
                 ", username='" + username + '\'' +
+                ", connectionPoolSize=" + connectionPoolSize +
                 ", properties=" + properties +
                 '}';
     }
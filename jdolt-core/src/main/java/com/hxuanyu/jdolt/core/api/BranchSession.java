@@ -0,0 +1,67 @@
+package com.hxuanyu.jdolt.core.api;
+
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.manager.DoltTransaction;
+
+import java.util.function.Supplier;
+
+/**
+ * 固定到某个分支的会话。
+ * <p>
+ * 会话内的所有存储过程、函数和系统表操作都在该分支上执行：底层连接来自该分支的连接池，通过 Dolt 的修订版本数据库
+ * （{@code db/branch}）固定到分支，而不是在连接池中的某个连接上执行 {@code DOLT_CHECKOUT}，
+ * 因此不同分支的会话可以并发使用，互不影响。会话本身不持有连接，可以长期保存和跨线程共享。
+ *
+ * <pre>
+ * BranchSession session = doltClient.session("feature/a");
+ * session.api().logs();
+ * session.versionControl().systemTable().branches().query();
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BranchSession {
+    private final String branch;
+    private final VersionControl versionControl;
+    private final DoltApi doltApi;
+
+    BranchSession(DoltConnectionManager rootConnectionManager, String branch) {
+        this.branch = branch;
+        this.versionControl = new VersionControl(rootConnectionManager.forBranch(branch));
+        this.doltApi = new DoltApi(versionControl);
+    }
+
+    public String branch() {
+        return branch;
+    }
+
+    public VersionControl versionControl() {
+        return versionControl;
+    }
+
+    public DoltApi api() {
+        return doltApi;
+    }
+
+    /**
+     * 开启绑定到当前线程的事务，事务提交或关闭前当前线程访问同一分支的操作都使用同一个连接，访问其他分支会抛出异常
+     *
+     * @return 事务，调用方负责关闭
+     */
+    public DoltTransaction beginTransaction() {
+        return versionControl.getConnectionManager().beginTransaction();
+    }
+
+    /**
+     * 在事务中执行操作，操作正常返回时先执行 {@code DOLT_COMMIT} 再提交，抛出异常时回滚
+     *
+     * @param doltCommitMessage Dolt 提交信息，为 null 时只提交 SQL 事务
+     * @param action            要执行的操作
+     * @param <T>               返回值类型
+     * @return 操作的返回值
+     */
+    public <T> T inTransaction(String doltCommitMessage, Supplier<T> action) {
+        return versionControl.getConnectionManager().inTransaction(doltCommitMessage, action);
+    }
+}
@@ -1,13 +1,20 @@
 package com.hxuanyu.jdolt.core.api;
 
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.fanout.FanOutExecutor;
+import com.hxuanyu.jdolt.fanout.RevisionResult;
+import com.hxuanyu.jdolt.metrics.OperationNames;
+import com.hxuanyu.jdolt.model.BatchResult;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.model.api.BranchInfo;
 import com.hxuanyu.jdolt.model.api.CommitInfo;
 import com.hxuanyu.jdolt.model.api.DoltLogInfo;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 封装Dolt常用的操作api
@@ -41,7 +48,9 @@ public class DoltApi {
 
 
     public List<BranchInfo> branches() {
-        SqlExecuteResult query = versionControl.systemTable().branches().query();
+        // 不查询随工作区变化的 dirty 列，结果可以按引用状态缓存
+        RowSet rowSet = versionControl.systemTable().branches().executeCacheableQuery(HeadValidatedCache.branchesQuery());
+        SqlExecuteResult query = SqlExecuteResult.success("success", rowSet);
         if (query.isNotEmpty() && query.hasColumn("name")) {
             return query.toObjectList(BranchInfo.class);
         }
@@ -75,14 +84,69 @@ public class DoltApi {
     public SqlExecuteResult commonSql(String sql, Object... params) {
         CommonSqlExecutor sqlExecutor = CommonSqlExecutor.getInstance(versionControl.getConnectionManager());
         SqlBuilder.SqlTemplate sqlTemplate = new SqlBuilder.SqlTemplate(sql, List.of(params));
-        List<Map<String, Object>> maps = sqlExecutor.executeQueryAsList(sqlTemplate);
-        if (maps != null && !maps.isEmpty()) {
-            return SqlExecuteResult.success("success", maps);
+        RowSet rowSet;
+        try {
+            rowSet = sqlExecutor.executeQueryAsRowSet(sqlTemplate);
+        } finally {
+            if (OperationNames.of(sql).startsWith("DOLT_")) {
+                // 直接 CALL 的 Dolt 存储过程同样可能移动 HEAD 或引用
+                sqlExecutor.invalidateHeadCache();
+            }
+        }
+        if (rowSet != null && !rowSet.isEmpty()) {
+            return SqlExecuteResult.success("success", rowSet);
         } else {
             return SqlExecuteResult.failed("failed");
         }
     }
 
+    /**
+     * 在多个分支、标签或提交上并发执行同一条查询，结果按完成顺序以流的形式交付，不等待最慢的修订版本。
+     * 并发数取异步执行器的并发上限。
+     *
+     * @param revisions 修订版本
+     * @param sql       查询语句
+     * @param params    查询参数
+     * @return 每个修订版本的结果，调用方应关闭返回的流
+     */
+    public Stream<RevisionResult> fanOut(Collection<String> revisions, String sql, Object... params) {
+        FanOutExecutor executor = FanOutExecutor.getInstance(versionControl.getConnectionManager());
+        return executor.stream(new SqlBuilder.SqlTemplate(sql, List.of(params)), revisions);
+    }
+
+    /**
+     * 在多个修订版本上并发执行同一条查询，结果按完成顺序以流的形式交付
+     *
+     * @param sqlTemplate    查询
+     * @param revisions      修订版本
+     * @param maxConcurrency 同时执行的查询数上限
+     * @return 每个修订版本的结果，调用方应关闭返回的流
+     */
+    public Stream<RevisionResult> fanOut(SqlBuilder.SqlTemplate sqlTemplate, Collection<String> revisions, int maxConcurrency) {
+        return FanOutExecutor.getInstance(versionControl.getConnectionManager()).stream(sqlTemplate, revisions, maxConcurrency);
+    }
+
+    /**
+     * 在多个修订版本上执行同一条查询并合并结果，第一列 {@code revision} 标记每一行的来源
+     *
+     * @param sqlTemplate    查询
+     * @param revisions      修订版本
+     * @param maxConcurrency 同时执行的查询数上限
+     * @return 合并后的结果
+     */
+    public RowSet fanOutMerged(SqlBuilder.SqlTemplate sqlTemplate, Collection<String> revisions, int maxConcurrency) {
+        return FanOutExecutor.getInstance(versionControl.getConnectionManager()).merged(sqlTemplate, revisions, maxConcurrency);
+    }
 
+    /**
+     * 在一个连接、一个事务中批量执行 DML 语句
+     *
+     * @param sqlTemplates 要执行的 SQL 模板
+     * @return 批量执行结果
+     */
+    public BatchResult commonBatch(List<SqlBuilder.SqlTemplate> sqlTemplates) {
+        CommonSqlExecutor sqlExecutor = CommonSqlExecutor.getInstance(versionControl.getConnectionManager());
+        return sqlExecutor.executeBatch(sqlTemplates);
+    }
 
 }
@@ -1,15 +1,25 @@
 package com.hxuanyu.jdolt.core.api;
 
-import com.hxuanyu.jdolt.core.procedure.DoltCheckout;
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ResultCache;
+import com.hxuanyu.jdolt.config.BranchPoolConfig;
+import com.hxuanyu.jdolt.diff.DiffEngine;
 import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.export.TableExporter;
+import com.hxuanyu.jdolt.feed.ChangeFeed;
+import com.hxuanyu.jdolt.graph.CommitGraphIndex;
+import com.hxuanyu.jdolt.graph.RefResolver;
+import com.hxuanyu.jdolt.load.BulkLoader;
 import com.hxuanyu.jdolt.manager.DoltConnectionManager;
-import com.hxuanyu.jdolt.model.SqlExecuteResult;
-import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import com.hxuanyu.jdolt.manager.DoltTransaction;
+import com.hxuanyu.jdolt.manager.ReplicaRouter;
+import com.hxuanyu.jdolt.metrics.DoltMetrics;
 
 
 import javax.sql.DataSource;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Provides a high-level client for interacting with Dolt version control operations.
@@ -18,6 +28,7 @@ import java.util.Map;
 public class DoltClient {
     private final VersionControl versionControl;
     private final DoltApi doltApi;
+    private final Map<String, BranchSession> sessions = new ConcurrentHashMap<>();
 
     private DoltClient(VersionControl versionControl) {
         this.versionControl = versionControl;
@@ -29,6 +40,11 @@ public class DoltClient {
         return new DoltClient(new VersionControl(connectionManager));
     }
 
+    public static DoltClient initialize(DataSource dataSource, BranchPoolConfig branchPoolConfig) {
+        DoltConnectionManager connectionManager = new DoltConnectionManager(dataSource, branchPoolConfig);
+        return new DoltClient(new VersionControl(connectionManager));
+    }
+
     public VersionControl versionControl() {
         return versionControl;
     }
@@ -41,20 +57,169 @@ public class DoltClient {
     }
 
 
+    /**
+     * 获取固定在指定分支上的api，等价于 {@code session(branch).api()}
+     *
+     * @param branch 分支名称
+     * @return 分支api
+     */
     public DoltApi api(String branch) {
+        return session(branch).api();
+    }
+
+    /**
+     * 获取固定在指定分支上的会话，同一分支的会话会被缓存复用
+     *
+     * @param branch 分支名称
+     * @return 分支会话
+     */
+    public BranchSession session(String branch) {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
+        }
+        return sessions.computeIfAbsent(branch, key -> new BranchSession(versionControl.getConnectionManager(), key));
+    }
+
+    /**
+     * 获取本地提交图索引，用于在客户端回答祖先关系、合并基点等查询
+     *
+     * @return 提交图索引
+     */
+    public CommitGraphIndex commitGraph() {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
+        }
+        return CommitGraphIndex.getInstance(versionControl.getConnectionManager());
+    }
+
+    /**
+     * 获取批量引用解析器，在一次查询中解析多个修订版本的提交哈希或多张表的值哈希
+     *
+     * @return 引用解析器
+     */
+    public RefResolver refResolver() {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
+        }
+        return RefResolver.getInstance(versionControl.getConnectionManager());
+    }
+
+    /**
+     * 获取整库 diff 引擎，并发对比两个修订版本之间所有变化的表
+     *
+     * @return diff 引擎
+     */
+    public DiffEngine diffEngine() {
         if (!isInitialized()) {
             throw new DoltException("DoltClient is not initialized");
         }
-        SqlExecuteResult executeResult = versionControl.procedure().doltCheckout().prepare().checkout(branch).execute();
-        if (executeResult.isSuccess()) {
-            return doltApi;
-        } else {
-            throw new DoltException("Dolt checkout failed, branch:" + branch);
+        return DiffEngine.getInstance(versionControl.getConnectionManager());
+    }
+
+    /**
+     * 获取变更订阅，按提交投递订阅分支和表的行级变化
+     *
+     * @return 变更订阅
+     */
+    public ChangeFeed changeFeed() {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
         }
+        return ChangeFeed.getInstance(versionControl.getConnectionManager());
+    }
+
+    /**
+     * 获取批量导入器，流式写入 CSV/JSON Lines 数据并在完成后创建一个 Dolt 提交
+     *
+     * @return 批量导入器
+     */
+    public BulkLoader bulkLoader() {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
+        }
+        return BulkLoader.getInstance(versionControl.getConnectionManager());
+    }
+
+    /**
+     * 获取表导出器，将表在任意修订版本的数据流式导出为 CSV/JSON Lines
+     *
+     * @return 表导出器
+     */
+    public TableExporter tableExporter() {
+        if (!isInitialized()) {
+            throw new DoltException("DoltClient is not initialized");
+        }
+        return TableExporter.getInstance(versionControl.getConnectionManager());
     }
 
     public boolean isInitialized() {
         return versionControl().isInitialized();
     }
 
+    /**
+     * 设置指标采集器，例如 {@link com.hxuanyu.jdolt.metrics.InMemoryDoltMetrics}
+     *
+     * @param metrics 指标采集器，传入 null 时关闭采集
+     */
+    public void setMetrics(DoltMetrics metrics) {
+        versionControl.getConnectionManager().setMetrics(metrics);
+    }
+
+    /**
+     * 设置只读副本路由，设置后表函数、信息函数和系统表的查询从副本读取，
+     * 需要读到最新写入时使用 {@link com.hxuanyu.jdolt.manager.PrimaryContext}
+     *
+     * @param replicaRouter 副本路由，传入 null 时所有查询都使用主库
+     */
+    public void setReplicaRouter(ReplicaRouter replicaRouter) {
+        versionControl.getConnectionManager().setReplicaRouter(replicaRouter);
+    }
+
+    /**
+     * 设置不可变查询结果的缓存，默认使用容量为 {@link ResultCache#DEFAULT_MAX_WEIGHT} 的缓存
+     *
+     * @param resultCache 结果缓存，传入 null 时关闭缓存
+     */
+    public void setResultCache(ResultCache resultCache) {
+        versionControl.getConnectionManager().setResultCache(resultCache);
+    }
+
+    /**
+     * 设置分支读取缓存，dolt_log、dolt_commits 等只由提交图决定的读取按引用状态缓存，
+     * 每次读取前执行一次状态查询验证（信任窗口内省略）。默认关闭
+     *
+     * @param headCache 分支读取缓存，传入 null 时关闭缓存
+     */
+    public void setHeadCache(HeadValidatedCache headCache) {
+        versionControl.getConnectionManager().setHeadCache(headCache);
+    }
+
+    /**
+     * 关闭客户端持有的分支连接池，外部传入的数据源需要由调用方自行关闭
+     */
+    public void close() {
+        sessions.clear();
+        versionControl.getConnectionManager().close();
+    }
+
+    /**
+     * 开启绑定到当前线程的事务，事务提交或关闭前当前线程访问同一分支的操作都使用同一个连接，访问其他分支会抛出异常
+     *
+     * @return 事务，调用方负责关闭
+     */
+    public DoltTransaction beginTransaction() {
+        return versionControl.getConnectionManager().beginTransaction();
+    }
+
+    /**
+     * 在事务中执行操作，操作正常返回时先执行 {@code DOLT_COMMIT} 再提交，抛出异常时回滚
+     *
+     * @param doltCommitMessage Dolt 提交信息，为 null 时只提交 SQL 事务
+     * @param action            要执行的操作
+     * @param <T>               返回值类型
+     * @return 操作的返回值
+     */
+    public <T> T inTransaction(String doltCommitMessage, Supplier<T> action) {
+        return versionControl.getConnectionManager().inTransaction(doltCommitMessage, action);
+    }
 }
@@ -3,12 +3,14 @@ package com.hxuanyu.jdolt.core.systemtable;
 import com.hxuanyu.jdolt.annotation.MethodInvokeRequired;
 import com.hxuanyu.jdolt.annotation.MethodMutexGroup;
 import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.Keyset;
 import com.hxuanyu.jdolt.model.WhereCondition;
 import com.hxuanyu.jdolt.repository.DoltRepository;
 import com.hxuanyu.jdolt.util.builder.AbstractParamBuilder;
 import com.hxuanyu.jdolt.util.builder.AbstractSystemTableParamBuilder;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -118,6 +120,46 @@ public class DoltSystemTableWithSuffix extends DoltRepository implements com.hxu
 
 
 
+        /**
+         * 读取系统表在指定修订版本的数据（{@code AS OF}），不需要切换分支
+         *
+         * @param revision 分支、标签、提交哈希或提交表达式
+         * @return Params实例
+         */
+        @MethodMutexGroup({"asOf", "asOfTimestamp"})
+        public Params asOf(String revision) {
+            validator.checkAndMark("asOf");
+            addParam(ParamType.AS_OF, revision);
+            return this;
+        }
+
+        /**
+         * 读取系统表在指定时间点的数据（{@code AS OF TIMESTAMP}）
+         *
+         * @param timestamp 时间点
+         * @return Params实例
+         */
+        @MethodMutexGroup({"asOfTimestamp", "asOf"})
+        public Params asOfTimestamp(LocalDateTime timestamp) {
+            validator.checkAndMark("asOfTimestamp");
+            addParam(ParamType.AS_OF_TIMESTAMP, timestamp);
+            return this;
+        }
+
+        /**
+         * 通过修订版本数据库 {@code `db/revision`} 读取系统表，不需要切换分支
+         *
+         * @param database 数据库名
+         * @param revision 分支、标签或提交哈希
+         * @return Params实例
+         */
+        @MethodMutexGroup({"fromRevisionDatabase"})
+        public Params fromRevisionDatabase(String database, String revision) {
+            validator.checkAndMark("fromRevisionDatabase");
+            addParam(ParamType.REVISION_DATABASE, database);
+            addParam(ParamType.REVISION_DATABASE, revision);
+            return this;
+        }
     }
 
     @Override
@@ -141,6 +183,20 @@ public class DoltSystemTableWithSuffix extends DoltRepository implements com.hxu
             }
         }
 
+        // 处理修订版本
+        List<Object> revisionDatabase = params.get(AbstractParamBuilder.ParamType.REVISION_DATABASE);
+        if (revisionDatabase != null && revisionDatabase.size() == 2) {
+            builder.fromRevisionDatabase(revisionDatabase.get(0).toString(), revisionDatabase.get(1).toString());
+        }
+        List<Object> asOf = params.get(AbstractParamBuilder.ParamType.AS_OF);
+        if (asOf != null && !asOf.isEmpty()) {
+            builder.asOf(asOf.get(0).toString());
+        }
+        List<Object> asOfTimestamp = params.get(AbstractParamBuilder.ParamType.AS_OF_TIMESTAMP);
+        if (asOfTimestamp != null && !asOfTimestamp.isEmpty()) {
+            builder.asOfTimestamp((LocalDateTime) asOfTimestamp.get(0));
+        }
+
         // 处理WHERE条件
         List<Object> whereConditions = params.get(AbstractParamBuilder.ParamType.WHERE_CONDITION);
         if (whereConditions != null) {
@@ -160,6 +216,22 @@ public class DoltSystemTableWithSuffix extends DoltRepository implements com.hxu
             builder.orderBy(columns);
         }
 
+        // 处理keyset分页，排序和行数由分页条件决定
+        List<Object> keysets = params.get(AbstractParamBuilder.ParamType.KEYSET);
+        if (keysets != null && !keysets.isEmpty()) {
+            Keyset keyset = (Keyset) keysets.get(0);
+            String[] columns = keyset.columns().toArray(new String[0]);
+            if (keyset.descending()) {
+                builder.orderByDesc(columns);
+            } else {
+                builder.orderBy(columns);
+            }
+            if (!keyset.isFirstPage()) {
+                builder.seekAfter(keyset.columns(), keyset.after());
+            }
+            builder.limit(keyset.pageSize());
+        }
+
         // 处理LIMIT子句
         List<Object> limits = params.get(AbstractParamBuilder.ParamType.LIMIT);
         if (limits != null && !limits.isEmpty()) {
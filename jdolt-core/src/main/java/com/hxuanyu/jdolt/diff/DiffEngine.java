@@ -0,0 +1,142 @@
+package com.hxuanyu.jdolt.diff;
+
+import com.hxuanyu.jdolt.core.function.table.DoltDiff;
+import com.hxuanyu.jdolt.core.function.table.DoltDiffSummary;
+import com.hxuanyu.jdolt.manager.BranchContext;
+import com.hxuanyu.jdolt.manager.BoundedCompletionStream;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 整库 diff 引擎：先用 {@code DOLT_DIFF_SUMMARY(from, to)} 取得有数据变化的表，
+ * 再在连接管理器的异步执行器上并发执行每张表的 {@code DOLT_DIFF(from, to, table)}。
+ * <p>
+ * 所有表的结果合并为一个流，按表完成的先后交付，同一张表的行保持 dolt_diff 返回的顺序。
+ * 并发数有上限（默认取异步执行器的并发上限），整库 diff 的耗时接近最慢的一张表，而不是所有表的总和。
+ * 两个修订版本都是完整提交哈希时，每张表的结果还会进入不可变结果缓存。
+ *
+ * <pre>
+ * try (Stream&lt;TableDiff&gt; diffs = DiffEngine.getInstance(connectionManager).diff("main", "feature")) {
+ *     diffs.forEach(diff -&gt; handle(diff.tableName(), diff.rows()));
+ * }
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class DiffEngine extends DoltRepository {
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, DiffEngine> INSTANCES = new ConcurrentHashMap<>();
+
+    private DiffEngine(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static DiffEngine getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new DiffEngine(connectionManager));
+    }
+
+    /**
+     * 查询两个修订版本之间发生变化的表
+     *
+     * @param fromRevision 起始修订版本
+     * @param toRevision   目标修订版本
+     * @return 变化的表，顺序与 dolt_diff_summary 一致
+     */
+    public List<TableChange> changedTables(String fromRevision, String toRevision) {
+        RowSet rowSet = executeCacheableQuery(DoltDiffSummary.getInstance(getConnectionManager()).buildSqlTemplate(fromRevision, toRevision));
+        List<TableChange> changes = new ArrayList<>(rowSet.size());
+        for (int i = 0; i < rowSet.size(); i++) {
+            changes.add(TableChange.from(rowSet.getRow(i)));
+        }
+        return changes;
+    }
+
+    /**
+     * 使用默认并发数对比两个修订版本的所有表
+     *
+     * @param fromRevision 起始修订版本
+     * @param toRevision   目标修订版本
+     * @return 每张表的差异，按完成顺序交付，调用方应关闭返回的流
+     * @see #diff(String, String, int)
+     */
+    public Stream<TableDiff> diff(String fromRevision, String toRevision) {
+        return diff(fromRevision, toRevision, defaultConcurrency());
+    }
+
+    /**
+     * 对比两个修订版本的所有表，只查询有数据变化的表，只有结构变化的表不会出现在结果中。
+     * 任意一张表查询失败时，流在交付到该表时抛出 {@link com.hxuanyu.jdolt.exception.DoltException}，
+     * 尚未开始的表不再查询。
+     *
+     * @param fromRevision   起始修订版本
+     * @param toRevision     目标修订版本
+     * @param maxConcurrency 同时执行的 dolt_diff 查询数上限
+     * @return 每张表的差异，按完成顺序交付，调用方应关闭返回的流
+     */
+    public Stream<TableDiff> diff(String fromRevision, String toRevision, int maxConcurrency) {
+        List<TableChange> tables = changedTables(fromRevision, toRevision).stream()
+                .filter(TableChange::dataChange)
+                .collect(Collectors.toList());
+        return diff(fromRevision, toRevision, tables, maxConcurrency);
+    }
+
+    /**
+     * 对比两个修订版本中指定的表，表一般来自 {@link #changedTables(String, String)} 的筛选结果
+     *
+     * @param fromRevision   起始修订版本
+     * @param toRevision     目标修订版本
+     * @param tables         要对比的表
+     * @param maxConcurrency 同时执行的 dolt_diff 查询数上限
+     * @return 每张表的差异，按完成顺序交付，调用方应关闭返回的流
+     */
+    public Stream<TableDiff> diff(String fromRevision, String toRevision, List<TableChange> tables, int maxConcurrency) {
+        DoltDiff doltDiff = DoltDiff.getInstance(getConnectionManager());
+        Function<TableChange, TableDiff> loader = change -> {
+            long start = System.currentTimeMillis();
+            RowSet rows = executeCacheableQuery(doltDiff.buildSqlTemplate(fromRevision, toRevision, change.tableName()));
+            return new TableDiff(change, rows, System.currentTimeMillis() - start);
+        };
+        // 调用线程的分支上下文传递到执行查询的线程
+        String branch = BranchContext.current();
+        if (branch != null) {
+            Function<TableChange, TableDiff> unbound = loader;
+            loader = change -> BranchContext.call(branch, () -> unbound.apply(change));
+        }
+        return new BoundedCompletionStream<>(tables, loader, getConnectionManager().getAsyncExecutor(), maxConcurrency,
+                "dolt diff", change -> "table: " + change.tableName()).stream();
+    }
+
+    /**
+     * 对比两个修订版本的所有表并等待全部完成
+     *
+     * @param fromRevision 起始修订版本
+     * @param toRevision   目标修订版本
+     * @return 表名到差异的映射，按完成顺序排列
+     */
+    public Map<String, TableDiff> diffAll(String fromRevision, String toRevision) {
+        try (Stream<TableDiff> diffs = diff(fromRevision, toRevision)) {
+            return diffs.collect(Collectors.toMap(TableDiff::tableName, diff -> diff, (a, b) -> b, LinkedHashMap::new));
+        }
+    }
+
+    /**
+     * 默认的并发数，取异步执行器的并发上限
+     *
+     * @return 并发数
+     */
+    public int defaultConcurrency() {
+        return DoltAsyncExecutor.concurrencyOf(getConnectionManager().getAsyncExecutor());
+    }
+}
@@ -0,0 +1,49 @@
+package com.hxuanyu.jdolt.diff;
+
+import java.util.Map;
+
+/**
+ * {@code DOLT_DIFF_SUMMARY} 返回的一张表的变化
+ *
+ * @param fromTableName 起始修订版本中的表名，新建的表为空
+ * @param toTableName   目标修订版本中的表名，删除的表为空
+ * @param diffType      变化类型：added、dropped、modified、renamed
+ * @param dataChange    数据是否变化
+ * @param schemaChange  表结构是否变化
+ */
+public record TableChange(String fromTableName, String toTableName, String diffType, boolean dataChange, boolean schemaChange) {
+
+    /**
+     * 从 dolt_diff_summary 的一行创建
+     *
+     * @param row 结果行
+     * @return 表的变化
+     */
+    public static TableChange from(Map<String, Object> row) {
+        return new TableChange(
+                (String) row.get("from_table_name"),
+                (String) row.get("to_table_name"),
+                (String) row.get("diff_type"),
+                isTrue(row.get("data_change")),
+                isTrue(row.get("schema_change")));
+    }
+
+    /**
+     * 传给 dolt_diff 的表名，删除的表使用原表名，其余使用目标表名
+     *
+     * @return 表名
+     */
+    public String tableName() {
+        return toTableName == null || toTableName.isEmpty() ? fromTableName : toTableName;
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.intValue() != 0;
+        }
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.hxuanyu.jdolt.diff;
+
+import com.hxuanyu.jdolt.model.RowSet;
+
+/**
+ * 一张表在两个修订版本之间的行级差异，行的顺序与 {@code dolt_diff} 返回的顺序一致
+ *
+ * @param change 表的变化
+ * @param rows   dolt_diff 的结果
+ * @param costMs 查询耗时（毫秒）
+ */
+public record TableDiff(TableChange change, RowSet rows, long costMs) {
+
+    public String tableName() {
+        return change.tableName();
+    }
+}
@@ -0,0 +1,74 @@
+package com.hxuanyu.jdolt.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * RFC 4180 风格的 CSV 输出：包含分隔符、引号或换行的字段加引号，引号写成 {@code ""}；
+ * NULL 输出为不加引号的空字段，空字符串输出为 {@code ""}，两者在导入时可以区分。
+ * 二进制值输出为十六进制文本。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class CsvRecordWriter implements RecordWriter {
+    private final Writer writer;
+    private final char delimiter;
+
+    CsvRecordWriter(Writer writer, char delimiter) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        write(columns.toArray());
+    }
+
+    @Override
+    public void write(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Boolean bool) {
+                // MySQL 布尔列实际为 TINYINT，输出为 1/0 才能原样导入
+                writer.write(bool ? '1' : '0');
+                continue;
+            }
+            writeField(RecordWriter.text(value));
+        }
+        writer.write('\n');
+    }
+
+    private void writeField(String field) throws IOException {
+        if (!field.isEmpty() && !needsQuotes(field)) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
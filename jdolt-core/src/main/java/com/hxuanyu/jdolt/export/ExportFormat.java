@@ -0,0 +1,18 @@
+package com.hxuanyu.jdolt.export;
+
+/**
+ * 表导出的输出格式
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public enum ExportFormat {
+    /**
+     * 逗号分隔值，NULL 输出为不加引号的空字段，与 {@link com.hxuanyu.jdolt.load.LoadFormat#CSV} 的读取规则对应
+     */
+    CSV,
+    /**
+     * 每行一个 JSON 对象
+     */
+    JSONL
+}
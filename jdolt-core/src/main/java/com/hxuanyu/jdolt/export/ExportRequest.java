@@ -0,0 +1,270 @@
+package com.hxuanyu.jdolt.export;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 表导出请求：导出的表和修订版本、输出位置和格式，以及可选的按主键范围并行导出。
+ *
+ * <pre>
+ * ExportRequest request = ExportRequest.newBuilder("products")
+ *         .revision("v1.2.0")
+ *         .file(Path.of("products.csv"), ExportFormat.CSV)
+ *         .parallel(4)
+ *         .build();
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ExportRequest {
+
+    private final String table;
+    private final String revision;
+    private final List<String> columns;
+    private final Path file;
+    private final OutputStream outputStream;
+    private final ExportFormat format;
+    private final Charset charset;
+    private final boolean header;
+    private final char delimiter;
+    private final int parallelism;
+    private final String keyColumn;
+
+    private ExportRequest(Builder builder) {
+        this.table = builder.table;
+        this.revision = builder.revision;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(builder.columns));
+        this.file = builder.file;
+        this.outputStream = builder.outputStream;
+        this.format = builder.format;
+        this.charset = builder.charset;
+        this.header = builder.header;
+        this.delimiter = builder.delimiter;
+        this.parallelism = builder.parallelism;
+        this.keyColumn = builder.keyColumn;
+    }
+
+    /**
+     * @param table 导出的表
+     * @return the Builder instance
+     */
+    public static Builder newBuilder(String table) {
+        return new Builder(table);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * 导出的修订版本（分支、标签、提交哈希或 {@code HEAD~1} 之类的表达式），为 null 时导出当前工作集
+     */
+    public String getRevision() {
+        return revision;
+    }
+
+    /**
+     * 导出的列，为空时导出所有列
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 并行导出时用于划分范围的列，为 null 时使用主键的第一列
+     */
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * Builder class for ExportRequest.
+     */
+    public static class Builder {
+        private final String table;
+        private String revision;
+        private final List<String> columns = new ArrayList<>();
+        private Path file;
+        private OutputStream outputStream;
+        private ExportFormat format = ExportFormat.CSV;
+        private Charset charset = StandardCharsets.UTF_8;
+        private boolean header = true;
+        private char delimiter = ',';
+        private int parallelism = 1;
+        private String keyColumn;
+
+        private Builder(String table) {
+            if (table == null || table.isBlank()) {
+                throw new IllegalArgumentException("table must not be empty");
+            }
+            this.table = table;
+        }
+
+        /**
+         * 导出指定修订版本的数据（{@code AS OF}）
+         *
+         * @param revision 分支、标签、提交哈希或提交表达式
+         * @return the Builder instance
+         */
+        public Builder revision(String revision) {
+            this.revision = revision;
+            return this;
+        }
+
+        /**
+         * 只导出指定的列
+         *
+         * @param columns 列名
+         * @return the Builder instance
+         */
+        public Builder columns(String... columns) {
+            this.columns.clear();
+            Collections.addAll(this.columns, columns);
+            return this;
+        }
+
+        /**
+         * 导出到文件，文件已存在时覆盖
+         *
+         * @param file   文件路径
+         * @param format 格式
+         * @return the Builder instance
+         */
+        public Builder file(Path file, ExportFormat format) {
+            if (file == null || format == null) {
+                throw new IllegalArgumentException("file and format must not be null");
+            }
+            this.file = file;
+            this.outputStream = null;
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * 导出到输出流，导出完成后刷新但不关闭
+         *
+         * @param outputStream 输出流
+         * @param format       格式
+         * @return the Builder instance
+         */
+        public Builder outputStream(OutputStream outputStream, ExportFormat format) {
+            if (outputStream == null || format == null) {
+                throw new IllegalArgumentException("outputStream and format must not be null");
+            }
+            this.outputStream = outputStream;
+            this.file = null;
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * 输出的字符集，默认 UTF-8
+         *
+         * @param charset 字符集
+         * @return the Builder instance
+         */
+        public Builder charset(Charset charset) {
+            if (charset == null) {
+                throw new IllegalArgumentException("charset must not be null");
+            }
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * CSV 是否输出表头，默认输出
+         *
+         * @param header 是否输出表头
+         * @return the Builder instance
+         */
+        public Builder header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * CSV 字段分隔符，默认逗号
+         *
+         * @param delimiter 分隔符
+         * @return the Builder instance
+         */
+        public Builder delimiter(char delimiter) {
+            if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+                throw new IllegalArgumentException("invalid delimiter: " + delimiter);
+            }
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * 按主键第一列的范围拆分为多个查询并行导出，每个范围先写入临时文件，全部完成后按范围顺序拼接到输出
+         *
+         * @param parallelism 范围数，1 表示单个流式查询
+         * @return the Builder instance
+         */
+        public Builder parallel(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be greater than 0");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 按指定列的范围拆分并行导出，列上应有索引，否则每个范围都需要全表扫描
+         *
+         * @param parallelism 范围数
+         * @param keyColumn   划分范围的列
+         * @return the Builder instance
+         */
+        public Builder parallel(int parallelism, String keyColumn) {
+            parallel(parallelism);
+            if (keyColumn == null || keyColumn.isBlank()) {
+                throw new IllegalArgumentException("keyColumn must not be empty");
+            }
+            this.keyColumn = keyColumn;
+            return this;
+        }
+
+        public ExportRequest build() {
+            if (file == null && outputStream == null) {
+                throw new IllegalStateException("file or outputStream must be set");
+            }
+            return new ExportRequest(this);
+        }
+    }
+}
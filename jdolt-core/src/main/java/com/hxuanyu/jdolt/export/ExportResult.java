@@ -0,0 +1,11 @@
+package com.hxuanyu.jdolt.export;
+
+/**
+ * 表导出结果
+ *
+ * @param rows      导出的行数
+ * @param parts     执行的范围查询数，单个流式查询时为 1
+ * @param elapsedMs 总耗时（毫秒）
+ */
+public record ExportResult(long rows, int parts, long elapsedMs) {
+}
@@ -0,0 +1,91 @@
+package com.hxuanyu.jdolt.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * JSON Lines 输出，每行一个以列名为键的对象。
+ * 数字和布尔值输出为 JSON 原生类型，无法用 JSON 数字表示的浮点数（NaN、无穷大）和其它类型输出为字符串，
+ * 二进制值输出为 Base64 字符串。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class JsonLinesRecordWriter implements RecordWriter {
+    private final Writer writer;
+    private final String[] keys;
+
+    JsonLinesRecordWriter(Writer writer, List<String> columns) {
+        this.writer = writer;
+        // 键名在每行中重复出现，预先转义
+        this.keys = new String[columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder key = new StringBuilder();
+            appendString(key, columns.get(i));
+            keys[i] = key.append(':').toString();
+        }
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) {
+        // JSON Lines 没有表头
+    }
+
+    @Override
+    public void write(Object[] values) throws IOException {
+        StringBuilder line = new StringBuilder(64 * values.length);
+        line.append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(keys[i]);
+            appendValue(line, values[i]);
+        }
+        line.append("}\n");
+        writer.write(line.toString());
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Boolean) {
+            line.append(value);
+        } else if (value instanceof Double d && (d.isNaN() || d.isInfinite())
+                || value instanceof Float f && (f.isNaN() || f.isInfinite())) {
+            appendString(line, value.toString());
+        } else if (value instanceof Number) {
+            line.append(RecordWriter.text(value));
+        } else if (value instanceof byte[] bytes) {
+            appendString(line, Base64.getEncoder().encodeToString(bytes));
+        } else {
+            appendString(line, RecordWriter.text(value));
+        }
+    }
+
+    static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                case '\b' -> line.append("\\b");
+                case '\f' -> line.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,58 @@
+package com.hxuanyu.jdolt.export;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 并行导出的一个键范围 {@code [lower, upper)}，第一个范围没有下界，最后一个范围没有上界，
+ * 相邻范围首尾相接，所有范围合起来覆盖整张表且互不重叠，键为 NULL 的行归入第一个范围。
+ *
+ * @param lower 下界（包含），为 null 表示没有下界
+ * @param upper 上界（不包含），为 null 表示没有上界
+ */
+record KeyRange(Object lower, Object upper) {
+
+    /**
+     * 按边界值生成首尾相接的范围，重复的边界被合并
+     *
+     * @param boundaries 升序排列的边界值
+     * @return 范围列表，至少包含一个范围
+     */
+    static List<KeyRange> of(List<?> boundaries) {
+        List<KeyRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        Object lower = null;
+        for (Object boundary : boundaries) {
+            if (boundary == null || boundary.equals(lower)) {
+                continue;
+            }
+            ranges.add(new KeyRange(lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(new KeyRange(lower, null));
+        return ranges;
+    }
+
+    /**
+     * 在整数键的最小值和最大值之间均匀取 parts - 1 个边界
+     *
+     * @param min   最小值
+     * @param max   最大值
+     * @param parts 范围数
+     * @return 边界值，数量不超过 parts - 1
+     */
+    static List<Long> evenBoundaries(long min, long max, int parts) {
+        List<Long> boundaries = new ArrayList<>(parts - 1);
+        // 键的个数为 max - min + 1，使用 BigInteger 避免溢出
+        BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        for (int i = 1; i < parts; i++) {
+            long boundary = BigInteger.valueOf(min)
+                    .add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(parts)))
+                    .longValueExact();
+            if (boundary > min && (boundaries.isEmpty() || boundary > boundaries.get(boundaries.size() - 1))) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hxuanyu.jdolt.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 逐行输出导出记录，不持有输出流，由调用方负责刷新和关闭
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+interface RecordWriter {
+
+    /**
+     * 输出表头，只在整个导出的开头调用一次；格式没有表头时不输出
+     *
+     * @param columns 列名
+     */
+    void writeHeader(List<String> columns) throws IOException;
+
+    /**
+     * 输出一行
+     *
+     * @param values 列值，顺序与表头一致
+     */
+    void write(Object[] values) throws IOException;
+
+    static RecordWriter of(ExportFormat format, Writer writer, List<String> columns, char delimiter) {
+        if (format == ExportFormat.JSONL) {
+            return new JsonLinesRecordWriter(writer, columns);
+        }
+        return new CsvRecordWriter(writer, delimiter);
+    }
+
+    /**
+     * 非 JSON 原生类型的文本形式，日期时间使用 MySQL 接受的空格分隔格式
+     */
+    static String text(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toString().replace('T', ' ');
+        }
+        if (value instanceof byte[] bytes) {
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+        if (value instanceof java.math.BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
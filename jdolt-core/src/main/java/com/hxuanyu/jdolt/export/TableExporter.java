@@ -0,0 +1,328 @@
+package com.hxuanyu.jdolt.export;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.BranchContext;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.repository.DoltCursor;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 将表在任意修订版本（{@code AS OF}）的数据流式导出为 CSV 或 JSON Lines。
+ * <p>
+ * 默认使用一个流式游标逐行读取并直接写入输出，内存占用与表的大小无关。
+ * 开启并行导出后，按主键第一列把表划分为多个范围，每个范围是一条独立的流式查询，
+ * 在异步执行器上并发写入各自的临时文件，全部完成后按范围顺序通过 {@link FileChannel#transferTo} 拼接到输出，
+ * 输出的行顺序与主键顺序一致。
+ * <p>
+ * 指定了修订版本时，所有查询读取的都是同一个不可变的提交，并行的范围之间不存在一致性问题；
+ * 导出工作集（不指定修订版本）时，各个范围可能看到不同时刻的数据。
+ *
+ * <pre>
+ * TableExporter.getInstance(connectionManager).export(ExportRequest.newBuilder("products")
+ *         .revision("v1.2.0")
+ *         .file(Path.of("products.jsonl"), ExportFormat.JSONL)
+ *         .build());
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class TableExporter extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(TableExporter.class);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, TableExporter> INSTANCES = new ConcurrentHashMap<>();
+
+    private TableExporter(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static TableExporter getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new TableExporter(connectionManager));
+    }
+
+    /**
+     * 执行导出
+     *
+     * @param request 导出请求
+     * @return 导出结果
+     */
+    public ExportResult export(ExportRequest request) {
+        long start = System.currentTimeMillis();
+        ExportResult result;
+        try (Sink sink = Sink.open(request)) {
+            if (request.getParallelism() == 1) {
+                result = new ExportResult(exportSerial(request, sink.writer), 1, 0);
+            } else {
+                String keyColumn = request.getKeyColumn() != null ? request.getKeyColumn() : primaryKeyColumn(request.getTable());
+                List<KeyRange> ranges = ranges(request, keyColumn);
+                result = new ExportResult(exportParallel(request, keyColumn, ranges, sink), ranges.size(), 0);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            DoltException doltException = new DoltException("export " + request.getTable() + " write error", e);
+            logger.error("export {} write error", request.getTable(), doltException);
+            throw doltException;
+        }
+        long cost = System.currentTimeMillis() - start;
+        logger.info("export {} as of {} finish, rows: {}, parts: {}, cost: {}ms",
+                request.getTable(), request.getRevision(), result.rows(), result.parts(), cost);
+        return new ExportResult(result.rows(), result.parts(), cost);
+    }
+
+    private long exportSerial(ExportRequest request, Writer writer) throws IOException {
+        try (DoltCursor cursor = executeQueryAsCursor(exportQuery(request, null, null))) {
+            List<String> columns = Arrays.asList(cursor.getColumnNames());
+            RecordWriter records = RecordWriter.of(request.getFormat(), writer, columns, request.getDelimiter());
+            if (request.isHeader()) {
+                records.writeHeader(columns);
+            }
+            while (cursor.hasNext()) {
+                records.write(cursor.nextValues());
+            }
+            writer.flush();
+            return cursor.getRowCount();
+        }
+    }
+
+    private long exportParallel(ExportRequest request, String keyColumn, List<KeyRange> ranges, Sink sink) throws IOException {
+        Path directory = request.getFile() != null ? request.getFile().toAbsolutePath().getParent() : null;
+        List<Path> partFiles = new ArrayList<>(ranges.size());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                partFiles.add(directory != null
+                        ? Files.createTempFile(directory, ".export-", ".part")
+                        : Files.createTempFile("jdolt-export-", ".part"));
+            }
+            Executor executor = getConnectionManager().getAsyncExecutor();
+            String branch = BranchContext.current();
+            List<CompletableFuture<Part>> futures = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                KeyRange range = ranges.get(i);
+                Path partFile = partFiles.get(i);
+                Supplier<Part> task = () -> exportPart(request, keyColumn, range, partFile, cancelled);
+                // 调用线程的分支上下文传递到执行查询的线程
+                Supplier<Part> bound = branch != null ? () -> BranchContext.call(branch, task) : task;
+                futures.add(DoltAsyncExecutor.supplyAsync(bound, executor));
+            }
+
+            List<Part> parts = new ArrayList<>(futures.size());
+            for (CompletableFuture<Part> future : futures) {
+                try {
+                    parts.add(future.join());
+                } catch (CompletionException e) {
+                    cancelled.set(true);
+                    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(ignored -> null).join();
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new DoltException("export " + request.getTable() + " failed", cause);
+                }
+            }
+
+            if (request.isHeader()) {
+                RecordWriter.of(request.getFormat(), sink.writer, parts.get(0).columns(), request.getDelimiter())
+                        .writeHeader(parts.get(0).columns());
+            }
+            sink.writer.flush();
+            long rows = 0;
+            for (int i = 0; i < parts.size(); i++) {
+                rows += parts.get(i).rows();
+                try (FileChannel part = FileChannel.open(partFiles.get(i), StandardOpenOption.READ)) {
+                    long size = part.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += part.transferTo(position, size - position, sink.channel);
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            for (Path partFile : partFiles) {
+                Files.deleteIfExists(partFile);
+            }
+        }
+    }
+
+    /**
+     * 导出一个范围到临时文件
+     */
+    private Part exportPart(ExportRequest request, String keyColumn, KeyRange range, Path partFile, AtomicBoolean cancelled) {
+        try (DoltCursor cursor = executeQueryAsCursor(exportQuery(request, keyColumn, range));
+             Writer writer = Channels.newWriter(FileChannel.open(partFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                     request.getCharset().newEncoder(), BUFFER_SIZE)) {
+            List<String> columns = Arrays.asList(cursor.getColumnNames());
+            RecordWriter records = RecordWriter.of(request.getFormat(), writer, columns, request.getDelimiter());
+            while (cursor.hasNext() && !cancelled.get()) {
+                records.write(cursor.nextValues());
+            }
+            return new Part(columns, cursor.getRowCount());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Part(List<String> columns, long rows) {
+    }
+
+    /**
+     * 划分并行导出的键范围：整数键按最小值和最大值均匀划分，其它类型按行数分位点划分
+     */
+    private List<KeyRange> ranges(ExportRequest request, String keyColumn) {
+        String key = quote(keyColumn);
+        RowSet bounds = executeQueryAsRowSet(query("SELECT MIN(" + key + ") AS min_key, MAX(" + key + ") AS max_key, COUNT(*) AS row_count FROM ", request, ""));
+        Object min = bounds.get(0, "min_key");
+        Object max = bounds.get(0, "max_key");
+        if (min == null || max == null) {
+            return KeyRange.of(List.of());
+        }
+        int parts = request.getParallelism();
+        if (isIntegral(min) && isIntegral(max)) {
+            return KeyRange.of(KeyRange.evenBoundaries(((Number) min).longValue(), ((Number) max).longValue(), parts));
+        }
+        long count = ((Number) bounds.get(0, "row_count")).longValue();
+        List<Object> boundaries = new ArrayList<>(parts - 1);
+        for (int i = 1; i < parts; i++) {
+            long offset = count * i / parts;
+            SqlBuilder.SqlTemplate template = query("SELECT " + key + " FROM ", request, " ORDER BY " + key + " LIMIT 1 OFFSET ?");
+            List<Object> params = new ArrayList<>(template.parameters());
+            params.add(offset);
+            RowSet boundary = executeQueryAsRowSet(new SqlBuilder.SqlTemplate(template.sql(), params));
+            if (!boundary.isEmpty()) {
+                boundaries.add(boundary.get(0, 0));
+            }
+        }
+        return KeyRange.of(boundaries);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger bigInteger && bigInteger.bitLength() < Long.SIZE;
+    }
+
+    /**
+     * 当前工作集中表的第一个主键列
+     */
+    private String primaryKeyColumn(String table) {
+        RowSet rowSet = executeQueryAsRowSet(new SqlBuilder.SqlTemplate(
+                "SELECT column_name FROM information_schema.key_column_usage"
+                        + " WHERE table_schema = DATABASE() AND table_name = ? AND constraint_name = 'PRIMARY'"
+                        + " ORDER BY ordinal_position LIMIT 1",
+                List.of(table)));
+        if (rowSet.isEmpty()) {
+            throw new DoltException("table " + table + " has no primary key, specify a key column for parallel export");
+        }
+        return String.valueOf(rowSet.get(0, 0));
+    }
+
+    /**
+     * 生成导出查询。range 不为 null 时只查询范围内的行并按键排序
+     */
+    static SqlBuilder.SqlTemplate exportQuery(ExportRequest request, String keyColumn, KeyRange range) {
+        String select = request.getColumns().isEmpty() ? "*" : String.join(", ", request.getColumns().stream().map(TableExporter::quote).toList());
+        if (range == null) {
+            return query("SELECT " + select + " FROM ", request, "");
+        }
+        String key = quote(keyColumn);
+        List<String> conditions = new ArrayList<>(2);
+        List<Object> rangeParams = new ArrayList<>(2);
+        if (range.lower() != null) {
+            conditions.add(key + " >= ?");
+            rangeParams.add(range.lower());
+        }
+        if (range.upper() != null) {
+            // 键为 NULL 的行不落在任何范围内，归入没有下界的第一个范围，NULL 排序在最前面
+            conditions.add(range.lower() == null ? "(" + key + " < ? OR " + key + " IS NULL)" : key + " < ?");
+            rangeParams.add(range.upper());
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        SqlBuilder.SqlTemplate template = query("SELECT " + select + " FROM ", request, where + " ORDER BY " + key);
+        List<Object> params = new ArrayList<>(template.parameters());
+        params.addAll(rangeParams);
+        return new SqlBuilder.SqlTemplate(template.sql(), params);
+    }
+
+    /**
+     * 拼接 {@code prefix table [AS OF ?] suffix}，修订版本作为第一个参数
+     */
+    private static SqlBuilder.SqlTemplate query(String prefix, ExportRequest request, String suffix) {
+        StringBuilder sql = new StringBuilder(prefix).append(quote(request.getTable()));
+        List<Object> params = new ArrayList<>(1);
+        if (request.getRevision() != null) {
+            sql.append(" AS OF ?");
+            params.add(request.getRevision());
+        }
+        return new SqlBuilder.SqlTemplate(sql.append(suffix).toString(), params);
+    }
+
+    static String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    /**
+     * 导出目标：文件通过 {@link FileChannel} 写入，输出流只刷新不关闭
+     */
+    private static final class Sink implements AutoCloseable {
+        private final Writer writer;
+        private final WritableByteChannel channel;
+        private final OutputStream outputStream;
+
+        private Sink(Writer writer, WritableByteChannel channel, OutputStream outputStream) {
+            this.writer = writer;
+            this.channel = channel;
+            this.outputStream = outputStream;
+        }
+
+        static Sink open(ExportRequest request) throws IOException {
+            if (request.getFile() != null) {
+                FileChannel channel = FileChannel.open(request.getFile(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                return new Sink(Channels.newWriter(channel, request.getCharset().newEncoder(), BUFFER_SIZE), channel, null);
+            }
+            OutputStream outputStream = request.getOutputStream();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, request.getCharset()), BUFFER_SIZE);
+            return new Sink(writer, Channels.newChannel(outputStream), outputStream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (outputStream == null) {
+                writer.close();
+            } else {
+                writer.flush();
+                outputStream.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.hxuanyu.jdolt.fanout;
+
+import com.hxuanyu.jdolt.core.api.CommonSqlExecutor;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.BoundedCompletionStream;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import com.hxuanyu.jdolt.util.validator.BranchNameValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 跨修订版本的扇出查询：同一条 SELECT 在多个分支、标签或提交上并发执行，结果按完成顺序以流的形式交付。
+ * <p>
+ * 分支和标签通过 {@link DoltConnectionManager#forBranch(String)} 的分支连接池执行，连接已经固定在
+ * {@code `db/revision`} 上，查询本身不需要修改；提交哈希不能作为分支池的名称，执行时在借出的连接上临时
+ * {@code USE `db/hash`}，查询结束后切回原数据库。
+ *
+ * <pre>
+ * try (Stream&lt;RevisionResult&gt; results = FanOutExecutor.getInstance(connectionManager)
+ *         .stream(sqlTemplate, List.of("release-1.0", "release-1.1", "release-2.0"), 4)) {
+ *     results.forEach(result -&gt; report(result.revision(), result.rows()));
+ * }
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class FanOutExecutor extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(FanOutExecutor.class);
+
+    /**
+     * 合并结果中标记来源修订版本的列
+     */
+    public static final String REVISION_COLUMN = "revision";
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, FanOutExecutor> INSTANCES = new ConcurrentHashMap<>();
+
+    private FanOutExecutor(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static FanOutExecutor getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new FanOutExecutor(connectionManager));
+    }
+
+    /**
+     * 使用默认并发数在每个修订版本上执行查询
+     *
+     * @param sqlTemplate 查询
+     * @param revisions   分支、标签或提交哈希
+     * @return 每个修订版本的结果，按完成顺序交付，调用方应关闭返回的流
+     */
+    public Stream<RevisionResult> stream(SqlBuilder.SqlTemplate sqlTemplate, Collection<String> revisions) {
+        return stream(sqlTemplate, revisions, defaultConcurrency());
+    }
+
+    /**
+     * 在每个修订版本上执行查询。任意一个修订版本查询失败时，流在交付到该修订版本时抛出
+     * {@link DoltException}，尚未开始的修订版本不再查询。
+     *
+     * @param sqlTemplate    查询
+     * @param revisions      分支、标签或提交哈希，重复的只执行一次
+     * @param maxConcurrency 同时执行的查询数上限
+     * @return 每个修订版本的结果，按完成顺序交付，调用方应关闭返回的流
+     */
+    public Stream<RevisionResult> stream(SqlBuilder.SqlTemplate sqlTemplate, Collection<String> revisions, int maxConcurrency) {
+        if (getConnectionManager().isInTransaction()) {
+            // 事务只有一个连接，无法同时指向多个修订版本
+            throw new DoltException("fan-out query cannot run inside a transaction");
+        }
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(revisions));
+        return new BoundedCompletionStream<String, RevisionResult>(distinct, revision -> {
+            long start = System.currentTimeMillis();
+            RowSet rows = queryAt(revision, sqlTemplate);
+            return new RevisionResult(revision, rows, System.currentTimeMillis() - start);
+        }, getConnectionManager().getAsyncExecutor(), maxConcurrency, "fan-out query", revision -> "revision: " + revision).stream();
+    }
+
+    /**
+     * 在每个修订版本上执行查询并等待全部完成，合并为一个结果集
+     *
+     * @param sqlTemplate    查询
+     * @param revisions      分支、标签或提交哈希
+     * @param maxConcurrency 同时执行的查询数上限
+     * @return 合并后的结果，第一列为 {@link #REVISION_COLUMN}，行按修订版本的完成顺序排列
+     * @see #merge(List)
+     */
+    public RowSet merged(SqlBuilder.SqlTemplate sqlTemplate, Collection<String> revisions, int maxConcurrency) {
+        try (Stream<RevisionResult> results = stream(sqlTemplate, revisions, maxConcurrency)) {
+            return merge(results.collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 合并多个修订版本的结果。列取所有结果的并集，按第一次出现的顺序排列；
+     * 不同修订版本的表结构不同时，缺少的列为 null。
+     *
+     * @param results 每个修订版本的结果
+     * @return 第一列为 {@link #REVISION_COLUMN} 的结果集
+     */
+    public static RowSet merge(List<RevisionResult> results) {
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        indexes.put(REVISION_COLUMN, 0);
+        int rowCount = 0;
+        for (RevisionResult result : results) {
+            RowSet.Columns columns = result.rows().getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                indexes.putIfAbsent(columns.name(i), indexes.size());
+            }
+            rowCount += result.rows().size();
+        }
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (RevisionResult result : results) {
+            RowSet rowSet = result.rows();
+            RowSet.Columns columns = rowSet.getColumns();
+            int[] targets = new int[columns.size()];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = indexes.get(columns.name(i));
+            }
+            for (int r = 0; r < rowSet.size(); r++) {
+                Object[] row = new Object[indexes.size()];
+                row[0] = result.revision();
+                for (int i = 0; i < targets.length; i++) {
+                    row[targets[i]] = rowSet.get(r, i);
+                }
+                rows.add(row);
+            }
+        }
+        return new RowSet(new RowSet.Columns(indexes.keySet().toArray(new String[0])), rows);
+    }
+
+    /**
+     * 在一个修订版本上执行查询
+     */
+    private RowSet queryAt(String revision, SqlBuilder.SqlTemplate sqlTemplate) {
+        if (BranchNameValidator.isValidBranchName(revision)) {
+            return CommonSqlExecutor.getInstance(getConnectionManager().forBranch(revision)).executeQueryAsRowSet(sqlTemplate);
+        }
+        return queryAtCommit(revision, sqlTemplate);
+    }
+
+    /**
+     * 提交哈希不能作为分支池的名称，在借出的连接上临时切换修订版本数据库
+     */
+    private RowSet queryAtCommit(String revision, SqlBuilder.SqlTemplate sqlTemplate) {
+        long start = System.currentTimeMillis();
+        try (Connection connection = getConnectionManager().getConnection()) {
+            String original = currentDatabase(connection);
+            int slash = original.indexOf('/');
+            String database = slash > 0 ? original.substring(0, slash) : original;
+            use(connection, database + "/" + revision);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sqlTemplate.sql())) {
+                sqlTemplate.setParameters(preparedStatement);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    RowSet rowSet = RowSet.from(resultSet);
+                    logger.debug("fan-out query finish, revision: {}, rows: {}, cost: {}ms",
+                            revision, rowSet.size(), System.currentTimeMillis() - start);
+                    return rowSet;
+                }
+            } finally {
+                restore(connection, original);
+            }
+        } catch (SQLException e) {
+            DoltException doltException = new DoltException("fan-out query error, revision: " + revision + ", sql: " + sqlTemplate.sql(), e);
+            logger.error("fan-out query error, revision: {}, sql: {}", revision, sqlTemplate.sql(), doltException);
+            throw doltException;
+        }
+    }
+
+    private static String currentDatabase(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT DATABASE()")) {
+            String database = resultSet.next() ? resultSet.getString(1) : null;
+            if (database == null || database.isEmpty()) {
+                throw new DoltException("cannot determine current database, specify it in the connection url");
+            }
+            return database;
+        }
+    }
+
+    /**
+     * 切回原数据库。切换失败时连接仍指向只读的修订版本数据库，中止连接让连接池丢弃它，不能归还后交给后续的写入
+     */
+    private static void restore(Connection connection, String original) throws SQLException {
+        try {
+            use(connection, original);
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("restore database failed, abort connection, database: {}", original, e);
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException | RuntimeException abortError) {
+                e.addSuppressed(abortError);
+            }
+            throw e;
+        }
+    }
+
+    private static void use(Connection connection, String database) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("USE `" + database.replace("`", "``") + "`");
+        }
+    }
+
+    /**
+     * 默认的并发数，取异步执行器的并发上限
+     *
+     * @return 并发数
+     */
+    public int defaultConcurrency() {
+        return DoltAsyncExecutor.concurrencyOf(getConnectionManager().getAsyncExecutor());
+    }
+}
@@ -0,0 +1,13 @@
+package com.hxuanyu.jdolt.fanout;
+
+import com.hxuanyu.jdolt.model.RowSet;
+
+/**
+ * 同一条查询在一个修订版本上的结果
+ *
+ * @param revision 修订版本（分支、标签或提交哈希）
+ * @param rows     查询结果
+ * @param costMs   查询耗时（毫秒）
+ */
+public record RevisionResult(String revision, RowSet rows, long costMs) {
+}
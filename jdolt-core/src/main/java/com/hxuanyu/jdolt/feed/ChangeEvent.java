@@ -0,0 +1,18 @@
+package com.hxuanyu.jdolt.feed;
+
+import java.util.Map;
+
+/**
+ * 一行数据在一次提交中的变化
+ *
+ * @param branch     分支
+ * @param commitHash 产生变化的提交
+ * @param parentHash 对比的父提交
+ * @param table      表名
+ * @param type       变化类型
+ * @param before     变化前的列值（去掉 {@code from_} 前缀），INSERT 时为 null
+ * @param after      变化后的列值（去掉 {@code to_} 前缀），DELETE 时为 null
+ */
+public record ChangeEvent(String branch, String commitHash, String parentHash, String table, ChangeType type,
+                          Map<String, Object> before, Map<String, Object> after) {
+}
@@ -0,0 +1,263 @@
+package com.hxuanyu.jdolt.feed;
+
+import com.hxuanyu.jdolt.core.function.table.DoltLog;
+import com.hxuanyu.jdolt.diff.DiffEngine;
+import com.hxuanyu.jdolt.diff.TableChange;
+import com.hxuanyu.jdolt.diff.TableDiff;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.graph.CommitGraphIndex;
+import com.hxuanyu.jdolt.graph.RefResolver;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 基于提交的变更订阅。消费方订阅分支和表，按提交收到行级的 INSERT/UPDATE/DELETE 事件，不再需要反复查询整张表。
+ * <p>
+ * 每次拉取时，对每个分支读取检查点（上次处理完成的提交）和当前的 HEAD，通过
+ * {@code DOLT_LOG('checkpoint..head', '--parents')} 取得新提交，沿第一父提交链从旧到新逐个处理：
+ * 用 {@code DOLT_DIFF_SUMMARY} 找出订阅范围内有数据变化的表，再用 {@code DOLT_DIFF(parent, commit, table)} 取得行级变化。
+ * 合并提交只与第一父提交对比，合并进来的分支上的提交不会重复投递。
+ * <p>
+ * 每个提交的回调正常返回后立即保存检查点，回调失败或进程退出后，下一次拉取从未完成的提交继续，
+ * 提交哈希固定，重复拉取得到的事件完全相同。
+ *
+ * <pre>
+ * ChangeSubscription subscription = ChangeSubscription.newBuilder("search-indexer", changes -&gt; index(changes))
+ *         .branches("main")
+ *         .tables("products")
+ *         .build();
+ * ChangeFeed.Handle handle = ChangeFeed.getInstance(connectionManager).start(subscription, Duration.ofSeconds(5));
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ChangeFeed extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, ChangeFeed> INSTANCES = new ConcurrentHashMap<>();
+
+    private ChangeFeed(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static ChangeFeed getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new ChangeFeed(connectionManager));
+    }
+
+    /**
+     * 相邻两个检查点之间的一步：从 parent 到 commit 的变化
+     */
+    record Step(String parent, String commit) {
+    }
+
+    /**
+     * 在调用线程上拉取一次，投递所有分支上检查点之后的新提交。同一个订阅的拉取互斥执行。
+     *
+     * @param subscription 订阅
+     * @return 处理的提交数（包括没有订阅范围内变化、没有回调的提交）
+     */
+    public int poll(ChangeSubscription subscription) {
+        synchronized (subscription) {
+            // 所有分支的 HEAD 在一次查询中解析
+            Map<String, String> heads = RefResolver.getInstance(getConnectionManager()).resolve(subscription.getBranches());
+            int processed = 0;
+            for (String branch : subscription.getBranches()) {
+                String head = heads.get(branch);
+                if (head == null) {
+                    throw new DoltException("branch not found: " + branch);
+                }
+                processed += pollBranch(subscription, branch, head);
+            }
+            return processed;
+        }
+    }
+
+    private int pollBranch(ChangeSubscription subscription, String branch, String head) {
+        CheckpointStore checkpointStore = subscription.getCheckpointStore();
+        String checkpoint = checkpointStore.load(subscription.getId(), branch);
+        if (checkpoint == null) {
+            if (subscription.getStartFrom() == null) {
+                checkpointStore.save(subscription.getId(), branch, head);
+                return 0;
+            }
+            checkpoint = subscription.getStartFrom();
+        }
+        if (checkpoint.equals(head)) {
+            return 0;
+        }
+        List<Step> steps = plan(commitsBetween(checkpoint, head), checkpoint, head);
+        int processed = 0;
+        for (Step step : steps) {
+            if (processed == subscription.getMaxCommitsPerPoll()) {
+                break;
+            }
+            List<ChangeEvent> events = changesOf(subscription, branch, step);
+            if (!events.isEmpty()) {
+                subscription.getListener().onCommit(new CommitChanges(subscription.getId(), branch, step.commit(), step.parent(), events));
+            }
+            checkpointStore.save(subscription.getId(), branch, step.commit());
+            processed++;
+        }
+        logger.debug("change feed polled, subscription: {}, branch: {}, commits: {}", subscription.getId(), branch, processed);
+        return processed;
+    }
+
+    /**
+     * 按固定间隔在后台线程上拉取。拉取失败只记录日志，下一次拉取从检查点重试。
+     *
+     * @param subscription 订阅
+     * @param interval     两次拉取之间的间隔
+     * @return 后台拉取的句柄，关闭后停止拉取
+     */
+    public Handle start(ChangeSubscription subscription, Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdolt-change-feed-" + subscription.getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll(subscription);
+            } catch (RuntimeException e) {
+                logger.warn("change feed poll failed, subscription: {}", subscription.getId(), e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        return new Handle(scheduler);
+    }
+
+    /**
+     * 后台拉取的句柄
+     */
+    public static class Handle implements AutoCloseable {
+        private final ScheduledExecutorService scheduler;
+
+        private Handle(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        public boolean isRunning() {
+            return !scheduler.isShutdown();
+        }
+
+        /**
+         * 停止拉取，正在进行的拉取会执行完当前的提交
+         */
+        @Override
+        public void close() {
+            scheduler.shutdown();
+        }
+    }
+
+    private RowSet commitsBetween(String from, String to) {
+        SqlExecuteResult result = DoltLog.getInstance(getConnectionManager()).prepare()
+                .twoDot(from, to)
+                .parents()
+                .execute();
+        return result.getRowSet();
+    }
+
+    /**
+     * 从 dolt_log 的结果中沿第一父提交链从 head 回溯到检查点，得到从旧到新的处理步骤。
+     * 第一步总是从检查点出发：正常情况下检查点就是它的第一父提交；分支被重置到无关的历史时，
+     * 对比检查点与新提交得到净变化。head 不在结果中（分支回退到检查点的祖先）时，直接对比检查点与 head。
+     */
+    static List<Step> plan(RowSet log, String checkpoint, String head) {
+        Map<String, String> firstParents = new HashMap<>();
+        if (log != null) {
+            for (int i = 0; i < log.size(); i++) {
+                List<String> parents = CommitGraphIndex.parseParents((String) log.get(i, "parents"));
+                firstParents.put((String) log.get(i, "commit_hash"), parents.isEmpty() ? null : parents.get(0));
+            }
+        }
+        Deque<String> chain = new ArrayDeque<>();
+        String current = head;
+        while (current != null && !current.equals(checkpoint) && firstParents.containsKey(current)) {
+            chain.addFirst(current);
+            current = firstParents.get(current);
+        }
+        if (chain.isEmpty()) {
+            return List.of(new Step(checkpoint, head));
+        }
+        List<Step> steps = new ArrayList<>(chain.size());
+        String parent = checkpoint;
+        for (String commit : chain) {
+            steps.add(new Step(parent, commit));
+            parent = commit;
+        }
+        return steps;
+    }
+
+    private List<ChangeEvent> changesOf(ChangeSubscription subscription, String branch, Step step) {
+        DiffEngine diffEngine = DiffEngine.getInstance(getConnectionManager());
+        List<TableChange> tables = diffEngine.changedTables(step.parent(), step.commit()).stream()
+                .filter(change -> change.dataChange()
+                        && (subscription.isSubscribed(change.tableName()) || subscription.isSubscribed(change.fromTableName())))
+                .collect(Collectors.toList());
+        if (tables.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, TableDiff> diffs = new HashMap<>();
+        try (Stream<TableDiff> stream = diffEngine.diff(step.parent(), step.commit(), tables, diffEngine.defaultConcurrency())) {
+            stream.forEach(diff -> diffs.put(diff.tableName(), diff));
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        // 按 dolt_diff_summary 的顺序投递，与表完成的先后无关
+        for (TableChange table : tables) {
+            events.addAll(toEvents(branch, step, table.tableName(), diffs.get(table.tableName()).rows()));
+        }
+        return events;
+    }
+
+    /**
+     * 把 dolt_diff 的结果转换为变化事件，{@code from_}/{@code to_} 前缀的列分别作为变化前后的值，
+     * 提交和提交时间列不包括在内
+     */
+    static List<ChangeEvent> toEvents(String branch, Step step, String table, RowSet rows) {
+        RowSet.Columns columns = rows.getColumns();
+        List<ChangeEvent> events = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ChangeType type = ChangeType.of((String) rows.get(i, "diff_type"));
+            Map<String, Object> before = type == ChangeType.INSERT ? null : new LinkedHashMap<>();
+            Map<String, Object> after = type == ChangeType.DELETE ? null : new LinkedHashMap<>();
+            for (int c = 0; c < columns.size(); c++) {
+                String column = columns.name(c);
+                if (column.equals("from_commit") || column.equals("from_commit_date")
+                        || column.equals("to_commit") || column.equals("to_commit_date")) {
+                    continue;
+                }
+                if (before != null && column.startsWith("from_")) {
+                    before.put(column.substring(5), rows.get(i, c));
+                } else if (after != null && column.startsWith("to_")) {
+                    after.put(column.substring(3), rows.get(i, c));
+                }
+            }
+            events.add(new ChangeEvent(branch, step.commit(), step.parent(), table, type, before, after));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hxuanyu.jdolt.feed;
+
+/**
+ * 变更订阅的回调。回调正常返回后该提交的检查点才会保存，抛出异常时本次拉取停止，
+ * 下一次拉取从同一个提交重新投递，因此回调应当是幂等的。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * 处理一次提交的变化
+     *
+     * @param changes 提交中的变化
+     */
+    void onCommit(CommitChanges changes);
+}
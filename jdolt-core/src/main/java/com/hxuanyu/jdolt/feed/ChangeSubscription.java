@@ -0,0 +1,179 @@
+package com.hxuanyu.jdolt.feed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 变更订阅：订阅的分支、表、检查点存储和回调。
+ * <p>
+ * 订阅第一次拉取某个分支时如果没有检查点，默认把分支当前的 HEAD 作为起点，只投递之后的新提交；
+ * 通过 {@link Builder#startFrom(String)} 可以指定从某个提交之后开始投递历史变化。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ChangeSubscription {
+
+    private final String id;
+    private final List<String> branches;
+    private final Set<String> tables;
+    private final CheckpointStore checkpointStore;
+    private final ChangeListener listener;
+    private final String startFrom;
+    private final int maxCommitsPerPoll;
+
+    private ChangeSubscription(Builder builder) {
+        this.id = builder.id;
+        this.branches = Collections.unmodifiableList(new ArrayList<>(builder.branches));
+        this.tables = Collections.unmodifiableSet(new LinkedHashSet<>(builder.tables));
+        this.checkpointStore = builder.checkpointStore;
+        this.listener = builder.listener;
+        this.startFrom = builder.startFrom;
+        this.maxCommitsPerPoll = builder.maxCommitsPerPoll;
+    }
+
+    /**
+     * @param id       订阅标识，检查点按标识和分支保存
+     * @param listener 回调
+     * @return the Builder instance
+     */
+    public static Builder newBuilder(String id, ChangeListener listener) {
+        return new Builder(id, listener);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getBranches() {
+        return branches;
+    }
+
+    /**
+     * 订阅的表，为空时订阅所有表
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    public CheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    public ChangeListener getListener() {
+        return listener;
+    }
+
+    public String getStartFrom() {
+        return startFrom;
+    }
+
+    public int getMaxCommitsPerPoll() {
+        return maxCommitsPerPoll;
+    }
+
+    /**
+     * 判断表是否在订阅范围内
+     *
+     * @param table 表名
+     * @return 是否订阅
+     */
+    public boolean isSubscribed(String table) {
+        return tables.isEmpty() || tables.contains(table);
+    }
+
+    /**
+     * Builder class for ChangeSubscription.
+     */
+    public static class Builder {
+        private final String id;
+        private final ChangeListener listener;
+        private final List<String> branches = new ArrayList<>();
+        private final Set<String> tables = new LinkedHashSet<>();
+        private CheckpointStore checkpointStore = new InMemoryCheckpointStore();
+        private String startFrom;
+        private int maxCommitsPerPoll = Integer.MAX_VALUE;
+
+        private Builder(String id, ChangeListener listener) {
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("subscription id 不能为空");
+            }
+            if (listener == null) {
+                throw new IllegalArgumentException("listener 不能为空");
+            }
+            this.id = id;
+            this.listener = listener;
+        }
+
+        /**
+         * 订阅的分支
+         *
+         * @param branches 分支名称
+         * @return the Builder instance
+         */
+        public Builder branches(String... branches) {
+            Collections.addAll(this.branches, branches);
+            return this;
+        }
+
+        /**
+         * 订阅的表，不调用时订阅所有表
+         *
+         * @param tables 表名
+         * @return the Builder instance
+         */
+        public Builder tables(String... tables) {
+            Collections.addAll(this.tables, tables);
+            return this;
+        }
+
+        /**
+         * 检查点存储，默认保存在内存中
+         *
+         * @param checkpointStore 检查点存储
+         * @return the Builder instance
+         */
+        public Builder checkpointStore(CheckpointStore checkpointStore) {
+            if (checkpointStore == null) {
+                throw new IllegalArgumentException("checkpointStore 不能为空");
+            }
+            this.checkpointStore = checkpointStore;
+            return this;
+        }
+
+        /**
+         * 没有检查点时的起点，投递该提交之后的所有变化；不设置时从分支当前的 HEAD 开始
+         *
+         * @param commitHash 起点提交
+         * @return the Builder instance
+         */
+        public Builder startFrom(String commitHash) {
+            this.startFrom = commitHash;
+            return this;
+        }
+
+        /**
+         * 每次拉取每个分支最多投递的提交数，积压较多时分多次追赶，避免一次拉取占用过长时间
+         *
+         * @param maxCommitsPerPoll 提交数上限
+         * @return the Builder instance
+         */
+        public Builder maxCommitsPerPoll(int maxCommitsPerPoll) {
+            if (maxCommitsPerPoll <= 0) {
+                throw new IllegalArgumentException("maxCommitsPerPoll must be greater than 0");
+            }
+            this.maxCommitsPerPoll = maxCommitsPerPoll;
+            return this;
+        }
+
+        public ChangeSubscription build() {
+            if (branches.isEmpty()) {
+                throw new IllegalArgumentException("至少需要订阅一个分支");
+            }
+            return new ChangeSubscription(this);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hxuanyu.jdolt.feed;
+
+/**
+ * 行级变化的类型
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public enum ChangeType {
+    INSERT,
+    UPDATE,
+    DELETE;
+
+    /**
+     * 由 dolt_diff 的 diff_type 转换
+     *
+     * @param diffType added、modified 或 removed
+     * @return 变化类型
+     */
+    public static ChangeType of(String diffType) {
+        if (diffType == null) {
+            throw new IllegalArgumentException("diff_type is null");
+        }
+        switch (diffType) {
+            case "added":
+                return INSERT;
+            case "modified":
+                return UPDATE;
+            case "removed":
+                return DELETE;
+            default:
+                throw new IllegalArgumentException("unknown diff_type: " + diffType);
+        }
+    }
+}
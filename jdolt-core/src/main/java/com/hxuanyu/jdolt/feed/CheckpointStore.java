@@ -0,0 +1,29 @@
+package com.hxuanyu.jdolt.feed;
+
+/**
+ * 变更订阅的检查点存储，记录每个订阅在每个分支上最后处理完成的提交。
+ * 实现可以把检查点保存到数据库、文件或配置中心，使进程重启后从上次的位置继续投递。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public interface CheckpointStore {
+
+    /**
+     * 读取检查点
+     *
+     * @param subscriptionId 订阅标识
+     * @param branch         分支
+     * @return 最后处理完成的提交哈希，没有检查点时返回 null
+     */
+    String load(String subscriptionId, String branch);
+
+    /**
+     * 保存检查点
+     *
+     * @param subscriptionId 订阅标识
+     * @param branch         分支
+     * @param commitHash     最后处理完成的提交哈希
+     */
+    void save(String subscriptionId, String branch, String commitHash);
+}
@@ -0,0 +1,15 @@
+package com.hxuanyu.jdolt.feed;
+
+import java.util.List;
+
+/**
+ * 一次提交中订阅范围内的所有行级变化，按表分组，同一张表内保持 dolt_diff 的顺序
+ *
+ * @param subscriptionId 订阅标识
+ * @param branch         分支
+ * @param commitHash     提交
+ * @param parentHash     对比的父提交，一般为第一父提交；分支被重置到无关的历史时为上一个检查点
+ * @param events         行级变化
+ */
+public record CommitChanges(String subscriptionId, String branch, String commitHash, String parentHash, List<ChangeEvent> events) {
+}
@@ -0,0 +1,28 @@
+package com.hxuanyu.jdolt.feed;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 保存在内存中的检查点，进程重启后丢失，适用于测试或只需要在进程内续传的场景
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+    private final Map<String, String> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public String load(String subscriptionId, String branch) {
+        return checkpoints.get(key(subscriptionId, branch));
+    }
+
+    @Override
+    public void save(String subscriptionId, String branch, String commitHash) {
+        checkpoints.put(key(subscriptionId, branch), commitHash);
+    }
+
+    private static String key(String subscriptionId, String branch) {
+        return subscriptionId + '\u0000' + branch;
+    }
+}
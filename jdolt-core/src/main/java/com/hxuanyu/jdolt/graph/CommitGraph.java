@@ -0,0 +1,449 @@
+package com.hxuanyu.jdolt.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于基本类型数组的提交图。
+ * <p>
+ * 每个提交分配一个从 0 开始的整数编号，提交哈希只在编号和字符串之间转换时使用。
+ * 父提交以 CSR 形式保存（{@code parentOffsets} + {@code parentIds}），提交必须按父提交在前的顺序追加，
+ * 因此追加新提交不需要移动已有数据。每个提交记录代数（generation，根提交为 1，其余为父提交最大代数加 1），
+ * 祖先查询按代数从高到低遍历，低于目标代数的分支可以直接剪掉。
+ * <p>
+ * 该类不是线程安全的，并发访问由 {@link CommitGraphIndex} 负责加锁。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class CommitGraph {
+    private static final int[] NO_PARENTS = new int[0];
+
+    private static final byte FROM_LEFT = 1;
+    private static final byte FROM_RIGHT = 2;
+    private static final byte BOTH = FROM_LEFT | FROM_RIGHT;
+    private static final byte STALE = 4;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] hashes = new String[256];
+    private long[] commitTimes = new long[256];
+    private int[] generations = new int[256];
+    private int[] parentOffsets = new int[257];
+    private int[] parentIds = new int[256];
+    private int size;
+
+    /**
+     * 每个线程复用的遍历标记，避免每次查询分配与提交数量等长的数组
+     */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取提交编号
+     *
+     * @param hash 提交哈希
+     * @return 编号，不存在时返回 -1
+     */
+    public int idOf(String hash) {
+        Integer id = ids.get(hash);
+        return id == null ? -1 : id;
+    }
+
+    public boolean contains(String hash) {
+        return ids.containsKey(hash);
+    }
+
+    public String hashOf(int id) {
+        return hashes[id];
+    }
+
+    public long commitTimeOf(int id) {
+        return commitTimes[id];
+    }
+
+    public int generationOf(int id) {
+        return generations[id];
+    }
+
+    /**
+     * 获取父提交编号，按 parent_index 排列
+     *
+     * @param id 提交编号
+     * @return 父提交编号
+     */
+    public int[] parentsOf(int id) {
+        return Arrays.copyOfRange(parentIds, parentOffsets[id], parentOffsets[id + 1]);
+    }
+
+    /**
+     * 追加一个提交，父提交必须已经存在
+     *
+     * @param hash       提交哈希
+     * @param commitTime 提交时间（毫秒），未知时为 0
+     * @param parents    父提交哈希，按 parent_index 排列
+     * @return 提交编号，提交已存在时返回已有编号
+     * @throws IllegalArgumentException 父提交不存在
+     */
+    public int add(String hash, long commitTime, List<String> parents) {
+        Integer existing = ids.get(hash);
+        if (existing != null) {
+            return existing;
+        }
+        int[] parentIdArray = parents.isEmpty() ? NO_PARENTS : new int[parents.size()];
+        int generation = 1;
+        for (int i = 0; i < parentIdArray.length; i++) {
+            int parentId = idOf(parents.get(i));
+            if (parentId < 0) {
+                throw new IllegalArgumentException("parent " + parents.get(i) + " of commit " + hash + " is not in the graph");
+            }
+            parentIdArray[i] = parentId;
+            generation = Math.max(generation, generations[parentId] + 1);
+        }
+        ensureCapacity(size + 1, parentOffsets[size] + parentIdArray.length);
+        int id = size;
+        hashes[id] = hash;
+        commitTimes[id] = commitTime;
+        generations[id] = generation;
+        System.arraycopy(parentIdArray, 0, parentIds, parentOffsets[id], parentIdArray.length);
+        parentOffsets[id + 1] = parentOffsets[id] + parentIdArray.length;
+        ids.put(hash, id);
+        size++;
+        return id;
+    }
+
+    /**
+     * 判断 ancestor 是否是 commit 的祖先，提交本身也视为自己的祖先，与 {@code HAS_ANCESTOR} 一致
+     *
+     * @param commit   提交编号
+     * @param ancestor 祖先提交编号
+     * @return 是否是祖先
+     */
+    public boolean hasAncestor(int commit, int ancestor) {
+        if (commit == ancestor) {
+            return true;
+        }
+        int minGeneration = generations[ancestor];
+        if (generations[commit] <= minGeneration) {
+            return false;
+        }
+        Scratch s = scratch.get().reset(size);
+        IntStack stack = s.stack;
+        s.mark(commit, FROM_LEFT);
+        stack.push(commit);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            for (int p = parentOffsets[current], end = parentOffsets[current + 1]; p < end; p++) {
+                int parent = parentIds[p];
+                if (parent == ancestor) {
+                    return true;
+                }
+                // 代数不高于祖先的提交不可能到达祖先
+                if (generations[parent] > minGeneration && s.flags(parent) == 0) {
+                    s.mark(parent, FROM_LEFT);
+                    stack.push(parent);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算两个提交的最佳公共祖先，存在多个时返回代数最高的一个
+     *
+     * @param left  提交编号
+     * @param right 提交编号
+     * @return 公共祖先编号，没有公共祖先时返回 -1
+     */
+    public int mergeBase(int left, int right) {
+        if (left == right) {
+            return left;
+        }
+        Scratch s = scratch.get().reset(size);
+        GenerationQueue queue = s.queue;
+        s.mark(left, FROM_LEFT);
+        s.mark(right, FROM_RIGHT);
+        queue.add(left);
+        queue.add(right);
+        int nonStale = 2;
+        int best = -1;
+        while (nonStale > 0 && !queue.isEmpty()) {
+            int current = queue.poll();
+            byte flags = s.flags(current);
+            if ((flags & STALE) == 0) {
+                nonStale--;
+            }
+            byte reach = (byte) (flags & BOTH);
+            if (reach == BOTH) {
+                if ((flags & STALE) == 0) {
+                    if (best < 0) {
+                        best = current;
+                    }
+                    // 公共祖先的祖先都不是最佳公共祖先
+                    flags |= STALE;
+                    s.set(current, flags);
+                }
+            }
+            for (int p = parentOffsets[current], end = parentOffsets[current + 1]; p < end; p++) {
+                int parent = parentIds[p];
+                byte parentFlags = s.flags(parent);
+                byte merged = (byte) (parentFlags | (flags & (BOTH | STALE)));
+                if (merged == parentFlags) {
+                    continue;
+                }
+                if (parentFlags == 0) {
+                    queue.add(parent);
+                    if ((merged & STALE) == 0) {
+                        nonStale++;
+                    }
+                } else if ((parentFlags & STALE) == 0 && (merged & STALE) != 0) {
+                    nonStale--;
+                }
+                s.set(parent, merged);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 计算 left 相对 right 的领先和落后提交数，等价于 {@code git rev-list --left-right --count left...right}
+     *
+     * @param left  提交编号
+     * @param right 提交编号
+     * @return [ahead, behind]
+     */
+    public int[] aheadBehind(int left, int right) {
+        if (left == right) {
+            return new int[]{0, 0};
+        }
+        Scratch s = scratch.get().reset(size);
+        GenerationQueue queue = s.queue;
+        s.mark(left, FROM_LEFT);
+        s.mark(right, FROM_RIGHT);
+        queue.add(left);
+        queue.add(right);
+        // 队列中只被一侧到达的提交数，为 0 时剩余的提交都是公共祖先
+        int oneSided = 2;
+        int ahead = 0;
+        int behind = 0;
+        while (oneSided > 0 && !queue.isEmpty()) {
+            int current = queue.poll();
+            byte flags = s.flags(current);
+            if (flags != BOTH) {
+                oneSided--;
+                if (flags == FROM_LEFT) {
+                    ahead++;
+                } else {
+                    behind++;
+                }
+            }
+            for (int p = parentOffsets[current], end = parentOffsets[current + 1]; p < end; p++) {
+                int parent = parentIds[p];
+                byte parentFlags = s.flags(parent);
+                byte merged = (byte) (parentFlags | flags);
+                if (merged == parentFlags) {
+                    continue;
+                }
+                if (parentFlags == 0) {
+                    queue.add(parent);
+                    if (merged != BOTH) {
+                        oneSided++;
+                    }
+                } else if (merged == BOTH) {
+                    oneSided--;
+                }
+                s.set(parent, merged);
+            }
+        }
+        return new int[]{ahead, behind};
+    }
+
+    /**
+     * 按拓扑顺序遍历 head 可到达的提交：子提交总在父提交之前，同一代数内按提交时间倒序
+     *
+     * @param head  起始提交编号
+     * @param limit 最多返回的提交数，小于等于 0 表示不限制
+     * @return 提交编号
+     */
+    public int[] topologicalWalk(int head, int limit) {
+        int max = limit <= 0 ? size : Math.min(limit, size);
+        int[] result = new int[Math.min(max, 64)];
+        int count = 0;
+        Scratch s = scratch.get().reset(size);
+        GenerationQueue queue = s.queue;
+        s.mark(head, FROM_LEFT);
+        queue.add(head);
+        while (count < max && !queue.isEmpty()) {
+            int current = queue.poll();
+            if (count == result.length) {
+                result = Arrays.copyOf(result, Math.min(max, result.length * 2));
+            }
+            result[count++] = current;
+            for (int p = parentOffsets[current], end = parentOffsets[current + 1]; p < end; p++) {
+                int parent = parentIds[p];
+                if (s.flags(parent) == 0) {
+                    s.mark(parent, FROM_LEFT);
+                    queue.add(parent);
+                }
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 将编号转换为提交哈希
+     *
+     * @param commitIds 提交编号
+     * @return 提交哈希
+     */
+    public List<String> toHashes(int[] commitIds) {
+        List<String> result = new ArrayList<>(commitIds.length);
+        for (int id : commitIds) {
+            result.add(hashes[id]);
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int commits, int edges) {
+        if (commits > hashes.length) {
+            int capacity = Math.max(commits, hashes.length * 2);
+            hashes = Arrays.copyOf(hashes, capacity);
+            commitTimes = Arrays.copyOf(commitTimes, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            parentOffsets = Arrays.copyOf(parentOffsets, capacity + 1);
+        }
+        if (edges > parentIds.length) {
+            parentIds = Arrays.copyOf(parentIds, Math.max(edges, parentIds.length * 2));
+        }
+    }
+
+    /**
+     * 遍历使用的临时标记，使用轮次编号代替清零，重置的开销与提交数量无关
+     */
+    private final class Scratch {
+        private int[] epochs = new int[0];
+        private byte[] flags = new byte[0];
+        private int epoch;
+        private final IntStack stack = new IntStack();
+        private final GenerationQueue queue = new GenerationQueue();
+
+        Scratch reset(int capacity) {
+            if (epochs.length < capacity) {
+                int newCapacity = Math.max(capacity, epochs.length * 2);
+                epochs = Arrays.copyOf(epochs, newCapacity);
+                flags = Arrays.copyOf(flags, newCapacity);
+            }
+            if (++epoch == 0) {
+                Arrays.fill(epochs, 0);
+                epoch = 1;
+            }
+            stack.clear();
+            queue.clear();
+            return this;
+        }
+
+        byte flags(int id) {
+            return epochs[id] == epoch ? flags[id] : 0;
+        }
+
+        void mark(int id, byte flag) {
+            set(id, (byte) (flags(id) | flag));
+        }
+
+        void set(int id, byte value) {
+            epochs[id] = epoch;
+            flags[id] = value;
+        }
+    }
+
+    private static final class IntStack {
+        private int[] values = new int[64];
+        private int size;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * 按代数从高到低（同代数按提交时间从新到旧）出队的二叉堆
+     */
+    private final class GenerationQueue {
+        private int[] heap = new int[64];
+        private int size;
+
+        void add(int id) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int index = size++;
+            while (index > 0) {
+                int parentIndex = (index - 1) >>> 1;
+                if (!before(id, heap[parentIndex])) {
+                    break;
+                }
+                heap[index] = heap[parentIndex];
+                index = parentIndex;
+            }
+            heap[index] = id;
+        }
+
+        int poll() {
+            int result = heap[0];
+            int last = heap[--size];
+            int index = 0;
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && before(heap[right], heap[child])) {
+                    child = right;
+                }
+                if (!before(heap[child], last)) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            if (size > 0) {
+                heap[index] = last;
+            }
+            return result;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private boolean before(int a, int b) {
+            if (generations[a] != generations[b]) {
+                return generations[a] > generations[b];
+            }
+            return commitTimes[a] > commitTimes[b];
+        }
+    }
+}
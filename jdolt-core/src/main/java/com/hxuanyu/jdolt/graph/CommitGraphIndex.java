@@ -0,0 +1,394 @@
+package com.hxuanyu.jdolt.graph;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.repository.DoltCursor;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 本地内存中的提交图索引，在客户端回答祖先关系、合并基点、领先/落后计数和拓扑遍历，不再访问服务端。
+ * <p>
+ * 第一次使用时从 {@code dolt_commits} 和 {@code dolt_commit_ancestors} 加载完整的提交图，
+ * 之后 {@link #refresh()} 只通过 {@code dolt_log(<新分支头>, '--parents', '--not', <已知分支头>)}
+ * 拉取新出现的提交并追加到图中。查询的修订版本可以是提交哈希，也可以是 {@code dolt_hashof} 能够解析的
+ * 分支、标签或提交表达式：图中已有的提交哈希直接在本地回答；其余修订版本在每次查询时通过一次批量的
+ * {@code dolt_hashof}（{@link RefResolver}）解析为当前的提交哈希，分支前进后不会再按旧的分支头回答。
+ * 解析出的提交不在图中时会先自动刷新一次。
+ * <p>
+ * 索引按根连接管理器单例，同一数据库的所有分支共享一个提交图。
+ *
+ * <pre>
+ * CommitGraphIndex graph = CommitGraphIndex.getInstance(connectionManager);
+ * boolean merged = graph.hasAncestor("main", "feature");
+ * String base = graph.mergeBase("main", "feature");
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class CommitGraphIndex extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(CommitGraphIndex.class);
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, CommitGraphIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private static final Pattern PARENT_SEPARATOR = Pattern.compile("[,\\s]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private CommitGraph graph;
+
+    private CommitGraphIndex(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static CommitGraphIndex getInstance(DoltConnectionManager connectionManager) {
+        DoltConnectionManager root = connectionManager.getRoot();
+        return INSTANCES.computeIfAbsent(root, k -> new CommitGraphIndex(root));
+    }
+
+    /**
+     * 领先和落后的提交数
+     *
+     * @param ahead  只有左侧可到达的提交数
+     * @param behind 只有右侧可到达的提交数
+     */
+    public record AheadBehind(int ahead, int behind) {
+    }
+
+    /**
+     * 判断 ancestor 是否是 commit 的祖先，等价于 {@code HAS_ANCESTOR(commit, ancestor)}
+     *
+     * @param commit   提交哈希或分支名称
+     * @param ancestor 提交哈希或分支名称
+     * @return 是否是祖先，提交本身也视为自己的祖先
+     */
+    public boolean hasAncestor(String commit, String ancestor) {
+        return query(commit, ancestor, (g, a, b) -> g.hasAncestor(a, b));
+    }
+
+    /**
+     * 计算两个修订版本的合并基点，等价于 {@code DOLT_MERGE_BASE(left, right)}
+     *
+     * @param left  提交哈希或分支名称
+     * @param right 提交哈希或分支名称
+     * @return 合并基点的提交哈希，没有公共祖先时返回 null
+     */
+    public String mergeBase(String left, String right) {
+        return query(left, right, (g, a, b) -> {
+            int base = g.mergeBase(a, b);
+            return base < 0 ? null : g.hashOf(base);
+        });
+    }
+
+    /**
+     * 计算 left 相对 right 领先和落后的提交数
+     *
+     * @param left  提交哈希或分支名称
+     * @param right 提交哈希或分支名称
+     * @return 领先/落后提交数
+     */
+    public AheadBehind aheadBehind(String left, String right) {
+        return query(left, right, (g, a, b) -> {
+            int[] counts = g.aheadBehind(a, b);
+            return new AheadBehind(counts[0], counts[1]);
+        });
+    }
+
+    /**
+     * 按拓扑顺序列出 head 可到达的提交，子提交总在父提交之前
+     *
+     * @param head  提交哈希或分支名称
+     * @param limit 最多返回的提交数，小于等于 0 表示不限制
+     * @return 提交哈希
+     */
+    public List<String> topologicalWalk(String head, int limit) {
+        return query(head, head, (g, a, b) -> g.toHashes(g.topologicalWalk(a, limit)));
+    }
+
+    /**
+     * 获取索引中的提交数量
+     *
+     * @return 提交数量，尚未加载时为 0
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return graph == null ? 0 : graph.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 拉取新出现的提交，尚未加载时加载完整的提交图
+     *
+     * @return 新增的提交数
+     */
+    public int refresh() {
+        lock.writeLock().lock();
+        try {
+            if (graph == null) {
+                return reloadLocked();
+            }
+            Map<String, String> heads = loadBranchHeads();
+            List<String> newHeads = new ArrayList<>();
+            Set<String> knownHeads = new HashSet<>();
+            for (String hash : heads.values()) {
+                if (graph.contains(hash)) {
+                    knownHeads.add(hash);
+                } else if (!newHeads.contains(hash)) {
+                    newHeads.add(hash);
+                }
+            }
+            if (newHeads.isEmpty()) {
+                return 0;
+            }
+            if (knownHeads.isEmpty()) {
+                return reloadLocked();
+            }
+            Map<String, Long> commitTimes = new HashMap<>();
+            Map<String, List<String>> parents = new LinkedHashMap<>();
+            loadLog(newHeads, knownHeads, commitTimes, parents);
+            for (List<String> commitParents : parents.values()) {
+                for (String parent : commitParents) {
+                    if (!parents.containsKey(parent) && !graph.contains(parent)) {
+                        // 历史被改写或提交被回收，增量数据无法接到已有的图上
+                        logger.debug("commit graph is missing parent {}, reload", parent);
+                        return reloadLocked();
+                    }
+                }
+            }
+            int before = graph.size();
+            appendTopologically(graph, commitTimes, parents);
+            logger.debug("commit graph refreshed, new commits: {}, total: {}", graph.size() - before, graph.size());
+            return graph.size() - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 丢弃已有的提交图并重新完整加载
+     *
+     * @return 加载的提交数
+     */
+    public int reload() {
+        lock.writeLock().lock();
+        try {
+            return reloadLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int reloadLocked() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> commitTimes = new HashMap<>();
+        try (DoltCursor cursor = executeQueryAsCursor(SqlBuilder.select("commit_hash", "date").from("dolt_commits").build())) {
+            while (cursor.hasNext()) {
+                Object[] values = cursor.nextValues();
+                commitTimes.put((String) values[0], toEpochMillis(values[1]));
+            }
+        }
+        Map<String, List<String>> parents = new LinkedHashMap<>();
+        for (String hash : commitTimes.keySet()) {
+            parents.put(hash, new ArrayList<>(1));
+        }
+        SqlBuilder.SqlTemplate ancestors = SqlBuilder.select("commit_hash", "parent_hash", "parent_index")
+                .from("dolt_commit_ancestors")
+                .orderBy("commit_hash", "parent_index")
+                .build();
+        try (DoltCursor cursor = executeQueryAsCursor(ancestors)) {
+            while (cursor.hasNext()) {
+                Object[] values = cursor.nextValues();
+                List<String> commitParents = parents.computeIfAbsent((String) values[0], k -> new ArrayList<>(1));
+                if (values[1] != null) {
+                    commitParents.add((String) values[1]);
+                }
+            }
+        }
+        CommitGraph loaded = new CommitGraph();
+        appendTopologically(loaded, commitTimes, parents);
+        graph = loaded;
+        logger.debug("commit graph loaded, commits: {}, cost: {}ms", loaded.size(), System.currentTimeMillis() - start);
+        return loaded.size();
+    }
+
+    private Map<String, String> loadBranchHeads() {
+        Map<String, String> heads = new HashMap<>();
+        try (DoltCursor cursor = executeQueryAsCursor(SqlBuilder.select("name", "hash").from("dolt_branches").build())) {
+            while (cursor.hasNext()) {
+                Object[] values = cursor.nextValues();
+                heads.put((String) values[0], (String) values[1]);
+            }
+        }
+        return heads;
+    }
+
+    private void loadLog(List<String> newHeads, Set<String> knownHeads,
+                         Map<String, Long> commitTimes, Map<String, List<String>> parents) {
+        List<String> params = new ArrayList<>(newHeads);
+        params.add("--parents");
+        params.add("--not");
+        params.addAll(knownHeads);
+        SqlBuilder.SqlTemplate sqlTemplate = SqlBuilder.select("commit_hash", "date", "parents")
+                .fromFunction("DOLT_LOG")
+                .withParams(params.toArray(new String[0]))
+                .build();
+        try (DoltCursor cursor = executeQueryAsCursor(sqlTemplate)) {
+            while (cursor.hasNext()) {
+                Object[] values = cursor.nextValues();
+                String hash = (String) values[0];
+                commitTimes.put(hash, toEpochMillis(values[1]));
+                parents.put(hash, parseParents((String) values[2]));
+            }
+        }
+    }
+
+    /**
+     * 按父提交在前的顺序把提交追加到图中。父提交既不在新数据中也不在图中时忽略该父提交。
+     */
+    private static void appendTopologically(CommitGraph target, Map<String, Long> commitTimes, Map<String, List<String>> parents) {
+        Set<String> visiting = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        for (String root : parents.keySet()) {
+            if (target.contains(root)) {
+                continue;
+            }
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                String hash = stack.peek();
+                if (target.contains(hash)) {
+                    stack.pop();
+                    continue;
+                }
+                List<String> commitParents = parents.getOrDefault(hash, List.of());
+                boolean ready = true;
+                if (visiting.add(hash)) {
+                    for (String parent : commitParents) {
+                        if (!target.contains(parent) && parents.containsKey(parent)) {
+                            stack.push(parent);
+                            ready = false;
+                        }
+                    }
+                }
+                if (ready) {
+                    stack.pop();
+                    List<String> known = new ArrayList<>(commitParents.size());
+                    for (String parent : commitParents) {
+                        if (target.contains(parent)) {
+                            known.add(parent);
+                        }
+                    }
+                    target.add(hash, commitTimes.getOrDefault(hash, 0L), known);
+                }
+            }
+        }
+    }
+
+    private <R> R query(String left, String right, GraphQuery<R> query) {
+        Map<String, String> hashes = currentHashes(left, right);
+        String leftHash = hashes.getOrDefault(left, left);
+        String rightHash = hashes.getOrDefault(right, right);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            lock.readLock().lock();
+            try {
+                if (graph != null) {
+                    int leftId = graph.idOf(leftHash);
+                    int rightId = graph.idOf(rightHash);
+                    if (leftId >= 0 && rightId >= 0) {
+                        return query.apply(graph, leftId, rightId);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (attempt == 0) {
+                refresh();
+            }
+        }
+        throw new DoltException("unknown revision: " + (idOf(leftHash) < 0 ? left : right));
+    }
+
+    /**
+     * 将不是已知提交哈希的修订版本解析为当前的提交哈希，分支名称总是读取服务端当前的分支头
+     *
+     * @return 修订版本到提交哈希的映射，已知的提交哈希和无法解析的修订版本不包含在内
+     */
+    private Map<String, String> currentHashes(String... revisions) {
+        Set<String> unresolved = new LinkedHashSet<>();
+        for (String revision : revisions) {
+            if (idOf(revision) < 0) {
+                unresolved.add(revision);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return RefResolver.hashAll("dolt_hashof", unresolved, RefResolver.DEFAULT_CHUNK_SIZE, this::executeQueryAsRowSetQuietly);
+    }
+
+    private int idOf(String hash) {
+        lock.readLock().lock();
+        try {
+            return graph == null ? -1 : graph.idOf(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 解析 dolt_log {@code --parents} 输出的父提交列表，第一个为第一父提交
+     *
+     * @param parents 以逗号或空白分隔的父提交哈希
+     * @return 父提交哈希
+     */
+    public static List<String> parseParents(String parents) {
+        if (parents == null || parents.isBlank()) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(2);
+        for (String parent : PARENT_SEPARATOR.split(parents.trim())) {
+            if (!parent.isEmpty()) {
+                result.add(parent);
+            }
+        }
+        return result;
+    }
+
+    private static long toEpochMillis(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof Date date) {
+            return date.getTime();
+        }
+        return 0L;
+    }
+
+    @FunctionalInterface
+    private interface GraphQuery<R> {
+        R apply(CommitGraph graph, int left, int right);
+    }
+}
@@ -0,0 +1,178 @@
+package com.hxuanyu.jdolt.graph;
+
+import com.hxuanyu.jdolt.exception.DoltConnectionException;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 批量解析修订版本和表哈希。
+ * <p>
+ * 多个引用在同一条 {@code SELECT dolt_hashof(?), dolt_hashof(?), ...} 中解析，
+ * 200 个分支只需要按 {@link #DEFAULT_CHUNK_SIZE} 拆分后的两次查询，而不是逐个调用
+ * {@link com.hxuanyu.jdolt.core.function.info.DoltInfoHashOf} 时的 200 次查询和 200 次连接借还。
+ * {@code dolt_hashof_table} 以同样的方式批量执行。
+ * <p>
+ * 任意一个引用不存在时整条语句都会失败，此时将该批对半拆分后重试，直到找出无法解析的引用；
+ * 无法解析的引用不出现在结果中，其余引用的结果不受影响。
+ *
+ * <pre>
+ * Map&lt;String, String&gt; heads = RefResolver.getInstance(connectionManager).resolve(branchNames);
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class RefResolver extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(RefResolver.class);
+
+    /**
+     * 每条语句默认包含的函数调用数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, RefResolver> INSTANCES = new ConcurrentHashMap<>();
+
+    private RefResolver(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static RefResolver getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new RefResolver(connectionManager));
+    }
+
+    /**
+     * 解析分支、标签、提交哈希或提交表达式对应的提交哈希
+     *
+     * @param refs 修订版本
+     * @return 修订版本到提交哈希的映射，顺序与输入一致，无法解析的修订版本不包含在内
+     */
+    public Map<String, String> resolve(Collection<String> refs) {
+        return resolve(refs, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 解析修订版本对应的提交哈希
+     *
+     * @param refs      修订版本
+     * @param chunkSize 每条语句包含的修订版本数
+     * @return 修订版本到提交哈希的映射，顺序与输入一致，无法解析的修订版本不包含在内
+     */
+    public Map<String, String> resolve(Collection<String> refs, int chunkSize) {
+        return hashAll("dolt_hashof", refs, chunkSize, this::executeQueryAsRowSetQuietly);
+    }
+
+    /**
+     * 计算当前工作集中多张表的值哈希，哈希不变即表数据未变化
+     *
+     * @param tables 表名
+     * @return 表名到哈希的映射，顺序与输入一致，不存在的表不包含在内
+     */
+    public Map<String, String> tableHashes(Collection<String> tables) {
+        return tableHashes(tables, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 计算当前工作集中多张表的值哈希
+     *
+     * @param tables    表名
+     * @param chunkSize 每条语句包含的表数
+     * @return 表名到哈希的映射，顺序与输入一致，不存在的表不包含在内
+     */
+    public Map<String, String> tableHashes(Collection<String> tables, int chunkSize) {
+        return hashAll("dolt_hashof_table", tables, chunkSize, this::executeQueryAsRowSetQuietly);
+    }
+
+    /**
+     * 按批次执行单参数哈希函数
+     *
+     * @param function  函数名
+     * @param arguments 参数，重复的参数只解析一次
+     * @param chunkSize 每条语句包含的调用数
+     * @param executor  执行查询
+     * @return 参数到哈希的映射
+     */
+    static Map<String, String> hashAll(String function, Collection<String> arguments, int chunkSize,
+                                       Function<SqlBuilder.SqlTemplate, RowSet> executor) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(arguments));
+        Map<String, String> hashes = new LinkedHashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            hashChunk(function, distinct.subList(from, Math.min(from + chunkSize, distinct.size())), executor, hashes);
+        }
+        return hashes;
+    }
+
+    private static void hashChunk(String function, List<String> arguments, Function<SqlBuilder.SqlTemplate, RowSet> executor,
+                                  Map<String, String> hashes) {
+        RowSet rowSet;
+        try {
+            rowSet = executor.apply(buildSqlTemplate(function, arguments));
+        } catch (DoltException e) {
+            if (isConnectionFailure(e)) {
+                throw e;
+            }
+            if (arguments.size() == 1) {
+                logger.debug("{} cannot resolve: {}", function, arguments.get(0));
+                return;
+            }
+            // 找出导致整条语句失败的参数
+            int middle = arguments.size() / 2;
+            hashChunk(function, arguments.subList(0, middle), executor, hashes);
+            hashChunk(function, arguments.subList(middle, arguments.size()), executor, hashes);
+            return;
+        }
+        if (rowSet == null || rowSet.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            Object hash = rowSet.get(0, i);
+            if (hash != null) {
+                hashes.put(arguments.get(i), hash.toString());
+            }
+        }
+    }
+
+    /**
+     * 连接失败与参数无关，拆分重试没有意义
+     */
+    private static boolean isConnectionFailure(DoltException e) {
+        if (e instanceof DoltConnectionException) {
+            return true;
+        }
+        return e.getCause() instanceof SQLException sqlException
+                && sqlException.getSQLState() != null
+                && sqlException.getSQLState().startsWith("08");
+    }
+
+    /**
+     * 生成 {@code SELECT f(?) AS h0, f(?) AS h1, ...}
+     */
+    static SqlBuilder.SqlTemplate buildSqlTemplate(String function, List<String> arguments) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(function).append("(?) AS h").append(i);
+        }
+        return new SqlBuilder.SqlTemplate(sql.toString(), new ArrayList<>(arguments));
+    }
+}
@@ -1,5 +1,7 @@
 package com.hxuanyu.jdolt.interfaces;
 
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.util.builder.AbstractInfoFunctionParamBuilder;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
@@ -22,9 +24,9 @@ public interface DoltInfoFunction<T extends AbstractInfoFunctionParamBuilder<T>>
 
 
     default SqlExecuteResult invoke(String... params) {
-        List<Map<String, Object>> resultMaps = executeQueryAsList(buildSqlTemplate(params));
-        if (resultMaps != null && !resultMaps.isEmpty()) {
-            return SqlExecuteResult.success("success", resultMaps);
+        RowSet rowSet = executeCacheableQuery(buildSqlTemplate(params));
+        if (rowSet != null && !rowSet.isEmpty()) {
+            return SqlExecuteResult.success("success", rowSet);
         } else {
             return SqlExecuteResult.failed("failed");
         }
@@ -34,6 +36,12 @@ public interface DoltInfoFunction<T extends AbstractInfoFunctionParamBuilder<T>>
 
     List<Map<String, Object>> executeQueryAsList(SqlBuilder.SqlTemplate sql);
 
+    RowSet executeQueryAsRowSet(SqlBuilder.SqlTemplate sql);
+
+    RowSet executeCacheableQuery(SqlBuilder.SqlTemplate sql);
+
+    DoltConnectionManager getConnectionManager();
+
     AbstractInfoFunctionParamBuilder<T> prepare();
 
     SqlBuilder.SqlTemplate buildSqlTemplate(String... params);
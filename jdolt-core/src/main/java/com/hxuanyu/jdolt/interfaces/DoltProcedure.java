@@ -1,5 +1,7 @@
 package com.hxuanyu.jdolt.interfaces;
 
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.util.builder.AbstractProcedureParamBuilder;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
@@ -17,14 +19,24 @@ public interface DoltProcedure<T extends AbstractProcedureParamBuilder<T>> {
 
 
     default boolean callWithResult(String... params) {
-        return commonDoltExecute(buildSqlTemplate(params));
+        try {
+            return commonDoltExecute(buildSqlTemplate(params));
+        } finally {
+            invalidateHeadCache();
+        }
     }
 
 
     default SqlExecuteResult call(String... params) {
-        List<Map<String, Object>> resultMaps = executeQueryAsList(buildSqlTemplate(params));
-        if (resultMaps != null && !resultMaps.isEmpty()) {
-            return SqlExecuteResult.success("success", resultMaps);
+        RowSet rowSet;
+        try {
+            rowSet = executeQueryAsRowSet(buildSqlTemplate(params));
+        } finally {
+            // 存储过程可能移动了 HEAD 或引用，分支读取缓存立即失效
+            invalidateHeadCache();
+        }
+        if (rowSet != null && !rowSet.isEmpty()) {
+            return SqlExecuteResult.success("success", rowSet);
         } else {
             return SqlExecuteResult.failed("failed");
         }
@@ -34,6 +46,12 @@ public interface DoltProcedure<T extends AbstractProcedureParamBuilder<T>> {
 
     List<Map<String, Object>> executeQueryAsList(SqlBuilder.SqlTemplate sqlTemplate);
 
+    RowSet executeQueryAsRowSet(SqlBuilder.SqlTemplate sqlTemplate);
+
+    void invalidateHeadCache();
+
+    DoltConnectionManager getConnectionManager();
+
     AbstractProcedureParamBuilder<T> prepare();
 
     SqlBuilder.SqlTemplate buildSqlTemplate(String... params);
@@ -1,5 +1,7 @@
 package com.hxuanyu.jdolt.interfaces;
 
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.util.builder.AbstractParamBuilder;
 import com.hxuanyu.jdolt.util.builder.AbstractSystemTableParamBuilder;
@@ -7,6 +9,7 @@ import com.hxuanyu.jdolt.util.builder.SqlBuilder;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Dolt内置函数接口定义，dolt内置函数应实现本接口定义的方法，对于通用的invoke方法， 可以使用默认实现或根据需要进行重写
@@ -23,18 +26,37 @@ public interface DoltSystemTable<T extends AbstractSystemTableParamBuilder<T>> {
 
 
     default SqlExecuteResult query(Map<AbstractParamBuilder.ParamType, List<Object>> params) {
-        List<Map<String, Object>> resultMaps = executeQueryAsList(buildSqlTemplate(params));
-        if (resultMaps != null) {
-            return SqlExecuteResult.success("success", resultMaps);
+        RowSet rowSet = executeCacheableQuery(buildSqlTemplate(params));
+        if (rowSet != null) {
+            return SqlExecuteResult.success("success", rowSet);
         } else {
             return SqlExecuteResult.failed("failed");
         }
     }
 
+    /**
+     * 以流的方式查询系统表，结果逐行读取，适用于 dolt_history_$table、dolt_diff_$table 等大表。
+     * 返回的流持有数据库连接，调用方应使用 try-with-resources 关闭。
+     *
+     * @param params 查询参数
+     * @return 行数据流
+     */
+    default Stream<Map<String, Object>> stream(Map<AbstractParamBuilder.ParamType, List<Object>> params) {
+        return executeQueryAsStream(buildSqlTemplate(params));
+    }
+
     boolean commonDoltExecute(SqlBuilder.SqlTemplate sql);
 
     List<Map<String, Object>> executeQueryAsList(SqlBuilder.SqlTemplate sql);
 
+    RowSet executeQueryAsRowSet(SqlBuilder.SqlTemplate sql);
+
+    RowSet executeCacheableQuery(SqlBuilder.SqlTemplate sql);
+
+    Stream<Map<String, Object>> executeQueryAsStream(SqlBuilder.SqlTemplate sql);
+
+    DoltConnectionManager getConnectionManager();
+
     AbstractSystemTableParamBuilder<T> prepare();
 
     SqlBuilder.SqlTemplate buildSqlTemplate(Map<AbstractParamBuilder.ParamType, List<Object>> params);
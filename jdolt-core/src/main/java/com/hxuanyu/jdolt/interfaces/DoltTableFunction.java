@@ -1,11 +1,14 @@
 package com.hxuanyu.jdolt.interfaces;
 
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.util.builder.AbstractTableFunctionParamBuilder;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Dolt内置函数接口定义，dolt内置函数应实现本接口定义的方法，对于通用的invoke方法， 可以使用默认实现或根据需要进行重写
@@ -22,18 +25,37 @@ public interface DoltTableFunction<T extends AbstractTableFunctionParamBuilder<T
 
 
     default SqlExecuteResult invoke(String... params) {
-        List<Map<String, Object>> resultMaps = executeQueryAsList(buildSqlTemplate(params));
-        if (resultMaps != null && !resultMaps.isEmpty()) {
-            return SqlExecuteResult.success("success", resultMaps);
+        RowSet rowSet = executeCacheableQuery(buildSqlTemplate(params));
+        if (rowSet != null && !rowSet.isEmpty()) {
+            return SqlExecuteResult.success("success", rowSet);
         } else {
             return SqlExecuteResult.failed("failed");
         }
     }
 
+    /**
+     * 以流的方式调用表函数，结果逐行读取，适用于 dolt_diff、dolt_log 等可能返回大量行的场景。
+     * 返回的流持有数据库连接，调用方应使用 try-with-resources 关闭。
+     *
+     * @param params 表函数参数
+     * @return 行数据流
+     */
+    default Stream<Map<String, Object>> stream(String... params) {
+        return executeQueryAsStream(buildSqlTemplate(params));
+    }
+
     boolean commonDoltExecute(SqlBuilder.SqlTemplate sqlTemplate);
 
     List<Map<String, Object>> executeQueryAsList(SqlBuilder.SqlTemplate sqlTemplate);
 
+    RowSet executeQueryAsRowSet(SqlBuilder.SqlTemplate sqlTemplate);
+
+    RowSet executeCacheableQuery(SqlBuilder.SqlTemplate sqlTemplate);
+
+    Stream<Map<String, Object>> executeQueryAsStream(SqlBuilder.SqlTemplate sqlTemplate);
+
+    DoltConnectionManager getConnectionManager();
+
     AbstractTableFunctionParamBuilder<T> prepare();
 
     SqlBuilder.SqlTemplate buildSqlTemplate(String... params);
@@ -0,0 +1,19 @@
+package com.hxuanyu.jdolt.load;
+
+/**
+ * 批量导入进度，每次 SQL 事务提交后回调一次
+ *
+ * @param rows       已写入的行数
+ * @param statements 已执行的 INSERT 语句数
+ * @param commits    已提交的 SQL 事务数
+ * @param elapsedMs  已耗时（毫秒）
+ */
+public record BulkLoadProgress(long rows, long statements, long commits, long elapsedMs) {
+
+    /**
+     * 平均每秒写入的行数
+     */
+    public double rowsPerSecond() {
+        return elapsedMs == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMs;
+    }
+}
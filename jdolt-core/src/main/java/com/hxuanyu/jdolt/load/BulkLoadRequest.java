@@ -0,0 +1,398 @@
+package com.hxuanyu.jdolt.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 批量导入请求：输入、目标表、每条语句的行数、SQL 事务的提交间隔，以及导入完成后的 Dolt 提交。
+ *
+ * <pre>
+ * BulkLoadRequest request = BulkLoadRequest.newBuilder("products")
+ *         .file(Path.of("products.csv"), LoadFormat.CSV)
+ *         .branch("import-2024-06", "main")
+ *         .commitMessage("import products")
+ *         .progressListener(progress -&gt; log.info("{} rows", progress.rows()))
+ *         .build();
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BulkLoadRequest {
+    /**
+     * 每条 INSERT 语句默认包含的行数
+     */
+    public static final int DEFAULT_ROWS_PER_STATEMENT = 1000;
+
+    /**
+     * 默认每导入多少行提交一次 SQL 事务
+     */
+    public static final int DEFAULT_COMMIT_EVERY_ROWS = 100_000;
+
+    private final String table;
+    private final List<String> columns;
+    private final Path file;
+    private final Reader reader;
+    private final LoadFormat format;
+    private final Charset charset;
+    private final boolean header;
+    private final char delimiter;
+    private final int rowsPerStatement;
+    private final int commitEveryRows;
+    private final String branch;
+    private final String sourceBranch;
+    private final boolean doltCommit;
+    private final String commitMessage;
+    private final String authorName;
+    private final String authorEmail;
+    private final Consumer<BulkLoadProgress> progressListener;
+
+    private BulkLoadRequest(Builder builder) {
+        this.table = builder.table;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(builder.columns));
+        this.file = builder.file;
+        this.reader = builder.reader;
+        this.format = builder.format;
+        this.charset = builder.charset;
+        this.header = builder.header;
+        this.delimiter = builder.delimiter;
+        this.rowsPerStatement = builder.rowsPerStatement;
+        this.commitEveryRows = builder.commitEveryRows;
+        this.branch = builder.branch;
+        this.sourceBranch = builder.sourceBranch;
+        this.doltCommit = builder.doltCommit;
+        this.commitMessage = builder.commitMessage;
+        this.authorName = builder.authorName;
+        this.authorEmail = builder.authorEmail;
+        this.progressListener = builder.progressListener;
+    }
+
+    /**
+     * @param table 目标表
+     * @return the Builder instance
+     */
+    public static Builder newBuilder(String table) {
+        return new Builder(table);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * 导入的列，为空时使用 CSV 表头或第一个 JSON 对象的键
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public LoadFormat getFormat() {
+        return format;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public int getRowsPerStatement() {
+        return rowsPerStatement;
+    }
+
+    public int getCommitEveryRows() {
+        return commitEveryRows;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * 创建目标分支时使用的源分支，为 null 时不创建分支
+     */
+    public String getSourceBranch() {
+        return sourceBranch;
+    }
+
+    public boolean isDoltCommit() {
+        return doltCommit;
+    }
+
+    public String getCommitMessage() {
+        return commitMessage;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public String getAuthorEmail() {
+        return authorEmail;
+    }
+
+    public Consumer<BulkLoadProgress> getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * 打开输入。文件通过 {@link FileChannel} 读取并按配置的字符集解码，不经过 {@code InputStream} 的额外缓冲
+     */
+    Reader openReader() throws IOException {
+        if (reader != null) {
+            return reader;
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return Channels.newReader(channel, charset.newDecoder(), 1 << 16);
+    }
+
+    RecordReader openRecordReader() throws IOException {
+        Reader input = openReader();
+        if (format == LoadFormat.JSONL) {
+            return new JsonLinesRecordReader(input);
+        }
+        return new CsvRecordReader(input, delimiter, '"', header);
+    }
+
+    /**
+     * Builder class for BulkLoadRequest.
+     */
+    public static class Builder {
+        private final String table;
+        private final List<String> columns = new ArrayList<>();
+        private Path file;
+        private Reader reader;
+        private LoadFormat format = LoadFormat.CSV;
+        private Charset charset = StandardCharsets.UTF_8;
+        private boolean header = true;
+        private char delimiter = ',';
+        private int rowsPerStatement = DEFAULT_ROWS_PER_STATEMENT;
+        private int commitEveryRows = DEFAULT_COMMIT_EVERY_ROWS;
+        private String branch;
+        private String sourceBranch;
+        private boolean doltCommit = true;
+        private String commitMessage;
+        private String authorName;
+        private String authorEmail;
+        private Consumer<BulkLoadProgress> progressListener;
+
+        private Builder(String table) {
+            if (table == null || table.isBlank()) {
+                throw new IllegalArgumentException("table must not be empty");
+            }
+            this.table = table;
+        }
+
+        /**
+         * 导入的列，顺序与输入中的字段一致（CSV）或指定取值的键（JSONL）
+         *
+         * @param columns 列名
+         * @return the Builder instance
+         */
+        public Builder columns(String... columns) {
+            this.columns.clear();
+            Collections.addAll(this.columns, columns);
+            return this;
+        }
+
+        /**
+         * 从文件导入
+         *
+         * @param file   文件路径
+         * @param format 文件格式
+         * @return the Builder instance
+         */
+        public Builder file(Path file, LoadFormat format) {
+            if (file == null || format == null) {
+                throw new IllegalArgumentException("file and format must not be null");
+            }
+            this.file = file;
+            this.reader = null;
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * 从字符流导入，导入结束后关闭
+         *
+         * @param reader 字符流
+         * @param format 格式
+         * @return the Builder instance
+         */
+        public Builder reader(Reader reader, LoadFormat format) {
+            if (reader == null || format == null) {
+                throw new IllegalArgumentException("reader and format must not be null");
+            }
+            this.reader = reader;
+            this.file = null;
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * 文件的字符集，默认 UTF-8
+         *
+         * @param charset 字符集
+         * @return the Builder instance
+         */
+        public Builder charset(Charset charset) {
+            if (charset == null) {
+                throw new IllegalArgumentException("charset must not be null");
+            }
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * CSV 第一行是否为表头，默认是。没有表头时必须通过 {@link #columns(String...)} 指定列
+         *
+         * @param header 是否有表头
+         * @return the Builder instance
+         */
+        public Builder header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * CSV 字段分隔符，默认逗号
+         *
+         * @param delimiter 分隔符
+         * @return the Builder instance
+         */
+        public Builder delimiter(char delimiter) {
+            if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+                throw new IllegalArgumentException("invalid delimiter: " + delimiter);
+            }
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * 每条多行 INSERT 语句包含的行数。列数较多时应调小，避免占位符总数超过服务端 65535 的限制
+         *
+         * @param rowsPerStatement 每条语句的行数
+         * @return the Builder instance
+         */
+        public Builder rowsPerStatement(int rowsPerStatement) {
+            if (rowsPerStatement <= 0) {
+                throw new IllegalArgumentException("rowsPerStatement must be greater than 0");
+            }
+            this.rowsPerStatement = rowsPerStatement;
+            return this;
+        }
+
+        /**
+         * 每导入多少行提交一次 SQL 事务，控制服务端未提交工作集的大小。
+         * 中间的 SQL 提交只更新工作集，不产生 Dolt 提交
+         *
+         * @param commitEveryRows 行数
+         * @return the Builder instance
+         */
+        public Builder commitEveryRows(int commitEveryRows) {
+            if (commitEveryRows <= 0) {
+                throw new IllegalArgumentException("commitEveryRows must be greater than 0");
+            }
+            this.commitEveryRows = commitEveryRows;
+            return this;
+        }
+
+        /**
+         * 导入到已存在的分支
+         *
+         * @param branch 分支名称
+         * @return the Builder instance
+         */
+        public Builder branch(String branch) {
+            this.branch = branch;
+            this.sourceBranch = null;
+            return this;
+        }
+
+        /**
+         * 从源分支创建新分支并导入到新分支
+         *
+         * @param branch       新分支名称
+         * @param sourceBranch 源分支
+         * @return the Builder instance
+         */
+        public Builder branch(String branch, String sourceBranch) {
+            if (sourceBranch == null || sourceBranch.isBlank()) {
+                throw new IllegalArgumentException("sourceBranch must not be empty");
+            }
+            this.branch = branch;
+            this.sourceBranch = sourceBranch;
+            return this;
+        }
+
+        /**
+         * Dolt 提交信息
+         *
+         * @param commitMessage 提交信息
+         * @return the Builder instance
+         */
+        public Builder commitMessage(String commitMessage) {
+            this.commitMessage = commitMessage;
+            return this;
+        }
+
+        /**
+         * Dolt 提交的作者
+         *
+         * @param name  作者名称
+         * @param email 作者邮箱
+         * @return the Builder instance
+         */
+        public Builder author(String name, String email) {
+            this.authorName = name;
+            this.authorEmail = email;
+            return this;
+        }
+
+        /**
+         * 只写入工作集，不执行 DOLT_ADD 和 DOLT_COMMIT
+         *
+         * @return the Builder instance
+         */
+        public Builder noDoltCommit() {
+            this.doltCommit = false;
+            return this;
+        }
+
+        /**
+         * 每次 SQL 事务提交后的进度回调，在导入线程上执行
+         *
+         * @param progressListener 回调
+         * @return the Builder instance
+         */
+        public Builder progressListener(Consumer<BulkLoadProgress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        public BulkLoadRequest build() {
+            if (file == null && reader == null) {
+                throw new IllegalStateException("file or reader must be set");
+            }
+            if (format == LoadFormat.CSV && !header && columns.isEmpty()) {
+                throw new IllegalStateException("columns must be set when CSV has no header");
+            }
+            if (doltCommit && (commitMessage == null || commitMessage.isBlank())) {
+                throw new IllegalStateException("commitMessage must be set");
+            }
+            return new BulkLoadRequest(this);
+        }
+    }
+}
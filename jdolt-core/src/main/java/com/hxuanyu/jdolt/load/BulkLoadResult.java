@@ -0,0 +1,13 @@
+package com.hxuanyu.jdolt.load;
+
+/**
+ * 批量导入结果
+ *
+ * @param branch     导入的分支，为 null 时表示连接默认的分支
+ * @param rows       写入的行数
+ * @param statements 执行的 INSERT 语句数
+ * @param commitHash 导入完成后创建的 Dolt 提交，没有提交或没有变化时为 null
+ * @param elapsedMs  总耗时（毫秒），包括 Dolt 提交
+ */
+public record BulkLoadResult(String branch, long rows, long statements, String commitHash, long elapsedMs) {
+}
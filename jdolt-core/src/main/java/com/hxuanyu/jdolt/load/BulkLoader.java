@@ -0,0 +1,255 @@
+package com.hxuanyu.jdolt.load;
+
+import com.hxuanyu.jdolt.core.procedure.DoltAdd;
+import com.hxuanyu.jdolt.core.procedure.DoltBranch;
+import com.hxuanyu.jdolt.core.procedure.DoltCommit;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.repository.DoltRepository;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 高吞吐的批量导入。
+ * <p>
+ * 输入按字符缓冲区流式解析，不把整个文件读入内存；记录按 {@link BulkLoadRequest#getRowsPerStatement()} 行组成一条多行
+ * INSERT，在同一个连接上执行，满行数的语句复用同一个 PreparedStatement。每写入
+ * {@link BulkLoadRequest#getCommitEveryRows()} 行提交一次 SQL 事务并回调进度，服务端的未提交数据量保持有界。
+ * 全部写入后只执行一次 {@code DOLT_ADD} 和 {@code DOLT_COMMIT}，整个导入在提交历史中只产生一个提交。
+ * <p>
+ * 导入失败时回滚当前未提交的 SQL 事务并抛出异常，已经提交的部分保留在工作集中，不会产生 Dolt 提交。
+ * 导入到新建分支时，失败后可以直接删除该分支，不影响源分支。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BulkLoader extends DoltRepository {
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+
+    /**
+     * 表名和列名允许的字符，列名可能来自 CSV 表头，拼入 SQL 前必须校验
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    // 单例管理
+    private static final ConcurrentHashMap<DoltConnectionManager, BulkLoader> INSTANCES = new ConcurrentHashMap<>();
+
+    private BulkLoader(DoltConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    public static BulkLoader getInstance(DoltConnectionManager connectionManager) {
+        return INSTANCES.computeIfAbsent(connectionManager, k -> new BulkLoader(connectionManager));
+    }
+
+    /**
+     * 执行导入
+     *
+     * @param request 导入请求
+     * @return 导入结果
+     */
+    public BulkLoadResult load(BulkLoadRequest request) {
+        DoltConnectionManager connectionManager = getConnectionManager();
+        if (connectionManager.isInTransaction()) {
+            // 导入需要自行分段提交 SQL 事务，不能加入外层事务
+            throw new DoltException("bulk load cannot run inside a transaction");
+        }
+        long start = System.currentTimeMillis();
+        String branch = request.getBranch();
+        if (request.getSourceBranch() != null) {
+            checkBranchName(branch, request.getSourceBranch());
+            SqlExecuteResult created = DoltBranch.getInstance(connectionManager).prepare()
+                    .create(branch, request.getSourceBranch())
+                    .execute();
+            if (!created.isSuccess()) {
+                throw new DoltException("create branch failed: " + branch);
+            }
+        }
+        DoltConnectionManager target = branch != null ? connectionManager.forBranch(branch) : connectionManager;
+
+        Progress progress = write(target, request, start);
+        logger.info("bulk load {} finish, rows: {}, statements: {}, commits: {}, cost: {}ms", request.getTable(),
+                progress.rows, progress.statements, progress.commits, System.currentTimeMillis() - start);
+
+        String commitHash = null;
+        if (request.isDoltCommit()) {
+            commitHash = doltCommit(target, request);
+        }
+        return new BulkLoadResult(branch, progress.rows, progress.statements, commitHash, System.currentTimeMillis() - start);
+    }
+
+    private String doltCommit(DoltConnectionManager target, BulkLoadRequest request) {
+        SqlExecuteResult added = DoltAdd.getInstance(target).prepare().withTable(request.getTable()).execute();
+        if (!added.isSuccess()) {
+            throw new DoltException("dolt add failed after bulk load: " + request.getTable());
+        }
+        DoltCommit.Params commit = DoltCommit.getInstance(target).prepare()
+                .message(request.getCommitMessage())
+                .skipEmpty();
+        if (request.getAuthorName() != null) {
+            commit.withAuthor(request.getAuthorName(), request.getAuthorEmail());
+        }
+        SqlExecuteResult committed = commit.execute();
+        if (!committed.isSuccess()) {
+            throw new DoltException("dolt commit failed after bulk load: " + request.getTable());
+        }
+        // --skip-empty 在没有变化时不创建提交，返回空哈希
+        String hash = committed.getString("hash");
+        return hash == null || hash.isEmpty() ? null : hash;
+    }
+
+    private Progress write(DoltConnectionManager target, BulkLoadRequest request, long start) {
+        Progress progress = new Progress(start, request);
+        RecordReader records = null;
+        try (RecordReader input = request.openRecordReader(); Connection connection = target.getConnection()) {
+            records = input;
+            List<String> columns = request.getColumns().isEmpty() ? input.columns() : request.getColumns();
+            if (columns == null || columns.isEmpty()) {
+                throw new DoltException("no columns to load into " + request.getTable());
+            }
+            String table = quoteTable(request.getTable());
+            List<String> quotedColumns = columns.stream().map(BulkLoader::quoteIdentifier).toList();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            PreparedStatement fullStatement = null;
+            try {
+                int rowsPerStatement = request.getRowsPerStatement();
+                List<Object[]> rows = new ArrayList<>(rowsPerStatement);
+                Object[] row;
+                while ((row = input.next(columns)) != null) {
+                    rows.add(row);
+                    if (rows.size() == rowsPerStatement) {
+                        if (fullStatement == null) {
+                            fullStatement = connection.prepareStatement(insertSql(table, quotedColumns, rowsPerStatement));
+                        }
+                        progress.executed(insert(fullStatement, rows));
+                        rows.clear();
+                        if (progress.rowsSinceCommit >= request.getCommitEveryRows()) {
+                            connection.commit();
+                            progress.committed();
+                        }
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    try (PreparedStatement lastStatement = connection.prepareStatement(insertSql(table, quotedColumns, rows.size()))) {
+                        progress.executed(insert(lastStatement, rows));
+                    }
+                }
+                connection.commit();
+                progress.committed();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                if (fullStatement != null) {
+                    fullStatement.close();
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (IOException e) {
+            long line = records != null ? records.lineNumber() : 0;
+            DoltException doltException = new DoltException("bulk load read error at line " + line, e);
+            logger.error("bulk load read error, table: {}, line: {}", request.getTable(), line, doltException);
+            throw doltException;
+        } catch (SQLException e) {
+            long line = records != null ? records.lineNumber() : 0;
+            DoltException doltException = new DoltException("bulk load write error near line " + line
+                    + ", committed rows: " + progress.committedRows, e);
+            logger.error("bulk load write error, table: {}, line: {}", request.getTable(), line, doltException);
+            throw doltException;
+        }
+        return progress;
+    }
+
+    private static int insert(PreparedStatement statement, List<Object[]> rows) throws SQLException {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                statement.setObject(index++, value);
+            }
+        }
+        statement.executeUpdate();
+        return rows.size();
+    }
+
+    /**
+     * 校验标识符并用反引号包裹
+     *
+     * @param name 列名或表名
+     * @return 加反引号的名称
+     */
+    static String quoteIdentifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new DoltException("invalid identifier: " + name);
+        }
+        return "`" + name + "`";
+    }
+
+    /**
+     * 校验并引用表名，支持 {@code 数据库.表} 的形式
+     */
+    static String quoteTable(String table) {
+        int index = table.indexOf('.');
+        if (index < 0) {
+            return quoteIdentifier(table);
+        }
+        return quoteIdentifier(table.substring(0, index)) + "." + quoteIdentifier(table.substring(index + 1));
+    }
+
+    /**
+     * 生成 rowCount 行的多行 INSERT 语句，表名和列名需已经过 {@link #quoteIdentifier(String)} 处理
+     */
+    static String insertSql(String table, List<String> columns, int rowCount) {
+        SqlBuilder builder = SqlBuilder.insertInto(table).columns(columns.toArray(new String[0]));
+        Object[] placeholders = new Object[columns.size()];
+        for (int i = 0; i < rowCount; i++) {
+            builder.values(placeholders);
+        }
+        return builder.build().sql();
+    }
+
+    /**
+     * 导入过程中的计数
+     */
+    private static final class Progress {
+        private final long start;
+        private final BulkLoadRequest request;
+        private long rows;
+        private long statements;
+        private long commits;
+        private long rowsSinceCommit;
+        private long committedRows;
+
+        Progress(long start, BulkLoadRequest request) {
+            this.start = start;
+            this.request = request;
+        }
+
+        void executed(int rowCount) {
+            rows += rowCount;
+            rowsSinceCommit += rowCount;
+            statements++;
+        }
+
+        void committed() {
+            commits++;
+            rowsSinceCommit = 0;
+            committedRows = rows;
+            if (request.getProgressListener() != null) {
+                request.getProgressListener().accept(
+                        new BulkLoadProgress(rows, statements, commits, System.currentTimeMillis() - start));
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.hxuanyu.jdolt.load;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 风格的 CSV 读取器，直接在字符缓冲区上解析，不按行切分字符串。
+ * <p>
+ * 没有引号的空字段读取为 NULL，引号包围的空字段读取为空字符串；空行被跳过。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class CsvRecordReader implements RecordReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char quote;
+    private final boolean header;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLine = 1;
+    private boolean headerRead;
+    private List<String> headerColumns;
+
+    CsvRecordReader(Reader reader, char delimiter, char quote, boolean header) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.header = header;
+    }
+
+    @Override
+    public List<String> columns() throws IOException {
+        if (!headerRead) {
+            headerRead = true;
+            if (header) {
+                List<String> names = readRecord();
+                headerColumns = names == null ? List.of() : names;
+            }
+        }
+        return headerColumns;
+    }
+
+    @Override
+    public Object[] next(List<String> columns) throws IOException {
+        columns();
+        List<String> fields = readRecord();
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() != columns.size()) {
+            throw new DoltException("line " + recordLine + " has " + fields.size() + " fields, expected " + columns.size());
+        }
+        return fields.toArray();
+    }
+
+    @Override
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 读取一条记录，输入结束时返回 null
+     */
+    List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        recordLine = lineNumber;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (inQuotes) {
+                    throw new DoltException("unterminated quoted field at line " + lineNumber);
+                }
+                if (fields.isEmpty() && field.length() == 0 && !quoted) {
+                    return null;
+                }
+                fields.add(value(field, quoted));
+                return fields;
+            }
+            if (inQuotes) {
+                if (c == quote) {
+                    if (peek() == quote) {
+                        read();
+                        field.append(quote);
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == quote && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                lineNumber++;
+                if (fields.isEmpty() && field.length() == 0 && !quoted) {
+                    // 空行
+                    recordLine = lineNumber;
+                    continue;
+                }
+                fields.add(value(field, quoted));
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        if (!quoted && field.length() == 0) {
+            return null;
+        }
+        return field.toString();
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,287 @@
+package com.hxuanyu.jdolt.load;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON Lines 读取器，每行一个 JSON 对象，按列名取值。
+ * <p>
+ * 字符串、数字、布尔值和 null 转换为对应的 Java 类型，嵌套的对象和数组保留原始 JSON 文本，
+ * 可以直接写入 JSON 列。对象中缺少的列写入 NULL，多出的键视为错误，避免拼错列名的数据被悄悄丢弃。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class JsonLinesRecordReader implements RecordReader {
+    private final BufferedReader reader;
+    private long lineNumber;
+    private boolean started;
+    private Map<String, Object> pending;
+
+    JsonLinesRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * JSON Lines 没有表头，列名取自第一个对象的键
+     */
+    @Override
+    public List<String> columns() throws IOException {
+        if (!started) {
+            started = true;
+            pending = readObject();
+        }
+        return pending == null ? List.of() : new ArrayList<>(pending.keySet());
+    }
+
+    @Override
+    public Object[] next(List<String> columns) throws IOException {
+        columns();
+        Map<String, Object> object = pending != null ? pending : readObject();
+        pending = null;
+        if (object == null) {
+            return null;
+        }
+        Object[] values = new Object[columns.size()];
+        int matched = 0;
+        for (int i = 0; i < values.length; i++) {
+            String column = columns.get(i);
+            if (object.containsKey(column)) {
+                values[i] = object.get(column);
+                matched++;
+            }
+        }
+        if (matched != object.size()) {
+            for (String key : object.keySet()) {
+                if (!columns.contains(key)) {
+                    throw new DoltException("line " + lineNumber + " has unknown column: " + key);
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                return new Parser(line, lineNumber).parseLine();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 单行 JSON 的递归下降解析
+     */
+    static final class Parser {
+        private final String text;
+        private final long lineNumber;
+        private int position;
+
+        Parser(String text, long lineNumber) {
+            this.text = text;
+            this.lineNumber = lineNumber;
+        }
+
+        Map<String, Object> parseLine() {
+            skipWhitespace();
+            if (peek() != '{') {
+                throw error("expected JSON object");
+            }
+            Map<String, Object> object = parseObject();
+            skipWhitespace();
+            if (position != text.length()) {
+                throw error("unexpected trailing content");
+            }
+            return object;
+        }
+
+        private Map<String, Object> parseObject() {
+            expect('{');
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(key, parseValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object parseValue() {
+            char c = peek();
+            switch (c) {
+                case '"':
+                    return parseString();
+                case '{':
+                case '[':
+                    // 嵌套结构保留原始文本
+                    int start = position;
+                    skipNested();
+                    return text.substring(start, position);
+                case 't':
+                    literal("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    literal("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    literal("null");
+                    return null;
+                default:
+                    return parseNumber();
+            }
+        }
+
+        private void skipNested() {
+            int depth = 0;
+            do {
+                char c = next();
+                if (c == '"') {
+                    position--;
+                    parseString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder builder = null;
+            int start = position;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return builder == null ? text.substring(start, position - 1) : builder.toString();
+                }
+                if (c != '\\') {
+                    if (builder != null) {
+                        builder.append(c);
+                    }
+                    continue;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder(text.substring(start, position - 1));
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> builder.append(escaped);
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("invalid unicode escape");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw error("invalid escape: \\" + escaped);
+                }
+            }
+        }
+
+        private Object parseNumber() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String number = text.substring(start, position);
+            if (number.isEmpty()) {
+                throw error("unexpected character");
+            }
+            try {
+                BigDecimal decimal = new BigDecimal(number);
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return decimal.longValueExact();
+                    } catch (ArithmeticException e) {
+                        return decimal;
+                    }
+                }
+                return decimal;
+            } catch (NumberFormatException e) {
+                throw error("invalid number: " + number);
+            }
+        }
+
+        private void literal(String literal) {
+            if (!text.startsWith(literal, position)) {
+                throw error("unexpected character");
+            }
+            position += literal.length();
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        private char peek() {
+            if (position >= text.length()) {
+                throw error("unexpected end of line");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private DoltException error(String message) {
+            return new DoltException("invalid JSON at line " + lineNumber + ", column " + (position + 1) + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hxuanyu.jdolt.load;
+
+/**
+ * 批量导入的输入格式
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public enum LoadFormat {
+    /**
+     * 逗号分隔值，支持双引号包围的字段、字段内的分隔符、换行和 {@code ""} 转义
+     */
+    CSV,
+    /**
+     * 每行一个 JSON 对象
+     */
+    JSONL
+}
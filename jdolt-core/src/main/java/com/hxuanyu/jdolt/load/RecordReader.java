@@ -0,0 +1,36 @@
+package com.hxuanyu.jdolt.load;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 逐条读取导入记录
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+interface RecordReader extends AutoCloseable {
+
+    /**
+     * 输入中的列名，在读取第一条记录前调用；输入本身没有列名时返回 null
+     *
+     * @return 列名
+     */
+    List<String> columns() throws IOException;
+
+    /**
+     * 读取下一条记录，值的顺序与 {@link #columns()} 或导入请求指定的列一致
+     *
+     * @param columns 导入的列
+     * @return 列值，输入结束时返回 null
+     */
+    Object[] next(List<String> columns) throws IOException;
+
+    /**
+     * 当前读取到的行号，用于错误信息
+     */
+    long lineNumber();
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,127 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 以有界并发执行一组查询，并按完成顺序交付结果。
+ * <p>
+ * 最多启动 maxConcurrency 个工作任务，每个任务从待处理队列中取输入、执行查询、把结果放入完成队列，
+ * 直到队列为空。这样同时占用的连接数不超过上限，而整体耗时接近最慢的一个查询。
+ * 任意一个查询失败时，迭代在交付到该结果时抛出 {@link DoltException}；消费方关闭后，尚未开始的输入不再查询。
+ *
+ * @param <I> 输入类型，例如表或修订版本
+ * @param <R> 结果类型
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class BoundedCompletionStream<I, R> implements Iterator<R>, AutoCloseable {
+    private final Queue<I> pending;
+    private final BlockingQueue<Object> completed = new LinkedBlockingQueue<>();
+    private final Function<I, R> loader;
+    private final String operation;
+    private final Function<I, String> describe;
+    private final int total;
+    private int delivered;
+    private volatile boolean closed;
+
+    /**
+     * @param inputs         输入
+     * @param loader         对一个输入执行查询，在执行器的线程上调用
+     * @param executor       执行器
+     * @param maxConcurrency 同时执行的查询数上限
+     * @param operation      操作名称，用于异常信息，例如 {@code "dolt diff"}
+     * @param describe       描述失败的输入，用于异常信息，例如 {@code "table: products"}
+     */
+    public BoundedCompletionStream(List<I> inputs, Function<I, R> loader, Executor executor, int maxConcurrency,
+                                   String operation, Function<I, String> describe) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        this.pending = new ConcurrentLinkedQueue<>(inputs);
+        this.loader = loader;
+        this.operation = operation;
+        this.describe = describe;
+        this.total = inputs.size();
+        int workers = Math.min(maxConcurrency, inputs.size());
+        for (int i = 0; i < workers; i++) {
+            // 等待执行许可时被中断的工作任务放入失败结果，消费方不会一直等待
+            executor.execute(DoltAsyncExecutor.task(this::work, e -> completed.add(
+                    new Failure(null, new DoltException("interrupted while waiting for execution permit", e)))));
+        }
+    }
+
+    private void work() {
+        I input;
+        while (!closed && (input = pending.poll()) != null) {
+            try {
+                completed.add(loader.apply(input));
+            } catch (Throwable e) {
+                // 任何失败都必须放入完成队列，否则消费方会一直等待
+                completed.add(new Failure(input, e));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed && delivered < total;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object result;
+        try {
+            result = completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new DoltException("interrupted while waiting for " + operation, e);
+        }
+        delivered++;
+        if (result instanceof Failure failure) {
+            close();
+            if (failure.cause instanceof DoltException doltException) {
+                throw doltException;
+            }
+            throw new DoltException(operation + " failed, " + describe.apply((I) failure.input), failure.cause);
+        }
+        return (R) result;
+    }
+
+    /**
+     * 以流的形式交付结果，流关闭时停止尚未开始的查询
+     *
+     * @return 按完成顺序交付结果的流
+     */
+    public Stream<R> stream() {
+        Spliterator<R> spliterator = Spliterators.spliterator(this, total, Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    private record Failure(Object input, Throwable cause) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.util.validator.BranchNameValidator;
+
+import java.util.function.Supplier;
+
+/**
+ * 线程绑定的分支上下文。
+ * <p>
+ * 在上下文中执行的操作，即使使用的是未固定分支的 {@link DoltConnectionManager}，
+ * 也会从对应分支的连接池获取连接。上下文可以嵌套，退出时恢复外层的分支。
+ *
+ * <pre>
+ * List&lt;BranchInfo&gt; branches = BranchContext.call("feature/a", () -&gt; doltClient.api().branches());
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class BranchContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private BranchContext() {
+    }
+
+    /**
+     * 获取当前线程绑定的分支
+     *
+     * @return 分支名称，没有绑定时返回 null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在指定分支的上下文中执行操作
+     *
+     * @param branch   分支名称
+     * @param supplier 要执行的操作
+     * @param <T>      返回值类型
+     * @return 操作的返回值
+     */
+    public static <T> T call(String branch, Supplier<T> supplier) {
+        if (!BranchNameValidator.isValidBranchName(branch)) {
+            throw new IllegalArgumentException("branchName is invalid, current: " + branch);
+        }
+        String previous = CURRENT.get();
+        CURRENT.set(branch);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 在指定分支的上下文中执行操作
+     *
+     * @param branch   分支名称
+     * @param runnable 要执行的操作
+     */
+    public static void run(String branch, Runnable runnable) {
+        call(branch, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,390 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.exception.DoltConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 固定到某个分支的数据源。
+ * <p>
+ * 从父数据源取得物理连接后，通过 Dolt 的修订版本数据库（{@code USE `db/branch`}）把连接切换到指定分支，
+ * 连接上后续的所有语句都作用于该分支，不会受其他连接上 {@code DOLT_CHECKOUT} 的影响。
+ * <p>
+ * 已经切换好分支的连接在关闭时不会立刻归还父连接池，而是保留在本数据源的空闲队列中，
+ * 下次获取时直接复用，避免每次请求都多一次切换分支的往返。空闲连接数超过上限或数据源关闭时，
+ * 连接会先切回原数据库再归还父连接池，以免污染父连接池中的其他连接。
+ * <p>
+ * 由 {@link BranchPoolRegistry} 创建时，新建物理连接前需要从注册表取得许可，所有分支池合计的连接数因此有上限。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BranchDataSource implements DataSource, AutoCloseable {
+    /**
+     * 默认保留的空闲分支连接数
+     */
+    public static final int DEFAULT_MAX_IDLE = 4;
+
+    /**
+     * 空闲时间不超过该值的连接复用前不做检查，与 HikariCP 的默认值相同
+     */
+    static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+
+    private static final Logger logger = LoggerFactory.getLogger(BranchDataSource.class);
+
+    private final DataSource parent;
+    private final String branch;
+    private final int maxIdle;
+    private final BranchPoolRegistry registry;
+
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    private volatile String database;
+    private volatile boolean closed;
+
+    public BranchDataSource(DataSource parent, String branch) {
+        this(parent, branch, DEFAULT_MAX_IDLE);
+    }
+
+    public BranchDataSource(DataSource parent, String branch, int maxIdle) {
+        this(parent, null, branch, maxIdle, null);
+    }
+
+    BranchDataSource(DataSource parent, String database, String branch, int maxIdle, BranchPoolRegistry registry) {
+        if (parent == null) {
+            throw new IllegalArgumentException("DataSource 不能为空");
+        }
+        if (branch == null || branch.isEmpty()) {
+            throw new IllegalArgumentException("branch 不能为空");
+        }
+        this.parent = parent;
+        this.branch = branch;
+        this.maxIdle = Math.max(0, maxIdle);
+        this.database = database;
+        this.registry = registry;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * 获取当前空闲的分支连接数
+     *
+     * @return 空闲连接数
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * 获取当前借出的分支连接数
+     *
+     * @return 借出连接数
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 获取连接池的统计信息快照
+     *
+     * @return 统计信息
+     */
+    public BranchPoolStats getStats() {
+        String db = database;
+        return new BranchPoolStats(db == null ? branch : db + "/" + branch, activeCount.get(), idleCount.get(),
+                createdCount.get(), reusedCount.get(), evictedCount.get(), lastAccessTime);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("BranchDataSource is closed, branch: " + branch);
+        }
+        lastAccessTime = System.currentTimeMillis();
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (isAlive(idle)) {
+                reusedCount.incrementAndGet();
+                return wrap(idle.physical());
+            }
+            evict(idle.physical());
+        }
+
+        Connection physical;
+        if (registry != null) {
+            registry.acquirePermit(this);
+        }
+        try {
+            physical = parent.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            if (registry != null) {
+                registry.releasePermit();
+            }
+            throw e;
+        }
+        try {
+            pin(physical);
+        } catch (SQLException | RuntimeException e) {
+            evict(physical);
+            throw e;
+        }
+        createdCount.incrementAndGet();
+        return wrap(physical);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("BranchDataSource 不支持指定用户名和密码获取连接");
+    }
+
+    /**
+     * 关闭数据源，所有空闲连接切回原数据库后归还父连接池。已借出的连接在关闭时直接归还父连接池。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            evict(idle.physical());
+        }
+    }
+
+    /**
+     * 归还一个最久未使用的空闲连接给外部连接池，供连接总数达到上限时腾出许可
+     *
+     * @return 是否归还了连接
+     */
+    boolean evictOneIdle() {
+        IdleConnection idle = idleConnections.pollLast();
+        if (idle == null) {
+            return false;
+        }
+        idleCount.decrementAndGet();
+        evict(idle.physical());
+        return true;
+    }
+
+    /**
+     * 将物理连接切换到分支对应的修订版本数据库
+     */
+    private void pin(Connection physical) throws SQLException {
+        String db = resolveDatabase(physical);
+        try (Statement statement = physical.createStatement()) {
+            statement.execute("USE " + quoteIdentifier(db + "/" + branch));
+        }
+        logger.debug("connection pinned to branch, database: {} branch: {}", db, branch);
+    }
+
+    private String resolveDatabase(Connection physical) throws SQLException {
+        String db = database;
+        if (db != null) {
+            return db;
+        }
+        try (Statement statement = physical.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT DATABASE()")) {
+            db = resultSet.next() ? resultSet.getString(1) : null;
+        }
+        if (db == null || db.isEmpty()) {
+            throw new DoltConnectionException("无法确定当前数据库，请在连接串中指定数据库, branch: " + branch);
+        }
+        // 父连接本身可能已经指向某个修订版本数据库，只保留数据库名
+        int slash = db.indexOf('/');
+        if (slash > 0) {
+            db = db.substring(0, slash);
+        }
+        database = db;
+        return db;
+    }
+
+    /**
+     * 借出的连接关闭时调用，优先放回空闲队列
+     */
+    private void release(Connection physical) {
+        activeCount.decrementAndGet();
+        try {
+            if (physical.isClosed()) {
+                evict(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("reset branch connection error, branch: {}", branch, e);
+            evict(physical);
+            return;
+        }
+
+        if (!closed && idleCount.incrementAndGet() <= maxIdle) {
+            // 后进先出，优先复用最近使用过的连接
+            IdleConnection idle = new IdleConnection(physical, System.currentTimeMillis());
+            idleConnections.offerFirst(idle);
+            if (closed && idleConnections.remove(idle)) {
+                idleCount.decrementAndGet();
+                evict(physical);
+            }
+            return;
+        }
+        idleCount.decrementAndGet();
+        evict(physical);
+    }
+
+    /**
+     * 复用前检查空闲连接。服务端因 wait_timeout 或重启断开的连接 isClosed() 仍返回 false，
+     * 空闲超过 {@link #VALIDATION_BYPASS_MILLIS} 的连接通过 isValid 确认后才借出
+     */
+    private boolean isAlive(IdleConnection idle) {
+        Connection physical = idle.physical();
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - idle.idleSince() <= VALIDATION_BYPASS_MILLIS) {
+                return true;
+            }
+            return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            logger.debug("validate idle branch connection error, branch: {}", branch, e);
+            return false;
+        }
+    }
+
+    /**
+     * 将连接切回原数据库并归还父连接池
+     */
+    private void evict(Connection physical) {
+        try {
+            if (!physical.isClosed() && database != null) {
+                try (Statement statement = physical.createStatement()) {
+                    statement.execute("USE " + quoteIdentifier(database));
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("restore database error, branch: {}", branch, e);
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            logger.warn("close branch connection error, branch: {}", branch, e);
+        }
+        evictedCount.incrementAndGet();
+        if (registry != null) {
+            registry.releasePermit();
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        activeCount.incrementAndGet();
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                BranchDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                release(physical);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released.get() || physical.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "BranchConnection[" + branch + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                        default:
+                            break;
+                    }
+                    if (released.get()) {
+                        throw new SQLException("Connection is closed, branch: " + branch);
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private record IdleConnection(Connection physical, long idleSince) {
+    }
+
+    static String quoteIdentifier(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return parent.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        parent.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        parent.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return parent.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return parent.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return parent.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || parent.isWrapperFor(iface);
+    }
+}
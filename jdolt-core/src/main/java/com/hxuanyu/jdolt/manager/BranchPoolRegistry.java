@@ -0,0 +1,215 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.config.BranchPoolConfig;
+import com.hxuanyu.jdolt.exception.DoltConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分支连接池注册表。
+ * <p>
+ * 按修订版本数据库名称（{@code db/branch}）管理一组 {@link BranchDataSource}，池在第一次访问分支时创建。
+ * 池的数量超过上限时，按最近最少使用的顺序关闭没有借出连接的池；长时间没有访问的池在下次获取连接时被关闭。
+ * 所有池共享一个信号量，新建物理连接前必须取得许可，许可耗尽时先回收其他池中最久未使用的空闲连接，
+ * 仍然不足时等待，超时则抛出 {@link DoltConnectionException}。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BranchPoolRegistry implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BranchPoolRegistry.class);
+
+    private final DataSource parent;
+    private final BranchPoolConfig config;
+    private final Semaphore permits;
+
+    /**
+     * 按访问顺序排列的分支池，最久未访问的在最前面，所有访问都在 this 上同步
+     */
+    private final LinkedHashMap<String, BranchDataSource> pools = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile String database;
+    private volatile boolean closed;
+
+    public BranchPoolRegistry(DataSource parent, BranchPoolConfig config) {
+        if (parent == null) {
+            throw new IllegalArgumentException("DataSource 不能为空");
+        }
+        this.parent = parent;
+        this.config = config == null ? BranchPoolConfig.defaults() : config;
+        this.permits = new Semaphore(this.config.getMaxTotalConnections(), true);
+    }
+
+    public BranchPoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取指定分支的连接
+     *
+     * @param branch 分支名称
+     * @return 已切换到该分支的连接
+     */
+    public Connection getConnection(String branch) throws SQLException {
+        BranchDataSource pool = pool(branch);
+        try {
+            return pool.getConnection();
+        } catch (SQLException e) {
+            if (!pool.isClosed()) {
+                throw e;
+            }
+            // 池在取得后被并发回收，重新创建一次
+            return pool(branch).getConnection();
+        }
+    }
+
+    /**
+     * 获取指定分支的连接池，不存在时创建
+     *
+     * @param branch 分支名称
+     * @return 分支连接池
+     */
+    public BranchDataSource pool(String branch) {
+        String revisionDatabase = resolveDatabase() + "/" + branch;
+        List<BranchDataSource> expired = new ArrayList<>();
+        BranchDataSource pool;
+        synchronized (this) {
+            if (closed) {
+                throw new DoltConnectionException("分支连接池已关闭");
+            }
+            collectExpired(expired);
+            pool = pools.get(revisionDatabase);
+            if (pool == null || pool.isClosed()) {
+                pool = new BranchDataSource(parent, database, branch, config.getMaxIdlePerPool(), this);
+                pools.put(revisionDatabase, pool);
+                collectOverflow(expired, pool);
+                logger.debug("branch pool created: {}, pools: {}", revisionDatabase, pools.size());
+            }
+        }
+        // 关闭池需要访问数据库，放在锁外进行
+        expired.forEach(BranchDataSource::close);
+        return pool;
+    }
+
+    /**
+     * 获取所有分支池的统计信息
+     *
+     * @return 统计信息列表，按最近访问时间从旧到新排列
+     */
+    public synchronized List<BranchPoolStats> getStats() {
+        List<BranchPoolStats> stats = new ArrayList<>(pools.size());
+        for (BranchDataSource pool : pools.values()) {
+            stats.add(pool.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 当前所有分支池合计占用的连接数
+     *
+     * @return 连接数
+     */
+    public int getTotalConnections() {
+        return config.getMaxTotalConnections() - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        List<BranchDataSource> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(pools.values());
+            pools.clear();
+        }
+        toClose.forEach(BranchDataSource::close);
+    }
+
+    /**
+     * 新建物理连接前取得许可
+     */
+    void acquirePermit(BranchDataSource requester) throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        // 许可耗尽时回收其他池最久未使用的空闲连接
+        for (BranchDataSource pool : snapshot()) {
+            if (pool != requester && pool.evictOneIdle() && permits.tryAcquire()) {
+                return;
+            }
+        }
+        try {
+            if (permits.tryAcquire(config.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("获取分支连接时被中断, branch: " + requester.getBranch(), e);
+        }
+        throw new DoltConnectionException("分支连接数已达上限 " + config.getMaxTotalConnections()
+                + "，等待超时, branch: " + requester.getBranch());
+    }
+
+    void releasePermit() {
+        permits.release();
+    }
+
+    private synchronized List<BranchDataSource> snapshot() {
+        return new ArrayList<>(pools.values());
+    }
+
+    private void collectExpired(List<BranchDataSource> expired) {
+        long deadline = System.currentTimeMillis() - config.getIdleTimeout().toMillis();
+        Iterator<BranchDataSource> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            BranchDataSource pool = iterator.next();
+            if (pool.getActiveCount() == 0 && pool.getLastAccessTime() < deadline) {
+                iterator.remove();
+                expired.add(pool);
+            }
+        }
+    }
+
+    private void collectOverflow(List<BranchDataSource> expired, BranchDataSource current) {
+        Iterator<BranchDataSource> iterator = pools.values().iterator();
+        while (pools.size() > config.getMaxPools() && iterator.hasNext()) {
+            BranchDataSource pool = iterator.next();
+            // 仍有借出连接的池不能关闭，暂时允许超出上限
+            if (pool != current && pool.getActiveCount() == 0) {
+                iterator.remove();
+                expired.add(pool);
+            }
+        }
+    }
+
+    private String resolveDatabase() {
+        String db = database;
+        if (db != null) {
+            return db;
+        }
+        try (Connection connection = parent.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT DATABASE()")) {
+            db = resultSet.next() ? resultSet.getString(1) : null;
+        } catch (SQLException e) {
+            throw new DoltConnectionException("无法获取数据库连接", e);
+        }
+        if (db == null || db.isEmpty()) {
+            throw new DoltConnectionException("无法确定当前数据库，请在连接串中指定数据库");
+        }
+        int slash = db.indexOf('/');
+        database = slash > 0 ? db.substring(0, slash) : db;
+        return database;
+    }
+}
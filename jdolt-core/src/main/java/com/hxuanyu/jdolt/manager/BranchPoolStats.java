@@ -0,0 +1,33 @@
+package com.hxuanyu.jdolt.manager;
+
+/**
+ * 分支连接池的统计信息快照
+ *
+ * @param revisionDatabase 修订版本数据库名称，形如 {@code db/branch}
+ * @param active           当前借出的连接数
+ * @param idle             当前空闲的连接数
+ * @param created          累计新建（切换分支）的物理连接数
+ * @param reused           累计直接复用空闲连接的次数
+ * @param evicted          累计归还外部连接池的物理连接数
+ * @param lastAccessTime   最近一次获取连接的时间戳（毫秒）
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public record BranchPoolStats(String revisionDatabase,
+                              int active,
+                              int idle,
+                              long created,
+                              long reused,
+                              long evicted,
+                              long lastAccessTime) {
+
+    /**
+     * 获取连接时直接命中空闲连接的比例
+     *
+     * @return 命中率，没有任何获取记录时返回 0
+     */
+    public double hitRate() {
+        long total = created + reused;
+        return total == 0 ? 0d : (double) reused / total;
+    }
+}
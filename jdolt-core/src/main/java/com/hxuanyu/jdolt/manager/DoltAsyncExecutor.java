@@ -0,0 +1,230 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 异步执行 Dolt 操作的执行器。
+ * <p>
+ * 任务在底层执行器上运行，并通过信号量限制同时执行的任务数，上限通常取连接池的大小：
+ * 超出上限的任务在各自的线程上等待许可，而不是同时去争抢连接池。
+ * 默认的底层执行器在 Java 21 及以上版本使用虚拟线程（每个任务一个虚拟线程，等待许可的开销可以忽略），
+ * 在更早的版本上退化为与并发上限同样大小的固定线程池。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class DoltAsyncExecutor implements Executor, AutoCloseable {
+    /**
+     * 无法获取连接池大小时使用的默认并发上限
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(DoltAsyncExecutor.class);
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean ownsDelegate;
+
+    /**
+     * 使用指定的底层执行器创建异步执行器，底层执行器的生命周期由调用方管理
+     *
+     * @param delegate       底层执行器
+     * @param maxConcurrency 同时执行的任务数上限
+     */
+    public DoltAsyncExecutor(Executor delegate, int maxConcurrency) {
+        this(delegate, maxConcurrency, false);
+    }
+
+    private DoltAsyncExecutor(Executor delegate, int maxConcurrency, boolean ownsDelegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("executor 不能为空");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.ownsDelegate = ownsDelegate;
+    }
+
+    /**
+     * 创建默认的异步执行器，优先使用虚拟线程
+     *
+     * @param maxConcurrency 同时执行的任务数上限
+     * @return 异步执行器
+     */
+    public static DoltAsyncExecutor create(int maxConcurrency) {
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        if (virtualThreads != null) {
+            return new DoltAsyncExecutor(virtualThreads, maxConcurrency, true);
+        }
+        return new DoltAsyncExecutor(Executors.newFixedThreadPool(maxConcurrency, new DaemonThreadFactory()), maxConcurrency, true);
+    }
+
+    /**
+     * 按数据源的连接池大小创建默认的异步执行器
+     *
+     * @param dataSource 数据源
+     * @return 异步执行器
+     */
+    public static DoltAsyncExecutor create(DataSource dataSource) {
+        return create(maxPoolSize(dataSource));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 当前正在执行的任务数
+     *
+     * @return 任务数
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 执行器的并发上限，用作并发查询的默认并发数
+     *
+     * @param executor 执行器
+     * @return {@link DoltAsyncExecutor} 的并发上限，其它执行器返回 {@link #DEFAULT_MAX_CONCURRENCY}
+     */
+    public static int concurrencyOf(Executor executor) {
+        if (executor instanceof DoltAsyncExecutor asyncExecutor) {
+            return asyncExecutor.getMaxConcurrency();
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+
+    /**
+     * 在执行器上异步执行并返回结果。与 {@code CompletableFuture.supplyAsync} 不同，
+     * 任务在等待许可时被中断会以异常结束返回的 future，而不是永远处于未完成状态
+     *
+     * @param supplier 任务
+     * @param executor 执行器
+     * @param <T>      结果类型
+     * @return 执行结果
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(task(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, e -> future.completeExceptionally(new DoltException("interrupted while waiting for execution permit", e))));
+        return future;
+    }
+
+    /**
+     * 包装任务，等待许可时线程被中断的任务不会执行，改为调用 onInterrupted 报告失败
+     *
+     * @param command       任务
+     * @param onInterrupted 等待许可被中断时的回调
+     * @return 可以提交给本执行器的任务
+     */
+    public static Runnable task(Runnable command, Consumer<InterruptedException> onInterrupted) {
+        return new PermitTask(command, onInterrupted);
+    }
+
+    /**
+     * 提交任务。任务必须取得许可才会执行，同时执行的任务数不会超过上限：
+     * 等待许可时线程被中断的任务不再执行，由 {@link #task(Runnable, Consumer)} 包装的任务通过回调报告失败，
+     * 其余任务只记录错误日志。需要得到结果的任务应通过 {@link #supplyAsync(Supplier, Executor)} 提交
+     */
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (command instanceof PermitTask permitTask) {
+                    permitTask.onInterrupted.accept(e);
+                } else {
+                    logger.error("异步任务在等待执行许可时被中断，任务未执行");
+                }
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * 关闭执行器，只有默认创建的底层执行器会被关闭
+     */
+    @Override
+    public void close() {
+        if (ownsDelegate && delegate instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // 项目以 Java 17 为编译目标，通过反射在 Java 21+ 上启用虚拟线程
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("virtual threads are not available, fallback to platform threads");
+            return null;
+        }
+    }
+
+    /**
+     * 读取常见连接池（如 HikariCP）的最大连接数
+     */
+    private static int maxPoolSize(DataSource dataSource) {
+        if (dataSource != null) {
+            try {
+                Object size = dataSource.getClass().getMethod("getMaximumPoolSize").invoke(dataSource);
+                if (size instanceof Number number && number.intValue() > 0) {
+                    return number.intValue();
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 不是 HikariCP 等提供该方法的连接池
+            }
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+
+    private record PermitTask(Runnable command, Consumer<InterruptedException> onInterrupted) implements Runnable {
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jdolt-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
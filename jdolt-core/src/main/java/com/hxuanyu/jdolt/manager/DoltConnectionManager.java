@@ -1,6 +1,12 @@
 package com.hxuanyu.jdolt.manager;
 
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ResultCache;
+import com.hxuanyu.jdolt.config.BranchPoolConfig;
 import com.hxuanyu.jdolt.exception.DoltConnectionException;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.metrics.DoltMetrics;
+import com.hxuanyu.jdolt.util.validator.BranchNameValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,26 +14,349 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Manages connections to a Dolt database using a specified {@link DataSource}.
  * This class is responsible for establishing and providing database connections
  * wrapped within the context of Dolt operations, while handling any exceptions
  * that occur during the connection process.
+ * <p>
+ * 连接管理器同时管理一组按分支划分的连接池（{@link BranchPoolRegistry}）：固定分支的管理器
+ * （{@link #forBranch(String)}）总是从对应分支的池中获取连接；未固定分支的管理器在
+ * {@link BranchContext} 中使用时，也会路由到上下文分支的池，否则直接使用外部数据源。
+ * 当前线程在所访问的分支上存在进行中的 {@link DoltTransaction} 时，连接都来自该事务；
+ * 事务开启在其他分支上时拒绝访问，避免操作落到事务连接所在的分支上。
+ * <p>
+ * 设置了只读副本（{@link #setReplicaRouter(ReplicaRouter)}）后，只读查询通过 {@link #getReadConnection()}
+ * 从副本获取连接，其余操作仍使用外部数据源（主库）。
  */
 public class DoltConnectionManager {
     private final DataSource dataSource;
+    private final String branch;
+    private final DoltConnectionManager root;
+    private final BranchPoolRegistry branchPools;
+    private final Map<String, DoltConnectionManager> branchManagers = new ConcurrentHashMap<>();
+    private volatile Executor asyncExecutor;
+    private volatile DoltMetrics metrics = DoltMetrics.NOOP;
+    private volatile ResultCache resultCache = new ResultCache();
+    private volatile HeadValidatedCache headCache;
+    private volatile ReplicaRouter replicaRouter;
     private final Logger logger = LoggerFactory.getLogger(DoltConnectionManager.class);
 
     public DoltConnectionManager(DataSource dataSource) {
+        this(dataSource, BranchPoolConfig.defaults());
+    }
+
+    public DoltConnectionManager(DataSource dataSource, BranchPoolConfig branchPoolConfig) {
         if (dataSource == null) {
             throw new IllegalArgumentException("DataSource 不能为空");
         }
         this.dataSource = dataSource;
+        this.branch = null;
+        this.root = this;
+        this.branchPools = new BranchPoolRegistry(dataSource, branchPoolConfig);
+    }
+
+    private DoltConnectionManager(DoltConnectionManager root, String branch) {
+        this.dataSource = root.dataSource;
+        this.branch = branch;
+        this.root = root;
+        this.branchPools = root.branchPools;
+    }
+
+    /**
+     * 获取固定到指定分支的连接管理器，同一分支的管理器会被缓存复用。
+     * 返回的管理器提供的所有连接都来自该分支的连接池，各类操作的单例也按管理器区分，因此互不干扰。
+     *
+     * @param branch 分支名称
+     * @return 分支连接管理器
+     */
+    public DoltConnectionManager forBranch(String branch) {
+        if (!BranchNameValidator.isValidBranchName(branch)) {
+            throw new IllegalArgumentException("branchName is invalid, current: " + branch);
+        }
+        if (branch.equals(this.branch)) {
+            return this;
+        }
+        if (root != this) {
+            return root.forBranch(branch);
+        }
+        return branchManagers.computeIfAbsent(branch, key -> new DoltConnectionManager(this, key));
+    }
+
+    /**
+     * 获取管理器固定的分支
+     *
+     * @return 分支名称，未固定分支时返回 null
+     */
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * 获取根连接管理器，根管理器直接使用外部传入的数据源
+     *
+     * @return 根连接管理器，当前管理器未固定分支时返回自身
+     */
+    public DoltConnectionManager getRoot() {
+        return root;
+    }
+
+    /**
+     * 获取分支连接池注册表
+     *
+     * @return 分支连接池注册表
+     */
+    public BranchPoolRegistry getBranchPools() {
+        return branchPools;
+    }
+
+    /**
+     * 获取所有分支连接池的统计信息
+     *
+     * @return 统计信息列表
+     */
+    public List<BranchPoolStats> getBranchPoolStats() {
+        return branchPools.getStats();
+    }
+
+    /**
+     * 获取执行异步操作的执行器，所有分支管理器共享根管理器的执行器。
+     * 未设置时按数据源的连接池大小创建默认执行器（Java 21+ 使用虚拟线程）。
+     *
+     * @return 异步执行器
+     */
+    public Executor getAsyncExecutor() {
+        if (root != this) {
+            return root.getAsyncExecutor();
+        }
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = DoltAsyncExecutor.create(dataSource);
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 设置执行异步操作的执行器，传入的执行器由调用方负责关闭
+     *
+     * @param executor 异步执行器
+     */
+    public void setAsyncExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor 不能为空");
+        }
+        root.asyncExecutor = executor;
+    }
+
+    /**
+     * 开启绑定到当前线程和当前分支的事务，同一线程中访问同一分支的操作都会复用事务的连接。
+     * 其他分支上已有事务时，新事务使用独立的连接，两个事务分别提交
+     *
+     * @return 事务，调用方负责关闭
+     */
+    public DoltTransaction beginTransaction() {
+        if (DoltTransaction.current(this) != null) {
+            throw new IllegalStateException("当前线程已存在进行中的事务");
+        }
+        return new DoltTransaction(this);
+    }
+
+    /**
+     * 获取当前线程中属于本管理器的进行中的事务
+     *
+     * @return 事务，不存在时返回 null
+     */
+    public DoltTransaction currentTransaction() {
+        return DoltTransaction.current(this);
+    }
+
+    /**
+     * 当前线程是否存在属于本管理器的进行中的事务
+     *
+     * @return 存在事务时返回 true
+     */
+    public boolean isInTransaction() {
+        return DoltTransaction.current(this) != null;
+    }
+
+    /**
+     * 在事务中执行操作，操作正常返回时提交，抛出异常时回滚。当前线程已存在事务时直接加入该事务。
+     *
+     * @param action 要执行的操作
+     * @param <T>    返回值类型
+     * @return 操作的返回值
+     */
+    public <T> T inTransaction(Supplier<T> action) {
+        return inTransaction(null, action);
+    }
+
+    /**
+     * 在事务中执行操作，操作正常返回时先执行 {@code DOLT_COMMIT} 再提交，抛出异常时回滚。
+     * 当前线程已存在事务时直接加入该事务，Dolt 提交由外层事务决定。
+     *
+     * @param doltCommitMessage Dolt 提交信息，为 null 时不创建 Dolt 提交
+     * @param action            要执行的操作
+     * @param <T>               返回值类型
+     * @return 操作的返回值
+     */
+    public <T> T inTransaction(String doltCommitMessage, Supplier<T> action) {
+        if (isInTransaction()) {
+            return action.get();
+        }
+        try (DoltTransaction transaction = beginTransaction()) {
+            if (doltCommitMessage != null) {
+                transaction.doltCommitOnSuccess(doltCommitMessage);
+            }
+            T result = action.get();
+            transaction.commit();
+            return result;
+        }
+    }
+
+    /**
+     * 获取指标采集器，所有分支管理器共享根管理器的采集器
+     *
+     * @return 指标采集器，未设置时为 {@link DoltMetrics#NOOP}
+     */
+    public DoltMetrics getMetrics() {
+        return root.metrics;
+    }
+
+    /**
+     * 设置指标采集器
+     *
+     * @param metrics 指标采集器，传入 null 时关闭采集
+     */
+    public void setMetrics(DoltMetrics metrics) {
+        root.metrics = metrics == null ? DoltMetrics.NOOP : metrics;
+    }
+
+    /**
+     * 获取不可变查询结果的缓存，所有分支管理器共享根管理器的缓存
+     *
+     * @return 结果缓存，关闭缓存时为 null
+     */
+    public ResultCache getResultCache() {
+        return root.resultCache;
+    }
+
+    /**
+     * 设置不可变查询结果的缓存
+     *
+     * @param resultCache 结果缓存，传入 null 时关闭缓存
+     */
+    public void setResultCache(ResultCache resultCache) {
+        root.resultCache = resultCache;
+    }
+
+    /**
+     * 获取按引用状态验证的分支读取缓存，所有分支管理器共享根管理器的缓存
+     *
+     * @return 分支读取缓存，关闭缓存时为 null
+     */
+    public HeadValidatedCache getHeadCache() {
+        return root.headCache;
+    }
+
+    /**
+     * 设置按引用状态验证的分支读取缓存，默认关闭：每次读取前的状态查询会增加往返次数，
+     * 只在重复读取同一状态下的提交历史较多时开启
+     *
+     * @param headCache 分支读取缓存，传入 null 时关闭缓存
+     */
+    public void setHeadCache(HeadValidatedCache headCache) {
+        root.headCache = headCache;
+    }
+
+    /**
+     * 获取只读副本路由，所有分支管理器共享根管理器的路由
+     *
+     * @return 副本路由，未配置副本时为 null
+     */
+    public ReplicaRouter getReplicaRouter() {
+        return root.replicaRouter;
+    }
+
+    /**
+     * 设置只读副本路由，副本数据源由调用方负责关闭
+     *
+     * @param replicaRouter 副本路由，传入 null 时所有查询都使用主库
+     */
+    public void setReplicaRouter(ReplicaRouter replicaRouter) {
+        root.replicaRouter = replicaRouter;
     }
 
+    /**
+     * 获取用于只读查询的连接。以下情况使用与 {@link #getConnection()} 相同的连接：
+     * 未配置副本、当前线程存在事务、处于 {@link PrimaryContext} 中，或者操作固定在某个分支上
+     * （分支连接池只建立在主库上）。副本全部不可用时退回主库。
+     *
+     * @return 数据库连接
+     * @throws DoltConnectionException 无法获取连接
+     */
+    public Connection getReadConnection() throws DoltConnectionException {
+        ReplicaRouter router = root.replicaRouter;
+        if (router == null || PrimaryContext.isForced() || DoltTransaction.anyBranch(this) != null
+                || branch != null || BranchContext.current() != null) {
+            return getConnection();
+        }
+        try {
+            return router.getConnection();
+        } catch (SQLException e) {
+            logger.warn("所有副本都无法获取连接，改用主库", e);
+            return getConnection();
+        }
+    }
+
+    /**
+     * 获取数据库连接。当前线程在所访问的分支上存在事务时返回事务的连接
+     *
+     * @return 数据库连接
+     * @throws DoltConnectionException 无法获取连接
+     * @throws DoltException           当前线程存在开启在其他分支上的事务
+     */
     public Connection getConnection() throws DoltConnectionException {
+        DoltTransaction transaction = DoltTransaction.current(this);
+        if (transaction != null) {
+            return transaction.getBoundConnection();
+        }
+        DoltTransaction other = DoltTransaction.anyBranch(this);
+        if (other != null) {
+            throw new DoltException(String.format("cannot access branch %s inside a transaction on %s",
+                    branchLabel(targetBranch()), branchLabel(other.getBranch())));
+        }
+        return openConnection(targetBranch());
+    }
+
+    /**
+     * 当前操作访问的分支：固定的分支，或者 {@link BranchContext} 中的分支
+     *
+     * @return 分支名称，使用数据源的默认分支时返回 null
+     */
+    String targetBranch() {
+        return branch != null ? branch : BranchContext.current();
+    }
+
+    /**
+     * 不经过事务直接获取指定分支的连接
+     */
+    Connection openConnection(String targetBranch) throws DoltConnectionException {
         try {
+            if (targetBranch != null) {
+                return branchPools.getConnection(targetBranch);
+            }
             return dataSource.getConnection();
         } catch (SQLException e) {
             logger.error("获取数据库连接失败", e);
@@ -35,6 +364,10 @@ public class DoltConnectionManager {
         }
     }
 
+    private static String branchLabel(String branch) {
+        return branch == null ? "<default>" : branch;
+    }
+
     public boolean isInitialized() {
         try (Connection connection = getConnection()) {
             return connection.isValid(1);
@@ -43,4 +376,15 @@ public class DoltConnectionManager {
         }
 
     }
+
+    /**
+     * 关闭所有分支连接池，空闲的分支连接归还外部数据源，并关闭默认创建的异步执行器。外部数据源本身不会被关闭。
+     */
+    public void close() {
+        root.branchPools.close();
+        root.branchManagers.clear();
+        if (root.asyncExecutor instanceof DoltAsyncExecutor doltAsyncExecutor) {
+            doltAsyncExecutor.close();
+        }
+    }
 }
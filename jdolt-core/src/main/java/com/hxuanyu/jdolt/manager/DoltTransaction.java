@@ -0,0 +1,257 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * 绑定到当前线程的事务。
+ * <p>
+ * 事务开始时从连接管理器借出一个连接并关闭自动提交，之后同一线程中访问同一分支的所有操作都复用这个连接，
+ * 因此多条语句处于同一个 SQL 事务中，只占用一个连接。事务绑定到开启时的分支（固定分支的管理器所在的分支，
+ * 或 {@link BranchContext} 中的分支，二者都没有时为数据源的默认分支）：事务进行中通过同一根管理器访问其他分支
+ * 会抛出 {@link DoltException}，需要同时修改多个分支时为每个分支分别开启事务。
+ * 事务提交时可以选择先执行 {@code DOLT_COMMIT}，把本次修改记录为一个 Dolt 提交。
+ * 事务只对开启它的线程可见，{@code executeAsync} 等在其他线程上执行的操作不会参与事务。
+ *
+ * <pre>
+ * try (DoltTransaction transaction = connectionManager.beginTransaction()) {
+ *     transaction.doltCommitOnSuccess("import products");
+ *     ...
+ *     transaction.commit();
+ * }
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class DoltTransaction implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DoltTransaction.class);
+
+    private static final ThreadLocal<DoltTransaction> CURRENT = new ThreadLocal<>();
+
+    private final DoltConnectionManager connectionManager;
+    private final String branch;
+    private final Connection connection;
+    private final Connection boundConnection;
+    private final boolean originalAutoCommit;
+    private final DoltTransaction previous;
+
+    private String doltCommitMessage;
+    private boolean completed;
+    private boolean closed;
+
+    DoltTransaction(DoltConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+        this.branch = connectionManager.targetBranch();
+        this.connection = connectionManager.openConnection(branch);
+        try {
+            this.originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            closeConnection();
+            throw new DoltException("dolt begin transaction error", e);
+        }
+        this.boundConnection = nonClosingProxy(connection);
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+        logger.debug("dolt transaction begin, branch: {}", branch);
+    }
+
+    /**
+     * 获取当前线程中指定连接管理器所访问分支上的进行中的事务。同一根管理器下访问同一分支的管理器共享事务，
+     * 分支由管理器固定的分支或 {@link BranchContext} 决定
+     *
+     * @param connectionManager 连接管理器
+     * @return 事务，没有进行中的事务时返回 null
+     */
+    static DoltTransaction current(DoltConnectionManager connectionManager) {
+        String target = connectionManager.targetBranch();
+        DoltTransaction transaction = CURRENT.get();
+        while (transaction != null) {
+            if (transaction.isActive() && transaction.connectionManager.getRoot() == connectionManager.getRoot()
+                    && Objects.equals(transaction.branch, target)) {
+                return transaction;
+            }
+            transaction = transaction.previous;
+        }
+        return null;
+    }
+
+    /**
+     * 获取当前线程中同一根管理器下任意分支上最近开启的进行中的事务
+     *
+     * @param connectionManager 连接管理器
+     * @return 事务，不存在时返回 null
+     */
+    static DoltTransaction anyBranch(DoltConnectionManager connectionManager) {
+        DoltTransaction transaction = CURRENT.get();
+        while (transaction != null) {
+            if (transaction.isActive() && transaction.connectionManager.getRoot() == connectionManager.getRoot()) {
+                return transaction;
+            }
+            transaction = transaction.previous;
+        }
+        return null;
+    }
+
+    public DoltConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    /**
+     * 获取事务绑定的分支
+     *
+     * @return 分支名称，事务开启在数据源的默认分支上时返回 null
+     */
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * 提交时先执行 {@code DOLT_COMMIT -A}，没有修改时跳过 Dolt 提交
+     *
+     * @param message 提交信息
+     * @return 当前事务
+     */
+    public DoltTransaction doltCommitOnSuccess(String message) {
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("commit message 不能为空");
+        }
+        this.doltCommitMessage = message;
+        return this;
+    }
+
+    public boolean isActive() {
+        return !completed && !closed;
+    }
+
+    /**
+     * 提交事务，如果设置了 {@link #doltCommitOnSuccess(String)}，先创建 Dolt 提交并失效分支读取缓存
+     */
+    public void commit() {
+        checkActive();
+        try {
+            if (doltCommitMessage != null) {
+                SqlBuilder.SqlTemplate sqlTemplate = SqlBuilder.callProcedure("DOLT_COMMIT")
+                        .withParams("-A", "--skip-empty", "-m", doltCommitMessage)
+                        .build();
+                try (PreparedStatement preparedStatement = connection.prepareStatement(sqlTemplate.sql())) {
+                    sqlTemplate.setParameters(preparedStatement);
+                    preparedStatement.execute();
+                }
+            }
+            connection.commit();
+            completed = true;
+            HeadValidatedCache headCache = connectionManager.getHeadCache();
+            if (doltCommitMessage != null && headCache != null) {
+                // DOLT_COMMIT 没有经过存储过程类执行，需要在这里让分支读取缓存立即看到新提交
+                headCache.invalidate();
+            }
+            logger.debug("dolt transaction commit, doltCommit: {}", doltCommitMessage);
+        } catch (SQLException e) {
+            rollback();
+            throw new DoltException("dolt commit transaction error", e);
+        }
+    }
+
+    /**
+     * 回滚事务
+     */
+    public void rollback() {
+        if (completed || closed) {
+            return;
+        }
+        completed = true;
+        try {
+            connection.rollback();
+            logger.debug("dolt transaction rollback");
+        } catch (SQLException e) {
+            throw new DoltException("dolt rollback transaction error", e);
+        }
+    }
+
+    /**
+     * 结束事务，未提交的修改会被回滚，连接恢复自动提交后归还连接池
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            rollback();
+        } finally {
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+            try {
+                connection.setAutoCommit(originalAutoCommit);
+            } catch (SQLException e) {
+                logger.warn("restore auto commit error", e);
+            }
+            closeConnection();
+        }
+    }
+
+    /**
+     * 事务内的操作使用的连接，关闭该连接不会结束事务
+     */
+    Connection getBoundConnection() {
+        checkActive();
+        return boundConnection;
+    }
+
+    private void checkActive() {
+        if (!isActive()) {
+            throw new IllegalStateException("transaction is already completed");
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("close transaction connection error", e);
+        }
+    }
+
+    private Connection nonClosingProxy(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                DoltTransaction.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return closed || target.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,64 @@
+package com.hxuanyu.jdolt.manager;
+
+import java.util.function.Supplier;
+
+/**
+ * 线程绑定的强制主库上下文。
+ * <p>
+ * 配置了只读副本（{@link ReplicaRouter}）时，表函数、信息函数和系统表的查询默认发往副本。
+ * 在上下文中执行的查询总是使用主库，用于需要读到刚写入数据的场景，例如提交之后立即读取 dolt_log。
+ * 上下文可以嵌套。
+ *
+ * <pre>
+ * SqlExecuteResult log = PrimaryContext.call(() -&gt; versionControl.function().doltLog().prepare().execute());
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class PrimaryContext {
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private PrimaryContext() {
+    }
+
+    /**
+     * 当前线程是否强制使用主库
+     *
+     * @return 是否强制使用主库
+     */
+    public static boolean isForced() {
+        return FORCED.get() != null;
+    }
+
+    /**
+     * 在强制主库的上下文中执行操作
+     *
+     * @param supplier 要执行的操作
+     * @param <T>      返回值类型
+     * @return 操作的返回值
+     */
+    public static <T> T call(Supplier<T> supplier) {
+        if (isForced()) {
+            return supplier.get();
+        }
+        FORCED.set(Boolean.TRUE);
+        try {
+            return supplier.get();
+        } finally {
+            FORCED.remove();
+        }
+    }
+
+    /**
+     * 在强制主库的上下文中执行操作
+     *
+     * @param runnable 要执行的操作
+     */
+    public static void run(Runnable runnable) {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
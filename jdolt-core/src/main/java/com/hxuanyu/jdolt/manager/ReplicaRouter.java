@@ -0,0 +1,200 @@
+package com.hxuanyu.jdolt.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读副本路由，为只读查询从一组副本数据源中选择连接。
+ * <p>
+ * 支持轮询（{@link Strategy#ROUND_ROBIN}）和最少借出连接（{@link Strategy#LEAST_LOADED}）两种策略，
+ * 借出连接数由本路由器统计，不依赖具体的连接池实现。选中的副本获取连接失败时依次尝试其余副本，
+ * 所有副本都失败时抛出第一个异常（其余异常附加为 suppressed），由 {@link DoltConnectionManager} 退回主库。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ReplicaRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    /**
+     * 副本选择策略
+     */
+    public enum Strategy {
+        /**
+         * 依次使用每个副本
+         */
+        ROUND_ROBIN,
+        /**
+         * 使用当前借出连接最少的副本，相同时按轮询顺序选择
+         */
+        LEAST_LOADED
+    }
+
+    private final List<DataSource> replicas;
+    private final AtomicInteger[] activeCounts;
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param replicas 副本数据源，不能为空，生命周期由调用方管理
+     * @param strategy 选择策略
+     */
+    public ReplicaRouter(List<? extends DataSource> replicas, Strategy strategy) {
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalArgumentException("replicas 不能为空");
+        }
+        if (strategy == null) {
+            throw new IllegalArgumentException("strategy 不能为空");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.activeCounts = new AtomicInteger[this.replicas.size()];
+        for (int i = 0; i < activeCounts.length; i++) {
+            activeCounts[i] = new AtomicInteger();
+        }
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 每个副本当前借出的连接数，顺序与 {@link #getReplicas()} 一致
+     *
+     * @return 借出连接数
+     */
+    public List<Integer> getActiveCounts() {
+        List<Integer> counts = new ArrayList<>(activeCounts.length);
+        for (AtomicInteger count : activeCounts) {
+            counts.add(count.get());
+        }
+        return counts;
+    }
+
+    /**
+     * 按策略选择副本并获取连接，失败时依次尝试其余副本
+     *
+     * @return 副本连接，关闭时归还副本
+     * @throws SQLException 所有副本都无法获取连接
+     */
+    public Connection getConnection() throws SQLException {
+        int first = select();
+        SQLException failure = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (first + i) % replicas.size();
+            try {
+                return wrap(index, replicas.get(index).getConnection());
+            } catch (SQLException e) {
+                logger.warn("获取副本连接失败，副本序号: {}", index, e);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    int select() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return start;
+        }
+        int best = start;
+        int bestCount = activeCounts[start].get();
+        for (int i = 1; i < replicas.size() && bestCount > 0; i++) {
+            int index = (start + i) % replicas.size();
+            int count = activeCounts[index].get();
+            if (count < bestCount) {
+                best = index;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 连接来自哪个副本，用于按副本区分只在单个副本上成立的状态（例如已验证的引用状态）
+     *
+     * @param connection 连接
+     * @return 副本序号，与 {@link #getReplicas()} 的顺序一致；不是副本连接（例如退回主库）时返回 -1
+     */
+    public static int replicaIndex(Connection connection) {
+        if (connection != null && Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ReplicaConnectionHandler handler) {
+            return handler.index;
+        }
+        return -1;
+    }
+
+    private Connection wrap(int index, Connection physical) {
+        activeCounts[index].incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(
+                ReplicaRouter.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ReplicaConnectionHandler(index, physical, activeCounts[index]));
+    }
+
+    /**
+     * 副本连接代理，关闭时归还借出计数
+     */
+    private static final class ReplicaConnectionHandler implements InvocationHandler {
+        private final int index;
+        private final Connection physical;
+        private final AtomicInteger active;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReplicaConnectionHandler(int index, Connection physical, AtomicInteger active) {
+            this.index = index;
+            this.physical = physical;
+            this.active = active;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        active.decrementAndGet();
+                        physical.close();
+                    }
+                    return null;
+                case "isClosed":
+                    return released.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ReplicaConnection[" + index + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+            if (released.get()) {
+                throw new SQLException("Connection is closed, replica: " + index);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
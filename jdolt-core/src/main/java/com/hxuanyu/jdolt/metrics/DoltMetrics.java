@@ -0,0 +1,78 @@
+package com.hxuanyu.jdolt.metrics;
+
+/**
+ * Dolt 操作的指标采集接口。
+ * <p>
+ * 每次数据库操作开始时调用 {@link #start(String, String)} 取得一个采样，操作结束时调用采样的
+ * {@link Sample#success(long)} 或 {@link Sample#failure(Throwable)}。实现类据此统计耗时、行数、
+ * 错误数和正在执行的操作数，并按操作名称（如 {@code DOLT_COMMIT}、{@code dolt_diff}、{@code dolt_log}、
+ * 系统表名）和分支打标签。默认的 {@link #NOOP} 不做任何事，并且让调用方跳过操作名称的解析。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public interface DoltMetrics {
+
+    /**
+     * 不采集任何指标的实现
+     */
+    DoltMetrics NOOP = new DoltMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Sample start(String operation, String branch) {
+            return Sample.NOOP;
+        }
+    };
+
+    /**
+     * 是否启用采集，返回 false 时调用方不会解析操作名称，也不会调用 {@link #start(String, String)}
+     *
+     * @return 是否启用
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 开始一次操作的采样
+     *
+     * @param operation 操作名称
+     * @param branch    分支名称，未固定分支时为 null
+     * @return 采样
+     */
+    Sample start(String operation, String branch);
+
+    /**
+     * 单次操作的采样，每个采样只能结束一次
+     */
+    interface Sample {
+
+        Sample NOOP = new Sample() {
+            @Override
+            public void success(long rows) {
+            }
+
+            @Override
+            public void failure(Throwable error) {
+            }
+        };
+
+        /**
+         * 操作成功结束
+         *
+         * @param rows 读取或影响的行数
+         */
+        void success(long rows);
+
+        /**
+         * 操作失败结束
+         *
+         * @param error 失败原因
+         */
+        void failure(Throwable error);
+    }
+}
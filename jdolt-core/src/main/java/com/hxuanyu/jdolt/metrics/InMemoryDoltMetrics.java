@@ -0,0 +1,130 @@
+package com.hxuanyu.jdolt.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在内存中累计指标的 {@link DoltMetrics} 实现，适合本地排查或定期导出到外部监控系统。
+ * 每个（操作名称，分支）组合对应一组计数器，采样路径上只有原子计数操作。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class InMemoryDoltMetrics implements DoltMetrics {
+
+    private final Map<Key, OperationMeter> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public Sample start(String operation, String branch) {
+        OperationMeter meter = meters.computeIfAbsent(new Key(operation, branch), key -> new OperationMeter());
+        meter.inFlight.incrementAndGet();
+        long startNanos = System.nanoTime();
+        return new Sample() {
+            @Override
+            public void success(long rows) {
+                meter.record(System.nanoTime() - startNanos, rows, false);
+            }
+
+            @Override
+            public void failure(Throwable error) {
+                meter.record(System.nanoTime() - startNanos, 0, true);
+            }
+        };
+    }
+
+    /**
+     * 获取所有操作的指标快照，按累计耗时从高到低排列
+     *
+     * @return 指标快照
+     */
+    public List<OperationStats> snapshot() {
+        List<OperationStats> stats = new ArrayList<>(meters.size());
+        meters.forEach((key, meter) -> stats.add(meter.snapshot(key)));
+        stats.sort(Comparator.comparingLong(OperationStats::totalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * 获取指定操作的指标快照
+     *
+     * @param operation 操作名称
+     * @param branch    分支名称，可以为 null
+     * @return 指标快照，没有记录时返回 null
+     */
+    public OperationStats get(String operation, String branch) {
+        Key key = new Key(operation, branch);
+        OperationMeter meter = meters.get(key);
+        return meter == null ? null : meter.snapshot(key);
+    }
+
+    /**
+     * 清空所有指标
+     */
+    public void reset() {
+        meters.clear();
+    }
+
+    /**
+     * 单个操作的指标快照
+     *
+     * @param operation  操作名称
+     * @param branch     分支名称，未固定分支时为 null
+     * @param count      完成的次数（包括失败）
+     * @param errors     失败的次数
+     * @param rows       读取或影响的行数合计
+     * @param totalNanos 累计耗时（纳秒）
+     * @param maxNanos   最大耗时（纳秒）
+     * @param inFlight   正在执行的次数
+     */
+    public record OperationStats(String operation, String branch, long count, long errors, long rows,
+                                 long totalNanos, long maxNanos, int inFlight) {
+
+        /**
+         * 平均耗时（毫秒）
+         *
+         * @return 平均耗时
+         */
+        public double meanMillis() {
+            return count == 0 ? 0d : totalNanos / 1_000_000d / count;
+        }
+    }
+
+    private record Key(String operation, String branch) {
+        private Key {
+            Objects.requireNonNull(operation, "operation");
+        }
+    }
+
+    private static final class OperationMeter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private void record(long nanos, long rowCount, boolean failed) {
+            inFlight.decrementAndGet();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (failed) {
+                errors.increment();
+            } else if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+        }
+
+        private OperationStats snapshot(Key key) {
+            return new OperationStats(key.operation(), key.branch(), count.sum(), errors.sum(), rows.sum(),
+                    totalNanos.sum(), maxNanos.get(), inFlight.get());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.hxuanyu.jdolt.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 从 SQL 语句中解析指标使用的操作名称，解析结果按 SQL 文本缓存。
+ * <ul>
+ *     <li>{@code CALL DOLT_COMMIT(?, ?)} → {@code DOLT_COMMIT}</li>
+ *     <li>{@code SELECT * FROM dolt_diff(?, ?, ?)} → {@code dolt_diff}</li>
+ *     <li>{@code SELECT * FROM dolt_branches WHERE ...} → {@code dolt_branches}</li>
+ *     <li>{@code SELECT dolt_hashof(?)} → {@code dolt_hashof}</li>
+ *     <li>{@code INSERT INTO products ...} → {@code INSERT products}</li>
+ * </ul>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class OperationNames {
+    /**
+     * 缓存的 SQL 数量上限，避免拼接了字面量的 SQL 让缓存无限增长
+     */
+    private static final int MAX_CACHE_SIZE = 2048;
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private OperationNames() {
+    }
+
+    /**
+     * 获取 SQL 对应的操作名称
+     *
+     * @param sql SQL 语句
+     * @return 操作名称
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String name = CACHE.get(sql);
+        if (name == null) {
+            name = parse(sql);
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                CACHE.put(sql, name);
+            }
+        }
+        return name;
+    }
+
+    static String parse(String sql) {
+        String trimmed = sql.trim();
+        int keywordEnd = indexOfDelimiter(trimmed, 0);
+        String keyword = trimmed.substring(0, keywordEnd).toUpperCase(Locale.ROOT);
+        switch (keyword) {
+            case "CALL":
+                return identifierAfter(trimmed, keywordEnd).toUpperCase(Locale.ROOT);
+            case "SELECT": {
+                int from = indexOfKeyword(trimmed, "FROM", keywordEnd);
+                if (from >= 0) {
+                    return identifierAfter(trimmed, from + 4).toLowerCase(Locale.ROOT);
+                }
+                return identifierAfter(trimmed, keywordEnd).toLowerCase(Locale.ROOT);
+            }
+            case "INSERT":
+            case "REPLACE": {
+                int into = indexOfKeyword(trimmed, "INTO", keywordEnd);
+                return keyword + " " + identifierAfter(trimmed, into >= 0 ? into + 4 : keywordEnd);
+            }
+            case "DELETE": {
+                int from = indexOfKeyword(trimmed, "FROM", keywordEnd);
+                return keyword + " " + identifierAfter(trimmed, from >= 0 ? from + 4 : keywordEnd);
+            }
+            case "UPDATE":
+                return keyword + " " + identifierAfter(trimmed, keywordEnd);
+            default:
+                return keyword;
+        }
+    }
+
+    /**
+     * 读取 start 之后的第一个标识符，去掉反引号和库名前缀
+     */
+    private static String identifierAfter(String sql, int start) {
+        int begin = start;
+        while (begin < sql.length() && Character.isWhitespace(sql.charAt(begin))) {
+            begin++;
+        }
+        int end = indexOfDelimiter(sql, begin);
+        String identifier = sql.substring(begin, end).replace("`", "");
+        int dot = identifier.lastIndexOf('.');
+        if (dot >= 0) {
+            identifier = identifier.substring(dot + 1);
+        }
+        return identifier.isEmpty() ? "unknown" : identifier;
+    }
+
+    private static int indexOfDelimiter(String sql, int start) {
+        int index = start;
+        while (index < sql.length()) {
+            char c = sql.charAt(index);
+            if (Character.isWhitespace(c) || c == '(' || c == ',' || c == ';') {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static int indexOfKeyword(String sql, String keyword, int start) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int index = upper.indexOf(keyword, start);
+        while (index >= 0) {
+            boolean before = index == 0 || Character.isWhitespace(upper.charAt(index - 1));
+            int after = index + keyword.length();
+            if (before && after < upper.length() && Character.isWhitespace(upper.charAt(after))) {
+                return index;
+            }
+            index = upper.indexOf(keyword, after);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hxuanyu.jdolt.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量执行结果，按分块记录每次 executeBatch 的执行情况
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class BatchResult {
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    /**
+     * 单个分块的执行结果
+     *
+     * @param index        分块序号，从 0 开始
+     * @param statements   分块中的语句数
+     * @param updateCounts 驱动返回的每条语句的影响行数，可能包含 {@link java.sql.Statement#SUCCESS_NO_INFO}
+     * @param costMillis   分块执行耗时（毫秒）
+     */
+    public record Chunk(int index, int statements, int[] updateCounts, long costMillis) {
+
+        /**
+         * 分块中已知的影响行数合计，驱动未返回影响行数的语句不计入
+         *
+         * @return 影响行数
+         */
+        public long affectedRows() {
+            long total = 0;
+            for (int count : updateCounts) {
+                if (count > 0) {
+                    total += count;
+                }
+            }
+            return total;
+        }
+    }
+
+    public void addChunk(Chunk chunk) {
+        chunks.add(chunk);
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * 执行的语句总数
+     *
+     * @return 语句数
+     */
+    public long getStatementCount() {
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.statements();
+        }
+        return total;
+    }
+
+    /**
+     * 已知的影响行数合计
+     *
+     * @return 影响行数
+     */
+    public long getAffectedRows() {
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.affectedRows();
+        }
+        return total;
+    }
+
+    /**
+     * 所有分块的执行耗时合计（毫秒）
+     *
+     * @return 耗时
+     */
+    public long getCostMillis() {
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.costMillis();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "chunks=" + chunks.size() +
+                ", statements=" + getStatementCount() +
+                ", affectedRows=" + getAffectedRows() +
+                ", costMillis=" + getCostMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.hxuanyu.jdolt.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * keyset（seek）分页的一页查询条件：按排序键排序，只读取键值在上一页最后一行之后的 pageSize 行。
+ * 与 LIMIT/OFFSET 不同，数据库不需要扫描并丢弃前面的行，读取第 N 页与读取第一页的开销相同。
+ *
+ * @param columns    排序键列，组合必须唯一，例如 {@code commit_date, commit_hash} 或表主键加 {@code commit_hash}
+ * @param after      上一页最后一行的键值，第一页为空列表
+ * @param descending 是否按降序读取
+ * @param pageSize   每页行数
+ */
+public record Keyset(List<String> columns, List<Object> after, boolean descending, int pageSize) {
+
+    public Keyset {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("keyset columns must not be empty");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be greater than 0");
+        }
+        if (!after.isEmpty() && after.size() != columns.size()) {
+            throw new IllegalArgumentException("keyset values must match columns");
+        }
+        columns = List.copyOf(columns);
+        // 键值中可能有 null 以外的任意类型，使用不可变视图而不是 List.copyOf
+        after = Collections.unmodifiableList(new ArrayList<>(after));
+    }
+
+    /**
+     * 第一页的查询条件
+     *
+     * @param pageSize   每页行数
+     * @param descending 是否按降序读取
+     * @param columns    排序键列
+     * @return 查询条件
+     */
+    public static Keyset first(int pageSize, boolean descending, String... columns) {
+        return new Keyset(List.of(columns), List.of(), descending, pageSize);
+    }
+
+    /**
+     * 下一页的查询条件
+     *
+     * @param lastValues 当前页最后一行的键值
+     * @return 查询条件
+     */
+    public Keyset next(List<Object> lastValues) {
+        return new Keyset(columns, lastValues, descending, pageSize);
+    }
+
+    public boolean isFirstPage() {
+        return after.isEmpty();
+    }
+}
@@ -0,0 +1,359 @@
+package com.hxuanyu.jdolt.model;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 紧凑的查询结果集，列元数据只保存一份，每一行仅保存一个按列顺序排列的 {@code Object[]}。
+ * <p>
+ * 与每行一个 {@code HashMap} 的存储方式相比，不再为每一行重复保存列名字符串和哈希桶，
+ * 在 dolt_log、dolt_commits 等大结果集上可以显著降低内存占用。需要 Map 形式的数据时，
+ * 通过 {@link #getRow(int)} 或 {@link #asMaps()} 按需构建轻量的视图，视图直接读写底层数组。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class RowSet {
+
+    private final Columns columns;
+    private final List<Object[]> rows;
+
+    public RowSet(Columns columns, List<Object[]> rows) {
+        this.columns = Objects.requireNonNull(columns, "columns");
+        this.rows = Objects.requireNonNull(rows, "rows");
+    }
+
+    /**
+     * 读取 ResultSet 中剩余的所有行
+     *
+     * @param resultSet 结果集
+     * @return RowSet
+     * @throws SQLException 读取失败
+     */
+    public static RowSet from(ResultSet resultSet) throws SQLException {
+        Columns columns = Columns.from(resultSet.getMetaData());
+        int columnCount = columns.size();
+        List<Object[]> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            Object[] values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = resultSet.getObject(i + 1);
+            }
+            rows.add(values);
+        }
+        return new RowSet(columns, rows);
+    }
+
+    /**
+     * 将 Map 形式的行数据转换为 RowSet，列顺序按各行键的首次出现顺序确定，缺失的列以 null 填充。
+     * 如果传入的列表本身就是 {@link #asMaps()} 返回的视图，则直接返回其底层的 RowSet。
+     *
+     * @param maps 行数据
+     * @return RowSet，maps 为 null 时返回 null
+     */
+    public static RowSet fromMaps(List<Map<String, Object>> maps) {
+        if (maps == null) {
+            return null;
+        }
+        if (maps instanceof MapListView) {
+            return ((MapListView) maps).rowSet();
+        }
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (Map<String, Object> map : maps) {
+            names.addAll(map.keySet());
+        }
+        Columns columns = new Columns(names.toArray(new String[0]));
+        List<Object[]> rows = new ArrayList<>(maps.size());
+        for (Map<String, Object> map : maps) {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = map.get(columns.name(i));
+            }
+            rows.add(values);
+        }
+        return new RowSet(columns, rows);
+    }
+
+    public Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * 获取行数
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    /**
+     * 获取列数
+     */
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    /**
+     * 获取列名列表，顺序与查询结果中的列顺序一致，重复的列名只保留一个
+     */
+    public List<String> getColumnNames() {
+        return columns.distinctNames();
+    }
+
+    /**
+     * 获取列名对应的下标
+     *
+     * @param columnName 列名
+     * @return 列下标，不存在时返回 -1
+     */
+    public int indexOf(String columnName) {
+        return columns.indexOf(columnName);
+    }
+
+    public boolean hasColumn(String columnName) {
+        return columns.indexOf(columnName) >= 0;
+    }
+
+    /**
+     * 按下标获取单元格的值
+     */
+    public Object get(int rowIndex, int columnIndex) {
+        return rows.get(rowIndex)[columnIndex];
+    }
+
+    /**
+     * 按列名获取单元格的值
+     *
+     * @return 单元格的值，列不存在时返回 null
+     */
+    public Object get(int rowIndex, String columnName) {
+        int index = columns.indexOf(columnName);
+        return index < 0 ? null : rows.get(rowIndex)[index];
+    }
+
+    /**
+     * 获取某一行的原始值数组，数组与 RowSet 共享，调用方不应修改
+     */
+    public Object[] getValues(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    /**
+     * 获取某一行的 Map 视图
+     */
+    public Map<String, Object> getRow(int rowIndex) {
+        return new RowView(columns, rows.get(rowIndex));
+    }
+
+    /**
+     * 获取整列数据
+     *
+     * @param columnName 列名
+     * @return 该列数据，列不存在时每行都为 null
+     */
+    public List<Object> getColumn(String columnName) {
+        int index = columns.indexOf(columnName);
+        List<Object> values = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            values.add(index < 0 ? null : row[index]);
+        }
+        return values;
+    }
+
+    /**
+     * 以 {@code List<Map<String, Object>>} 的形式访问数据，列表和每一行的 Map 都是按需构建的视图。
+     * 视图的写入直接作用于底层数组，不支持新增或删除列，需要修改结构时使用 {@link #toMaps()}
+     */
+    public List<Map<String, Object>> asMaps() {
+        return new MapListView(this);
+    }
+
+    /**
+     * 复制为可修改的 {@code List<Map<String, Object>>}，列表和每一行的 Map 都是独立的副本，
+     * 可以自由增删行和列，修改不会影响 RowSet
+     */
+    public List<Map<String, Object>> toMaps() {
+        List<String> names = columns.distinctNames();
+        int[] indexes = columns.distinctIndexes;
+        List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>(names.size() * 2);
+            for (int i = 0; i < indexes.length; i++) {
+                map.put(names.get(i), row[indexes[i]]);
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    @Override
+    public String toString() {
+        return asMaps().toString();
+    }
+
+    /**
+     * 结果集的列元数据，在所有行之间共享
+     */
+    public static final class Columns {
+        private final String[] names;
+        private final Map<String, Integer> indexes;
+        private final List<String> distinctNames;
+        private final int[] distinctIndexes;
+
+        public Columns(String... names) {
+            this.names = names.clone();
+            this.indexes = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                // 与逐行 put 到 HashMap 的行为保持一致：重名列以最后一列为准
+                indexes.put(names[i], i);
+            }
+            LinkedHashMap<String, Integer> distinct = new LinkedHashMap<>();
+            for (String name : names) {
+                distinct.putIfAbsent(name, indexes.get(name));
+            }
+            this.distinctNames = List.copyOf(distinct.keySet());
+            this.distinctIndexes = distinct.values().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        public static Columns from(ResultSetMetaData metaData) throws SQLException {
+            int columnCount = metaData.getColumnCount();
+            String[] names = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                names[i] = metaData.getColumnName(i + 1);
+            }
+            return new Columns(names);
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+
+        public int indexOf(String name) {
+            Integer index = indexes.get(name);
+            return index == null ? -1 : index;
+        }
+
+        public List<String> distinctNames() {
+            return distinctNames;
+        }
+
+        public String[] toArray() {
+            return names.clone();
+        }
+    }
+
+    /**
+     * 单行数据的 Map 视图，读取和写入都直接作用于底层数组，不支持新增或删除列
+     */
+    public static final class RowView extends AbstractMap<String, Object> {
+        private final Columns columns;
+        private final Object[] values;
+
+        public RowView(Columns columns, Object[] values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int index = columns.indexOf((String) key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && columns.indexOf((String) key) >= 0;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            int index = columns.indexOf(key);
+            if (index < 0) {
+                throw new UnsupportedOperationException("column does not exist: " + key);
+            }
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return columns.distinctIndexes.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int cursor;
+
+                        @Override
+                        public boolean hasNext() {
+                            return cursor < columns.distinctIndexes.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            String name = columns.distinctNames.get(cursor);
+                            int index = columns.distinctIndexes[cursor++];
+                            return new SimpleEntry<>(name, values[index]) {
+                                @Override
+                                public Object setValue(Object value) {
+                                    values[index] = value;
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return RowView.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * RowSet 的 {@code List<Map>} 视图
+     */
+    private static final class MapListView extends AbstractList<Map<String, Object>> implements RandomAccess {
+        private final RowSet rowSet;
+
+        private MapListView(RowSet rowSet) {
+            this.rowSet = rowSet;
+        }
+
+        RowSet rowSet() {
+            return rowSet;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return rowSet.getRow(index);
+        }
+
+        @Override
+        public int size() {
+            return rowSet.size();
+        }
+    }
+}
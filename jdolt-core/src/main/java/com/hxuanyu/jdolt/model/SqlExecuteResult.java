@@ -1,9 +1,8 @@
 package com.hxuanyu.jdolt.model;
 
-import java.lang.reflect.Field;
+import com.hxuanyu.jdolt.util.mapper.RowMapperPlan;
+
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,7 +30,12 @@ public class SqlExecuteResult {
      */
     private String msg;
     /**
-     * 调用或请求的实际结果，如果请求失败，该值应为空
+     * 调用或请求的实际结果，如果请求失败，该值应为空。
+     * 数据以列式共享元数据的形式保存，Map 形式的数据只在调用 {@link #getData()} 等方法时按需构建
+     */
+    private RowSet rowSet;
+    /**
+     * {@link #getData()} 第一次调用时复制出的可修改数据
      */
     private List<Map<String, Object>> data;
 
@@ -47,12 +51,11 @@ public class SqlExecuteResult {
      * @return Optional包装的数据，如果不存在或执行失败则返回empty
      */
     public Optional<Object> getValue(int rowIndex, String columnName) {
-        if (!isSuccess() || data == null || rowIndex < 0 || rowIndex >= data.size()) {
+        if (!isSuccess() || rowSet == null || rowIndex < 0 || rowIndex >= rowSet.size()) {
             return Optional.empty();
         }
 
-        Map<String, Object> row = data.get(rowIndex);
-        return Optional.ofNullable(row.get(columnName));
+        return Optional.ofNullable(rowSet.get(rowIndex, columnName));
     }
 
     /**
@@ -367,16 +370,29 @@ public class SqlExecuteResult {
     }
 
     /**
-     * 获取指定行的所有数据
+     * 获取指定行的所有数据，返回 {@link #getData()} 中对应的可修改的行
      *
      * @param rowIndex 行索引
      * @return 该行的数据Map，如果不存在则返回null
      */
     public Map<String, Object> getRow(int rowIndex) {
-        if (!isSuccess() || data == null || rowIndex < 0 || rowIndex >= data.size()) {
+        if (!isSuccess() || rowSet == null || rowIndex < 0 || rowIndex >= rowSet.size()) {
             return null;
         }
-        return data.get(rowIndex);
+        return getData().get(rowIndex);
+    }
+
+    /**
+     * 获取指定行的 Map 视图，不复制数据，不支持新增或删除列
+     *
+     * @param rowIndex 行索引
+     * @return 该行的数据视图，如果不存在则返回null
+     */
+    public Map<String, Object> getRowView(int rowIndex) {
+        if (!isSuccess() || rowSet == null || rowIndex < 0 || rowIndex >= rowSet.size()) {
+            return null;
+        }
+        return rowSet.getRow(rowIndex);
     }
 
     /**
@@ -395,13 +411,11 @@ public class SqlExecuteResult {
      * @return 该列的所有数据列表
      */
     public List<Object> getColumn(String columnName) {
-        if (!isSuccess() || data == null) {
+        if (!isSuccess() || rowSet == null) {
             return java.util.Collections.emptyList();
         }
 
-        return data.stream()
-                .map(row -> row.get(columnName))
-                .collect(Collectors.toList());
+        return rowSet.getColumn(columnName);
     }
 
     /**
@@ -422,10 +436,10 @@ public class SqlExecuteResult {
      * @return 数据行数，如果执行失败或数据为空则返回0
      */
     public int getRowCount() {
-        if (!isSuccess() || data == null) {
+        if (!isSuccess() || rowSet == null) {
             return 0;
         }
-        return data.size();
+        return rowSet.size();
     }
 
     /**
@@ -434,10 +448,10 @@ public class SqlExecuteResult {
      * @return 数据列数，如果执行失败或数据为空则返回0
      */
     public int getColumnCount() {
-        if (!isSuccess() || data == null || data.isEmpty()) {
+        if (!isSuccess() || rowSet == null || rowSet.isEmpty()) {
             return 0;
         }
-        return data.get(0).size();
+        return rowSet.getColumnNames().size();
     }
 
     /**
@@ -446,10 +460,10 @@ public class SqlExecuteResult {
      * @return 列名列表，如果执行失败或数据为空则返回空列表
      */
     public List<String> getColumnNames() {
-        if (!isSuccess() || data == null || data.isEmpty()) {
+        if (!isSuccess() || rowSet == null || rowSet.isEmpty()) {
             return java.util.Collections.emptyList();
         }
-        return new java.util.ArrayList<>(data.get(0).keySet());
+        return new java.util.ArrayList<>(rowSet.getColumnNames());
     }
 
     /**
@@ -459,10 +473,10 @@ public class SqlExecuteResult {
      * @return 是否包含该列
      */
     public boolean hasColumn(String columnName) {
-        if (!isSuccess() || data == null || data.isEmpty()) {
+        if (!isSuccess() || rowSet == null || rowSet.isEmpty()) {
             return false;
         }
-        return data.get(0).containsKey(columnName);
+        return rowSet.hasColumn(columnName);
     }
 
     /**
@@ -471,7 +485,7 @@ public class SqlExecuteResult {
      * @return 数据是否为空
      */
     public boolean isEmpty() {
-        return !isSuccess() || data == null || data.isEmpty();
+        return !isSuccess() || rowSet == null || rowSet.isEmpty();
     }
 
     /**
@@ -493,15 +507,17 @@ public class SqlExecuteResult {
      * @return 转换后的对象列表
      */
     public <T> List<T> toObjectList(Class<T> clazz) {
-        if (!isSuccess() || data == null || data.isEmpty()) {
+        if (!isSuccess() || rowSet == null || rowSet.isEmpty()) {
             return new ArrayList<>();
         }
 
-        List<T> resultList = new ArrayList<>();
+        List<T> resultList = new ArrayList<>(rowSet.size());
 
         try {
-            for (Map<String, Object> row : data) {
-                T instance = mapToObject(row, clazz);
+            // 映射计划按类缓存，列匹配在每个结果集上只做一次
+            RowMapperPlan.Bound<T> mapper = RowMapperPlan.of(clazz).bind(rowSet.getColumns());
+            for (int i = 0; i < rowSet.size(); i++) {
+                T instance = mapper.map(rowSet.getValues(i));
                 if (instance != null) {
                     resultList.add(instance);
                 }
@@ -527,296 +543,6 @@ public class SqlExecuteResult {
         return list.isEmpty() ? null : list.get(0);
     }
 
-    /**
-     * 将Map数据转换为指定类型的对象
-     *
-     * @param row   数据行
-     * @param clazz 目标类型
-     * @param <T>   泛型类型
-     * @return 转换后的对象
-     * @throws Exception 转换异常
-     */
-    private <T> T mapToObject(Map<String, Object> row, Class<T> clazz) throws Exception {
-        T instance = clazz.getDeclaredConstructor().newInstance();
-
-        // 获取类的所有字段（包括父类字段）
-        List<Field> allFields = getAllFields(clazz);
-
-        for (Field field : allFields) {
-            String fieldName = field.getName();
-
-            // 跳过静态字段和final字段
-            if (java.lang.reflect.Modifier.isStatic(field.getModifiers()) ||
-                    java.lang.reflect.Modifier.isFinal(field.getModifiers())) {
-                continue;
-            }
-
-            // 尝试从row中获取对应的值
-            Object value = findValueByFieldName(row, fieldName);
-
-            if (value != null) {
-                setFieldValue(instance, field, value);
-            }
-        }
-
-        return instance;
-    }
-
-    /**
-     * 获取类的所有字段（包括父类字段）
-     *
-     * @param clazz 类
-     * @return 字段列表
-     */
-    private List<Field> getAllFields(Class<?> clazz) {
-        List<Field> fields = new ArrayList<>();
-        Class<?> currentClass = clazz;
-
-        while (currentClass != null) {
-            fields.addAll(Arrays.asList(currentClass.getDeclaredFields()));
-            currentClass = currentClass.getSuperclass();
-        }
-
-        return fields;
-    }
-
-    /**
-     * 根据字段名从row中查找对应的值
-     * 支持驼峰命名和下划线命名的转换
-     *
-     * @param row       数据行
-     * @param fieldName 字段名
-     * @return 对应的值
-     */
-    private Object findValueByFieldName(Map<String, Object> row, String fieldName) {
-        // 直接匹配
-        if (row.containsKey(fieldName)) {
-            return row.get(fieldName);
-        }
-
-        // 驼峰转下划线匹配
-        String underscoreName = camelToUnderscore(fieldName);
-        if (row.containsKey(underscoreName)) {
-            return row.get(underscoreName);
-        }
-
-        // 下划线转驼峰匹配
-        String camelName = underscoreToCamel(fieldName);
-        if (row.containsKey(camelName)) {
-            return row.get(camelName);
-        }
-
-        // 忽略大小写匹配
-        for (Map.Entry<String, Object> entry : row.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(fieldName) ||
-                    entry.getKey().equalsIgnoreCase(underscoreName) ||
-                    entry.getKey().equalsIgnoreCase(camelName)) {
-                return entry.getValue();
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * 驼峰命名转下划线命名
-     *
-     * @param camelCase 驼峰命名字符串
-     * @return 下划线命名字符串
-     */
-    private String camelToUnderscore(String camelCase) {
-        return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
-    }
-
-    /**
-     * 下划线命名转驼峰命名
-     *
-     * @param underscore 下划线命名字符串
-     * @return 驼峰命名字符串
-     */
-    private String underscoreToCamel(String underscore) {
-        StringBuilder result = new StringBuilder();
-        String[] parts = underscore.split("_");
-
-        for (int i = 0; i < parts.length; i++) {
-            if (i == 0) {
-                result.append(parts[i].toLowerCase());
-            } else {
-                result.append(parts[i].substring(0, 1).toUpperCase())
-                        .append(parts[i].substring(1).toLowerCase());
-            }
-        }
-
-        return result.toString();
-    }
-
-    /**
-     * 为字段设置值，支持类型转换
-     *
-     * @param instance 对象实例
-     * @param field    字段
-     * @param value    值
-     * @throws Exception 设置异常
-     */
-    private void setFieldValue(Object instance, Field field, Object value) throws Exception {
-        field.setAccessible(true);
-        Class<?> fieldType = field.getType();
-
-        // 如果值为null，直接设置
-        if (value == null) {
-            field.set(instance, null);
-            return;
-        }
-
-        // 如果类型匹配，直接设置
-        if (fieldType.isAssignableFrom(value.getClass())) {
-            field.set(instance, value);
-            return;
-        }
-
-        // 类型转换
-        Object convertedValue = convertValue(value, fieldType);
-        field.set(instance, convertedValue);
-    }
-
-    /**
-     * 值类型转换
-     *
-     * @param value      原始值
-     * @param targetType 目标类型
-     * @return 转换后的值
-     */
-    private Object convertValue(Object value, Class<?> targetType) {
-        if (value == null) {
-            return null;
-        }
-
-        String stringValue = value.toString();
-
-        try {
-            // String类型
-            if (targetType == String.class) {
-                return stringValue;
-            }
-
-            // 基本类型和包装类型
-            if (targetType == int.class || targetType == Integer.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).intValue();
-                }
-                return Integer.valueOf(stringValue);
-            }
-
-            if (targetType == long.class || targetType == Long.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).longValue();
-                }
-                return Long.valueOf(stringValue);
-            }
-
-            if (targetType == double.class || targetType == Double.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).doubleValue();
-                }
-                return Double.valueOf(stringValue);
-            }
-
-            if (targetType == float.class || targetType == Float.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).floatValue();
-                }
-                return Float.valueOf(stringValue);
-            }
-
-            if (targetType == boolean.class || targetType == Boolean.class) {
-                if (value instanceof Boolean) {
-                    return value;
-                }
-                if (value instanceof Number) {
-                    return ((Number) value).intValue() != 0;
-                }
-                return Boolean.valueOf(stringValue) || "1".equals(stringValue) ||
-                        "yes".equalsIgnoreCase(stringValue) || "y".equalsIgnoreCase(stringValue);
-            }
-
-            if (targetType == short.class || targetType == Short.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).shortValue();
-                }
-                return Short.valueOf(stringValue);
-            }
-
-            if (targetType == byte.class || targetType == Byte.class) {
-                if (value instanceof Number) {
-                    return ((Number) value).byteValue();
-                }
-                return Byte.valueOf(stringValue);
-            }
-
-            // BigDecimal类型
-            if (targetType == BigDecimal.class) {
-                if (value instanceof BigDecimal) {
-                    return value;
-                }
-                if (value instanceof Number) {
-                    return BigDecimal.valueOf(((Number) value).doubleValue());
-                }
-                return new BigDecimal(stringValue);
-            }
-
-            // LocalDateTime类型
-            if (targetType == LocalDateTime.class) {
-                if (value instanceof LocalDateTime) {
-                    return value;
-                }
-                // 尝试解析常见的日期时间格式
-                return parseDateTime(stringValue);
-            }
-
-            // 枚举类型
-            if (targetType.isEnum()) {
-                return Enum.valueOf((Class<Enum>) targetType, stringValue);
-            }
-
-            // 默认返回原值
-            return value;
-
-        } catch (Exception e) {
-            System.err.println("类型转换失败: " + value + " -> " + targetType.getSimpleName() + ", " + e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * 解析日期时间字符串
-     *
-     * @param dateTimeStr 日期时间字符串
-     * @return LocalDateTime对象
-     */
-    private LocalDateTime parseDateTime(String dateTimeStr) {
-        // 常见的日期时间格式
-        DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
-                DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss")
-        };
-
-        for (DateTimeFormatter formatter : formatters) {
-            try {
-                return LocalDateTime.parse(dateTimeStr, formatter);
-            } catch (Exception e) {
-                // 继续尝试下一个格式
-            }
-        }
-
-        throw new RuntimeException("无法解析日期时间字符串: " + dateTimeStr);
-    }
-
     // ... 原有的其他方法保持不变 ...
 
     /**
@@ -828,24 +554,31 @@ public class SqlExecuteResult {
     /**
      * 全参构造器
      */
-    private SqlExecuteResult(Integer status, String msg, List<Map<String, Object>> data) {
+    private SqlExecuteResult(Integer status, String msg, RowSet rowSet) {
         this.status = status;
         this.msg = msg;
-        this.data = data;
+        this.rowSet = rowSet;
     }
 
     /**
      * 构造成功消息，如果本次返回需要返回数据，则调用该方法并将数据传入
      */
     public static SqlExecuteResult success(String msg, List<Map<String, Object>> data) {
-        return new SqlExecuteResult(SqlExecuteResult.CALL_STATUS_SUCCESS, msg, data);
+        return new SqlExecuteResult(SqlExecuteResult.CALL_STATUS_SUCCESS, msg, RowSet.fromMaps(data));
+    }
+
+    /**
+     * 构造成功消息，直接使用列式的结果集作为数据
+     */
+    public static SqlExecuteResult success(String msg, RowSet rowSet) {
+        return new SqlExecuteResult(SqlExecuteResult.CALL_STATUS_SUCCESS, msg, rowSet);
     }
 
     /**
      * 构造成功消息，本方法适用于不需要数据返回的情况
      */
     public static SqlExecuteResult success(String msg) {
-        return success(msg, null);
+        return success(msg, (RowSet) null);
     }
 
     /**
@@ -880,16 +613,39 @@ public class SqlExecuteResult {
         return msg;
     }
 
+    /**
+     * 以 Map 列表的形式获取数据。第一次调用时复制为可修改的列表，之后返回同一个列表，
+     * 调用方可以在行中增加字段；其余便利方法始终读取 {@link #getRowSet()}，不受这些修改影响。
+     * 只读访问时使用 {@link #getDataView()} 可以避免复制
+     */
     public List<Map<String, Object>> getData() {
+        if (data == null && rowSet != null) {
+            data = rowSet.toMaps();
+        }
         return data;
     }
 
+    /**
+     * 以 Map 列表的形式获取数据的视图，列表及其中的每一行都是基于列式数据按需构建的，不复制数据，
+     * 不支持新增或删除列
+     */
+    public List<Map<String, Object>> getDataView() {
+        return rowSet == null ? null : rowSet.asMaps();
+    }
+
+    /**
+     * 获取列式存储的原始结果集
+     */
+    public RowSet getRowSet() {
+        return rowSet;
+    }
+
     @Override
     public String toString() {
         return "ProcedureResult{" +
                 "status=" + status +
                 ", msg='" + msg + '\'' +
-                ", data=" + data +
+                ", data=" + rowSet +
                 '}';
     }
 
@@ -906,13 +662,13 @@ public class SqlExecuteResult {
             return;
         }
 
-        if (data == null || data.isEmpty()) {
+        if (rowSet == null || rowSet.isEmpty()) {
             System.out.println("执行成功，数据为空");
             return;
         }
 
         // 获取所有列名
-        List<String> columnNames = new java.util.ArrayList<>(data.get(0).keySet());
+        List<String> columnNames = rowSet.getColumnNames();
 
         // 计算每列的最大宽度
         Map<String, Integer> columnWidths = new java.util.HashMap<>();
@@ -920,7 +676,7 @@ public class SqlExecuteResult {
             columnWidths.put(column, column.length());
         }
 
-        for (Map<String, Object> row : data) {
+        for (Map<String, Object> row : rowSet.asMaps()) {
             for (String column : columnNames) {
                 Object value = row.get(column);
                 String valueStr = value == null ? "NULL" : value.toString();
@@ -949,7 +705,7 @@ public class SqlExecuteResult {
         System.out.println(separator);
 
         // 打印数据行
-        for (Map<String, Object> row : data) {
+        for (Map<String, Object> row : rowSet.asMaps()) {
             StringBuilder dataLine = new StringBuilder();
             for (String column : columnNames) {
                 Object value = row.get(column);
@@ -961,7 +717,7 @@ public class SqlExecuteResult {
         }
 
         System.out.println(separator);
-        System.out.println("共计 " + data.size() + " 条记录");
+        System.out.println("共计 " + rowSet.size() + " 条记录");
     }
 
     /**
@@ -975,19 +731,19 @@ public class SqlExecuteResult {
             return;
         }
 
-        if (data == null || data.isEmpty()) {
+        if (rowSet == null || rowSet.isEmpty()) {
             System.out.println("执行成功，但没有返回数据");
             return;
         }
 
         // 获取所有列名
-        List<String> columnNames = new java.util.ArrayList<>(data.get(0).keySet());
+        List<String> columnNames = rowSet.getColumnNames();
 
         // 打印表头
         System.out.println(String.join(delimiter, columnNames));
 
         // 打印数据行
-        for (Map<String, Object> row : data) {
+        for (Map<String, Object> row : rowSet.asMaps()) {
             StringBuilder dataLine = new StringBuilder();
             for (int i = 0; i < columnNames.size(); i++) {
                 Object value = row.get(columnNames.get(i));
@@ -1000,7 +756,7 @@ public class SqlExecuteResult {
             System.out.println(dataLine);
         }
 
-        System.out.println("共计 " + data.size() + " 条记录");
+        System.out.println("共计 " + rowSet.size() + " 条记录");
     }
 
     /**
@@ -1030,13 +786,13 @@ public class SqlExecuteResult {
             return;
         }
 
-        if (data == null || data.isEmpty()) {
+        if (rowSet == null || rowSet.isEmpty()) {
             System.out.println("执行成功，但没有返回数据");
             return;
         }
 
         // 获取所有列名
-        List<String> columnNames = new java.util.ArrayList<>(data.get(0).keySet());
+        List<String> columnNames = rowSet.getColumnNames();
 
         // 打印表头
         if (useHeader) {
@@ -1044,7 +800,7 @@ public class SqlExecuteResult {
         }
 
         // 打印数据行
-        for (Map<String, Object> row : data) {
+        for (Map<String, Object> row : rowSet.asMaps()) {
             StringBuilder dataLine = new StringBuilder();
             for (int i = 0; i < columnNames.size(); i++) {
                 Object value = row.get(columnNames.get(i));
@@ -1058,7 +814,7 @@ public class SqlExecuteResult {
         }
 
         if (showCount) {
-            System.out.println("共计 " + data.size() + " 条记录");
+            System.out.println("共计 " + rowSet.size() + " 条记录");
         }
     }
 
@@ -1079,15 +835,15 @@ public class SqlExecuteResult {
         
         // 添加data字段
         json.append("\"data\":");
-        if (data == null) {
+        if (rowSet == null) {
             json.append("null");
         } else {
             json.append("[");
-            for (int i = 0; i < data.size(); i++) {
+            for (int i = 0; i < rowSet.size(); i++) {
                 if (i > 0) {
                     json.append(",");
                 }
-                Map<String, Object> row = data.get(i);
+                Map<String, Object> row = rowSet.getRow(i);
                 json.append("{");
                 boolean first = true;
                 for (Map.Entry<String, Object> entry : row.entrySet()) {
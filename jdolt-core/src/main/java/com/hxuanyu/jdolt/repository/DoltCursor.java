@@ -0,0 +1,192 @@
+package com.hxuanyu.jdolt.repository;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.metrics.DoltMetrics;
+import com.hxuanyu.jdolt.model.RowSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于 {@link ResultSet} 的流式游标，逐行读取查询结果而不在内存中缓存整个结果集。
+ * <p>
+ * 游标持有一个数据库连接，连接只在游标的生命周期内保持打开：读取完最后一行或调用 {@link #close()} 后，
+ * ResultSet、PreparedStatement 和 Connection 会被依次关闭。游标不是线程安全的，应在单个线程中消费，
+ * 并始终通过 try-with-resources 使用，以免提前退出时连接泄漏。
+ *
+ * <pre>
+ * try (DoltCursor cursor = repository.executeQueryAsCursor(sqlTemplate)) {
+ *     while (cursor.hasNext()) {
+ *         Map&lt;String, Object&gt; row = cursor.next();
+ *     }
+ * }
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class DoltCursor implements Iterator<Map<String, Object>>, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DoltCursor.class);
+
+    private final Connection connection;
+    private final PreparedStatement preparedStatement;
+    private final ResultSet resultSet;
+    private final String sql;
+    private final RowSet.Columns columns;
+    private final DoltMetrics.Sample sample;
+
+    private boolean fetched;
+    private boolean hasRow;
+    private boolean closed;
+    private long rowCount;
+    private Throwable failure;
+
+    DoltCursor(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, String sql) throws SQLException {
+        this(connection, preparedStatement, resultSet, sql, DoltMetrics.Sample.NOOP);
+    }
+
+    DoltCursor(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, String sql, DoltMetrics.Sample sample) throws SQLException {
+        this.connection = connection;
+        this.preparedStatement = preparedStatement;
+        this.resultSet = resultSet;
+        this.sql = sql;
+        this.sample = sample;
+
+        this.columns = RowSet.Columns.from(resultSet.getMetaData());
+    }
+
+    /**
+     * 获取结果集的列元数据，所有行共享同一份
+     *
+     * @return 列元数据
+     */
+    public RowSet.Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * 获取结果集的列名，顺序与 ResultSet 中的列顺序一致
+     *
+     * @return 列名数组
+     */
+    public String[] getColumnNames() {
+        return columns.toArray();
+    }
+
+    /**
+     * 获取已经读取的行数
+     *
+     * @return 已读取的行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!fetched) {
+            try {
+                hasRow = resultSet.next();
+            } catch (SQLException e) {
+                failure = e;
+                close();
+                throw new DoltException("dolt cursor fetch error, sql: " + sql, e);
+            }
+            fetched = true;
+            if (!hasRow) {
+                // 读取完毕后立即归还连接，不必等待调用方关闭
+                close();
+            }
+        }
+        return hasRow;
+    }
+
+    /**
+     * 读取下一行，返回按列顺序排列的原始值数组
+     *
+     * @return 行数据
+     */
+    public Object[] nextValues() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        try {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resultSet.getObject(i + 1);
+            }
+            rowCount++;
+            return values;
+        } catch (SQLException e) {
+            failure = e;
+            close();
+            throw new DoltException("dolt cursor read error, sql: " + sql, e);
+        }
+    }
+
+    /**
+     * 读取下一行，返回共享列元数据的 Map 视图
+     *
+     * @return 行数据
+     */
+    @Override
+    public Map<String, Object> next() {
+        return new RowSet.RowView(columns, nextValues());
+    }
+
+    /**
+     * 将游标包装为顺序流，流关闭时游标随之关闭。调用方应使用 try-with-resources 关闭返回的流。
+     *
+     * @return 行数据流
+     */
+    public Stream<Map<String, Object>> stream() {
+        Spliterator<Map<String, Object>> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasRow = false;
+        closeQuietly(resultSet);
+        closeQuietly(preparedStatement);
+        closeQuietly(connection);
+        // 游标的耗时从执行查询开始，到读取完毕或关闭为止
+        if (failure != null) {
+            sample.failure(failure);
+        } else {
+            sample.success(rowCount);
+        }
+        logger.debug("dolt cursor closed, sql: {} rows: {}", sql, rowCount);
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            logger.warn("dolt cursor close error, sql: {}", sql, e);
+        }
+    }
+}
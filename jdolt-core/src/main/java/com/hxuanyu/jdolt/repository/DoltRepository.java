@@ -1,7 +1,21 @@
 package com.hxuanyu.jdolt.repository;
 
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ImmutableQueries;
+import com.hxuanyu.jdolt.cache.ResultCache;
 import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.interfaces.DoltInfoFunction;
+import com.hxuanyu.jdolt.interfaces.DoltSystemTable;
+import com.hxuanyu.jdolt.interfaces.DoltTableFunction;
+import com.hxuanyu.jdolt.manager.BranchContext;
 import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.manager.DoltTransaction;
+import com.hxuanyu.jdolt.manager.PrimaryContext;
+import com.hxuanyu.jdolt.manager.ReplicaRouter;
+import com.hxuanyu.jdolt.metrics.DoltMetrics;
+import com.hxuanyu.jdolt.metrics.OperationNames;
+import com.hxuanyu.jdolt.model.BatchResult;
+import com.hxuanyu.jdolt.model.RowSet;
 import com.hxuanyu.jdolt.util.builder.SqlBuilder;
 import com.hxuanyu.jdolt.util.validator.BranchNameValidator;
 import org.slf4j.Logger;
@@ -9,9 +23,11 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Represents a repository for managing Dolt commands execution against a database.
@@ -19,13 +35,40 @@ import java.util.Map;
  * abstracting the connection management and command execution process.
  */
 public class DoltRepository {
+    /**
+     * 流式查询默认使用的 fetch size，MySQL Connector/J 仅在该值为 Integer.MIN_VALUE 时逐行读取结果集
+     */
+    public static final int DEFAULT_STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * 驱动不支持 {@link #DEFAULT_STREAM_FETCH_SIZE} 时退化使用的 fetch size
+     */
+    public static final int FALLBACK_STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * 批量执行时默认每个分块包含的语句数
+     */
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(DoltRepository.class);
 
     private final DoltConnectionManager connectionManager;
 
+    /**
+     * 表函数、信息函数和系统表只执行查询，配置了只读副本时从副本获取连接
+     */
+    private final boolean replicaReads;
+
     // 构造函数
     protected DoltRepository(DoltConnectionManager connectionManager) {
         this.connectionManager = connectionManager;
+        this.replicaReads = this instanceof DoltTableFunction
+                || this instanceof DoltInfoFunction
+                || this instanceof DoltSystemTable;
+    }
+
+    public DoltConnectionManager getConnectionManager() {
+        return connectionManager;
     }
 
     /**
@@ -38,12 +81,18 @@ public class DoltRepository {
      */
     protected int executeUpdate(SqlBuilder.SqlTemplate sqlTemplate) throws SQLException {
         String sql = sqlTemplate.sql();
+        DoltMetrics.Sample sample = startSample(sql);
         try (
                 Connection connection = connectionManager.getConnection();
                 PreparedStatement preparedStatement = connection.prepareStatement(sql)
         ) {
             sqlTemplate.setParameters(preparedStatement);
-            return preparedStatement.executeUpdate();
+            int updated = preparedStatement.executeUpdate();
+            sample.success(updated);
+            return updated;
+        } catch (SQLException | RuntimeException e) {
+            sample.failure(e);
+            throw e;
         }
     }
 
@@ -57,7 +106,7 @@ public class DoltRepository {
      */
     protected ResultSet executeQuery(SqlBuilder.SqlTemplate sqlTemplate) throws SQLException {
         String sql = sqlTemplate.sql();
-        Connection connection = connectionManager.getConnection();
+        Connection connection = queryConnection(sql);
         PreparedStatement preparedStatement = connection.prepareStatement(sql);
         sqlTemplate.setParameters(preparedStatement);
         return preparedStatement.executeQuery(); // 调用者需关闭 ResultSet 和 PreparedStatement
@@ -68,38 +117,426 @@ public class DoltRepository {
      * 使用 SQL 模板和参数列表的方式，防止 SQL 注入。
      *
      * @param sqlTemplate    要执行的查询 SQL 模板
-     * @return 查询结果封装为 List<Map<String, Object>>
+     * @return 查询结果封装为 List<Map<String, Object>>，列表和每一行都是可修改的副本；
+     * 只读访问时使用 {@code executeQueryAsRowSet(sqlTemplate).asMaps()} 可以避免复制
      * @throws SQLException 如果执行失败
      */
     public List<Map<String, Object>> executeQueryAsList(SqlBuilder.SqlTemplate sqlTemplate) {
+        return executeQueryAsRowSet(sqlTemplate).toMaps();
+    }
+
+    /**
+     * 执行查询语句并以列式结构返回结果，列元数据只保存一份，每行仅保存一个值数组。
+     * 使用 SQL 模板和参数列表的方式，防止 SQL 注入。
+     *
+     * @param sqlTemplate    要执行的查询 SQL 模板
+     * @return 查询结果集
+     */
+    public RowSet executeQueryAsRowSet(SqlBuilder.SqlTemplate sqlTemplate) {
+        return executeQueryAsRowSet(null, sqlTemplate, false);
+    }
+
+    /**
+     * 执行查询语句并以列式结构返回结果，失败时只记录 debug 日志。
+     * 用于调用方预期可能失败并自行处理异常的查询，例如逐段解析引用时的未知引用。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @return 查询结果集
+     * @throws DoltException 如果执行失败，原始的 SQLException 作为 cause 保留
+     */
+    protected RowSet executeQueryAsRowSetQuietly(SqlBuilder.SqlTemplate sqlTemplate) {
+        return executeQueryAsRowSet(null, sqlTemplate, true);
+    }
+
+    /**
+     * 执行查询语句并以列式结构返回结果
+     *
+     * @param borrowed    要使用的连接，由调用方关闭；为 null 时借出新的连接并在查询结束后归还
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @param quiet       为 true 时失败只记录 debug 日志，由调用方决定是否需要报告
+     * @return 查询结果集
+     */
+    private RowSet executeQueryAsRowSet(Connection borrowed, SqlBuilder.SqlTemplate sqlTemplate, boolean quiet) {
         String sql = sqlTemplate.sql();
         long start = System.currentTimeMillis();
-        logger.debug("executeQueryAsList start, sql: {} params: {}", sqlTemplate.sql(), sqlTemplate.parameters());
-        try (Connection connection = connectionManager.getConnection()) {
+        logger.debug("executeQueryAsRowSet start, sql: {} params: {}", sqlTemplate.sql(), sqlTemplate.parameters());
+        DoltMetrics.Sample sample = startSample(sql);
+        Connection connection = null;
+        try {
+            connection = borrowed != null ? borrowed : queryConnection(sql);
             try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
                 sqlTemplate.setParameters(preparedStatement);
                 try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                    List<Map<String, Object>> results = new ArrayList<>();
-                    ResultSetMetaData metaData = resultSet.getMetaData();
-                    int columnCount = metaData.getColumnCount();
-
-                    while (resultSet.next()) {
-                        Map<String, Object> row = new HashMap<>();
-                        for (int i = 1; i <= columnCount; i++) {
-                            row.put(metaData.getColumnName(i), resultSet.getObject(i));
-                        }
-                        results.add(row);
-                    }
+                    RowSet results = RowSet.from(resultSet);
                     long end = System.currentTimeMillis();
-                    logger.debug("executeQueryAsList finish, sql: {} params: {}， result: {}, cost: {}ms", sql, sqlTemplate.parameters(), results, (end - start));
+                    sample.success(results.size());
+                    logger.debug("executeQueryAsRowSet finish, sql: {} params: {}， result: {}, cost: {}ms", sql, sqlTemplate.parameters(), results, (end - start));
                     return results;
                 }
             }
+        } catch (RuntimeException e) {
+            sample.failure(e);
+            throw e;
         } catch (SQLException e) {
+            sample.failure(e);
+            DoltException doltException = new DoltException("dolt execute error, sql: " + sql + " params: " + sqlTemplate.parameters(), e);
+            if (quiet) {
+                logger.debug("dolt execute error, sql: {} params: {}, cause: {}", sql, sqlTemplate.parameters(), e.getMessage());
+            } else {
+                logger.error("dolt execute error, sql: {} params: {}", sql, sqlTemplate.parameters(), doltException);
+            }
+            throw doltException;
+        } finally {
+            if (borrowed == null) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    /**
+     * 执行结果可能被缓存的查询。查询的所有修订版本都是完整提交哈希时，结果从连接管理器的
+     * {@link ResultCache} 中读取；查询结果只由提交图决定时，结果从 {@link HeadValidatedCache} 中读取，
+     * 由在同一个连接上执行的引用状态查询验证；否则等价于 {@link #executeQueryAsRowSet(SqlBuilder.SqlTemplate)}。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @return 查询结果集
+     * @see ImmutableQueries
+     * @see HeadValidatedCache#isCacheable(SqlBuilder.SqlTemplate)
+     */
+    public RowSet executeCacheableQuery(SqlBuilder.SqlTemplate sqlTemplate) {
+        ResultCache resultCache = connectionManager.getResultCache();
+        if (resultCache != null && ImmutableQueries.isImmutable(sqlTemplate)) {
+            return resultCache.get(sqlTemplate, () -> executeQueryAsRowSet(sqlTemplate));
+        }
+        HeadValidatedCache headCache = connectionManager.getHeadCache();
+        if (headCache != null && HeadValidatedCache.isCacheable(sqlTemplate)) {
+            // 状态查询和数据查询使用同一个连接，不经过副本时连接在第一次需要查询时才借出
+            Connection[] connection = new Connection[1];
+            try {
+                String stateKey = null;
+                // 事务中的连接可能看到尚未提交的引用变化，每次都重新验证且不记录状态
+                if (!connectionManager.isInTransaction()) {
+                    String branch = connectionManager.getBranch() != null ? connectionManager.getBranch() : BranchContext.current();
+                    if (branch != null) {
+                        stateKey = branch;
+                    } else if (routesToReplica(sqlTemplate.sql())) {
+                        // 各副本的复制进度不同，先借出连接确定副本，已验证的状态按副本分别记录
+                        connection[0] = queryConnection(sqlTemplate.sql());
+                        int replica = ReplicaRouter.replicaIndex(connection[0]);
+                        stateKey = replica < 0 ? "" : "@replica-" + replica;
+                    } else {
+                        stateKey = "";
+                    }
+                }
+                return headCache.get(stateKey, sqlTemplate, template -> {
+                    if (connection[0] == null) {
+                        connection[0] = queryConnection(sqlTemplate.sql());
+                    }
+                    return executeQueryAsRowSet(connection[0], template, false);
+                });
+            } finally {
+                closeQuietly(connection[0]);
+            }
+        }
+        return executeQueryAsRowSet(sqlTemplate);
+    }
+
+    /**
+     * 通过本客户端修改了提交或引用后，立即失效分支读取缓存
+     */
+    public void invalidateHeadCache() {
+        HeadValidatedCache headCache = connectionManager.getHeadCache();
+        if (headCache != null) {
+            headCache.invalidate();
+        }
+    }
+
+    /**
+     * 查询使用的连接，只读类操作的 SELECT 按 {@link DoltConnectionManager#getReadConnection()} 路由到副本
+     */
+    private Connection queryConnection(String sql) {
+        if (replicaReads && isSelect(sql)) {
+            return connectionManager.getReadConnection();
+        }
+        return connectionManager.getConnection();
+    }
+
+    private boolean routesToReplica(String sql) {
+        return replicaReads && isSelect(sql) && connectionManager.getReplicaRouter() != null
+                && !PrimaryContext.isForced() && !connectionManager.isInTransaction();
+    }
+
+    static boolean isSelect(String sql) {
+        return sql.regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    /**
+     * 以流式游标的方式执行查询，使用默认的 fetch size。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @return 流式游标，调用方负责关闭
+     * @see #executeQueryAsCursor(SqlBuilder.SqlTemplate, int)
+     */
+    public DoltCursor executeQueryAsCursor(SqlBuilder.SqlTemplate sqlTemplate) {
+        return executeQueryAsCursor(sqlTemplate, DEFAULT_STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * 以流式游标的方式执行查询，结果逐行从驱动读取，不会整体加载到内存中。
+     * 连接在游标关闭（或读取完毕）前一直被占用，调用方必须关闭返回的游标。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @param fetchSize   驱动的 fetch size，{@link #DEFAULT_STREAM_FETCH_SIZE} 表示 MySQL 驱动的逐行流式读取
+     * @return 流式游标
+     */
+    public DoltCursor executeQueryAsCursor(SqlBuilder.SqlTemplate sqlTemplate, int fetchSize) {
+        String sql = sqlTemplate.sql();
+        logger.debug("executeQueryAsCursor start, sql: {} params: {}, fetchSize: {}", sql, sqlTemplate.parameters(), fetchSize);
+        DoltMetrics.Sample sample = startSample(sql);
+        Connection connection;
+        try {
+            connection = queryConnection(sql);
+        } catch (RuntimeException e) {
+            sample.failure(e);
+            throw e;
+        }
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            applyFetchSize(preparedStatement, fetchSize);
+            sqlTemplate.setParameters(preparedStatement);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            return new DoltCursor(connection, preparedStatement, resultSet, sql, sample);
+        } catch (SQLException e) {
+            sample.failure(e);
+            closeQuietly(preparedStatement);
+            closeQuietly(connection);
             DoltException doltException = new DoltException("dolt execute error, sql: " + sql + " params: " + sqlTemplate.parameters(), e);
             logger.error("dolt execute error, sql: {} params: {}", sql, sqlTemplate.parameters(), doltException);
             throw doltException;
+        } catch (RuntimeException e) {
+            // 驱动包装层等抛出的非受检异常同样要归还连接，分支池的连接还占用着许可
+            sample.failure(e);
+            closeQuietly(preparedStatement);
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * 以 {@link Stream} 的形式流式执行查询，流关闭时释放连接。
+     * 调用方应使用 try-with-resources 关闭返回的流。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @return 行数据流
+     */
+    public Stream<Map<String, Object>> executeQueryAsStream(SqlBuilder.SqlTemplate sqlTemplate) {
+        return executeQueryAsCursor(sqlTemplate).stream();
+    }
+
+    /**
+     * 流式执行查询，并将每一行交给回调处理，处理完成后自动释放连接。
+     *
+     * @param sqlTemplate 要执行的查询 SQL 模板
+     * @param rowConsumer 行处理回调
+     * @return 处理的行数
+     */
+    public long executeQueryForEach(SqlBuilder.SqlTemplate sqlTemplate, Consumer<Map<String, Object>> rowConsumer) {
+        try (DoltCursor cursor = executeQueryAsCursor(sqlTemplate)) {
+            while (cursor.hasNext()) {
+                rowConsumer.accept(cursor.next());
+            }
+            return cursor.getRowCount();
+        }
+    }
+
+    /**
+     * 批量执行一组 DML 语句，使用默认的分块大小。
+     *
+     * @param sqlTemplates 要执行的 SQL 模板
+     * @return 批量执行结果
+     * @see #executeBatch(Iterator, int, Consumer)
+     */
+    public BatchResult executeBatch(List<SqlBuilder.SqlTemplate> sqlTemplates) {
+        return executeBatch(sqlTemplates.iterator(), DEFAULT_BATCH_CHUNK_SIZE, null);
+    }
+
+    /**
+     * 批量执行一组 DML 语句。
+     *
+     * @param sqlTemplates 要执行的 SQL 模板
+     * @param chunkSize    每个分块包含的语句数
+     * @return 批量执行结果
+     * @see #executeBatch(Iterator, int, Consumer)
+     */
+    public BatchResult executeBatch(List<SqlBuilder.SqlTemplate> sqlTemplates, int chunkSize) {
+        return executeBatch(sqlTemplates.iterator(), chunkSize, null);
+    }
+
+    /**
+     * 批量执行流中的 DML 语句，流中的语句逐个读取，不会整体加载到内存中。
+     *
+     * @param sqlTemplates  要执行的 SQL 模板
+     * @param chunkSize     每个分块包含的语句数
+     * @param chunkListener 每个分块执行完成后的回调，可用于报告进度，可以为 null
+     * @return 批量执行结果
+     * @see #executeBatch(Iterator, int, Consumer)
+     */
+    public BatchResult executeBatch(Stream<SqlBuilder.SqlTemplate> sqlTemplates, int chunkSize, Consumer<BatchResult.Chunk> chunkListener) {
+        return executeBatch(sqlTemplates.iterator(), chunkSize, chunkListener);
+    }
+
+    /**
+     * 使用同一条 SQL 和多组参数批量执行。
+     *
+     * @param sql           带占位符的 SQL
+     * @param parameterSets 每次执行的参数
+     * @param chunkSize     每个分块包含的语句数
+     * @return 批量执行结果
+     */
+    public BatchResult executeBatch(String sql, List<List<Object>> parameterSets, int chunkSize) {
+        Iterator<List<Object>> parameters = parameterSets.iterator();
+        Iterator<SqlBuilder.SqlTemplate> sqlTemplates = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return parameters.hasNext();
+            }
+
+            @Override
+            public SqlBuilder.SqlTemplate next() {
+                return new SqlBuilder.SqlTemplate(sql, parameters.next());
+            }
+        };
+        return executeBatch(sqlTemplates, chunkSize, null);
+    }
+
+    /**
+     * 在一个连接、一个事务中批量执行 DML 语句。当前线程已处于 {@link DoltTransaction} 中时，
+     * 语句加入该事务，由外层事务负责提交或回滚。
+     * <p>
+     * 语句按 chunkSize 分块，每个分块通过 addBatch/executeBatch 一次提交给驱动；分块内连续的相同 SQL
+     * 复用同一个 PreparedStatement。所有分块执行成功后统一提交事务，任一分块失败则回滚全部语句。
+     * 使用 MySQL 驱动时，可以在连接串中开启 {@code rewriteBatchedStatements=true}，
+     * 由驱动把同一批次的 INSERT 改写为多行语句。
+     *
+     * @param sqlTemplates  要执行的 SQL 模板
+     * @param chunkSize     每个分块包含的语句数
+     * @param chunkListener 每个分块执行完成后的回调，可以为 null
+     * @return 批量执行结果
+     */
+    public BatchResult executeBatch(Iterator<SqlBuilder.SqlTemplate> sqlTemplates, int chunkSize, Consumer<BatchResult.Chunk> chunkListener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        BatchResult batchResult = new BatchResult();
+        logger.debug("executeBatch start, chunkSize: {}", chunkSize);
+        DoltMetrics.Sample sample = startSample("BATCH");
+        // 已经处于事务中时由外层事务负责提交和回滚
+        boolean managed = connectionManager.isInTransaction();
+        try (Connection connection = connectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (!managed) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                List<SqlBuilder.SqlTemplate> chunk = new ArrayList<>(Math.min(chunkSize, DEFAULT_BATCH_CHUNK_SIZE));
+                while (sqlTemplates.hasNext()) {
+                    chunk.add(sqlTemplates.next());
+                    if (chunk.size() == chunkSize || !sqlTemplates.hasNext()) {
+                        BatchResult.Chunk chunkResult = executeChunk(connection, chunk, batchResult.getChunkCount());
+                        batchResult.addChunk(chunkResult);
+                        if (chunkListener != null) {
+                            chunkListener.accept(chunkResult);
+                        }
+                        chunk.clear();
+                    }
+                }
+                if (!managed) {
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!managed) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (!managed) {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (RuntimeException e) {
+            sample.failure(e);
+            throw e;
+        } catch (SQLException e) {
+            sample.failure(e);
+            DoltException doltException = new DoltException("dolt batch execute error, chunk: " + batchResult.getChunkCount(), e);
+            logger.error("dolt batch execute error, chunk: {}", batchResult.getChunkCount(), doltException);
+            throw doltException;
+        }
+        sample.success(batchResult.getAffectedRows());
+        logger.debug("executeBatch finish, result: {}", batchResult);
+        return batchResult;
+    }
+
+    private BatchResult.Chunk executeChunk(Connection connection, List<SqlBuilder.SqlTemplate> chunk, int index) throws SQLException {
+        long start = System.currentTimeMillis();
+        int[] updateCounts = new int[chunk.size()];
+        int position = 0;
+        int from = 0;
+        while (from < chunk.size()) {
+            String sql = chunk.get(from).sql();
+            int to = from;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                // 连续的相同 SQL 复用同一个 PreparedStatement
+                while (to < chunk.size() && chunk.get(to).sql().equals(sql)) {
+                    chunk.get(to).setParameters(preparedStatement);
+                    preparedStatement.addBatch();
+                    to++;
+                }
+                int[] counts = preparedStatement.executeBatch();
+                System.arraycopy(counts, 0, updateCounts, position, counts.length);
+                position += counts.length;
+            }
+            from = to;
+        }
+        long cost = System.currentTimeMillis() - start;
+        logger.debug("executeBatch chunk {} finish, statements: {}, cost: {}ms", index, chunk.size(), cost);
+        return new BatchResult.Chunk(index, chunk.size(), updateCounts, cost);
+    }
+
+    /**
+     * 开始一次指标采样，采集关闭时不解析操作名称
+     */
+    private DoltMetrics.Sample startSample(String sql) {
+        DoltMetrics metrics = connectionManager.getMetrics();
+        if (!metrics.isEnabled()) {
+            return DoltMetrics.Sample.NOOP;
+        }
+        String branch = connectionManager.getBranch() != null ? connectionManager.getBranch() : BranchContext.current();
+        return metrics.start(OperationNames.of(sql), branch);
+    }
+
+    private void applyFetchSize(Statement statement, int fetchSize) throws SQLException {
+        try {
+            statement.setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            if (fetchSize != Integer.MIN_VALUE) {
+                throw e;
+            }
+            // 非 MySQL 驱动通常不接受负数的 fetch size，退化为普通的分批读取提示
+            statement.setFetchSize(FALLBACK_STREAM_FETCH_SIZE);
+        }
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            logger.warn("close resource error", e);
         }
     }
 
@@ -115,46 +552,56 @@ public class DoltRepository {
     protected boolean execute(SqlBuilder.SqlTemplate sqlTemplate) throws SQLException {
         String sql = sqlTemplate.sql();
         logger.debug("execute start, sql: {} params: {}", sql, sqlTemplate.parameters());
+        DoltMetrics.Sample sample = startSample(sql);
         try (
                 Connection connection = connectionManager.getConnection();
                 PreparedStatement preparedStatement = connection.prepareStatement(sql)
         ) {
             sqlTemplate.setParameters(preparedStatement);
-            return preparedStatement.execute();
+            boolean hasResultSet = preparedStatement.execute();
+            sample.success(hasResultSet ? 0 : Math.max(preparedStatement.getUpdateCount(), 0));
+            return hasResultSet;
+        } catch (SQLException | RuntimeException e) {
+            sample.failure(e);
+            throw e;
         }
     }
 
 
     /**
-     * 开始事务。
+     * 开始事务，事务绑定到当前线程，提交或回滚前当前线程的所有操作都使用同一个连接。
      *
-     * @throws SQLException 如果设置失败
+     * @return 事务
      */
-    protected void beginTransaction() throws SQLException {
-        Connection connection = connectionManager.getConnection();
-        connection.setAutoCommit(false);
+    protected DoltTransaction beginTransaction() {
+        return connectionManager.beginTransaction();
     }
 
     /**
-     * 提交事务。
-     *
-     * @throws SQLException 如果提交失败
+     * 提交当前线程的事务并释放连接。
      */
-    protected void commitTransaction() throws SQLException {
-        Connection connection = connectionManager.getConnection();
-        connection.commit();
-        connection.setAutoCommit(true);
+    protected void commitTransaction() {
+        DoltTransaction transaction = currentTransaction();
+        try {
+            transaction.commit();
+        } finally {
+            transaction.close();
+        }
     }
 
     /**
-     * 回滚事务。
-     *
-     * @throws SQLException 如果回滚失败
+     * 回滚当前线程的事务并释放连接。
      */
-    protected void rollbackTransaction() throws SQLException {
-        Connection connection = connectionManager.getConnection();
-        connection.rollback();
-        connection.setAutoCommit(true);
+    protected void rollbackTransaction() {
+        currentTransaction().close();
+    }
+
+    private DoltTransaction currentTransaction() {
+        DoltTransaction transaction = connectionManager.currentTransaction();
+        if (transaction == null) {
+            throw new IllegalStateException("当前线程没有进行中的事务");
+        }
+        return transaction;
     }
 
 
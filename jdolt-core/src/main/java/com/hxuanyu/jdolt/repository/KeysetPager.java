@@ -0,0 +1,135 @@
+package com.hxuanyu.jdolt.repository;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.model.Keyset;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * keyset（seek）分页迭代器，每次迭代返回一页结果。
+ * <p>
+ * 每一页都是一条独立的查询，使用上一页最后一行的排序键作为 {@code >}（降序时为 {@code <}）条件，
+ * 不持有数据库连接，也不使用 OFFSET，适合遍历 dolt_commits、dolt_history_$table 等上百万行的系统表。
+ * 两页之间写入的新行按排序键决定是否出现在后续的页中，不会导致已读的行重复或遗漏未变化的行。
+ *
+ * <pre>
+ * KeysetPager pager = versionControl.systemTable().commits().prepare()
+ *         .pagesDesc(1000, "date", "commit_hash");
+ * while (pager.hasNext()) {
+ *     RowSet page = pager.next();
+ * }
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class KeysetPager implements Iterator<RowSet> {
+    private final Function<Keyset, SqlBuilder.SqlTemplate> queryBuilder;
+    private final Function<SqlBuilder.SqlTemplate, RowSet> executor;
+
+    private Keyset keyset;
+    private RowSet pending;
+    private boolean exhausted;
+    private long pageCount;
+    private long rowCount;
+
+    /**
+     * @param queryBuilder 根据分页条件生成查询
+     * @param executor     执行查询
+     * @param first        第一页的分页条件
+     */
+    public KeysetPager(Function<Keyset, SqlBuilder.SqlTemplate> queryBuilder,
+                       Function<SqlBuilder.SqlTemplate, RowSet> executor,
+                       Keyset first) {
+        this.queryBuilder = queryBuilder;
+        this.executor = executor;
+        this.keyset = first;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !exhausted) {
+            fetch();
+        }
+        return pending != null;
+    }
+
+    @Override
+    public RowSet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RowSet page = pending;
+        pending = null;
+        return page;
+    }
+
+    private void fetch() {
+        RowSet page = executor.apply(queryBuilder.apply(keyset));
+        // 不满一页说明已经读到末尾，不需要再发一次空查询
+        if (page == null || page.size() < keyset.pageSize()) {
+            exhausted = true;
+        }
+        if (page == null || page.isEmpty()) {
+            return;
+        }
+        keyset = keyset.next(lastKey(page));
+        pending = page;
+        pageCount++;
+        rowCount += page.size();
+    }
+
+    private List<Object> lastKey(RowSet page) {
+        int last = page.size() - 1;
+        List<Object> values = new ArrayList<>(keyset.columns().size());
+        for (String column : keyset.columns()) {
+            int index = page.indexOf(column);
+            if (index < 0) {
+                throw new DoltException("keyset column not found in result: " + column);
+            }
+            Object value = page.get(last, index);
+            if (value == null) {
+                throw new DoltException("keyset column must not be null: " + column);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 逐行遍历所有页，页在流被消费到时才查询
+     *
+     * @return 行数据流
+     */
+    public Stream<Map<String, Object>> rows() {
+        Spliterator<RowSet> pages = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(pages, false)
+                .flatMap(page -> IntStream.range(0, page.size()).mapToObj(page::getRow));
+    }
+
+    /**
+     * 已读取的页数
+     */
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 已读取的行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+}
@@ -1,6 +1,7 @@
 package com.hxuanyu.jdolt.util.builder;
 
 import com.hxuanyu.jdolt.interfaces.DoltInfoFunction;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 
 import java.util.Arrays;
@@ -26,6 +27,11 @@ public abstract class AbstractInfoFunctionParamBuilder<T extends AbstractInfoFun
 
 
 
+    @Override
+    protected DoltConnectionManager getConnectionManager() {
+        return doltInfoFunction.getConnectionManager();
+    }
+
     @Override
     public SqlExecuteResult execute() {
         checkParam();
@@ -1,9 +1,16 @@
 package com.hxuanyu.jdolt.util.builder;
 
+import com.hxuanyu.jdolt.manager.BranchContext;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.manager.PrimaryContext;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.util.validator.MethodConstraintValidator;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public abstract class AbstractParamBuilder {
     
@@ -30,6 +37,10 @@ public abstract class AbstractParamBuilder {
         INTO_CLAUSE,
         FLAGS,
         TABLE_NAME_SUFFIX,
+        KEYSET,
+        AS_OF,
+        AS_OF_TIMESTAMP,
+        REVISION_DATABASE,
     }
     
     protected final MethodConstraintValidator validator;
@@ -64,4 +75,48 @@ public abstract class AbstractParamBuilder {
     }
 
     public abstract SqlExecuteResult execute();
+
+    /**
+     * 获取执行操作使用的连接管理器
+     *
+     * @return 连接管理器
+     */
+    protected abstract DoltConnectionManager getConnectionManager();
+
+    /**
+     * 在连接管理器的异步执行器上执行，多个相互独立的调用可以并发进行。
+     * 提交后不应再修改当前参数构建器。
+     *
+     * @return 执行结果
+     */
+    public CompletableFuture<SqlExecuteResult> executeAsync() {
+        return executeAsync(getConnectionManager().getAsyncExecutor());
+    }
+
+    /**
+     * 在指定的执行器上异步执行，调用线程绑定的 {@link BranchContext} 会传递到执行线程。
+     * 提交后不应再修改当前参数构建器。
+     *
+     * @param executor 执行器
+     * @return 执行结果
+     */
+    public CompletableFuture<SqlExecuteResult> executeAsync(Executor executor) {
+        String branch = BranchContext.current();
+        // 强制主库的上下文与分支上下文一起传递到执行线程
+        Supplier<SqlExecuteResult> action = PrimaryContext.isForced() ? this::executeOnPrimary : this::execute;
+        if (branch == null) {
+            return DoltAsyncExecutor.supplyAsync(action, executor);
+        }
+        return DoltAsyncExecutor.supplyAsync(() -> BranchContext.call(branch, action), executor);
+    }
+
+    /**
+     * 在主库上执行，即使配置了只读副本，也不会把查询发往副本，用于需要读到刚写入数据的场景
+     *
+     * @return 执行结果
+     * @see PrimaryContext
+     */
+    public SqlExecuteResult executeOnPrimary() {
+        return PrimaryContext.call(this::execute);
+    }
 }
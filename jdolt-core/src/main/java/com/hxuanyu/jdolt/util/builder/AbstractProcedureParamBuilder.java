@@ -1,6 +1,7 @@
 package com.hxuanyu.jdolt.util.builder;
 
 import com.hxuanyu.jdolt.interfaces.DoltProcedure;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 
 import java.util.Arrays;
@@ -24,6 +25,11 @@ public abstract class AbstractProcedureParamBuilder<T extends AbstractProcedureP
     }
 
 
+    @Override
+    protected DoltConnectionManager getConnectionManager() {
+        return doltProcedure.getConnectionManager();
+    }
+
     @Override
     public SqlExecuteResult execute() {
         checkParam();
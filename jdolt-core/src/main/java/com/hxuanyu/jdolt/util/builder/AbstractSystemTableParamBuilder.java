@@ -1,7 +1,15 @@
 package com.hxuanyu.jdolt.util.builder;
 
 import com.hxuanyu.jdolt.interfaces.DoltSystemTable;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.Keyset;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.repository.KeysetPager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public abstract class AbstractSystemTableParamBuilder<T extends AbstractSystemTableParamBuilder<T>> extends AbstractParamBuilder {
 
@@ -13,10 +21,66 @@ public abstract class AbstractSystemTableParamBuilder<T extends AbstractSystemTa
     }
 
 
+    @Override
+    protected DoltConnectionManager getConnectionManager() {
+        return doltSystemTable.getConnectionManager();
+    }
+
     @Override
     public SqlExecuteResult execute() {
         checkParam();
         return doltSystemTable.query(this.sqlParams);
     }
 
+    /**
+     * 以流的方式查询系统表，作为 {@link #execute()} 的替代，结果不会整体加载到内存中。
+     * 返回的流持有数据库连接，调用方应使用 try-with-resources 关闭。
+     *
+     * @return 行数据流
+     */
+    public Stream<Map<String, Object>> stream() {
+        checkParam();
+        return doltSystemTable.stream(this.sqlParams);
+    }
+
+    /**
+     * 以 keyset 分页的方式按升序遍历系统表，每页按排序键的 {@code >} 条件查询，读取任意一页的开销都与第一页相同。
+     * 分页自行控制排序和行数，不能与 orderBy、limit、offset 同时使用。
+     *
+     * @param pageSize   每页行数
+     * @param keyColumns 排序键列，组合必须唯一，例如 dolt_commits 的 {@code date, commit_hash}，
+     *                   dolt_history_$table 的主键列加 {@code commit_hash}
+     * @return 分页迭代器
+     */
+    public KeysetPager pages(int pageSize, String... keyColumns) {
+        return keysetPager(Keyset.first(pageSize, false, keyColumns));
+    }
+
+    /**
+     * 以 keyset 分页的方式按降序遍历系统表，例如从最新的提交开始读取
+     *
+     * @param pageSize   每页行数
+     * @param keyColumns 排序键列，组合必须唯一
+     * @return 分页迭代器
+     * @see #pages(int, String...)
+     */
+    public KeysetPager pagesDesc(int pageSize, String... keyColumns) {
+        return keysetPager(Keyset.first(pageSize, true, keyColumns));
+    }
+
+    private KeysetPager keysetPager(Keyset first) {
+        checkParam();
+        for (ParamType type : List.of(ParamType.ORDER_BY, ParamType.LIMIT, ParamType.OFFSET)) {
+            if (sqlParams.containsKey(type)) {
+                throw new IllegalStateException("keyset pagination cannot be combined with " + type);
+            }
+        }
+        Map<ParamType, List<Object>> baseParams = new HashMap<>(sqlParams);
+        return new KeysetPager(keyset -> {
+            Map<ParamType, List<Object>> pageParams = new HashMap<>(baseParams);
+            pageParams.put(ParamType.KEYSET, List.of(keyset));
+            return doltSystemTable.buildSqlTemplate(pageParams);
+        }, doltSystemTable::executeQueryAsRowSet, first);
+    }
+
 }
@@ -1,10 +1,13 @@
 package com.hxuanyu.jdolt.util.builder;
 
 import com.hxuanyu.jdolt.interfaces.DoltTableFunction;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public abstract class AbstractTableFunctionParamBuilder<T extends AbstractTableFunctionParamBuilder<T>> extends AbstractParamBuilder {
 
@@ -24,6 +27,11 @@ public abstract class AbstractTableFunctionParamBuilder<T extends AbstractTableF
     }
 
 
+    @Override
+    protected DoltConnectionManager getConnectionManager() {
+        return doltFunction.getConnectionManager();
+    }
+
     @Override
     public SqlExecuteResult execute() {
         checkParam();
@@ -35,4 +43,20 @@ public abstract class AbstractTableFunctionParamBuilder<T extends AbstractTableF
         }
     }
 
+    /**
+     * 以流的方式执行表函数，作为 {@link #execute()} 的替代，结果不会整体加载到内存中。
+     * 返回的流持有数据库连接，调用方应使用 try-with-resources 关闭。
+     *
+     * @return 行数据流
+     */
+    public Stream<Map<String, Object>> stream() {
+        checkParam();
+        List<Object> functionParams = this.sqlParams.get(ParamType.FUNCTION_PARAMS);
+        if (functionParams == null || functionParams.isEmpty()) {
+            return doltFunction.stream();
+        } else {
+            return doltFunction.stream(convertToStringArray(functionParams));
+        }
+    }
+
 }
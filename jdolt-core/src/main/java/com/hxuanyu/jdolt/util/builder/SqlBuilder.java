@@ -2,7 +2,10 @@ package com.hxuanyu.jdolt.util.builder;
 
 import com.hxuanyu.jdolt.model.WhereCondition;
 import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +16,7 @@ import java.util.Map;
  * - 表函数查询: SELECT * FROM function(param1, param2) WHERE xxx
  * - 存储过程调用: CALL procedure(param1, param2)
  * - 函数调用: SELECT function(param1, param2)
+ * - 历史读取: SELECT * FROM table AS OF 'v1.0'，SELECT * FROM `db/branch`.table
  * 生成带有占位符的SQL模板，方便与PreparedStatement一起使用
  */
 public class SqlBuilder {
@@ -40,6 +44,12 @@ public class SqlBuilder {
     private Integer limit;
     private Integer offset;
     private List<Object> parameters = new ArrayList<>();
+    private List<Object[]> valueRows = new ArrayList<>(); // 多行INSERT的值
+    private List<String> seekColumns = new ArrayList<>(); // keyset 分页的键列
+    private List<Object> seekValues = new ArrayList<>(); // 上一页最后一行的键值
+    private Object asOf; // AS OF 的修订版本或时间点
+    private boolean asOfTimestamp; // AS OF 的值是否为时间点
+    private String revisionDatabase; // 修订版本数据库 db/revision
 
     /**
      * 私有构造函数，通过静态方法创建实例
@@ -134,6 +144,69 @@ public class SqlBuilder {
         return this;
     }
 
+    /**
+     * 读取表在指定修订版本的数据: SELECT ... FROM table AS OF ?
+     * <p>
+     * 修订版本作为绑定参数传递，可以是分支、标签、提交哈希或 {@code main~2} 之类的提交表达式，
+     * 不需要切换会话的分支。只能用于普通表的 SELECT，与 {@link #asOfTimestamp(LocalDateTime)} 互相覆盖。
+     *
+     * @param revision 修订版本
+     * @return SqlBuilder实例
+     */
+    public SqlBuilder asOf(String revision) {
+        if (revision == null || revision.isBlank()) {
+            throw new IllegalArgumentException("revision must not be empty");
+        }
+        checkAsOfAllowed();
+        this.asOf = revision;
+        this.asOfTimestamp = false;
+        return this;
+    }
+
+    /**
+     * 读取表在指定时间点的数据: SELECT ... FROM table AS OF TIMESTAMP(?)，
+     * 读取的是当前分支上该时间点之前最近的一次提交
+     *
+     * @param timestamp 时间点
+     * @return SqlBuilder实例
+     */
+    public SqlBuilder asOfTimestamp(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("timestamp must not be null");
+        }
+        checkAsOfAllowed();
+        this.asOf = timestamp;
+        this.asOfTimestamp = true;
+        return this;
+    }
+
+    private void checkAsOfAllowed() {
+        if (this.sqlType != SqlType.SELECT) {
+            throw new IllegalStateException("AS OF只能用于SELECT语句");
+        }
+    }
+
+    /**
+     * 通过修订版本数据库访问表: `db/revision`.table。
+     * <p>
+     * 修订版本是分支时可以读写，是标签或提交哈希时只读；连接不需要执行 {@code USE} 或 {@code DOLT_CHECKOUT}。
+     * 库名是标识符，不能作为绑定参数，生成时使用反引号转义。
+     *
+     * @param database 数据库名
+     * @param revision 分支、标签或提交哈希
+     * @return SqlBuilder实例
+     */
+    public SqlBuilder fromRevisionDatabase(String database, String revision) {
+        if (database == null || database.isBlank() || revision == null || revision.isBlank()) {
+            throw new IllegalArgumentException("database and revision must not be empty");
+        }
+        if (this.sqlType == SqlType.CALL_PROCEDURE || this.sqlType == SqlType.SELECT_FUNCTION) {
+            throw new IllegalStateException("修订版本数据库只能用于表的SELECT/INSERT/UPDATE/DELETE语句");
+        }
+        this.revisionDatabase = database + "/" + revision;
+        return this;
+    }
+
     /**
      * 向表函数添加参数
      *
@@ -209,6 +282,23 @@ public class SqlBuilder {
         return this;
     }
 
+    /**
+     * 添加 keyset（seek）分页条件，只返回排序键在给定值之后的行。
+     * 升序时生成 {@code (c1 > ? OR (c1 = ? AND c2 > ?))}，降序（{@link #orderByDesc(String...)}）时使用 {@code <}，
+     * 多列时额外添加 {@code c1 >= ?} 前缀条件，便于数据库按第一列做范围扫描。
+     *
+     * @param columns 排序键列，应与 ORDER BY 的列一致且组合唯一
+     * @param values  上一页最后一行的键值
+     */
+    public SqlBuilder seekAfter(List<String> columns, List<Object> values) {
+        if (columns.isEmpty() || columns.size() != values.size()) {
+            throw new IllegalArgumentException("seek columns and values must be non-empty and have the same size");
+        }
+        this.seekColumns = new ArrayList<>(columns);
+        this.seekValues = new ArrayList<>(values);
+        return this;
+    }
+
     /**
      * 设置更新的列和值
      */
@@ -226,6 +316,64 @@ public class SqlBuilder {
         return this;
     }
 
+    /**
+     * 设置多行INSERT的列名，与 {@link #values(Object...)} 配合使用
+     */
+    public SqlBuilder columns(String... columns) {
+        if (this.sqlType != SqlType.INSERT) {
+            throw new IllegalStateException("columns方法只能用于INSERT语句");
+        }
+        if (!this.parameters.isEmpty()) {
+            throw new IllegalStateException("columns方法不能与column(column, value)混用");
+        }
+        this.columns.clear();
+        this.columns.addAll(List.of(columns));
+        return this;
+    }
+
+    /**
+     * 添加一行要插入的值，值的数量和顺序需要与 {@link #columns(String...)} 一致
+     */
+    public SqlBuilder values(Object... values) {
+        if (this.sqlType != SqlType.INSERT || this.columns.isEmpty()) {
+            throw new IllegalStateException("必须先调用insertInto和columns设置表名和列名");
+        }
+        if (!this.parameters.isEmpty()) {
+            throw new IllegalStateException("values方法不能与column(column, value)混用");
+        }
+        if (values == null || values.length != this.columns.size()) {
+            throw new IllegalArgumentException("值的数量与列数不一致, columns: " + this.columns.size()
+                    + ", values: " + (values == null ? 0 : values.length));
+        }
+        this.valueRows.add(values.clone());
+        return this;
+    }
+
+    /**
+     * 将多行INSERT按每条语句最多 maxRowsPerStatement 行拆分为多条语句，
+     * 避免单条语句过大或占位符数量超过服务端限制
+     *
+     * @param maxRowsPerStatement 每条语句的最大行数
+     * @return SQL模板列表
+     */
+    public List<SqlTemplate> buildChunks(int maxRowsPerStatement) {
+        if (sqlType != SqlType.INSERT || valueRows.isEmpty()) {
+            return List.of(build());
+        }
+        if (maxRowsPerStatement <= 0) {
+            throw new IllegalArgumentException("maxRowsPerStatement must be greater than 0");
+        }
+        List<SqlTemplate> templates = new ArrayList<>();
+        for (int from = 0; from < valueRows.size(); from += maxRowsPerStatement) {
+            int to = Math.min(from + maxRowsPerStatement, valueRows.size());
+            StringBuilder sql = new StringBuilder();
+            List<Object> params = new ArrayList<>((to - from) * columns.size());
+            appendInsertValues(sql, params, valueRows.subList(from, to));
+            templates.add(new SqlTemplate(sql.toString(), params));
+        }
+        return templates;
+    }
+
     /**
      * 设置ORDER BY子句
      */
@@ -314,6 +462,9 @@ public class SqlBuilder {
 
         // 处理表函数或普通表名  
         if (tableFunction != null) {
+            if (asOf != null || revisionDatabase != null) {
+                throw new IllegalStateException("表函数不支持AS OF和修订版本数据库，修订版本应作为函数参数传递");
+            }
             sql.append(tableFunction).append("(");
 
             // 添加表函数参数  
@@ -327,7 +478,8 @@ public class SqlBuilder {
 
             sql.append(")");
         } else {
-            sql.append(tableName);
+            sql.append(tableReference());
+            appendAsOfClause(sql, params);
         }
 
         appendWhereClause(sql, params);
@@ -335,6 +487,24 @@ public class SqlBuilder {
         appendLimitOffsetClause(sql, params); // 传递params参数
     }
 
+    /**
+     * 表名，设置了修订版本数据库时加上转义后的库名前缀
+     */
+    private String tableReference() {
+        if (revisionDatabase == null) {
+            return tableName;
+        }
+        return "`" + revisionDatabase.replace("`", "``") + "`." + tableName;
+    }
+
+    private void appendAsOfClause(StringBuilder sql, List<Object> params) {
+        if (asOf == null) {
+            return;
+        }
+        sql.append(asOfTimestamp ? " AS OF TIMESTAMP(?)" : " AS OF ?");
+        params.add(asOf);
+    }
+
     private void buildSelectFunctionSql(StringBuilder sql, List<Object> params) {
         sql.append("SELECT ").append(functionName).append("(");
 
@@ -375,7 +545,11 @@ public class SqlBuilder {
     }
 
     private void buildInsertSql(StringBuilder sql, List<Object> params) {
-        sql.append("INSERT INTO ").append(tableName).append(" (");
+        if (!valueRows.isEmpty()) {
+            appendInsertValues(sql, params, valueRows);
+            return;
+        }
+        sql.append("INSERT INTO ").append(tableReference()).append(" (");
         sql.append(String.join(", ", columns));
         sql.append(") VALUES (");
 
@@ -390,8 +564,23 @@ public class SqlBuilder {
         sql.append(")");
     }
 
+    private void appendInsertValues(StringBuilder sql, List<Object> params, List<Object[]> rows) {
+        sql.append("INSERT INTO ").append(tableReference()).append(" (");
+        sql.append(String.join(", ", columns));
+        sql.append(") VALUES ");
+
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+            params.addAll(Arrays.asList(rows.get(i)));
+        }
+    }
+
     private void buildUpdateSql(StringBuilder sql, List<Object> params) {
-        sql.append("UPDATE ").append(tableName).append(" SET ");
+        sql.append("UPDATE ").append(tableReference()).append(" SET ");
 
         int i = 0;
         for (Map.Entry<String, Object> entry : updateValues.entrySet()) {
@@ -407,12 +596,12 @@ public class SqlBuilder {
     }
 
     private void buildDeleteSql(StringBuilder sql, List<Object> params) {
-        sql.append("DELETE FROM ").append(tableName);
+        sql.append("DELETE FROM ").append(tableReference());
         appendWhereClause(sql, params);
     }
 
     private void appendWhereClause(StringBuilder sql, List<Object> params) {
-        boolean hasConditions = !conditions.isEmpty() || !whereConditions.isEmpty();
+        boolean hasConditions = !conditions.isEmpty() || !whereConditions.isEmpty() || !seekColumns.isEmpty();
         if (!hasConditions) {
             return;
         }
@@ -446,12 +635,44 @@ public class SqlBuilder {
 
             conditionCount++;
         }
+
+        if (!seekColumns.isEmpty()) {
+            if (conditionCount > 0) {
+                sql.append(" AND ");
+            }
+            appendSeekCondition(sql, params);
+        }
+    }
+
+    private void appendSeekCondition(StringBuilder sql, List<Object> params) {
+        String after = orderAsc ? " > ?" : " < ?";
+        if (seekColumns.size() > 1) {
+            sql.append(seekColumns.get(0)).append(orderAsc ? " >= ?" : " <= ?").append(" AND ");
+            params.add(seekValues.get(0));
+        }
+        sql.append("(");
+        for (int i = 0; i < seekColumns.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR (");
+                for (int j = 0; j < i; j++) {
+                    sql.append(seekColumns.get(j)).append(" = ? AND ");
+                    params.add(seekValues.get(j));
+                }
+            }
+            sql.append(seekColumns.get(i)).append(after);
+            params.add(seekValues.get(i));
+            if (i > 0) {
+                sql.append(")");
+            }
+        }
+        sql.append(")");
     }
 
     private void appendOrderByClause(StringBuilder sql) {
         if (!orderByColumns.isEmpty()) {
             sql.append(" ORDER BY ");
-            sql.append(String.join(", ", orderByColumns));
+            // 降序作用于每一列，否则多列排序时只有最后一列是降序
+            sql.append(String.join(orderAsc ? ", " : " DESC, ", orderByColumns));
             if (!orderAsc) {
                 sql.append(" DESC");
             }
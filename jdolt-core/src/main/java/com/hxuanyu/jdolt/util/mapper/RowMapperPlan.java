@@ -0,0 +1,289 @@
+package com.hxuanyu.jdolt.util.mapper;
+
+import com.hxuanyu.jdolt.model.RowSet;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 结果行到 Java 对象的映射计划。
+ * <p>
+ * 每个目标类的字段（或 record 组件）、候选列名、setter 句柄和值转换器只在第一次使用时解析一次，
+ * 之后全局缓存。映射一个结果集时，计划先按照结果集的列顺序绑定成 {@link Bound}，
+ * 逐行映射只做数组下标访问和 MethodHandle 调用，不再进行反射查找、名称匹配或正则替换。
+ * <p>
+ * 列名匹配规则与原有实现一致：依次尝试字段名本身、驼峰转下划线、下划线转驼峰，最后忽略大小写匹配。
+ * 值为 null 的列不会覆盖字段的默认值。
+ *
+ * @param <T> 目标类型
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class RowMapperPlan<T> {
+
+    private static final ClassValue<RowMapperPlan<?>> PLANS = new ClassValue<>() {
+        @Override
+        protected RowMapperPlan<?> computeValue(Class<?> type) {
+            return new RowMapperPlan<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final List<Property> properties;
+    private final Supplier<T> instanceFactory;
+    private final MethodHandle recordConstructor;
+
+    /**
+     * 获取目标类的映射计划，计划在全局范围内按类缓存
+     *
+     * @param type 目标类型
+     * @param <T>  目标类型
+     * @return 映射计划
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapperPlan<T> of(Class<T> type) {
+        return (RowMapperPlan<T>) PLANS.get(type);
+    }
+
+    private RowMapperPlan(Class<T> type) {
+        this.type = type;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            if (type.isRecord()) {
+                this.properties = recordProperties(type);
+                Class<?>[] parameterTypes = properties.stream().map(p -> p.type).toArray(Class<?>[]::new);
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+                this.recordConstructor = constructor
+                        .asType(constructor.type().generic())
+                        .asSpreader(Object[].class, parameterTypes.length);
+                this.instanceFactory = null;
+            } else {
+                this.properties = fieldProperties(type, lookup);
+                this.recordConstructor = null;
+                this.instanceFactory = instanceFactory(type, lookup);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("无法为类型创建映射计划: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 将映射计划绑定到结果集的列顺序上，绑定结果可用于映射该结果集中的所有行
+     *
+     * @param columns 结果集的列元数据
+     * @return 绑定后的映射器
+     */
+    public Bound<T> bind(RowSet.Columns columns) {
+        int[] columnIndexes = new int[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            columnIndexes[i] = properties.get(i).resolve(columns);
+        }
+        return new Bound<>(this, columnIndexes);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 绑定到具体列顺序的映射器，本身没有可变状态，可以在多个线程间共享
+     *
+     * @param <T> 目标类型
+     */
+    public static final class Bound<T> {
+        private final RowMapperPlan<T> plan;
+        private final int[] columnIndexes;
+
+        private Bound(RowMapperPlan<T> plan, int[] columnIndexes) {
+            this.plan = plan;
+            this.columnIndexes = columnIndexes;
+        }
+
+        /**
+         * 将一行数据映射为目标对象
+         *
+         * @param values 按结果集列顺序排列的行数据
+         * @return 目标对象
+         * @throws IllegalStateException 构造器或字段赋值抛出受检异常
+         */
+        @SuppressWarnings("unchecked")
+        public T map(Object[] values) {
+            List<Property> properties = plan.properties;
+            if (plan.recordConstructor != null) {
+                Object[] args = new Object[properties.size()];
+                for (int i = 0; i < args.length; i++) {
+                    Property property = properties.get(i);
+                    Object value = columnIndexes[i] < 0 ? null : property.converter.apply(values[columnIndexes[i]]);
+                    args[i] = value != null ? value : property.defaultValue;
+                }
+                try {
+                    return (T) plan.recordConstructor.invoke(args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException("无法创建实例: " + plan.type.getName(), e);
+                }
+            }
+
+            T instance = plan.instanceFactory.get();
+            for (int i = 0; i < columnIndexes.length; i++) {
+                int columnIndex = columnIndexes[i];
+                if (columnIndex < 0 || values[columnIndex] == null) {
+                    continue;
+                }
+                Property property = properties.get(i);
+                Object value = property.converter.apply(values[columnIndex]);
+                if (value != null || !property.type.isPrimitive()) {
+                    try {
+                        property.setter.invokeExact((Object) instance, value);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException("无法设置字段: " + property.candidates[0], e);
+                    }
+                }
+            }
+            return instance;
+        }
+    }
+
+    private static List<Property> recordProperties(Class<?> type) {
+        List<Property> properties = new ArrayList<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            properties.add(new Property(component.getName(), component.getType(), null));
+        }
+        return properties;
+    }
+
+    private static List<Property> fieldProperties(Class<?> type, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        List<Property> properties = new ArrayList<>();
+        Class<?> currentClass = type;
+        // 包括父类字段，子类字段优先
+        while (currentClass != null && currentClass != Object.class) {
+            MethodHandles.Lookup classLookup = currentClass == type ? lookup : MethodHandles.privateLookupIn(currentClass, MethodHandles.lookup());
+            for (Field field : currentClass.getDeclaredFields()) {
+                // 跳过静态字段和final字段
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    continue;
+                }
+                MethodHandle setter = classLookup.unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                properties.add(new Property(field.getName(), field.getType(), setter));
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+        return properties;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> instanceFactory(Class<T> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor();
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+        try {
+            // 通过 LambdaMetafactory 生成直接调用构造器的 Supplier，避免逐行的反射调用
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<T>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // 类加载器或访问权限不满足时退化为 MethodHandle 调用
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) generic.invokeExact();
+                } catch (Throwable t) {
+                    throw new IllegalStateException("无法创建实例: " + type.getName(), t);
+                }
+            };
+        }
+    }
+
+    /**
+     * 单个可映射属性的编译结果
+     */
+    private static final class Property {
+        private final Class<?> type;
+        private final MethodHandle setter;
+        private final Function<Object, Object> converter;
+        private final Object defaultValue;
+        private final String[] candidates;
+
+        private Property(String name, Class<?> type, MethodHandle setter) {
+            this.type = type;
+            this.setter = setter;
+            this.converter = ValueConverters.forType(type);
+            this.defaultValue = ValueConverters.defaultValue(type);
+            this.candidates = new String[]{name, camelToUnderscore(name), underscoreToCamel(name)};
+        }
+
+        /**
+         * 在结果集中查找属性对应的列
+         *
+         * @return 列下标，找不到时返回 -1
+         */
+        private int resolve(RowSet.Columns columns) {
+            for (String candidate : candidates) {
+                int index = columns.indexOf(candidate);
+                if (index >= 0) {
+                    return index;
+                }
+            }
+            // 忽略大小写匹配
+            for (String column : columns.distinctNames()) {
+                for (String candidate : candidates) {
+                    if (column.equalsIgnoreCase(candidate)) {
+                        return columns.indexOf(column);
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 驼峰命名转下划线命名
+     *
+     * @param camelCase 驼峰命名字符串
+     * @return 下划线命名字符串
+     */
+    static String camelToUnderscore(String camelCase) {
+        return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    /**
+     * 下划线命名转驼峰命名
+     *
+     * @param underscore 下划线命名字符串
+     * @return 驼峰命名字符串
+     */
+    static String underscoreToCamel(String underscore) {
+        StringBuilder result = new StringBuilder();
+        String[] parts = underscore.split("_");
+
+        for (int i = 0; i < parts.length; i++) {
+            if (i == 0) {
+                result.append(parts[i].toLowerCase());
+            } else if (!parts[i].isEmpty()) {
+                result.append(parts[i].substring(0, 1).toUpperCase())
+                        .append(parts[i].substring(1).toLowerCase());
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.hxuanyu.jdolt.util.mapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+/**
+ * 查询结果到 Java 类型的值转换器。
+ * <p>
+ * 每种目标类型的转换逻辑只解析一次，映射计划在编译时为每个属性取得对应的转换函数，
+ * 逐行映射时不再做类型分支判断。转换失败时返回 null，与原有的容错行为保持一致。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class ValueConverters {
+
+    /**
+     * 常见的日期时间格式
+     */
+    private static final DateTimeFormatter[] DATE_TIME_FORMATTERS = {
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss")
+    };
+
+    private ValueConverters() {
+    }
+
+    /**
+     * 获取转换到目标类型的函数。返回的函数在值已经是目标类型时直接返回原值。
+     *
+     * @param targetType 目标类型
+     * @return 转换函数
+     */
+    public static Function<Object, Object> forType(Class<?> targetType) {
+        Class<?> boxedType = box(targetType);
+        Function<Object, Object> converter = rawConverter(targetType);
+        return value -> {
+            if (value == null || boxedType.isInstance(value)) {
+                return value;
+            }
+            try {
+                return converter.apply(value);
+            } catch (Exception e) {
+                System.err.println("类型转换失败: " + value + " -> " + targetType.getSimpleName() + ", " + e.getMessage());
+                return null;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<Object, Object> rawConverter(Class<?> targetType) {
+        if (targetType == String.class) {
+            return Object::toString;
+        }
+        if (targetType == int.class || targetType == Integer.class) {
+            return value -> value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(value.toString());
+        }
+        if (targetType == long.class || targetType == Long.class) {
+            return value -> value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+        }
+        if (targetType == double.class || targetType == Double.class) {
+            return value -> value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(value.toString());
+        }
+        if (targetType == float.class || targetType == Float.class) {
+            return value -> value instanceof Number ? ((Number) value).floatValue() : Float.valueOf(value.toString());
+        }
+        if (targetType == boolean.class || targetType == Boolean.class) {
+            return value -> {
+                if (value instanceof Number) {
+                    return ((Number) value).intValue() != 0;
+                }
+                String stringValue = value.toString();
+                return Boolean.parseBoolean(stringValue) || "1".equals(stringValue) ||
+                        "yes".equalsIgnoreCase(stringValue) || "y".equalsIgnoreCase(stringValue);
+            };
+        }
+        if (targetType == short.class || targetType == Short.class) {
+            return value -> value instanceof Number ? ((Number) value).shortValue() : Short.valueOf(value.toString());
+        }
+        if (targetType == byte.class || targetType == Byte.class) {
+            return value -> value instanceof Number ? ((Number) value).byteValue() : Byte.valueOf(value.toString());
+        }
+        if (targetType == BigDecimal.class) {
+            return value -> value instanceof Number ? BigDecimal.valueOf(((Number) value).doubleValue()) : new BigDecimal(value.toString());
+        }
+        if (targetType == LocalDateTime.class) {
+            return value -> parseDateTime(value.toString());
+        }
+        if (targetType.isEnum()) {
+            return value -> Enum.valueOf((Class<Enum>) targetType, value.toString());
+        }
+        // 默认返回原值
+        return Function.identity();
+    }
+
+    /**
+     * 解析日期时间字符串
+     *
+     * @param dateTimeStr 日期时间字符串
+     * @return LocalDateTime对象
+     */
+    static LocalDateTime parseDateTime(String dateTimeStr) {
+        for (DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
+            try {
+                return LocalDateTime.parse(dateTimeStr, formatter);
+            } catch (Exception e) {
+                // 继续尝试下一个格式
+            }
+        }
+
+        throw new RuntimeException("无法解析日期时间字符串: " + dateTimeStr);
+    }
+
+    /**
+     * 获取基本类型对应的包装类型
+     */
+    static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+
+    /**
+     * 获取基本类型的默认值，非基本类型返回 null
+     */
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return 0;
+    }
+}
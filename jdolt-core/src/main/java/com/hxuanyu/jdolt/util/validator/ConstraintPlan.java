@@ -0,0 +1,288 @@
+package com.hxuanyu.jdolt.util.validator;
+
+import com.hxuanyu.jdolt.annotation.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 参数构建器类上方法约束的预编译计划。
+ * <p>
+ * 每个类的约束注解只在第一次使用时扫描一次，之后全局缓存。参与约束的方法名被编号为 0~63 的序号，
+ * 互斥组、允许共存组、依赖和必须调用关系都预先展开成 long 位掩码，
+ * 校验时只需要对已调用方法的位掩码做位运算，不再进行反射或集合查找。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+final class ConstraintPlan {
+
+    /**
+     * long 位掩码能容纳的最大方法数
+     */
+    static final int MAX_TRACKED_METHODS = Long.SIZE;
+
+    private static final ClassValue<ConstraintPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ConstraintPlan computeValue(Class<?> type) {
+            return new ConstraintPlan(type);
+        }
+    };
+
+    private final Map<String, Integer> ordinals;
+    private final String[] names;
+
+    // 按序号索引的约束，没有对应约束时为 0 或 null
+    private final long[] mutexConflicts;
+    private final long[] allowMasks;
+    private final boolean[] hasAllowGroup;
+    private final long[] dependencies;
+    private final boolean[] dependsOnAll;
+    private final Set<String>[] dependencyNames;
+    private final Set<String>[] allowNames;
+    private final String[][] mutexGroups;
+
+    private final long exclusiveMask;
+    private final long requiredMask;
+    private final long requiredGroupMask;
+    private final boolean groupAllRequired;
+    private final Set<String> requiredGroupNames;
+
+    /**
+     * 获取类的约束计划，计划在全局范围内按类缓存
+     *
+     * @param clazz 参数构建器类
+     * @return 约束计划
+     */
+    static ConstraintPlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConstraintPlan(Class<?> clazz) {
+        // 同名的重载方法合并为一个约束
+        Map<String, Set<String>> methodToMutexGroups = new LinkedHashMap<>();
+        Map<String, Set<String>> methodToAllowGroups = new LinkedHashMap<>();
+        Map<String, Set<String>> methodToDependencies = new LinkedHashMap<>();
+        Set<String> dependsOnAllMethods = new HashSet<>();
+        Set<String> exclusiveMethods = new LinkedHashSet<>();
+        Set<String> requiredMethods = new LinkedHashSet<>();
+        Set<String> requiredGroup = new LinkedHashSet<>();
+        boolean allRequired = true;
+
+        if (clazz.isAnnotationPresent(MethodInvokeRequiredGroup.class)) {
+            MethodInvokeRequiredGroup groupAnnotation = clazz.getAnnotation(MethodInvokeRequiredGroup.class);
+            requiredGroup.addAll(Arrays.asList(groupAnnotation.value()));
+            allRequired = groupAnnotation.allRequired();
+        }
+
+        Method[] methods = clazz.getDeclaredMethods();
+        // 按名称排序，保证序号在每次运行中一致
+        Arrays.sort(methods, Comparator.comparing(Method::getName));
+        Set<String> declaredNames = new LinkedHashSet<>();
+        for (Method method : methods) {
+            if (method.isSynthetic()) {
+                continue;
+            }
+            String name = method.getName();
+            declaredNames.add(name);
+
+            boolean hasMutex = method.isAnnotationPresent(MethodMutexGroup.class);
+            boolean hasAllow = method.isAnnotationPresent(MethodAllowGroup.class);
+            boolean hasExclusive = method.isAnnotationPresent(MethodExclusive.class);
+
+            if ((hasMutex && hasAllow) || (hasMutex && hasExclusive) || (hasAllow && hasExclusive)) {
+                throw new IllegalStateException(
+                        "Method '" + name + "' cannot have conflicting annotations: " +
+                                "@MethodMutexGroup, @MethodAllowGroup, and @MethodExclusive cannot coexist."
+                );
+            }
+            if (hasMutex) {
+                methodToMutexGroups.computeIfAbsent(name, k -> new LinkedHashSet<>())
+                        .addAll(Arrays.asList(method.getAnnotation(MethodMutexGroup.class).value()));
+            }
+            if (hasAllow) {
+                methodToAllowGroups.computeIfAbsent(name, k -> new LinkedHashSet<>())
+                        .addAll(Arrays.asList(method.getAnnotation(MethodAllowGroup.class).value()));
+            }
+            if (hasExclusive) {
+                exclusiveMethods.add(name);
+            }
+            if (method.isAnnotationPresent(MethodDependsOn.class)) {
+                MethodDependsOn methodDependsOn = method.getAnnotation(MethodDependsOn.class);
+                methodToDependencies.computeIfAbsent(name, k -> new LinkedHashSet<>())
+                        .addAll(Arrays.asList(methodDependsOn.value()));
+                if (methodDependsOn.allRequired()) {
+                    dependsOnAllMethods.add(name);
+                }
+            }
+            if (method.isAnnotationPresent(MethodInvokeRequired.class)) {
+                requiredMethods.add(name);
+            }
+        }
+
+        // 先为参与约束的方法名编号，再为其余声明的方法编号
+        Set<String> constrained = new LinkedHashSet<>();
+        constrained.addAll(methodToMutexGroups.keySet());
+        methodToAllowGroups.forEach((name, allowed) -> {
+            constrained.add(name);
+            constrained.addAll(allowed);
+        });
+        methodToDependencies.forEach((name, deps) -> {
+            constrained.add(name);
+            constrained.addAll(deps);
+        });
+        constrained.addAll(exclusiveMethods);
+        constrained.addAll(requiredMethods);
+        constrained.addAll(requiredGroup);
+        if (constrained.size() > MAX_TRACKED_METHODS) {
+            throw new IllegalStateException(clazz.getName() + " has more than " + MAX_TRACKED_METHODS + " constrained methods");
+        }
+        Map<String, Integer> ordinalMap = new HashMap<>();
+        List<String> nameList = new ArrayList<>();
+        for (String name : constrained) {
+            ordinalMap.put(name, nameList.size());
+            nameList.add(name);
+        }
+        for (String name : declaredNames) {
+            if (nameList.size() >= MAX_TRACKED_METHODS) {
+                break;
+            }
+            if (ordinalMap.putIfAbsent(name, nameList.size()) == null) {
+                nameList.add(name);
+            }
+        }
+        this.ordinals = Map.copyOf(ordinalMap);
+        this.names = nameList.toArray(new String[0]);
+
+        int size = names.length;
+        this.mutexConflicts = new long[size];
+        this.mutexGroups = new String[size][];
+        this.allowMasks = new long[size];
+        this.hasAllowGroup = new boolean[size];
+        this.allowNames = new Set[size];
+        this.dependencies = new long[size];
+        this.dependsOnAll = new boolean[size];
+        this.dependencyNames = new Set[size];
+
+        // 互斥关系：两个方法的互斥组有交集时互相冲突
+        methodToMutexGroups.forEach((name, groups) -> {
+            int ordinal = ordinals.get(name);
+            mutexGroups[ordinal] = groups.toArray(new String[0]);
+            methodToMutexGroups.forEach((other, otherGroups) -> {
+                if (!Collections.disjoint(groups, otherGroups)) {
+                    mutexConflicts[ordinal] |= bit(ordinals.get(other));
+                }
+            });
+        });
+        methodToAllowGroups.forEach((name, allowed) -> {
+            int ordinal = ordinals.get(name);
+            hasAllowGroup[ordinal] = true;
+            allowMasks[ordinal] = mask(allowed);
+            allowNames[ordinal] = Collections.unmodifiableSet(allowed);
+        });
+        methodToDependencies.forEach((name, deps) -> {
+            int ordinal = ordinals.get(name);
+            dependencies[ordinal] = mask(deps);
+            dependsOnAll[ordinal] = dependsOnAllMethods.contains(name);
+            dependencyNames[ordinal] = Collections.unmodifiableSet(deps);
+        });
+        this.exclusiveMask = mask(exclusiveMethods);
+        this.requiredMask = mask(requiredMethods);
+        this.requiredGroupMask = mask(requiredGroup);
+        this.groupAllRequired = allRequired;
+        this.requiredGroupNames = Collections.unmodifiableSet(requiredGroup);
+    }
+
+    /**
+     * 获取方法名的序号
+     *
+     * @param methodName 方法名
+     * @return 序号，方法名不在计划中时返回 -1
+     */
+    int ordinal(String methodName) {
+        Integer ordinal = ordinals.get(methodName);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    String name(int ordinal) {
+        return names[ordinal];
+    }
+
+    long mutexConflicts(int ordinal) {
+        return ordinal < 0 ? 0L : mutexConflicts[ordinal];
+    }
+
+    /**
+     * 在冲突的方法中找到与当前方法共享的互斥组名称，用于错误信息
+     */
+    String sharedMutexGroup(int ordinal, int otherOrdinal) {
+        Set<String> other = new HashSet<>(Arrays.asList(mutexGroups[otherOrdinal]));
+        for (String group : mutexGroups[ordinal]) {
+            if (other.contains(group)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    boolean hasAllowGroup(int ordinal) {
+        return ordinal >= 0 && hasAllowGroup[ordinal];
+    }
+
+    long allowMask(int ordinal) {
+        return allowMasks[ordinal];
+    }
+
+    Set<String> allowNames(int ordinal) {
+        return allowNames[ordinal];
+    }
+
+    long dependencies(int ordinal) {
+        return ordinal < 0 ? 0L : dependencies[ordinal];
+    }
+
+    boolean dependsOnAll(int ordinal) {
+        return dependsOnAll[ordinal];
+    }
+
+    Set<String> dependencyNames(int ordinal) {
+        return dependencyNames[ordinal];
+    }
+
+    boolean isExclusive(int ordinal) {
+        return ordinal >= 0 && (exclusiveMask & bit(ordinal)) != 0;
+    }
+
+    long exclusiveMask() {
+        return exclusiveMask;
+    }
+
+    long requiredMask() {
+        return requiredMask;
+    }
+
+    long requiredGroupMask() {
+        return requiredGroupMask;
+    }
+
+    boolean isGroupAllRequired() {
+        return groupAllRequired;
+    }
+
+    Set<String> requiredGroupNames() {
+        return requiredGroupNames;
+    }
+
+    static long bit(int ordinal) {
+        return 1L << ordinal;
+    }
+
+    private long mask(Collection<String> methodNames) {
+        long mask = 0L;
+        for (String methodName : methodNames) {
+            mask |= bit(ordinals.get(methodName));
+        }
+        return mask;
+    }
+}
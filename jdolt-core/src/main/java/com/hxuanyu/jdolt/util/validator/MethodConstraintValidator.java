@@ -1,219 +1,125 @@
 package com.hxuanyu.jdolt.util.validator;
 
-import com.hxuanyu.jdolt.annotation.*;
-
-import java.lang.reflect.Method;
 import java.util.*;
 
+/**
+ * 参数构建器的方法调用约束校验器。
+ * <p>
+ * 约束注解由 {@link ConstraintPlan} 按类解析一次并全局缓存，校验器本身只保存已调用方法的位掩码，
+ * 创建一个校验器几乎没有开销。
+ */
 public class MethodConstraintValidator {
-    // 已调用的方法
-    private final Set<String> calledMethods = new HashSet<>();
-
-    // 方法与其互斥组的映射
-    private final Map<String, Set<String>> methodToMutexGroups = new HashMap<>();
-
-    // 方法与其允许共存组的映射
-    private final Map<String, Set<String>> methodToAllowGroups = new HashMap<>();
-
-    // 方法与其依赖关系的映射
-    private final Map<String, Set<String>> methodToDependencies = new HashMap<>();
-
-    // 唯一调用方法集合
-    private final Set<String> exclusiveMethods = new HashSet<>();
+    private final ConstraintPlan plan;
 
-    // 必须调用的方法集合
-    private final Set<String> requiredMethods = new HashSet<>();
+    // 已调用方法的位掩码，位序号由约束计划分配
+    private long calledMask;
 
-    // 类级别的必须调用方法组
-    private final Set<String> requiredGroupMethods = new HashSet<>();
-    private boolean groupAllRequired = true; // 默认要求所有方法都必须调用
-
-    private final Class<?> clazz;
+    // 没有分配序号的已调用方法，一般为空
+    private Set<String> untrackedCalls;
 
     public MethodConstraintValidator(Class<?> clazz) {
-        this.clazz = clazz; // 保存类引用
-
-        // 解析类上的 MethodInvokeRequiredGroup 注解
-        if (clazz.isAnnotationPresent(MethodInvokeRequiredGroup.class)) {
-            MethodInvokeRequiredGroup groupAnnotation = clazz.getAnnotation(MethodInvokeRequiredGroup.class);
-            requiredGroupMethods.addAll(Arrays.asList(groupAnnotation.value()));
-            groupAllRequired = groupAnnotation.allRequired();
-        }
-
-        for (Method method : clazz.getDeclaredMethods()) {
-            // 检查注解互相不能共存
-            boolean hasMutex = method.isAnnotationPresent(MethodMutexGroup.class);
-            boolean hasAllow = method.isAnnotationPresent(MethodAllowGroup.class);
-            boolean hasExclusive = method.isAnnotationPresent(MethodExclusive.class);
-
-            if ((hasMutex && hasAllow) || (hasMutex && hasExclusive) || (hasAllow && hasExclusive)) {
-                throw new IllegalStateException(
-                        "Method '" + method.getName() + "' cannot have conflicting annotations: " +
-                                "@MethodMutexGroup, @MethodAllowGroup, and @MethodExclusive cannot coexist."
-                );
-            }
-
-            // 解析互斥组
-            if (hasMutex) {
-                MethodMutexGroup methodMutexGroup = method.getAnnotation(MethodMutexGroup.class);
-                methodToMutexGroups.put(
-                        method.getName(),
-                        new HashSet<>(Arrays.asList(methodMutexGroup.value()))
-                );
-            }
-
-            // 解析允许共存组
-            if (hasAllow) {
-                MethodAllowGroup methodAllowGroup = method.getAnnotation(MethodAllowGroup.class);
-                methodToAllowGroups.put(
-                        method.getName(),
-                        new HashSet<>(Arrays.asList(methodAllowGroup.value()))
-                );
-            }
-
-            // 解析唯一调用
-            if (hasExclusive) {
-                exclusiveMethods.add(method.getName());
-            }
-
-            // 解析依赖关系
-            if (method.isAnnotationPresent(MethodDependsOn.class)) {
-                MethodDependsOn methodDependsOn = method.getAnnotation(MethodDependsOn.class);
-                methodToDependencies.put(
-                        method.getName(),
-                        new HashSet<>(Arrays.asList(methodDependsOn.value()))
-                );
-            }
-
-            // 解析必须调用
-            if (method.isAnnotationPresent(MethodInvokeRequired.class)) {
-                requiredMethods.add(method.getName());
-            }
-        }
+        this.plan = ConstraintPlan.of(clazz);
     }
 
     /**
      * 检查并标记方法调用
      */
     public void checkAndMark(String methodName) {
-        checkExclusive(methodName);
-        checkMutex(methodName);
-        checkAllowGroup(methodName);
-        checkDependencies(methodName);
-        calledMethods.add(methodName);
+        int ordinal = plan.ordinal(methodName);
+        checkExclusive(methodName, ordinal);
+        checkMutex(methodName, ordinal);
+        checkAllowGroup(methodName, ordinal);
+        checkDependencies(methodName, ordinal);
+        if (ordinal >= 0) {
+            calledMask |= ConstraintPlan.bit(ordinal);
+        } else {
+            if (untrackedCalls == null) {
+                untrackedCalls = new LinkedHashSet<>();
+            }
+            untrackedCalls.add(methodName);
+        }
     }
 
     /**
      * 检查互斥关系
      */
-    private void checkMutex(String methodName) {
-        // 检查与其他方法的互斥组冲突
-        Set<String> groups = methodToMutexGroups.get(methodName);
-        if (groups != null) {
-            for (String calledMethod : calledMethods) {
-                Set<String> calledMethodGroups = methodToMutexGroups.get(calledMethod);
-                if (calledMethodGroups != null) {
-                    for (String group : groups) {
-                        if (calledMethodGroups.contains(group)) {
-                            throw new IllegalStateException(
-                                    "Method '" + methodName + "' cannot be called. " +
-                                            "Conflict with previously called method '" + calledMethod + "' " +
-                                            "in mutex group '" + group + "'."
-                            );
-                        }
-                    }
-                }
-            }
+    private void checkMutex(String methodName, int ordinal) {
+        long conflicts = plan.mutexConflicts(ordinal) & calledMask;
+        if (conflicts != 0) {
+            int calledOrdinal = Long.numberOfTrailingZeros(conflicts);
+            throw new IllegalStateException(
+                    "Method '" + methodName + "' cannot be called. " +
+                            "Conflict with previously called method '" + plan.name(calledOrdinal) + "' " +
+                            "in mutex group '" + plan.sharedMutexGroup(ordinal, calledOrdinal) + "'."
+            );
         }
     }
 
     /**
      * 检查允许共存组
      */
-    private void checkAllowGroup(String methodName) {
-        Set<String> allowGroup = methodToAllowGroups.get(methodName);
-        if (allowGroup != null) {
-            // 遍历所有已调用的方法，检查是否都在允许共存组中
-            for (String calledMethod : calledMethods) {
-                if (!allowGroup.contains(calledMethod)) {
-                    throw new IllegalStateException(
-                            "Method '" + methodName + "' cannot be called. " +
-                                    "Conflict with previously called method '" + calledMethod + "'. " +
-                                    "Only the following methods are allowed to coexist: " + allowGroup
-                    );
-                }
-            }
+    private void checkAllowGroup(String methodName, int ordinal) {
+        if (!plan.hasAllowGroup(ordinal)) {
+            return;
+        }
+        // 所有已调用的方法都必须在允许共存组中
+        long outside = calledMask & ~plan.allowMask(ordinal);
+        String calledMethod = null;
+        if (outside != 0) {
+            calledMethod = plan.name(Long.numberOfTrailingZeros(outside));
+        } else if (untrackedCalls != null) {
+            calledMethod = untrackedCalls.iterator().next();
+        }
+        if (calledMethod != null) {
+            throw new IllegalStateException(
+                    "Method '" + methodName + "' cannot be called. " +
+                            "Conflict with previously called method '" + calledMethod + "'. " +
+                            "Only the following methods are allowed to coexist: " + plan.allowNames(ordinal)
+            );
         }
     }
 
     /**
      * 检查依赖关系
      */
-    private void checkDependencies(String methodName) {
-        Set<String> dependencies = methodToDependencies.get(methodName);
-        if (dependencies != null && !dependencies.isEmpty()) {
-            // 获取当前方法的依赖注解
-            MethodDependsOn methodDependsOn = getMethodDependsOnAnnotation(methodName);
-            boolean allRequired = methodDependsOn != null && methodDependsOn.allRequired();
-
-            if (allRequired) {
-                // 如果要求所有依赖方法都被调用
-                for (String dep : dependencies) {
-                    if (!calledMethods.contains(dep)) {
-                        throw new IllegalStateException(
-                                "Method '" + methodName + "' requires all of the following methods to be called: " + dependencies
-                        );
-                    }
-                }
-            } else {
-                // 如果只要求至少一个依赖方法被调用
-                boolean satisfied = false;
-                for (String dep : dependencies) {
-                    if (calledMethods.contains(dep)) {
-                        satisfied = true;
-                        break;
-                    }
-                }
-                if (!satisfied) {
-                    throw new IllegalStateException(
-                            "Method '" + methodName + "' requires at least one of: " + dependencies
-                    );
-                }
-            }
+    private void checkDependencies(String methodName, int ordinal) {
+        long dependencies = plan.dependencies(ordinal);
+        if (dependencies == 0) {
+            return;
         }
-    }
-
-    /**
-     * 获取方法的 MethodDependsOn 注解
-     */
-    private MethodDependsOn getMethodDependsOnAnnotation(String methodName) {
-        try {
-            Method method = clazz.getDeclaredMethod(methodName);
-            return method.getAnnotation(MethodDependsOn.class);
-        } catch (NoSuchMethodException e) {
-            return null;
+        if (plan.dependsOnAll(ordinal)) {
+            // 如果要求所有依赖方法都被调用
+            if ((calledMask & dependencies) != dependencies) {
+                throw new IllegalStateException(
+                        "Method '" + methodName + "' requires all of the following methods to be called: " + plan.dependencyNames(ordinal)
+                );
+            }
+        } else if ((calledMask & dependencies) == 0) {
+            // 如果只要求至少一个依赖方法被调用
+            throw new IllegalStateException(
+                    "Method '" + methodName + "' requires at least one of: " + plan.dependencyNames(ordinal)
+            );
         }
     }
 
     /**
      * 检查唯一调用约束
      */
-    private void checkExclusive(String methodName) {
-        if (exclusiveMethods.contains(methodName)) {
-            if (!calledMethods.isEmpty()) {
+    private void checkExclusive(String methodName, int ordinal) {
+        if (plan.isExclusive(ordinal)) {
+            if (calledMask != 0 || untrackedCalls != null) {
                 throw new IllegalStateException(
                         "Method '" + methodName + "' must be the only method called. " +
-                                "Other methods have already been called: " + calledMethods
+                                "Other methods have already been called: " + calledMethods()
                 );
             }
         } else {
-            for (String calledMethod : calledMethods) {
-                if (exclusiveMethods.contains(calledMethod)) {
-                    throw new IllegalStateException(
-                            "Method '" + methodName + "' cannot be called because exclusive method '" +
-                                    calledMethod + "' has already been called."
-                    );
-                }
+            long exclusiveCalled = calledMask & plan.exclusiveMask();
+            if (exclusiveCalled != 0) {
+                throw new IllegalStateException(
+                        "Method '" + methodName + "' cannot be called because exclusive method '" +
+                                plan.name(Long.numberOfTrailingZeros(exclusiveCalled)) + "' has already been called."
+                );
             }
         }
     }
@@ -223,40 +129,46 @@ public class MethodConstraintValidator {
      */
     public void checkRequired() {
         // 检查方法级别的 @MethodInvokeRequired
-        for (String requiredMethod : requiredMethods) {
-            if (!calledMethods.contains(requiredMethod)) {
-                throw new IllegalStateException(
-                        "Method '" + requiredMethod + "' is required to be called but was not."
-                );
-            }
+        long missing = plan.requiredMask() & ~calledMask;
+        if (missing != 0) {
+            throw new IllegalStateException(
+                    "Method '" + plan.name(Long.numberOfTrailingZeros(missing)) + "' is required to be called but was not."
+            );
         }
 
         // 检查类级别的 @MethodInvokeRequiredGroup
-        if (!requiredGroupMethods.isEmpty()) {
-            if (groupAllRequired) {
+        long groupMask = plan.requiredGroupMask();
+        if (groupMask != 0) {
+            if (plan.isGroupAllRequired()) {
                 // 如果要求所有方法都必须调用
-                for (String requiredMethod : requiredGroupMethods) {
-                    if (!calledMethods.contains(requiredMethod)) {
-                        throw new IllegalStateException(
-                                "Method '" + requiredMethod + "' is required to be called as part of the group but was not."
-                        );
-                    }
-                }
-            } else {
-                // 如果只要求至少一个方法被调用
-                boolean satisfied = false;
-                for (String requiredMethod : requiredGroupMethods) {
-                    if (calledMethods.contains(requiredMethod)) {
-                        satisfied = true;
-                        break;
-                    }
-                }
-                if (!satisfied) {
+                long groupMissing = groupMask & ~calledMask;
+                if (groupMissing != 0) {
                     throw new IllegalStateException(
-                            "At least one of the following methods must be called: " + requiredGroupMethods
+                            "Method '" + plan.name(Long.numberOfTrailingZeros(groupMissing)) + "' is required to be called as part of the group but was not."
                     );
                 }
+            } else if ((groupMask & calledMask) == 0) {
+                // 如果只要求至少一个方法被调用
+                throw new IllegalStateException(
+                        "At least one of the following methods must be called: " + plan.requiredGroupNames()
+                );
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 已调用的方法名称，只在生成错误信息时使用
+     */
+    private Set<String> calledMethods() {
+        Set<String> called = new LinkedHashSet<>();
+        long mask = calledMask;
+        while (mask != 0) {
+            called.add(plan.name(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        if (untrackedCalls != null) {
+            called.addAll(untrackedCalls);
+        }
+        return called;
+    }
+}
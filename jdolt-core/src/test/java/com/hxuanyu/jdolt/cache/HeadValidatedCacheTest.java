@@ -0,0 +1,137 @@
+package com.hxuanyu.jdolt.cache;
+
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadValidatedCacheTest {
+    private static final SqlBuilder.SqlTemplate LOG = SqlBuilder.select().from("dolt_log").build();
+
+    /**
+     * 模拟数据库：状态查询返回当前 HEAD，其它查询返回以 HEAD 标记的结果并计数
+     */
+    private static class FakeDatabase implements Function<SqlBuilder.SqlTemplate, RowSet> {
+        String head = "h1";
+        int stateQueries;
+        final List<String> queries = new ArrayList<>();
+        /**
+         * 在数据查询读取结果之后执行，模拟查询期间其它客户端的提交
+         */
+        Runnable afterQuery = () -> {
+        };
+
+        @Override
+        public RowSet apply(SqlBuilder.SqlTemplate sqlTemplate) {
+            List<Object[]> rows = new ArrayList<>();
+            if (sqlTemplate == HeadValidatedCache.STATE_QUERY) {
+                stateQueries++;
+                rows.add(new Object[]{"main", head});
+                return new RowSet(new RowSet.Columns("name", "hash"), rows);
+            }
+            queries.add(sqlTemplate.sql());
+            rows.add(new Object[]{head});
+            afterQuery.run();
+            return new RowSet(new RowSet.Columns("commit_hash"), rows);
+        }
+    }
+
+    @Test
+    void testIsCacheable() {
+        assertTrue(HeadValidatedCache.isCacheable(LOG));
+        assertTrue(HeadValidatedCache.isCacheable(SqlBuilder.select().from("dolt_commits").build()));
+        assertTrue(HeadValidatedCache.isCacheable(SqlBuilder.select().from("dolt_history_products").build()));
+        assertTrue(HeadValidatedCache.isCacheable(SqlBuilder.select().fromFunction("dolt_log").withParams("main", "--parents").build()));
+        assertTrue(HeadValidatedCache.isCacheable(HeadValidatedCache.branchesQuery()));
+
+        assertFalse(HeadValidatedCache.isCacheable(SqlBuilder.select().from("dolt_branches").build()));
+        assertFalse(HeadValidatedCache.isCacheable(SqlBuilder.select().from("dolt_status").build()));
+        assertFalse(HeadValidatedCache.isCacheable(SqlBuilder.select().from("products").build()));
+        assertFalse(HeadValidatedCache.isCacheable(SqlBuilder.select().fromFunction("dolt_diff").withParams("main", "WORKING", "products").build()));
+    }
+
+    @Test
+    void testServesCachedResultWhileHeadUnchanged() {
+        HeadValidatedCache cache = new HeadValidatedCache();
+        FakeDatabase database = new FakeDatabase();
+
+        assertEquals("h1", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals("h1", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(1, database.queries.size());
+        // 未命中时在数据查询前后各执行一次状态查询
+        assertEquals(3, database.stateQueries);
+
+        database.head = "h2";
+        assertEquals("h2", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(2, database.queries.size());
+
+        HeadValidatedCache.Stats stats = cache.getStats();
+        assertEquals(3, stats.validationCount());
+        assertEquals(1, stats.results().hitCount());
+    }
+
+    @Test
+    void testTrustWindowSkipsValidationUntilInvalidated() {
+        HeadValidatedCache cache = new HeadValidatedCache(ResultCache.DEFAULT_MAX_WEIGHT, Duration.ofHours(1));
+        FakeDatabase database = new FakeDatabase();
+
+        cache.get("main", LOG, database);
+        database.head = "h2";
+        // 信任窗口内不再执行状态查询
+        assertEquals("h1", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(2, database.stateQueries);
+        assertEquals(1, cache.getStats().trustedReadCount());
+
+        cache.invalidate();
+        assertEquals("h2", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(4, database.stateQueries);
+        assertEquals(2, database.queries.size());
+    }
+
+    @Test
+    void testNullStateKeyAlwaysValidates() {
+        HeadValidatedCache cache = new HeadValidatedCache(ResultCache.DEFAULT_MAX_WEIGHT, Duration.ofHours(1));
+        FakeDatabase database = new FakeDatabase();
+
+        cache.get(null, LOG, database);
+        cache.get(null, LOG, database);
+        assertEquals(3, database.stateQueries);
+        assertEquals(1, database.queries.size());
+        assertEquals(0, cache.getStats().trustedReadCount());
+    }
+
+    @Test
+    void testStateChangeDuringQueryIsNotCached() {
+        HeadValidatedCache cache = new HeadValidatedCache(ResultCache.DEFAULT_MAX_WEIGHT, Duration.ofHours(1));
+        FakeDatabase database = new FakeDatabase();
+        database.afterQuery = () -> database.head = "h2";
+
+        // 查询期间 HEAD 从 h1 移动到 h2，结果不写入缓存，h1 也不再被信任
+        cache.get("main", LOG, database);
+        database.afterQuery = () -> {
+        };
+        assertEquals("h2", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(2, database.queries.size());
+        assertEquals(1, cache.getStats().staleLoadCount());
+        assertEquals(0, cache.getStats().trustedReadCount());
+
+        assertEquals("h2", cache.get("main", LOG, database).getRow(0).get("commit_hash"));
+        assertEquals(2, database.queries.size());
+        assertEquals(1, cache.getStats().trustedReadCount());
+    }
+
+    @Test
+    void testDigestDependsOnEveryRow() {
+        RowSet one = new RowSet(new RowSet.Columns("name", "hash"), List.<Object[]>of(new Object[]{"main", "a"}));
+        RowSet two = new RowSet(new RowSet.Columns("name", "hash"),
+                List.<Object[]>of(new Object[]{"main", "a"}, new Object[]{"feature", "b"}));
+        assertEquals(HeadValidatedCache.digest(one), HeadValidatedCache.digest(one));
+        assertNotEquals(HeadValidatedCache.digest(one), HeadValidatedCache.digest(two));
+    }
+}
@@ -0,0 +1,102 @@
+package com.hxuanyu.jdolt.cache;
+
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private static final String FROM = "qi331vjgoavqpi5am334cji1gmhlkdv5";
+    private static final String TO = "137qgvrsve1u458briekqar5f7iiqq2j";
+
+    private static SqlBuilder.SqlTemplate function(String name, String... params) {
+        return SqlBuilder.select().fromFunction(name).withParams(params).build();
+    }
+
+    private static RowSet rows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{(long) i, "row-" + i});
+        }
+        return new RowSet(new RowSet.Columns("id", "name"), rows);
+    }
+
+    @Test
+    void testImmutableQueries() {
+        assertTrue(ImmutableQueries.isImmutable(function("dolt_diff", FROM, TO, "products")));
+        assertTrue(ImmutableQueries.isImmutable(function("dolt_diff", FROM + ".." + TO, "products")));
+        assertTrue(ImmutableQueries.isImmutable(function("DOLT_PATCH", FROM + "~1", TO)));
+        assertTrue(ImmutableQueries.isImmutable(function("DOLT_LOG", TO, "--not", FROM, "--tables", "products")));
+        assertTrue(ImmutableQueries.isImmutable(SqlBuilder.selectFunction("has_ancestor").withParams(TO, FROM).build()));
+
+        assertFalse(ImmutableQueries.isImmutable(function("dolt_diff", "main", TO, "products")));
+        assertFalse(ImmutableQueries.isImmutable(function("dolt_diff", FROM, "WORKING", "products")));
+        assertFalse(ImmutableQueries.isImmutable(function("DOLT_LOG")));
+        assertFalse(ImmutableQueries.isImmutable(function("DOLT_LOG", TO, "--decorate", "short")));
+        assertFalse(ImmutableQueries.isImmutable(function("dolt_reflog", TO)));
+        assertFalse(ImmutableQueries.isImmutable(SqlBuilder.selectFunction("dolt_hashof").withParams(TO).build()));
+    }
+
+    @Test
+    void testHitReturnsIndependentCopy() {
+        ResultCache cache = new ResultCache();
+        SqlBuilder.SqlTemplate template = function("dolt_diff", FROM, TO, "products");
+        AtomicInteger loads = new AtomicInteger();
+
+        RowSet first = cache.get(template, () -> {
+            loads.incrementAndGet();
+            return rows(3);
+        });
+        first.getRow(0).put("name", "changed");
+        RowSet second = cache.get(function("dolt_diff", FROM, TO, "products"), () -> {
+            loads.incrementAndGet();
+            return rows(3);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("row-0", second.get(0, "name"));
+        ResultCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.5d, stats.hitRate());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByWeight() {
+        long entryWeight = ResultCache.weigh(rows(100));
+        ResultCache cache = new ResultCache(entryWeight * 5 / 2 + 512);
+
+        cache.get(function("dolt_patch", FROM, TO, "a"), () -> rows(100));
+        cache.get(function("dolt_patch", FROM, TO, "b"), () -> rows(100));
+        cache.get(function("dolt_patch", FROM, TO, "a"), () -> rows(100));
+        cache.get(function("dolt_patch", FROM, TO, "c"), () -> rows(100));
+
+        ResultCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.entryCount());
+        assertEquals(1, stats.evictionCount());
+        assertTrue(stats.weight() <= stats.maxWeight());
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(function("dolt_patch", FROM, TO, "a"), () -> {
+            loads.incrementAndGet();
+            return rows(100);
+        });
+        cache.get(function("dolt_patch", FROM, TO, "b"), () -> {
+            loads.incrementAndGet();
+            return rows(100);
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testOversizedResultIsNotCached() {
+        ResultCache cache = new ResultCache(1024);
+        cache.get(function("dolt_patch", FROM, TO, "a"), () -> rows(1000));
+        assertEquals(0, cache.getStats().entryCount());
+    }
+}
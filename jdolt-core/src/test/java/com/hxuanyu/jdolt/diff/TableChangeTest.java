@@ -0,0 +1,26 @@
+package com.hxuanyu.jdolt.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableChangeTest {
+
+    @Test
+    void testTableChangeFromSummaryRow() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("from_table_name", "old_products");
+        row.put("to_table_name", "");
+        row.put("diff_type", "dropped");
+        row.put("data_change", 1L);
+        row.put("schema_change", true);
+
+        TableChange change = TableChange.from(row);
+        assertEquals("old_products", change.tableName());
+        assertTrue(change.dataChange());
+        assertTrue(change.schemaChange());
+    }
+}
@@ -0,0 +1,43 @@
+package com.hxuanyu.jdolt.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordWriterTest {
+
+    @Test
+    void testCsvQuotingAndNulls() throws Exception {
+        StringWriter output = new StringWriter();
+        List<String> columns = List.of("id", "name", "note", "flag");
+        RecordWriter writer = RecordWriter.of(ExportFormat.CSV, output, columns, ',');
+        writer.writeHeader(columns);
+        writer.write(new Object[]{1L, "Smith, John", "said \"hi\"", true});
+        writer.write(new Object[]{2L, null, "", false});
+        writer.write(new Object[]{3L, "multi\nline", new BigDecimal("1E+3"), null});
+
+        assertEquals("id,name,note,flag\n"
+                + "1,\"Smith, John\",\"said \"\"hi\"\"\",1\n"
+                + "2,,\"\",0\n"
+                + "3,\"multi\nline\",1000,\n", output.toString());
+    }
+
+    @Test
+    void testJsonLinesTypes() throws Exception {
+        StringWriter output = new StringWriter();
+        List<String> columns = List.of("id", "name", "price", "created", "data", "ratio");
+        RecordWriter writer = RecordWriter.of(ExportFormat.JSONL, output, columns, ',');
+        writer.writeHeader(columns);
+        writer.write(new Object[]{1L, "a \"b\"\t\u0001", new BigDecimal("9.50"),
+                LocalDateTime.of(2024, 6, 1, 12, 30), new byte[]{1, 2, 3}, Double.NaN});
+        writer.write(new Object[]{2L, null, null, null, null, 0.5});
+
+        assertEquals("{\"id\":1,\"name\":\"a \\\"b\\\"\\t\\u0001\",\"price\":9.50,\"created\":\"2024-06-01 12:30\",\"data\":\"AQID\",\"ratio\":\"NaN\"}\n"
+                + "{\"id\":2,\"name\":null,\"price\":null,\"created\":null,\"data\":null,\"ratio\":0.5}\n", output.toString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.hxuanyu.jdolt.export;
+
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableExporterTest {
+
+    private static ExportRequest.Builder request() {
+        return ExportRequest.newBuilder("products").outputStream(new ByteArrayOutputStream(), ExportFormat.CSV);
+    }
+
+    @Test
+    void testExportQueryAsOfRevision() {
+        SqlBuilder.SqlTemplate serial = TableExporter.exportQuery(request().revision("v1.0").build(), null, null);
+        assertEquals("SELECT * FROM `products` AS OF ?", serial.sql());
+        assertEquals(List.of("v1.0"), serial.parameters());
+
+        SqlBuilder.SqlTemplate working = TableExporter.exportQuery(request().columns("id", "name").build(), null, null);
+        assertEquals("SELECT `id`, `name` FROM `products`", working.sql());
+        assertTrue(working.parameters().isEmpty());
+    }
+
+    @Test
+    void testExportQueryForRange() {
+        ExportRequest request = request().revision("main~2").build();
+
+        SqlBuilder.SqlTemplate middle = TableExporter.exportQuery(request, "id", new KeyRange(10L, 20L));
+        assertEquals("SELECT * FROM `products` AS OF ? WHERE `id` >= ? AND `id` < ? ORDER BY `id`", middle.sql());
+        assertEquals(List.of("main~2", 10L, 20L), middle.parameters());
+
+        SqlBuilder.SqlTemplate first = TableExporter.exportQuery(request, "id", new KeyRange(null, 10L));
+        // 可为 NULL 的键列，NULL 键的行由第一个范围导出
+        assertEquals("SELECT * FROM `products` AS OF ? WHERE (`id` < ? OR `id` IS NULL) ORDER BY `id`", first.sql());
+
+        SqlBuilder.SqlTemplate all = TableExporter.exportQuery(request, "id", new KeyRange(null, null));
+        assertEquals("SELECT * FROM `products` AS OF ? ORDER BY `id`", all.sql());
+    }
+
+    @Test
+    void testRangesCoverWholeKeySpace() {
+        assertEquals(List.of(25L, 50L, 75L), KeyRange.evenBoundaries(0, 100, 4));
+        // 范围比分段数小时不产生空范围
+        assertEquals(List.of(1L), KeyRange.evenBoundaries(0, 1, 4));
+        assertEquals(List.of(), KeyRange.evenBoundaries(5, 5, 4));
+        // 跨越整个 long 范围时不溢出
+        assertEquals(List.of(0L), KeyRange.evenBoundaries(Long.MIN_VALUE, Long.MAX_VALUE, 2));
+
+        List<KeyRange> ranges = KeyRange.of(List.of("b", "b", "m"));
+        assertEquals(List.of(new KeyRange(null, "b"), new KeyRange("b", "m"), new KeyRange("m", null)), ranges);
+        assertEquals(List.of(new KeyRange(null, null)), KeyRange.of(List.of()));
+    }
+
+    @Test
+    void testQuoteIdentifier() {
+        assertEquals("`odd``name`", TableExporter.quote("odd`name"));
+    }
+}
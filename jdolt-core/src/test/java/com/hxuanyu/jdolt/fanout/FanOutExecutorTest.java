@@ -0,0 +1,116 @@
+package com.hxuanyu.jdolt.fanout;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutExecutorTest {
+
+    private static RowSet rows(String... ids) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String id : ids) {
+            rows.add(new Object[]{id});
+        }
+        return new RowSet(new RowSet.Columns("id"), rows);
+    }
+
+    @Test
+    void testMergeTagsRowsWithRevision() {
+        RowSet v1 = rows("a", "b");
+        List<Object[]> v2Rows = new ArrayList<>();
+        v2Rows.add(new Object[]{"c", "new"});
+        // 新版本的表多了一列
+        RowSet v2 = new RowSet(new RowSet.Columns("id", "status"), v2Rows);
+
+        RowSet merged = FanOutExecutor.merge(List.of(new RevisionResult("v1", v1, 1), new RevisionResult("v2", v2, 1)));
+
+        assertEquals(List.of("revision", "id", "status"), List.of(merged.getColumns().toArray()));
+        assertEquals(3, merged.size());
+        assertEquals("v1", merged.get(1, "revision"));
+        assertNull(merged.get(1, "status"));
+        assertEquals("new", merged.get(2, "status"));
+    }
+
+    @Test
+    void testConnectionAbortedWhenRestoreFails() {
+        List<String> executed = new ArrayList<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        Connection connection = proxy(Connection.class, (method, args) -> switch (method) {
+            case "createStatement" -> proxy(Statement.class, (statementMethod, sql) -> switch (statementMethod) {
+                case "executeQuery" -> resultSet("shop");
+                case "execute" -> {
+                    executed.add((String) sql[0]);
+                    if (sql[0].equals("USE `shop`")) {
+                        throw new SQLException("connection lost");
+                    }
+                    yield true;
+                }
+                default -> null;
+            });
+            case "prepareStatement" -> proxy(PreparedStatement.class, (statementMethod, ignored) ->
+                    statementMethod.equals("executeQuery") ? resultSet() : null);
+            case "abort" -> {
+                aborted.set(true);
+                yield null;
+            }
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+        DoltConnectionManager manager = new DoltConnectionManager(proxy(DataSource.class, (method, args) -> {
+            if (method.equals("getConnection")) {
+                return connection;
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+        manager.setAsyncExecutor(Runnable::run);
+        String hash = "abcd1234abcd1234abcd1234abcd1234";
+
+        assertThrows(DoltException.class, () -> FanOutExecutor.getInstance(manager)
+                .merged(new SqlBuilder.SqlTemplate("SELECT * FROM t", List.of()), List.of(hash), 1));
+
+        assertEquals(List.of("USE `shop/" + hash + "`", "USE `shop`"), executed);
+        // 仍指向修订版本数据库的连接不能归还连接池
+        assertTrue(aborted.get());
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(FanOutExecutorTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+
+    private static ResultSet resultSet(String... values) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method) {
+            case "getColumnCount" -> values.length == 0 ? 0 : 1;
+            case "getColumnName", "getColumnLabel" -> "c1";
+            default -> null;
+        });
+        int[] cursor = {-1};
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> ++cursor[0] < values.length;
+            case "getString", "getObject" -> values[cursor[0]];
+            case "getMetaData" -> metaData;
+            default -> null;
+        });
+    }
+}
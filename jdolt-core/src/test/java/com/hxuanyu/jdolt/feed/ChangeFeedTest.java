@@ -0,0 +1,93 @@
+package com.hxuanyu.jdolt.feed;
+
+import com.hxuanyu.jdolt.model.RowSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private static RowSet log(String... hashAndParents) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < hashAndParents.length; i += 2) {
+            rows.add(new Object[]{hashAndParents[i], hashAndParents[i + 1]});
+        }
+        return new RowSet(new RowSet.Columns("commit_hash", "parents"), rows);
+    }
+
+    @Test
+    void testPlanFollowsFirstParentsFromCheckpoint() {
+        // c3 合并了 f1（来自其它分支），f1 不应单独投递
+        RowSet log = log(
+                "c3", "c2, f1",
+                "f1", "c0",
+                "c2", "c1",
+                "c1", "c0");
+
+        List<ChangeFeed.Step> steps = ChangeFeed.plan(log, "c0", "c3");
+
+        assertEquals(List.of(
+                new ChangeFeed.Step("c0", "c1"),
+                new ChangeFeed.Step("c1", "c2"),
+                new ChangeFeed.Step("c2", "c3")), steps);
+    }
+
+    @Test
+    void testPlanAfterRewrittenHistory() {
+        // 分支被重置到与检查点无关的历史，第一步对比检查点与新提交得到净变化
+        List<ChangeFeed.Step> steps = ChangeFeed.plan(log("n2", "n1", "n1", "base"), "old", "n2");
+        assertEquals(List.of(new ChangeFeed.Step("old", "n1"), new ChangeFeed.Step("n1", "n2")), steps);
+
+        // 分支回退到检查点的祖先，dolt_log 没有新提交
+        assertEquals(List.of(new ChangeFeed.Step("c5", "c2")), ChangeFeed.plan(null, "c5", "c2"));
+    }
+
+    @Test
+    void testToEvents() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "apple", "c1", null, null, "c0", "added"});
+        rows.add(new Object[]{2L, "pear", "c1", 2L, "peach", "c0", "modified"});
+        rows.add(new Object[]{null, null, "c1", 3L, "plum", "c0", "removed"});
+        RowSet diff = new RowSet(new RowSet.Columns("to_id", "to_name", "to_commit", "from_id", "from_name", "from_commit", "diff_type"), rows);
+
+        List<ChangeEvent> events = ChangeFeed.toEvents("main", new ChangeFeed.Step("c0", "c1"), "products", diff);
+
+        assertEquals(3, events.size());
+        ChangeEvent insert = events.get(0);
+        assertEquals(ChangeType.INSERT, insert.type());
+        assertNull(insert.before());
+        assertEquals(Map.of("id", 1L, "name", "apple"), insert.after());
+        assertEquals("c1", insert.commitHash());
+        assertEquals("c0", insert.parentHash());
+
+        ChangeEvent update = events.get(1);
+        assertEquals(ChangeType.UPDATE, update.type());
+        assertEquals("peach", update.before().get("name"));
+        assertEquals("pear", update.after().get("name"));
+
+        ChangeEvent delete = events.get(2);
+        assertEquals(ChangeType.DELETE, delete.type());
+        assertEquals(Map.of("id", 3L, "name", "plum"), delete.before());
+        assertNull(delete.after());
+    }
+
+    @Test
+    void testSubscriptionAndCheckpointStore() {
+        ChangeSubscription subscription = ChangeSubscription.newBuilder("indexer", changes -> {
+        }).branches("main").tables("products").build();
+        assertTrue(subscription.isSubscribed("products"));
+        assertFalse(subscription.isSubscribed("orders"));
+        assertThrows(IllegalArgumentException.class, () -> ChangeSubscription.newBuilder("indexer", changes -> {
+        }).build());
+
+        CheckpointStore store = subscription.getCheckpointStore();
+        assertNull(store.load("indexer", "main"));
+        store.save("indexer", "main", "c1");
+        assertEquals("c1", store.load("indexer", "main"));
+        assertNull(store.load("indexer", "feature"));
+    }
+}
@@ -0,0 +1,189 @@
+package com.hxuanyu.jdolt.graph;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitGraphIndexTest {
+
+    /**
+     * 在内存中模拟提交图相关的系统表和函数
+     */
+    private static class FakeRepository {
+        final Map<String, List<String>> parents = new LinkedHashMap<>();
+        final Map<String, String> branches = new HashMap<>();
+        final List<String> statements = new ArrayList<>();
+
+        void commit(String hash, String... commitParents) {
+            parents.put(hash, List.of(commitParents));
+        }
+
+        DataSource dataSource() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("getConnection")) {
+                            return connection();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> statement((String) args[0]);
+                        case "getAutoCommit" -> true;
+                        default -> null;
+                    });
+        }
+
+        private PreparedStatement statement(String sql) {
+            Map<Integer, Object> params = new HashMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "setObject" -> {
+                            params.put((Integer) args[0], args[1]);
+                            yield null;
+                        }
+                        case "executeQuery" -> {
+                            List<String> values = new ArrayList<>();
+                            for (int i = 1; i <= params.size(); i++) {
+                                values.add((String) params.get(i));
+                            }
+                            statements.add(sql);
+                            yield answer(sql.toLowerCase(), values);
+                        }
+                        default -> null;
+                    });
+        }
+
+        private ResultSet answer(String sql, List<String> params) throws SQLException {
+            List<Object[]> rows = new ArrayList<>();
+            if (sql.contains("dolt_hashof")) {
+                Object[] row = new Object[params.size()];
+                for (int i = 0; i < params.size(); i++) {
+                    String ref = params.get(i);
+                    row[i] = branches.containsKey(ref) ? branches.get(ref) : parents.containsKey(ref) ? ref : null;
+                    if (row[i] == null) {
+                        throw new SQLException("invalid ref spec: " + ref);
+                    }
+                }
+                rows.add(row);
+                return resultSet(params.size(), rows);
+            }
+            if (sql.contains("dolt_branches")) {
+                branches.forEach((name, hash) -> rows.add(new Object[]{name, hash}));
+            } else if (sql.contains("dolt_commit_ancestors")) {
+                parents.forEach((hash, commitParents) -> {
+                    for (int i = 0; i < commitParents.size(); i++) {
+                        rows.add(new Object[]{hash, commitParents.get(i), i});
+                    }
+                });
+            } else if (sql.contains("dolt_commits")) {
+                parents.keySet().forEach(hash -> rows.add(new Object[]{hash, time(hash)}));
+            } else if (sql.contains("dolt_log")) {
+                int separator = params.indexOf("--parents");
+                Set<String> excluded = reachable(params.subList(separator + 2, params.size()));
+                for (String hash : reachable(params.subList(0, separator))) {
+                    if (!excluded.contains(hash)) {
+                        rows.add(new Object[]{hash, time(hash), String.join(", ", parents.get(hash))});
+                    }
+                }
+            }
+            return resultSet(rows.isEmpty() ? 0 : rows.get(0).length, rows);
+        }
+
+        private LocalDateTime time(String hash) {
+            return LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(new ArrayList<>(parents.keySet()).indexOf(hash));
+        }
+
+        private Set<String> reachable(List<String> heads) {
+            Set<String> seen = new HashSet<>();
+            Deque<String> pending = new ArrayDeque<>(heads);
+            while (!pending.isEmpty()) {
+                String hash = pending.pop();
+                if (seen.add(hash)) {
+                    pending.addAll(parents.get(hash));
+                }
+            }
+            return seen;
+        }
+
+        private ResultSet resultSet(int columnCount, List<Object[]> rows) {
+            ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ResultSetMetaData.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getColumnCount" -> columnCount;
+                        case "getColumnName", "getColumnLabel" -> "c" + args[0];
+                        default -> null;
+                    });
+            int[] cursor = {-1};
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "next" -> ++cursor[0] < rows.size();
+                        case "getObject" -> rows.get(cursor[0])[(Integer) args[0] - 1];
+                        case "getMetaData" -> metaData;
+                        default -> null;
+                    });
+        }
+    }
+
+    @Test
+    void testBranchHeadIsCheckedOnEveryQuery() {
+        FakeRepository repository = new FakeRepository();
+        repository.commit("a1");
+        repository.commit("b2", "a1");
+        repository.branches.put("main", "b2");
+        repository.branches.put("dev", "b2");
+        CommitGraphIndex graph = CommitGraphIndex.getInstance(new DoltConnectionManager(repository.dataSource()));
+
+        assertEquals(new CommitGraphIndex.AheadBehind(1, 0), graph.aheadBehind("main", "a1"));
+        assertEquals(2, graph.size());
+
+        // main 前进一个提交，索引没有被显式刷新
+        repository.commit("c3", "b2");
+        repository.branches.put("main", "c3");
+
+        assertEquals(new CommitGraphIndex.AheadBehind(2, 0), graph.aheadBehind("main", "a1"));
+        assertTrue(graph.hasAncestor("main", "c3"));
+        assertEquals("c3", graph.mergeBase("main", "c3"));
+        assertEquals(3, graph.size());
+        // dev 未移动，新提交通过增量的 dolt_log 拉取
+        assertTrue(repository.statements.stream().anyMatch(sql -> sql.toLowerCase().contains("dolt_log")));
+    }
+
+    @Test
+    void testKnownHashesAnsweredLocally() {
+        FakeRepository repository = new FakeRepository();
+        repository.commit("a1");
+        repository.commit("b2", "a1");
+        repository.branches.put("main", "b2");
+        CommitGraphIndex graph = CommitGraphIndex.getInstance(new DoltConnectionManager(repository.dataSource()));
+        graph.refresh();
+        int statements = repository.statements.size();
+
+        assertTrue(graph.hasAncestor("b2", "a1"));
+        assertEquals(statements, repository.statements.size());
+        assertThrows(DoltException.class, () -> graph.hasAncestor("main", "missing"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.hxuanyu.jdolt.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitGraphTest {
+
+    /**
+     * <pre>
+     * A - B - C - D ------ M (main)
+     *      \            /
+     *       E - F ---- G (feature)
+     *
+     * X (orphan)
+     * </pre>
+     */
+    private CommitGraph sample() {
+        CommitGraph graph = new CommitGraph();
+        graph.add("A", 1, List.of());
+        graph.add("B", 2, List.of("A"));
+        graph.add("C", 3, List.of("B"));
+        graph.add("E", 4, List.of("B"));
+        graph.add("D", 5, List.of("C"));
+        graph.add("F", 6, List.of("E"));
+        graph.add("G", 7, List.of("F"));
+        graph.add("M", 8, List.of("D", "G"));
+        graph.add("X", 9, List.of());
+        return graph;
+    }
+
+    @Test
+    void testHasAncestor() {
+        CommitGraph graph = sample();
+        assertTrue(graph.hasAncestor(graph.idOf("M"), graph.idOf("A")));
+        assertTrue(graph.hasAncestor(graph.idOf("M"), graph.idOf("F")));
+        assertTrue(graph.hasAncestor(graph.idOf("D"), graph.idOf("D")));
+        assertFalse(graph.hasAncestor(graph.idOf("D"), graph.idOf("E")));
+        assertFalse(graph.hasAncestor(graph.idOf("B"), graph.idOf("M")));
+        assertFalse(graph.hasAncestor(graph.idOf("M"), graph.idOf("X")));
+    }
+
+    @Test
+    void testMergeBase() {
+        CommitGraph graph = sample();
+        assertEquals("B", graph.hashOf(graph.mergeBase(graph.idOf("D"), graph.idOf("G"))));
+        assertEquals("G", graph.hashOf(graph.mergeBase(graph.idOf("M"), graph.idOf("G"))));
+        assertEquals(-1, graph.mergeBase(graph.idOf("M"), graph.idOf("X")));
+    }
+
+    @Test
+    void testCrissCrossMergeBase() {
+        CommitGraph graph = new CommitGraph();
+        graph.add("A", 1, List.of());
+        graph.add("B", 2, List.of("A"));
+        graph.add("C", 3, List.of("A"));
+        graph.add("D", 4, List.of("B", "C"));
+        graph.add("E", 5, List.of("C", "B"));
+        String base = graph.hashOf(graph.mergeBase(graph.idOf("D"), graph.idOf("E")));
+        assertTrue(base.equals("B") || base.equals("C"));
+    }
+
+    @Test
+    void testAheadBehind() {
+        CommitGraph graph = sample();
+        assertArrayEquals(new int[]{2, 3}, graph.aheadBehind(graph.idOf("D"), graph.idOf("G")));
+        assertArrayEquals(new int[]{4, 0}, graph.aheadBehind(graph.idOf("M"), graph.idOf("F")));
+        assertArrayEquals(new int[]{0, 0}, graph.aheadBehind(graph.idOf("M"), graph.idOf("M")));
+    }
+
+    @Test
+    void testTopologicalWalk() {
+        CommitGraph graph = sample();
+        List<String> walk = graph.toHashes(graph.topologicalWalk(graph.idOf("M"), 0));
+        assertEquals(8, walk.size());
+        assertEquals("M", walk.get(0));
+        assertEquals("A", walk.get(7));
+        assertTrue(walk.indexOf("G") < walk.indexOf("F"));
+        assertTrue(walk.indexOf("C") < walk.indexOf("B"));
+        assertEquals(List.of("M", "G"), graph.toHashes(graph.topologicalWalk(graph.idOf("M"), 2)));
+    }
+
+    @Test
+    void testAddRequiresParents() {
+        CommitGraph graph = new CommitGraph();
+        assertThrows(IllegalArgumentException.class, () -> graph.add("B", 1, List.of("A")));
+        assertEquals(List.of("a1", "b2"), CommitGraphIndex.parseParents("a1, b2"));
+        assertEquals(List.of(), CommitGraphIndex.parseParents(""));
+    }
+}
@@ -0,0 +1,94 @@
+package com.hxuanyu.jdolt.graph;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefResolverTest {
+
+    /**
+     * 模拟 dolt_hashof：以 missing 开头的引用使整条语句失败
+     */
+    private static class FakeDatabase implements Function<SqlBuilder.SqlTemplate, RowSet> {
+        final List<SqlBuilder.SqlTemplate> queries = new ArrayList<>();
+
+        @Override
+        public RowSet apply(SqlBuilder.SqlTemplate sqlTemplate) {
+            queries.add(sqlTemplate);
+            List<Object> params = sqlTemplate.parameters();
+            String[] names = new String[params.size()];
+            Object[] row = new Object[params.size()];
+            for (int i = 0; i < params.size(); i++) {
+                String ref = (String) params.get(i);
+                if (ref.startsWith("missing")) {
+                    throw new DoltException("invalid ref spec: " + ref);
+                }
+                names[i] = "h" + i;
+                row[i] = "hash-" + ref;
+            }
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(row);
+            return new RowSet(new RowSet.Columns(names), rows);
+        }
+    }
+
+    private static List<String> refs(int count) {
+        List<String> refs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            refs.add("branch-" + i);
+        }
+        return refs;
+    }
+
+    @Test
+    void testResolvesInChunks() {
+        FakeDatabase database = new FakeDatabase();
+        List<String> refs = refs(250);
+        refs.add("branch-0");
+
+        Map<String, String> hashes = RefResolver.hashAll("dolt_hashof", refs, 100, database);
+
+        assertEquals(250, hashes.size());
+        assertEquals("hash-branch-249", hashes.get("branch-249"));
+        assertEquals(List.of("branch-0", "branch-1"), new ArrayList<>(hashes.keySet()).subList(0, 2));
+        assertEquals(3, database.queries.size());
+        assertEquals("SELECT dolt_hashof(?) AS h0, dolt_hashof(?) AS h1",
+                RefResolver.buildSqlTemplate("dolt_hashof", List.of("a", "b")).sql());
+    }
+
+    @Test
+    void testUnresolvableRefsAreIsolated() {
+        FakeDatabase database = new FakeDatabase();
+        List<String> refs = refs(8);
+        refs.set(5, "missing-5");
+
+        Map<String, String> hashes = RefResolver.hashAll("dolt_hashof_table", refs, 100, database);
+
+        assertEquals(7, hashes.size());
+        assertFalse(hashes.containsKey("missing-5"));
+        assertEquals("hash-branch-7", hashes.get("branch-7"));
+        // 整批失败后对半拆分：8 -> 4 + 4 -> 2 + 2 -> 1 + 1
+        assertEquals(7, database.queries.size());
+    }
+
+    @Test
+    void testConnectionFailureIsNotBisected() {
+        List<SqlBuilder.SqlTemplate> queries = new ArrayList<>();
+        Function<SqlBuilder.SqlTemplate, RowSet> broken = template -> {
+            queries.add(template);
+            throw new DoltException("dolt execute error", new SQLException("communications link failure", "08S01"));
+        };
+
+        assertThrows(DoltException.class, () -> RefResolver.hashAll("dolt_hashof", refs(10), 100, broken));
+        assertEquals(1, queries.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.hxuanyu.jdolt.load;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    private static List<Object[]> readAll(RecordReader reader, List<String> columns) throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        Object[] row;
+        while ((row = reader.next(columns)) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    void testCsvQuotingAndNulls() throws Exception {
+        String csv = "id,name,note\r\n"
+                + "1,\"Smith, John\",\"said \"\"hi\"\"\"\r\n"
+                + "\n"
+                + "2,,\"\"\n"
+                + "3,multi,\"line one\nline two\"";
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv), ',', '"', true)) {
+            List<String> columns = reader.columns();
+            assertEquals(List.of("id", "name", "note"), columns);
+
+            List<Object[]> rows = readAll(reader, columns);
+            assertEquals(3, rows.size());
+            assertArrayEquals(new Object[]{"1", "Smith, John", "said \"hi\""}, rows.get(0));
+            // 未加引号的空字段为 NULL，加引号的空字段为空字符串
+            assertArrayEquals(new Object[]{"2", null, ""}, rows.get(1));
+            assertEquals("line one\nline two", rows.get(2)[2]);
+        }
+    }
+
+    @Test
+    void testCsvFieldCountMismatchReportsLine() throws Exception {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("a;b\n1;2\n3\n"), ';', '"', true)) {
+            List<String> columns = reader.columns();
+            assertArrayEquals(new Object[]{"1", "2"}, reader.next(columns));
+            DoltException error = assertThrows(DoltException.class, () -> reader.next(columns));
+            assertTrue(error.getMessage().contains("line 3"), error.getMessage());
+        }
+    }
+
+    @Test
+    void testCsvUnterminatedQuote() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a\n\"open"), ',', '"', true);
+        assertThrows(DoltException.class, () -> reader.next(reader.columns()));
+    }
+
+    @Test
+    void testJsonLinesTypesAndNestedValues() throws Exception {
+        String jsonl = "{\"id\": 1, \"price\": 9.5, \"name\": \"caf\\u00e9 \\\"A\\\"\", \"tags\": [\"x\", {\"y\": \"]\"}], \"active\": true}\n"
+                + "\n"
+                + "{\"id\": 99999999999999999999, \"name\": null}\n";
+        try (JsonLinesRecordReader reader = new JsonLinesRecordReader(new StringReader(jsonl))) {
+            List<String> columns = reader.columns();
+            assertEquals(List.of("id", "price", "name", "tags", "active"), columns);
+
+            List<Object[]> rows = readAll(reader, columns);
+            assertEquals(2, rows.size());
+            assertArrayEquals(new Object[]{1L, new BigDecimal("9.5"), "café \"A\"", "[\"x\", {\"y\": \"]\"}]", true}, rows.get(0));
+            // 缺少的列写入 NULL，超出 long 范围的整数保留为 BigDecimal
+            assertArrayEquals(new Object[]{new BigDecimal("99999999999999999999"), null, null, null, null}, rows.get(1));
+        }
+    }
+
+    @Test
+    void testJsonLinesUnknownColumnAndSyntaxError() throws Exception {
+        try (JsonLinesRecordReader reader = new JsonLinesRecordReader(new StringReader("{\"id\": 1, \"nmae\": \"x\"}\n"))) {
+            DoltException error = assertThrows(DoltException.class, () -> reader.next(List.of("id", "name")));
+            assertTrue(error.getMessage().contains("nmae"));
+        }
+        try (JsonLinesRecordReader reader = new JsonLinesRecordReader(new StringReader("{\"id\": 1,}\n"))) {
+            DoltException error = assertThrows(DoltException.class, reader::columns);
+            assertTrue(error.getMessage().contains("line 1"));
+        }
+    }
+
+    @Test
+    void testRequestReadsFileThroughChannel() throws Exception {
+        Path file = Files.createTempFile("bulk-load", ".csv");
+        try {
+            Files.writeString(file, "id,name\n1,产品\n", StandardCharsets.UTF_8);
+            BulkLoadRequest request = BulkLoadRequest.newBuilder("products")
+                    .file(file, LoadFormat.CSV)
+                    .commitMessage("import products")
+                    .build();
+            try (RecordReader reader = request.openRecordReader()) {
+                List<Object[]> rows = readAll(reader, reader.columns());
+                assertArrayEquals(new Object[]{"1", "产品"}, rows.get(0));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testRequestValidation() {
+        assertThrows(IllegalStateException.class, () -> BulkLoadRequest.newBuilder("products")
+                .reader(new StringReader(""), LoadFormat.CSV)
+                .build());
+        assertThrows(IllegalStateException.class, () -> BulkLoadRequest.newBuilder("products")
+                .reader(new StringReader(""), LoadFormat.CSV)
+                .header(false)
+                .noDoltCommit()
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> BulkLoadRequest.newBuilder("products").rowsPerStatement(0));
+    }
+
+    @Test
+    void testInsertSql() {
+        assertEquals("INSERT INTO `products` (`id`, `name`) VALUES (?, ?), (?, ?)",
+                BulkLoader.insertSql(BulkLoader.quoteTable("products"),
+                        List.of(BulkLoader.quoteIdentifier("id"), BulkLoader.quoteIdentifier("name")), 2));
+        assertEquals("`shop`.`products`", BulkLoader.quoteTable("shop.products"));
+    }
+
+    @Test
+    void testRejectsInvalidHeader() {
+        assertThrows(DoltException.class, () -> BulkLoader.quoteIdentifier("id) VALUES (1); DROP TABLE products; --"));
+        assertThrows(DoltException.class, () -> BulkLoader.quoteIdentifier("na`me"));
+        assertThrows(DoltException.class, () -> BulkLoader.quoteIdentifier(""));
+        assertThrows(DoltException.class, () -> BulkLoader.quoteTable("shop.products.x"));
+    }
+}
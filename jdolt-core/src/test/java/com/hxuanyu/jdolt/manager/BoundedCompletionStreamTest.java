@@ -0,0 +1,118 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCompletionStreamTest {
+
+    private static List<String> inputs(int count) {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            inputs.add("t" + i);
+        }
+        return inputs;
+    }
+
+    private static BoundedCompletionStream<String, String> stream(List<String> inputs, Function<String, String> loader,
+                                                                  Executor executor, int maxConcurrency) {
+        return new BoundedCompletionStream<>(inputs, loader, executor, maxConcurrency, "dolt diff", input -> "table: " + input);
+    }
+
+    @Test
+    void testRunsConcurrentlyWithinLimit() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            CountDownLatch bothStarted = new CountDownLatch(2);
+            BoundedCompletionStream<String, String> results = stream(inputs(6), input -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                bothStarted.countDown();
+                try {
+                    // 前两个输入互相等待，只有并发执行时才能继续
+                    assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+                    return input + "-done";
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor, 2);
+
+            Set<String> delivered;
+            try (Stream<String> stream = results.stream()) {
+                delivered = stream.collect(Collectors.toCollection(HashSet::new));
+            }
+
+            assertEquals(6, delivered.size());
+            assertTrue(delivered.contains("t4-done"));
+            assertEquals(2, maxRunning.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDeliversInCompletionOrder() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            CountDownLatch fastDelivered = new CountDownLatch(1);
+            BoundedCompletionStream<String, String> results = stream(List.of("slow", "fast"), input -> {
+                if (input.equals("slow")) {
+                    try {
+                        // 慢的输入等快的先交付后才返回
+                        assertTrue(fastDelivered.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return input;
+            }, executor, 2);
+
+            assertEquals("fast", results.next());
+            fastDelivered.countDown();
+            assertEquals("slow", results.next());
+            assertFalse(results.hasNext());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsReportedWithInput() {
+        // 同步执行器：构造时依次执行工作任务
+        BoundedCompletionStream<String, String> results = stream(inputs(3), input -> {
+            if (input.equals("t0")) {
+                throw new IllegalStateException("boom");
+            }
+            return input;
+        }, Runnable::run, 1);
+
+        DoltException error = assertThrows(DoltException.class, results::next);
+        assertEquals("dolt diff failed, table: t0", error.getMessage());
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    void testEmptyInputs() {
+        try (Stream<String> results = stream(List.of(), input -> fail("no input to load"), Runnable::run, 4).stream()) {
+            assertEquals(List.of(), results.collect(Collectors.toList()));
+        }
+    }
+}
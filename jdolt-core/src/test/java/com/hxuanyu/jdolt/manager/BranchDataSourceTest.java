@@ -0,0 +1,86 @@
+package com.hxuanyu.jdolt.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BranchDataSourceTest {
+
+    @Test
+    void testPinnedConnectionIsReused() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        BranchDataSource dataSource = new BranchDataSource(recording.dataSource(), "feature/a");
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+
+        assertEquals(1, recording.opened);
+        assertEquals(0, recording.closed);
+        assertEquals(1, dataSource.getIdleCount());
+        assertEquals(List.of("SELECT DATABASE()", "USE `shop/feature/a`"), recording.statements);
+    }
+
+    @Test
+    void testEvictedConnectionRestoresDatabase() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        BranchDataSource dataSource = new BranchDataSource(recording.dataSource(), "dev", 1);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        first.close();
+        second.close();
+
+        assertTrue(first.isClosed());
+        assertEquals(2, recording.opened);
+        assertEquals(1, recording.closed);
+        assertEquals("USE `shop`", recording.statements.get(recording.statements.size() - 1));
+
+        dataSource.close();
+        assertEquals(2, recording.closed);
+        assertEquals(0, dataSource.getIdleCount());
+    }
+
+    @Test
+    void testDroppedIdleConnectionIsReplaced() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        BranchDataSource dataSource = new BranchDataSource(recording.dataSource(), "dev");
+
+        dataSource.getConnection().close();
+        // 刚归还的连接直接复用，不做检查
+        dataSource.getConnection().close();
+        assertEquals(0, recording.validations);
+
+        // 服务端断开了空闲连接，isClosed() 仍为 false
+        recording.valid = false;
+        TimeUnit.MILLISECONDS.sleep(BranchDataSource.VALIDATION_BYPASS_MILLIS + 100);
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+
+        assertEquals(1, recording.validations);
+        assertEquals(2, recording.opened);
+        assertEquals(1, recording.closed);
+        assertEquals(1, dataSource.getStats().evicted());
+    }
+
+    @Test
+    void testForBranchIsCached() {
+        DoltConnectionManager manager = new DoltConnectionManager(new RecordingDataSource().dataSource());
+
+        DoltConnectionManager branchManager = manager.forBranch("dev");
+
+        assertSame(branchManager, manager.forBranch("dev"));
+        assertSame(branchManager, manager.forBranch("main").forBranch("dev"));
+        assertSame(manager, branchManager.getRoot());
+        assertEquals("dev", branchManager.getBranch());
+        assertThrows(IllegalArgumentException.class, () -> manager.forBranch("bad..name"));
+    }
+}
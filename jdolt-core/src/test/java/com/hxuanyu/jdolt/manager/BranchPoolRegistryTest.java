@@ -0,0 +1,100 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.config.BranchPoolConfig;
+import com.hxuanyu.jdolt.core.api.CommonSqlExecutor;
+import com.hxuanyu.jdolt.exception.DoltConnectionException;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BranchPoolRegistryTest {
+
+    private static List<String> poolNames(List<BranchPoolStats> stats) {
+        return stats.stream().map(BranchPoolStats::revisionDatabase).toList();
+    }
+
+    @Test
+    void testLeastRecentlyUsedPoolIsEvicted() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        BranchPoolRegistry registry = new BranchPoolRegistry(recording.dataSource(),
+                BranchPoolConfig.newBuilder().maxPools(2).build());
+
+        registry.getConnection("a").close();
+        registry.getConnection("b").close();
+        registry.getConnection("a").close();
+        registry.getConnection("c").close();
+
+        List<BranchPoolStats> stats = registry.getStats();
+        assertEquals(List.of("shop/a", "shop/c"), poolNames(stats));
+        assertEquals(1, stats.get(0).created());
+        assertEquals(1, stats.get(0).reused());
+        assertEquals(2, registry.getTotalConnections());
+        assertTrue(recording.statements.contains("USE `shop`"));
+    }
+
+    @Test
+    void testTotalConnectionsAreBounded() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        BranchPoolRegistry registry = new BranchPoolRegistry(recording.dataSource(),
+                BranchPoolConfig.newBuilder().maxTotalConnections(1).acquireTimeout(Duration.ZERO).build());
+
+        Connection held = registry.getConnection("a");
+        assertThrows(DoltConnectionException.class, () -> registry.getConnection("b"));
+
+        // 归还后空闲连接可以被其他分支池回收
+        held.close();
+        try (Connection connection = registry.getConnection("b")) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(1, registry.getTotalConnections());
+        assertEquals(0, registry.pool("a").getIdleCount());
+    }
+
+    @Test
+    void testCursorFailureReleasesBranchConnection() {
+        RecordingDataSource recording = new RecordingDataSource();
+        recording.setObjectFailure = new IllegalStateException("unsupported parameter");
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource(),
+                BranchPoolConfig.newBuilder().maxTotalConnections(1).acquireTimeout(Duration.ZERO).build());
+        CommonSqlExecutor executor = CommonSqlExecutor.getInstance(manager.forBranch("a"));
+        SqlBuilder.SqlTemplate query = new SqlBuilder.SqlTemplate("SELECT * FROM t WHERE id = ?", List.of(1));
+
+        assertThrows(IllegalStateException.class, () -> executor.executeQueryAsCursor(query));
+        // 连接已归还，许可没有泄漏
+        assertEquals(0, manager.getBranchPools().pool("a").getActiveCount());
+        assertThrows(IllegalStateException.class, () -> executor.executeQueryAsCursor(query));
+        BranchPoolStats stats = manager.getBranchPools().pool("a").getStats();
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.created());
+        assertEquals(1, stats.reused());
+    }
+
+    @Test
+    void testBranchContextRoutesConnections() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+
+        BranchContext.run("dev", () -> {
+            try (Connection connection = manager.getConnection()) {
+                assertEquals("dev", BranchContext.current());
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        assertNull(BranchContext.current());
+        manager.forBranch("dev").getConnection().close();
+
+        List<BranchPoolStats> stats = manager.getBranchPoolStats();
+        assertEquals(List.of("shop/dev"), poolNames(stats));
+        assertEquals(1, stats.get(0).reused());
+        assertEquals(0.5d, stats.get(0).hitRate());
+
+        manager.close();
+        assertEquals(0, manager.getBranchPools().getTotalConnections());
+    }
+}
@@ -0,0 +1,98 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoltAsyncExecutorTest {
+
+    @Test
+    void testConcurrencyIsBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (DoltAsyncExecutor executor = DoltAsyncExecutor.create(2)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }, executor));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(2, executor.getActiveCount());
+            release.countDown();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void testInterruptedWaitFailsFutureWithoutRunning() throws Exception {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService delegate = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            threads.add(thread);
+            return thread;
+        });
+        CountDownLatch release = new CountDownLatch(1);
+        try (DoltAsyncExecutor executor = new DoltAsyncExecutor(delegate, 1)) {
+            CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor);
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<String> waiting = DoltAsyncExecutor.supplyAsync(() -> {
+                ran.set(true);
+                return "finished";
+            }, executor);
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(2, threads.size());
+            threads.get(1).interrupt();
+
+            // 被中断的任务不会越过并发上限执行，future 以异常结束
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(DoltException.class, failure.getCause());
+            assertFalse(ran.get());
+            assertEquals(1, executor.getActiveCount());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertEquals(0, executor.getActiveCount());
+        } finally {
+            delegate.shutdownNow();
+        }
+    }
+
+    @Test
+    void testManagerSharesExecutorWithBranches() {
+        DoltConnectionManager manager = new DoltConnectionManager(new RecordingDataSource().dataSource());
+
+        assertSame(manager.getAsyncExecutor(), manager.forBranch("dev").getAsyncExecutor());
+        assertEquals(DoltAsyncExecutor.DEFAULT_MAX_CONCURRENCY, ((DoltAsyncExecutor) manager.getAsyncExecutor()).getMaxConcurrency());
+        manager.close();
+    }
+}
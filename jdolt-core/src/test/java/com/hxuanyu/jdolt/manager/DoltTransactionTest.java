@@ -0,0 +1,132 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.core.api.CommonSqlExecutor;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.metrics.InMemoryDoltMetrics;
+import com.hxuanyu.jdolt.model.BatchResult;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoltTransactionTest {
+
+    @Test
+    void testStatementsShareOneConnection() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+
+        try (DoltTransaction transaction = manager.beginTransaction()) {
+            Connection first = manager.getConnection();
+            first.close();
+            Connection second = manager.getConnection();
+
+            assertSame(first, second);
+            assertFalse(second.isClosed());
+            assertTrue(manager.isInTransaction());
+            assertThrows(IllegalStateException.class, manager::beginTransaction);
+            transaction.commit();
+        }
+
+        assertFalse(manager.isInTransaction());
+        assertEquals(1, recording.opened);
+        assertEquals(1, recording.closed);
+        assertEquals(List.of("COMMIT"), recording.statements);
+    }
+
+    @Test
+    void testInTransactionCommitsWithDoltCommit() {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+        manager.setHeadCache(new HeadValidatedCache());
+        CommonSqlExecutor executor = CommonSqlExecutor.getInstance(manager);
+
+        BatchResult result = manager.inTransaction("import", () -> executor.executeBatch(List.of(
+                new SqlBuilder.SqlTemplate("INSERT INTO t VALUES (?)", List.of(1)),
+                new SqlBuilder.SqlTemplate("INSERT INTO t VALUES (?)", List.of(2)))));
+
+        assertEquals(2, result.getAffectedRows());
+        assertEquals(1, recording.opened);
+        assertEquals(List.of("INSERT INTO t VALUES (?) x2", "CALL DOLT_COMMIT(?, ?, ?, ?)", "COMMIT"), recording.statements);
+        // 新提交立即对分支读取缓存可见
+        assertEquals(1, manager.getHeadCache().getStats().invalidationCount());
+    }
+
+    @Test
+    void testFailureRollsBack() {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+
+        assertThrows(IllegalStateException.class, () -> manager.inTransaction("never", () -> {
+            manager.getConnection();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(List.of("ROLLBACK"), recording.statements);
+        assertEquals(1, recording.closed);
+        assertFalse(manager.isInTransaction());
+    }
+
+    @Test
+    void testOtherBranchCannotUseTransactionConnection() {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+        DoltConnectionManager dev = manager.forBranch("dev");
+
+        try (DoltTransaction transaction = manager.beginTransaction()) {
+            DoltException pinned = assertThrows(DoltException.class, dev::getConnection);
+            assertEquals("cannot access branch dev inside a transaction on <default>", pinned.getMessage());
+            assertThrows(DoltException.class, () -> BranchContext.call("dev", manager::getConnection));
+            assertFalse(dev.isInTransaction());
+            assertSame(transaction, manager.currentTransaction());
+        }
+
+        try (DoltTransaction transaction = dev.beginTransaction()) {
+            assertEquals("dev", transaction.getBranch());
+            assertSame(transaction, BranchContext.call("dev", manager::currentTransaction));
+            assertThrows(DoltException.class, manager::getConnection);
+        }
+    }
+
+    @Test
+    void testTransactionPerBranch() throws Exception {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+        DoltConnectionManager dev = manager.forBranch("dev");
+
+        try (DoltTransaction main = manager.beginTransaction();
+             DoltTransaction branch = dev.beginTransaction()) {
+            assertNotSame(manager.getConnection(), dev.getConnection());
+            assertSame(manager.getConnection(), manager.getConnection());
+            assertSame(dev.getConnection(), dev.getConnection());
+            assertSame(main, manager.currentTransaction());
+            assertSame(branch, dev.currentTransaction());
+            branch.commit();
+            main.commit();
+        }
+
+        assertFalse(manager.isInTransaction());
+        assertFalse(dev.isInTransaction());
+    }
+
+    @Test
+    void testMetricsRecordedPerOperation() {
+        RecordingDataSource recording = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(recording.dataSource());
+        InMemoryDoltMetrics metrics = new InMemoryDoltMetrics();
+        manager.setMetrics(metrics);
+
+        CommonSqlExecutor.getInstance(manager).executeBatch(List.of(
+                new SqlBuilder.SqlTemplate("INSERT INTO t VALUES (?)", List.of(1)),
+                new SqlBuilder.SqlTemplate("INSERT INTO t VALUES (?)", List.of(2))));
+
+        InMemoryDoltMetrics.OperationStats stats = metrics.get("BATCH", null);
+        assertEquals(1, stats.count());
+        assertEquals(2, stats.rows());
+        assertSame(metrics, manager.forBranch("dev").getMetrics());
+    }
+}
@@ -0,0 +1,143 @@
+package com.hxuanyu.jdolt.manager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 记录执行过的语句和物理连接开关次数的假数据源
+ */
+class RecordingDataSource {
+    final List<String> statements = new ArrayList<>();
+    int opened;
+    int closed;
+    int validations;
+    boolean valid = true;
+    RuntimeException setObjectFailure;
+
+    DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        opened++;
+                        return connection();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private Connection connection() {
+        boolean[] isClosed = {false};
+        boolean[] autoCommit = {true};
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "createStatement" -> statement();
+                    case "prepareStatement" -> preparedStatement((String) args[0]);
+                    case "close" -> {
+                        isClosed[0] = true;
+                        closed++;
+                        yield null;
+                    }
+                    case "isClosed" -> isClosed[0];
+                    case "isValid" -> {
+                        validations++;
+                        yield valid;
+                    }
+                    case "getAutoCommit" -> autoCommit[0];
+                    case "setAutoCommit" -> {
+                        autoCommit[0] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "commit", "rollback" -> {
+                        statements.add(method.getName().toUpperCase());
+                        yield null;
+                    }
+                    default -> null;
+                });
+    }
+
+    private Statement statement() {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "execute" -> {
+                        statements.add((String) args[0]);
+                        yield false;
+                    }
+                    case "executeQuery" -> {
+                        statements.add((String) args[0]);
+                        yield databaseResult();
+                    }
+                    default -> null;
+                });
+    }
+
+    private PreparedStatement preparedStatement(String sql) {
+        int[] batched = {0};
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "execute" -> {
+                        statements.add(sql);
+                        yield false;
+                    }
+                    case "executeUpdate" -> {
+                        statements.add(sql);
+                        yield 1;
+                    }
+                    case "executeQuery" -> {
+                        statements.add(sql);
+                        yield emptyResult();
+                    }
+                    case "setObject" -> {
+                        if (setObjectFailure != null) {
+                            throw setObjectFailure;
+                        }
+                        yield null;
+                    }
+                    case "addBatch" -> {
+                        batched[0]++;
+                        yield null;
+                    }
+                    case "executeBatch" -> {
+                        statements.add(sql + " x" + batched[0]);
+                        int[] counts = new int[batched[0]];
+                        Arrays.fill(counts, 1);
+                        batched[0] = 0;
+                        yield counts;
+                    }
+                    default -> null;
+                });
+    }
+
+    private ResultSet emptyResult() {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> method.getName().equals("getColumnCount") ? 0 : null);
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> false;
+                    case "getMetaData" -> metaData;
+                    default -> null;
+                });
+    }
+
+    private ResultSet databaseResult() {
+        boolean[] consumed = {false};
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> {
+                        boolean hasNext = !consumed[0];
+                        consumed[0] = true;
+                        yield hasNext;
+                    }
+                    case "getString" -> "shop/main";
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,169 @@
+package com.hxuanyu.jdolt.manager;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.core.api.CommonSqlExecutor;
+import com.hxuanyu.jdolt.core.function.table.DoltLog;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRouterTest {
+
+    @Test
+    void testRoundRobin() throws Exception {
+        RecordingDataSource first = new RecordingDataSource();
+        RecordingDataSource second = new RecordingDataSource();
+        ReplicaRouter router = new ReplicaRouter(List.of(first.dataSource(), second.dataSource()), ReplicaRouter.Strategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 4; i++) {
+            router.getConnection().close();
+        }
+
+        assertEquals(2, first.opened);
+        assertEquals(2, second.opened);
+        assertEquals(List.of(0, 0), router.getActiveCounts());
+    }
+
+    @Test
+    void testLeastLoaded() throws Exception {
+        RecordingDataSource first = new RecordingDataSource();
+        RecordingDataSource second = new RecordingDataSource();
+        ReplicaRouter router = new ReplicaRouter(List.of(first.dataSource(), second.dataSource()), ReplicaRouter.Strategy.LEAST_LOADED);
+
+        Connection held = router.getConnection();
+        // 轮询顺序轮到第一个副本，但它仍有借出的连接
+        router.getConnection().close();
+        router.getConnection().close();
+
+        assertEquals(1, first.opened);
+        assertEquals(2, second.opened);
+        assertEquals(List.of(1, 0), router.getActiveCounts());
+
+        held.close();
+        held.close();
+        assertTrue(held.isClosed());
+        assertEquals(List.of(0, 0), router.getActiveCounts());
+        assertThrows(SQLException.class, () -> held.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    void testFailsOverToNextReplica() throws Exception {
+        RecordingDataSource healthy = new RecordingDataSource();
+        ReplicaRouter router = new ReplicaRouter(List.of(unavailable(), healthy.dataSource()), ReplicaRouter.Strategy.ROUND_ROBIN);
+
+        router.getConnection().close();
+        router.getConnection().close();
+
+        assertEquals(2, healthy.opened);
+    }
+
+    @Test
+    void testReadConnectionRouting() throws Exception {
+        RecordingDataSource primary = new RecordingDataSource();
+        RecordingDataSource replica = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(primary.dataSource());
+
+        manager.getReadConnection().close();
+        assertEquals(1, primary.opened);
+
+        manager.setReplicaRouter(new ReplicaRouter(List.of(replica.dataSource()), ReplicaRouter.Strategy.ROUND_ROBIN));
+        manager.getReadConnection().close();
+        assertEquals(1, replica.opened);
+
+        PrimaryContext.run(() -> {
+            try (Connection ignored = manager.getReadConnection()) {
+                assertTrue(PrimaryContext.isForced());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertFalse(PrimaryContext.isForced());
+        assertEquals(2, primary.opened);
+
+        try (DoltTransaction transaction = manager.beginTransaction()) {
+            assertSame(manager.getConnection(), manager.getReadConnection());
+            transaction.rollback();
+        }
+        assertEquals(3, primary.opened);
+        assertEquals(1, replica.opened);
+    }
+
+    @Test
+    void testFallsBackToPrimary() throws Exception {
+        RecordingDataSource primary = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(primary.dataSource());
+        manager.setReplicaRouter(new ReplicaRouter(List.of(unavailable()), ReplicaRouter.Strategy.ROUND_ROBIN));
+
+        manager.getReadConnection().close();
+
+        assertEquals(1, primary.opened);
+    }
+
+    @Test
+    void testTableFunctionReadsFromReplica() {
+        RecordingDataSource primary = new RecordingDataSource();
+        RecordingDataSource replica = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(primary.dataSource());
+        manager.setResultCache(null);
+        // 分支读取缓存默认关闭
+        assertNull(manager.getHeadCache());
+        manager.setReplicaRouter(new ReplicaRouter(List.of(replica.dataSource()), ReplicaRouter.Strategy.ROUND_ROBIN));
+        DoltLog doltLog = DoltLog.getInstance(manager);
+
+        doltLog.prepare().execute();
+        assertEquals(1, replica.statements.size());
+        assertEquals(0, primary.opened);
+
+        doltLog.prepare().executeOnPrimary();
+        CommonSqlExecutor.getInstance(manager).executeQueryAsRowSet(new SqlBuilder.SqlTemplate("SELECT * FROM t", List.of()));
+
+        assertEquals(1, replica.statements.size());
+        assertEquals(2, primary.statements.size());
+    }
+
+    @Test
+    void testHeadCacheValidatesOnSameReplica() throws Exception {
+        RecordingDataSource primary = new RecordingDataSource();
+        RecordingDataSource first = new RecordingDataSource();
+        RecordingDataSource second = new RecordingDataSource();
+        DoltConnectionManager manager = new DoltConnectionManager(primary.dataSource());
+        manager.setResultCache(null);
+        manager.setHeadCache(new HeadValidatedCache());
+        ReplicaRouter router = new ReplicaRouter(List.of(first.dataSource(), second.dataSource()), ReplicaRouter.Strategy.ROUND_ROBIN);
+        manager.setReplicaRouter(router);
+        DoltLog doltLog = DoltLog.getInstance(manager);
+
+        doltLog.prepare().execute();
+        doltLog.prepare().execute();
+
+        // 每次读取只借出一个副本连接，状态查询和数据查询都在这个副本上执行
+        assertEquals(1, first.opened);
+        assertEquals(1, second.opened);
+        assertEquals(0, primary.opened);
+        assertEquals(HeadValidatedCache.STATE_QUERY.sql(), first.statements.get(0));
+        assertTrue(first.statements.get(1).toLowerCase().contains("dolt_log"));
+        // 第二个副本的状态单独验证，状态相同时复用缓存的结果
+        assertEquals(List.of(HeadValidatedCache.STATE_QUERY.sql()), second.statements);
+
+        try (Connection connection = router.getConnection()) {
+            assertEquals(0, ReplicaRouter.replicaIndex(connection));
+        }
+        try (Connection connection = manager.getConnection()) {
+            assertEquals(-1, ReplicaRouter.replicaIndex(connection));
+        }
+    }
+
+    private static DataSource unavailable() {
+        return (DataSource) Proxy.newProxyInstance(ReplicaRouterTest.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    throw new SQLException("replica down");
+                });
+    }
+}
@@ -0,0 +1,43 @@
+package com.hxuanyu.jdolt.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryDoltMetricsTest {
+
+    @Test
+    void testOperationNames() {
+        assertEquals("DOLT_COMMIT", OperationNames.of("CALL dolt_commit(?, ?)"));
+        assertEquals("dolt_diff", OperationNames.of("SELECT * FROM dolt_diff(?, ?, ?)"));
+        assertEquals("dolt_branches", OperationNames.of("select name from `dolt_branches` where name = ?"));
+        assertEquals("dolt_hashof", OperationNames.of("SELECT dolt_hashof(?)"));
+        assertEquals("INSERT products", OperationNames.of("INSERT INTO shop.products (id) VALUES (?)"));
+        assertEquals("UPDATE products", OperationNames.of("UPDATE products SET name = ?"));
+        assertEquals("DELETE products", OperationNames.of("DELETE FROM products WHERE id = ?"));
+        assertEquals("BATCH", OperationNames.of("BATCH"));
+    }
+
+    @Test
+    void testRecordSamples() {
+        InMemoryDoltMetrics metrics = new InMemoryDoltMetrics();
+
+        metrics.start("dolt_log", "main").success(10);
+        metrics.start("dolt_log", "main").success(5);
+        metrics.start("dolt_log", "main").failure(new IllegalStateException());
+        DoltMetrics.Sample running = metrics.start("dolt_log", "dev");
+
+        InMemoryDoltMetrics.OperationStats main = metrics.get("dolt_log", "main");
+        assertEquals(3, main.count());
+        assertEquals(1, main.errors());
+        assertEquals(15, main.rows());
+        assertEquals(0, main.inFlight());
+        assertTrue(main.maxNanos() <= main.totalNanos());
+        assertEquals(1, metrics.get("dolt_log", "dev").inFlight());
+
+        running.success(1);
+        assertEquals(2, metrics.snapshot().size());
+        metrics.reset();
+        assertNull(metrics.get("dolt_log", "main"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hxuanyu.jdolt.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlExecuteResultTest {
+
+    private RowSet logRows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"h1", "alice", 3L});
+        rows.add(new Object[]{"h2", "bob", null});
+        return new RowSet(new RowSet.Columns("commit_hash", "committer", "commit_order"), rows);
+    }
+
+    @Test
+    void testAccessorsOnRowSet() {
+        SqlExecuteResult result = SqlExecuteResult.success("success", logRows());
+
+        assertEquals(2, result.getRowCount());
+        assertEquals(3, result.getColumnCount());
+        assertEquals(List.of("commit_hash", "committer", "commit_order"), result.getColumnNames());
+        assertEquals("h1", result.getString("commit_hash"));
+        assertEquals(3L, result.getLong("commit_order", 0L));
+        assertEquals(0L, result.getLong(1, "commit_order", 0L));
+        assertEquals(List.of("alice", "bob"), result.getColumnAsString("committer"));
+        assertTrue(result.hasColumn("committer"));
+        assertFalse(result.hasColumn("message"));
+    }
+
+    @Test
+    void testMapViewBehavesLikeRow() {
+        SqlExecuteResult result = SqlExecuteResult.success("success", logRows());
+        Map<String, Object> row = result.getRowView(1);
+
+        assertEquals(3, row.size());
+        assertTrue(row.containsKey("commit_order"));
+        assertNull(row.get("commit_order"));
+        assertEquals("h2", row.get("commit_hash"));
+        assertEquals(List.of("commit_hash", "committer", "commit_order"), new ArrayList<>(row.keySet()));
+
+        row.put("committer", "carol");
+        assertEquals("carol", result.getString(1, "committer"));
+        assertThrows(UnsupportedOperationException.class, () -> row.put("message", "x"));
+    }
+
+    @Test
+    void testDataIsMutableCopy() {
+        SqlExecuteResult result = SqlExecuteResult.success("success", logRows());
+        List<Map<String, Object>> data = result.getData();
+
+        data.get(0).put("message", "init");
+        data.get(1).put("committer", "carol");
+        data.add(new HashMap<>());
+
+        assertSame(data, result.getData());
+        assertSame(data.get(0), result.getRow(0));
+        assertEquals("init", result.getRow(0).get("message"));
+        assertEquals(List.of("commit_hash", "committer", "commit_order"), new ArrayList<>(result.getRow(1).keySet()));
+        // 便利方法读取列式数据，不受副本修改的影响
+        assertEquals("bob", result.getString(1, "committer"));
+        assertEquals(2, result.getDataView().size());
+    }
+
+    @Test
+    void testSuccessFromMapsKeepsAllColumns() {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        Map<String, Object> first = new HashMap<>();
+        first.put("name", "main");
+        Map<String, Object> second = new HashMap<>();
+        second.put("name", "dev");
+        second.put("hash", "abc");
+        maps.add(first);
+        maps.add(second);
+
+        SqlExecuteResult result = SqlExecuteResult.success("success", maps);
+
+        assertEquals("dev", result.getString(1, "name"));
+        assertEquals("abc", result.getString(1, "hash"));
+        assertNull(result.getString(0, "hash"));
+        assertSame(result.getRowSet(), RowSet.fromMaps(result.getDataView()));
+    }
+}
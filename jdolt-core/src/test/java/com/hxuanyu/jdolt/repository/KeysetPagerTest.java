@@ -0,0 +1,109 @@
+package com.hxuanyu.jdolt.repository;
+
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.model.Keyset;
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPagerTest {
+
+    /**
+     * 按 (date, commit_hash) 升序排列的内存表，执行 keyset 查询并记录每次查询的分页条件
+     */
+    private static class FakeTable {
+        final List<Object[]> rows = new ArrayList<>();
+        final List<Keyset> queries = new ArrayList<>();
+
+        FakeTable(int count) {
+            for (int i = 0; i < count; i++) {
+                // 每两行共享一个日期，只靠 commit_hash 区分
+                rows.add(new Object[]{(long) (i / 2), String.format("h%03d", i)});
+            }
+        }
+
+        SqlBuilder.SqlTemplate build(Keyset keyset) {
+            queries.add(keyset);
+            return SqlBuilder.select().from("dolt_commits").build();
+        }
+
+        RowSet execute(SqlBuilder.SqlTemplate ignored) {
+            Keyset keyset = queries.get(queries.size() - 1);
+            Comparator<Object[]> order = Comparator.<Object[], Long>comparing(row -> (Long) row[0])
+                    .thenComparing(row -> (String) row[1]);
+            if (keyset.descending()) {
+                order = order.reversed();
+            }
+            Comparator<Object[]> finalOrder = order;
+            List<Object[]> page = rows.stream()
+                    .filter(row -> keyset.isFirstPage() || finalOrder.compare(row, keyset.after().toArray()) > 0)
+                    .sorted(finalOrder)
+                    .limit(keyset.pageSize())
+                    .collect(Collectors.toList());
+            return new RowSet(new RowSet.Columns("date", "commit_hash"), page);
+        }
+
+        KeysetPager pager(Keyset first) {
+            return new KeysetPager(this::build, this::execute, first);
+        }
+    }
+
+    @Test
+    void testWalksAllPagesWithoutOffset() {
+        FakeTable table = new FakeTable(25);
+        KeysetPager pager = table.pager(Keyset.first(10, false, "date", "commit_hash"));
+
+        List<Object> hashes = pager.rows().map(row -> row.get("commit_hash")).collect(Collectors.toList());
+
+        assertEquals(25, hashes.size());
+        assertEquals("h000", hashes.get(0));
+        assertEquals("h024", hashes.get(24));
+        assertEquals(3, pager.getPageCount());
+        assertEquals(25, pager.getRowCount());
+        // 最后一页不满时不再发起空查询
+        assertEquals(3, table.queries.size());
+        assertEquals(List.of(9L / 2, "h009"), table.queries.get(1).after());
+    }
+
+    @Test
+    void testDescendingAndExactMultipleOfPageSize() {
+        FakeTable table = new FakeTable(20);
+        KeysetPager pager = table.pager(Keyset.first(10, true, "date", "commit_hash"));
+
+        List<RowSet> pages = new ArrayList<>();
+        pager.forEachRemaining(pages::add);
+
+        assertEquals(2, pages.size());
+        assertEquals("h019", pages.get(0).get(0, "commit_hash"));
+        assertEquals("h000", pages.get(1).get(9, "commit_hash"));
+        // 恰好整页时需要一次空查询确认结束
+        assertEquals(3, table.queries.size());
+    }
+
+    @Test
+    void testMissingKeyColumnFails() {
+        Function<Keyset, SqlBuilder.SqlTemplate> builder = keyset -> SqlBuilder.select().from("dolt_commits").build();
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"h000"});
+        KeysetPager pager = new KeysetPager(builder, template -> new RowSet(new RowSet.Columns("commit_hash"), rows),
+                Keyset.first(1, false, "date", "commit_hash"));
+
+        assertThrows(DoltException.class, pager::hasNext);
+    }
+
+    @Test
+    void testRowsAreMaps() {
+        FakeTable table = new FakeTable(3);
+        Map<String, Object> first = table.pager(Keyset.first(2, false, "date", "commit_hash")).rows().findFirst().orElseThrow();
+        assertEquals(0L, first.get("date"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.hxuanyu.jdolt.util.builder;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlBuilderTest {
+
+    @Test
+    void testMultiRowInsert() {
+        SqlBuilder.SqlTemplate template = SqlBuilder.insertInto("products")
+                .columns("id", "name")
+                .values(1, "apple")
+                .values(2, null)
+                .build();
+
+        assertEquals("INSERT INTO products (id, name) VALUES (?, ?), (?, ?)", template.sql());
+        assertEquals(Arrays.asList(1, "apple", 2, null), template.parameters());
+    }
+
+    @Test
+    void testMultiRowInsertChunks() {
+        SqlBuilder builder = SqlBuilder.insertInto("products").columns("id");
+        for (int i = 0; i < 5; i++) {
+            builder.values(i);
+        }
+
+        List<SqlBuilder.SqlTemplate> templates = builder.buildChunks(2);
+
+        assertEquals(3, templates.size());
+        assertEquals("INSERT INTO products (id) VALUES (?), (?)", templates.get(0).sql());
+        assertEquals("INSERT INTO products (id) VALUES (?)", templates.get(2).sql());
+        assertEquals(List.of(4), templates.get(2).parameters());
+    }
+
+    @Test
+    void testValuesMustMatchColumns() {
+        SqlBuilder builder = SqlBuilder.insertInto("products").columns("id", "name");
+
+        assertThrows(IllegalArgumentException.class, () -> builder.values(1));
+        assertThrows(IllegalStateException.class, () -> SqlBuilder.insertInto("products").values(1));
+    }
+
+    @Test
+    void testSeekAfter() {
+        SqlBuilder.SqlTemplate template = SqlBuilder.select().from("dolt_history_products")
+                .where("id", 7)
+                .seekAfter(List.of("commit_date", "commit_hash"), List.of("2024-01-01", "abc"))
+                .orderByDesc("commit_date", "commit_hash")
+                .limit(100)
+                .build();
+
+        assertEquals("SELECT * FROM dolt_history_products WHERE id = ? AND commit_date <= ? AND "
+                + "(commit_date < ? OR (commit_date = ? AND commit_hash < ?)) "
+                + "ORDER BY commit_date DESC, commit_hash DESC LIMIT ?", template.sql());
+        assertEquals(List.of(7, "2024-01-01", "2024-01-01", "2024-01-01", "abc", 100), template.parameters());
+    }
+
+    @Test
+    void testAsOf() {
+        SqlBuilder.SqlTemplate template = SqlBuilder.select("id", "name")
+                .from("products")
+                .asOf("v1.0")
+                .where("id", 7)
+                .build();
+
+        // 修订版本是第一个绑定参数，位于 WHERE 条件之前
+        assertEquals("SELECT id, name FROM products AS OF ? WHERE id = ?", template.sql());
+        assertEquals(List.of("v1.0", 7), template.parameters());
+
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 1, 12, 0);
+        SqlBuilder.SqlTemplate byTime = SqlBuilder.select().from("products").asOfTimestamp(timestamp).build();
+        assertEquals("SELECT * FROM products AS OF TIMESTAMP(?)", byTime.sql());
+        assertEquals(List.of(timestamp), byTime.parameters());
+
+        assertThrows(IllegalStateException.class, () -> SqlBuilder.deleteFrom("products").asOf("main"));
+        assertThrows(IllegalStateException.class, () -> SqlBuilder.select().fromFunction("dolt_log").asOf("main").build());
+    }
+
+    @Test
+    void testFromRevisionDatabase() {
+        SqlBuilder.SqlTemplate select = SqlBuilder.select()
+                .from("dolt_log")
+                .fromRevisionDatabase("shop", "feature/x")
+                .asOf("HEAD~1")
+                .build();
+        assertEquals("SELECT * FROM `shop/feature/x`.dolt_log AS OF ?", select.sql());
+
+        SqlBuilder.SqlTemplate insert = SqlBuilder.insertInto("products")
+                .fromRevisionDatabase("odd`db", "main")
+                .column("id", 1)
+                .build();
+        assertEquals("INSERT INTO `odd``db/main`.products (id) VALUES (?)", insert.sql());
+
+        assertThrows(IllegalStateException.class, () -> SqlBuilder.callProcedure("dolt_add").fromRevisionDatabase("shop", "main"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.hxuanyu.jdolt.util.mapper;
+
+import com.hxuanyu.jdolt.model.RowSet;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
+import com.hxuanyu.jdolt.model.api.DoltLogInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowMapperPlanTest {
+
+    record BranchRow(String name, String hash, long dirty) {
+    }
+
+    record BrokenRow(String name) {
+        BrokenRow {
+            if (name.equals("broken")) {
+                throw new StackOverflowError();
+            }
+        }
+    }
+
+    @Test
+    void testMapPojoWithUnderscoreColumns() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"h1", "alice", "2024-01-02 03:04:05", "init"});
+        rows.add(new Object[]{"h2", null, null, "second"});
+        RowSet rowSet = new RowSet(new RowSet.Columns("commit_hash", "COMMITTER", "date", "message"), rows);
+
+        List<DoltLogInfo> logs = SqlExecuteResult.success("success", rowSet).toObjectList(DoltLogInfo.class);
+
+        assertEquals(2, logs.size());
+        assertEquals("h1", logs.get(0).getCommitHash());
+        assertEquals("alice", logs.get(0).getCommitter());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), logs.get(0).getDate());
+        assertNull(logs.get(1).getCommitter());
+        assertEquals("second", logs.get(1).getMessage());
+    }
+
+    @Test
+    void testMapRecordWithPrimitiveDefaults() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"main", "abc", 1});
+        rows.add(new Object[]{"dev", "def", null});
+        RowSet rowSet = new RowSet(new RowSet.Columns("name", "hash", "dirty"), rows);
+
+        List<BranchRow> branches = SqlExecuteResult.success("success", rowSet).toObjectList(BranchRow.class);
+
+        assertEquals(List.of(new BranchRow("main", "abc", 1L), new BranchRow("dev", "def", 0L)), branches);
+    }
+
+    @Test
+    void testErrorsAreNotSwallowed() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"broken"});
+        SqlExecuteResult result = SqlExecuteResult.success("success", new RowSet(new RowSet.Columns("name"), rows));
+
+        // 虚拟机错误继续抛出，不会被当作映射失败返回空列表
+        assertThrows(StackOverflowError.class, () -> result.toObjectList(BrokenRow.class));
+    }
+
+    @Test
+    void testPlanIsCached() {
+        assertSame(RowMapperPlan.of(DoltLogInfo.class), RowMapperPlan.of(DoltLogInfo.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.hxuanyu.jdolt.util.validator;
+
+import com.hxuanyu.jdolt.annotation.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodConstraintValidatorTest {
+
+    @MethodInvokeRequiredGroup(value = {"branch", "tag"}, allRequired = false)
+    static class Params {
+        @MethodMutexGroup({"target"})
+        void branch(String name) {
+        }
+
+        @MethodMutexGroup({"target"})
+        void tag(String name) {
+        }
+
+        @MethodDependsOn({"branch", "tag"})
+        void force() {
+        }
+
+        @MethodDependsOn(value = {"branch", "force"}, allRequired = true)
+        void track(String remote) {
+        }
+
+        @MethodAllowGroup({"branch", "tag"})
+        void message(String message) {
+        }
+
+        @MethodInvokeRequired
+        void author(String author) {
+        }
+
+        void verbose() {
+        }
+    }
+
+    static class ExclusiveParams {
+        @MethodExclusive
+        void list() {
+        }
+
+        void all() {
+        }
+    }
+
+    static class ConflictingParams {
+        @MethodExclusive
+        @MethodMutexGroup({"a"})
+        void list() {
+        }
+    }
+
+    @Test
+    void testPlanIsCachedPerClass() {
+        assertSame(ConstraintPlan.of(Params.class), ConstraintPlan.of(Params.class));
+    }
+
+    @Test
+    void testMutexAndDependencies() {
+        MethodConstraintValidator validator = new MethodConstraintValidator(Params.class);
+        assertThrows(IllegalStateException.class, () -> validator.checkAndMark("force"));
+
+        validator.checkAndMark("branch");
+        IllegalStateException mutex = assertThrows(IllegalStateException.class, () -> validator.checkAndMark("tag"));
+        assertTrue(mutex.getMessage().contains("'branch'"));
+        assertTrue(mutex.getMessage().contains("'target'"));
+
+        assertThrows(IllegalStateException.class, () -> validator.checkAndMark("track"));
+        validator.checkAndMark("force");
+        validator.checkAndMark("track");
+    }
+
+    @Test
+    void testAllowGroup() {
+        MethodConstraintValidator allowed = new MethodConstraintValidator(Params.class);
+        allowed.checkAndMark("tag");
+        allowed.checkAndMark("message");
+
+        MethodConstraintValidator untracked = new MethodConstraintValidator(Params.class);
+        untracked.checkAndMark("unknown");
+        assertThrows(IllegalStateException.class, () -> untracked.checkAndMark("message"));
+
+        MethodConstraintValidator outside = new MethodConstraintValidator(Params.class);
+        outside.checkAndMark("verbose");
+        assertThrows(IllegalStateException.class, () -> outside.checkAndMark("message"));
+    }
+
+    @Test
+    void testRequired() {
+        MethodConstraintValidator validator = new MethodConstraintValidator(Params.class);
+        validator.checkAndMark("tag");
+        IllegalStateException missing = assertThrows(IllegalStateException.class, validator::checkRequired);
+        assertTrue(missing.getMessage().contains("'author'"));
+
+        validator.checkAndMark("author");
+        validator.checkRequired();
+
+        MethodConstraintValidator noGroup = new MethodConstraintValidator(Params.class);
+        noGroup.checkAndMark("author");
+        assertThrows(IllegalStateException.class, noGroup::checkRequired);
+    }
+
+    @Test
+    void testExclusive() {
+        MethodConstraintValidator first = new MethodConstraintValidator(ExclusiveParams.class);
+        first.checkAndMark("list");
+        assertThrows(IllegalStateException.class, () -> first.checkAndMark("all"));
+
+        MethodConstraintValidator second = new MethodConstraintValidator(ExclusiveParams.class);
+        second.checkAndMark("all");
+        assertThrows(IllegalStateException.class, () -> second.checkAndMark("list"));
+    }
+
+    @Test
+    void testConflictingAnnotations() {
+        assertThrows(IllegalStateException.class, () -> new MethodConstraintValidator(ConflictingParams.class));
+    }
+}
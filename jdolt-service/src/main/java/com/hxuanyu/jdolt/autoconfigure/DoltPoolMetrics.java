@@ -0,0 +1,88 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ResultCache;
+import com.hxuanyu.jdolt.manager.BranchPoolStats;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 注册分支连接池和查询缓存的指标。主库和副本连接池的指标由 HikariCP 自身注册（{@code hikaricp.*}）。
+ * <ul>
+ *     <li>{@code jdolt.branch.pools}：当前存在的分支池数量</li>
+ *     <li>{@code jdolt.branch.connections}：分支池占用的连接数，{@code state} 标签为 active/idle</li>
+ *     <li>{@code jdolt.branch.connections.max}：分支池合计连接数上限</li>
+ *     <li>{@code jdolt.cache.requests}：缓存请求次数，{@code cache} 标签为 result/head，{@code result} 标签为 hit/miss</li>
+ *     <li>{@code jdolt.cache.size}：缓存的结果估算占用的字节数</li>
+ * </ul>
+ * 缓存在注册后被替换时，指标读取的是管理器上当前的缓存，被关闭的缓存读数为 0。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class DoltPoolMetrics implements MeterBinder {
+    private final DoltConnectionManager connectionManager;
+
+    public DoltPoolMetrics(DoltConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jdolt.branch.pools", connectionManager, manager -> manager.getBranchPoolStats().size())
+                .description("当前存在的分支连接池数量")
+                .register(registry);
+        Gauge.builder("jdolt.branch.connections", connectionManager,
+                        manager -> manager.getBranchPoolStats().stream().mapToInt(BranchPoolStats::active).sum())
+                .description("分支连接池占用的连接数")
+                .tag("state", "active")
+                .register(registry);
+        Gauge.builder("jdolt.branch.connections", connectionManager,
+                        manager -> manager.getBranchPoolStats().stream().mapToInt(BranchPoolStats::idle).sum())
+                .description("分支连接池占用的连接数")
+                .tag("state", "idle")
+                .register(registry);
+        Gauge.builder("jdolt.branch.connections.max", connectionManager,
+                        manager -> manager.getBranchPools().getConfig().getMaxTotalConnections())
+                .description("分支连接池合计连接数上限")
+                .register(registry);
+
+        bindCache(registry, "result", manager -> manager.getResultCache() == null ? null : manager.getResultCache().getStats());
+        bindCache(registry, "head", manager -> {
+            HeadValidatedCache cache = manager.getHeadCache();
+            return cache == null ? null : cache.getStats().results();
+        });
+    }
+
+    private void bindCache(MeterRegistry registry, String name,
+                           Function<DoltConnectionManager, ResultCache.Stats> stats) {
+        FunctionCounter.builder("jdolt.cache.requests", connectionManager,
+                        statValue(stats, ResultCache.Stats::hitCount))
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("jdolt.cache.requests", connectionManager,
+                        statValue(stats, ResultCache.Stats::missCount))
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        Gauge.builder("jdolt.cache.size", connectionManager, statValue(stats, ResultCache.Stats::weight))
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static ToDoubleFunction<DoltConnectionManager> statValue(
+            Function<DoltConnectionManager, ResultCache.Stats> stats,
+            ToLongFunction<ResultCache.Stats> value) {
+        return manager -> {
+            ResultCache.Stats current = stats.apply(manager);
+            return current == null ? 0d : value.applyAsLong(current);
+        };
+    }
+}
@@ -0,0 +1,238 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ResultCache;
+import com.hxuanyu.jdolt.config.BranchPoolConfig;
+import com.hxuanyu.jdolt.config.DoltConfig;
+import com.hxuanyu.jdolt.core.api.DoltClient;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * jdolt 自动配置。
+ * <p>
+ * 上下文中没有 {@link DataSource} 时按 {@link JDoltProperties} 创建主库 HikariCP 连接池：
+ * 连接池大小为 {@code jdolt.pool.size} 加上分支池的连接总数上限，分支连接都从主库连接池借出，
+ * 这样分支池占满时普通操作仍有 {@code jdolt.pool.size} 个连接可用，异步操作的并发上限也取该值。
+ * 默认的驱动参数开启预编译语句缓存和批量改写，以适配 Dolt 的点查与批量写入。
+ * 配置了 {@code jdolt.replica.urls} 时为每个副本创建只读连接池（{@link ReplicaDataSources}），
+ * 表函数、信息函数和系统表的查询按 {@code jdolt.replica.strategy} 路由到副本。
+ * <p>
+ * 上下文中存在 Micrometer 的 {@link MeterRegistry} 时，注册连接池（{@code hikaricp.*}）、
+ * 分支池与缓存（{@link DoltPoolMetrics}）以及每个 Dolt 操作（{@link MicrometerDoltMetrics}）的指标。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass({DoltClient.class, HikariDataSource.class})
+@ConditionalOnProperty(prefix = "jdolt", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(JDoltProperties.class)
+public class JDoltAutoConfiguration {
+    /**
+     * 默认的 MySQL Connector/J 参数，可以通过 {@code jdolt.properties} 覆盖
+     */
+    public static final Map<String, String> DEFAULT_DRIVER_PROPERTIES;
+
+    static {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("useServerPrepStmts", "true");
+        properties.put("cachePrepStmts", "true");
+        properties.put("prepStmtCacheSize", "250");
+        properties.put("prepStmtCacheSqlLimit", "2048");
+        properties.put("cacheResultSetMetadata", "true");
+        properties.put("cacheServerConfiguration", "true");
+        properties.put("rewriteBatchedStatements", "true");
+        properties.put("maintainTimeStats", "false");
+        properties.put("tcpKeepAlive", "true");
+        DEFAULT_DRIVER_PROPERTIES = Collections.unmodifiableMap(properties);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(JDoltAutoConfiguration.class);
+
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean(DataSource.class)
+    public HikariDataSource dataSource(JDoltProperties properties, ObjectProvider<DataSourceProperties> springDataSource) {
+        DoltConfig config = doltConfig(properties, springDataSource.getIfAvailable());
+        int maximumPoolSize = maximumPoolSize(properties);
+        logger.info("创建 Dolt 连接池 {}，连接数上限 {}（普通操作 {}，分支池 {}）", properties.getPool().getPoolName(),
+                maximumPoolSize, config.getConnectionPoolSize(), properties.getBranchPool().getMaxTotalConnections());
+        return createDataSource(config, properties.getPool(), maximumPoolSize, properties.getPool().getPoolName(), false);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaDataSources replicaDataSources(JDoltProperties properties, ObjectProvider<DataSourceProperties> springDataSource) {
+        JDoltProperties.Replica replica = properties.getReplica();
+        if (replica.getUrls().isEmpty()) {
+            return new ReplicaDataSources(List.of());
+        }
+        DoltConfig primary = doltConfig(properties, springDataSource.getIfAvailable());
+        int poolSize = replica.getPoolSize() == null ? primary.getConnectionPoolSize() : replica.getPoolSize();
+        List<HikariDataSource> dataSources = new ArrayList<>(replica.getUrls().size());
+        for (int i = 0; i < replica.getUrls().size(); i++) {
+            DoltConfig config = DoltConfig.newBuilder()
+                    .jdbcUrl(replica.getUrls().get(i))
+                    .username(replica.getUsername() == null ? primary.getUsername() : replica.getUsername())
+                    .password(replica.getPassword() == null ? primary.getPassword() : replica.getPassword())
+                    .connectionPoolSize(poolSize)
+                    .addProperties(primary.getProperties())
+                    .build();
+            String poolName = properties.getPool().getPoolName() + "-replica-" + i;
+            dataSources.add(createDataSource(config, properties.getPool(), poolSize, poolName, true));
+        }
+        return new ReplicaDataSources(dataSources);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DoltClient doltClient(DataSource dataSource, JDoltProperties properties,
+                                 ObjectProvider<ReplicaDataSources> replicaDataSources) {
+        DoltClient client = DoltClient.initialize(dataSource, branchPoolConfig(properties.getBranchPool()));
+        JDoltProperties.Cache cache = properties.getCache();
+        client.setResultCache(cache.isResultEnabled() ? new ResultCache(cache.getResultMaxWeight()) : null);
+        client.setHeadCache(cache.isHeadEnabled()
+                ? new HeadValidatedCache(cache.getHeadMaxWeight(), cache.getHeadTrustWindow()) : null);
+        // 连接池中为分支池预留了连接，异步并发只使用普通操作的份额，而不是按连接池总大小计算
+        client.versionControl().getConnectionManager()
+                .setAsyncExecutor(DoltAsyncExecutor.create(properties.getPool().getSize()));
+        ReplicaDataSources replicas = replicaDataSources.getIfAvailable();
+        if (replicas != null && !replicas.isEmpty()) {
+            client.setReplicaRouter(new ReplicaRouter(replicas.getDataSources(), properties.getReplica().getStrategy()));
+        }
+        return client;
+    }
+
+    /**
+     * 连接池总大小：普通操作的连接数加上分支池的连接总数上限
+     *
+     * @param properties 配置
+     * @return 连接池大小
+     */
+    static int maximumPoolSize(JDoltProperties properties) {
+        return properties.getPool().getSize() + properties.getBranchPool().getMaxTotalConnections();
+    }
+
+    static DoltConfig doltConfig(JDoltProperties properties, DataSourceProperties springDataSource) {
+        return DoltConfig.newBuilder()
+                .jdbcUrl(firstNonNull(properties.getUrl(), springDataSource == null ? null : springDataSource.getUrl()))
+                .username(firstNonNull(properties.getUsername(), springDataSource == null ? null : springDataSource.getUsername()))
+                .password(firstNonNull(properties.getPassword(), springDataSource == null ? null : springDataSource.getPassword()))
+                .connectionPoolSize(properties.getPool().getSize())
+                .addProperties(DEFAULT_DRIVER_PROPERTIES)
+                .addProperties(properties.getProperties())
+                .build();
+    }
+
+    static BranchPoolConfig branchPoolConfig(JDoltProperties.BranchPool branchPool) {
+        return BranchPoolConfig.newBuilder()
+                .maxPools(branchPool.getMaxPools())
+                // 关闭分支池时不保留空闲的分支连接，每次都重新切换分支
+                .maxIdlePerPool(branchPool.isEnabled() ? branchPool.getMaxIdlePerPool() : 0)
+                .maxTotalConnections(branchPool.getMaxTotalConnections())
+                .idleTimeout(branchPool.getIdleTimeout())
+                .acquireTimeout(branchPool.getAcquireTimeout())
+                .build();
+    }
+
+    /**
+     * 按配置创建连接池。连接池在第一次获取连接时才建立连接，创建本身不访问数据库
+     */
+    static HikariDataSource createDataSource(DoltConfig config, JDoltProperties.Pool pool, int maximumPoolSize,
+                                             String poolName, boolean readOnly) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(config.getJdbcUrl());
+        dataSource.setUsername(config.getUsername());
+        dataSource.setPassword(config.getPassword());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(pool.getMinimumIdle() == null
+                ? maximumPoolSize : Math.min(pool.getMinimumIdle(), maximumPoolSize));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        dataSource.setKeepaliveTime(pool.getKeepaliveTime().toMillis());
+        dataSource.setReadOnly(readOnly);
+        config.getProperties().forEach(dataSource::addDataSourceProperty);
+        return dataSource;
+    }
+
+    private static String firstNonNull(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Micrometer 指标配置
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "jdolt.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class MetricsConfiguration {
+
+        /**
+         * 在连接池第一次建立连接之前设置指标注册表，已经设置过注册表的连接池保持不变
+         */
+        @Bean
+        static BeanPostProcessor jdoltPoolMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                               ObjectProvider<JDoltProperties> properties) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof HikariDataSource dataSource) {
+                        bind(dataSource);
+                    } else if (bean instanceof ReplicaDataSources replicas) {
+                        replicas.getDataSources().forEach(this::bind);
+                    }
+                    return bean;
+                }
+
+                private void bind(DataSource dataSource) {
+                    if (!(dataSource instanceof HikariDataSource hikari) || hikari.getMetricRegistry() != null
+                            || hikari.isRunning() || !isJDoltPool(hikari)) {
+                        return;
+                    }
+                    meterRegistry.ifAvailable(hikari::setMetricRegistry);
+                }
+
+                private boolean isJDoltPool(HikariDataSource hikari) {
+                    String poolName = properties.getObject().getPool().getPoolName();
+                    return hikari.getPoolName() != null && hikari.getPoolName().startsWith(poolName);
+                }
+            };
+        }
+
+        @Bean
+        SmartInitializingSingleton jdoltMetricsBinder(DoltClient doltClient, JDoltProperties properties,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+            return () -> meterRegistry.ifAvailable(registry -> {
+                doltClient.setMetrics(new MicrometerDoltMetrics(registry, properties.getMetrics().isBranchTag()));
+                new DoltPoolMetrics(doltClient.versionControl().getConnectionManager()).bindTo(registry);
+            });
+        }
+    }
+}
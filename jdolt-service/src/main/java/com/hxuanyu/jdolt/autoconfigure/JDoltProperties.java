@@ -0,0 +1,213 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import com.hxuanyu.jdolt.cache.HeadValidatedCache;
+import com.hxuanyu.jdolt.cache.ResultCache;
+import com.hxuanyu.jdolt.manager.ReplicaRouter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * jdolt 配置项，前缀为 {@code jdolt}。
+ * <p>
+ * 未配置 {@code jdolt.url}、{@code jdolt.username}、{@code jdolt.password} 时使用
+ * {@code spring.datasource} 中对应的值。
+ *
+ * <pre>
+ * jdolt:
+ *   url: jdbc:mysql://localhost:3306/testDatabase
+ *   username: root
+ *   password: secret
+ *   pool:
+ *     size: 16
+ *   branch-pool:
+ *     max-total-connections: 8
+ *   replica:
+ *     urls:
+ *       - jdbc:mysql://replica-1:3306/testDatabase
+ * </pre>
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "jdolt")
+public class JDoltProperties {
+
+    /**
+     * 是否启用自动配置
+     */
+    private boolean enabled = true;
+
+    /**
+     * 主库 JDBC URL
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * 驱动参数，覆盖 {@link JDoltAutoConfiguration#DEFAULT_DRIVER_PROPERTIES} 中的同名参数
+     */
+    private Map<String, String> properties = new LinkedHashMap<>();
+
+    private final Pool pool = new Pool();
+
+    private final BranchPool branchPool = new BranchPool();
+
+    private final Replica replica = new Replica();
+
+    private final Cache cache = new Cache();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Web web = new Web();
+
+    /**
+     * 主库连接池配置
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 普通（不固定分支）操作可同时使用的连接数，也是异步操作的并发上限。
+         * 连接池的总大小为该值加上分支池的连接总数上限
+         */
+        private int size = 10;
+
+        /**
+         * 保持的最小空闲连接数，为空时与连接池大小相同（固定大小的连接池）
+         */
+        private Integer minimumIdle;
+
+        private Duration connectionTimeout = Duration.ofSeconds(10);
+
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * 连接的最长存活时间，应小于 Dolt sql-server 的 {@code wait_timeout}
+         */
+        private Duration maxLifetime = Duration.ofMinutes(30);
+
+        private Duration keepaliveTime = Duration.ofMinutes(5);
+
+        private String poolName = "jdolt";
+    }
+
+    /**
+     * 分支连接池配置，对应 {@link com.hxuanyu.jdolt.config.BranchPoolConfig}
+     */
+    @Data
+    public static class BranchPool {
+
+        /**
+         * 是否保留分支连接以便复用，关闭时每次获取分支连接都重新切换分支，用完即归还主库连接池
+         */
+        private boolean enabled = true;
+
+        private int maxPools = 64;
+
+        private int maxIdlePerPool = 2;
+
+        private int maxTotalConnections = 8;
+
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 只读副本配置，每个 URL 对应一个只读连接池
+     */
+    @Data
+    public static class Replica {
+
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * 副本用户名，为空时使用主库的用户名
+         */
+        private String username;
+
+        /**
+         * 副本密码，为空时使用主库的密码
+         */
+        private String password;
+
+        /**
+         * 每个副本连接池的大小，为空时与主库的 {@code pool.size} 相同
+         */
+        private Integer poolSize;
+
+        /**
+         * 副本选择策略
+         */
+        private ReplicaRouter.Strategy strategy = ReplicaRouter.Strategy.ROUND_ROBIN;
+    }
+
+    /**
+     * 查询缓存配置
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否缓存按提交哈希等不可变条件执行的查询
+         */
+        private boolean resultEnabled = true;
+
+        private long resultMaxWeight = ResultCache.DEFAULT_MAX_WEIGHT;
+
+        /**
+         * 是否按引用状态缓存 dolt_log、dolt_commits 等读取，开启后每次读取前多一次状态查询，默认关闭
+         */
+        private boolean headEnabled = false;
+
+        private long headMaxWeight = ResultCache.DEFAULT_MAX_WEIGHT;
+
+        /**
+         * 已验证的引用状态的信任时长，为 0 时每次读取前都执行状态查询
+         */
+        private Duration headTrustWindow = HeadValidatedCache.DEFAULT_TRUST_WINDOW;
+    }
+
+    /**
+     * 指标配置，需要上下文中存在 Micrometer 的 {@code MeterRegistry}
+     */
+    @Data
+    public static class Metrics {
+
+        private boolean enabled = true;
+
+        /**
+         * 操作指标是否带分支标签，默认关闭：每个分支注册的指标不会移除，短期分支较多时指标数量会持续增长
+         */
+        private boolean branchTag = false;
+    }
+
+    /**
+     * 流式查询接口配置
+     */
+    @Data
+    public static class Web {
+
+        private boolean enabled = true;
+
+        /**
+         * 单次请求最多返回的行数，请求的 limit 超过该值时按该值截断，为 0 时不限制
+         */
+        private int maxLimit = 100_000;
+
+        /**
+         * 每写出多少行刷新一次响应，使客户端尽早收到数据
+         */
+        private int flushRows = 100;
+    }
+}
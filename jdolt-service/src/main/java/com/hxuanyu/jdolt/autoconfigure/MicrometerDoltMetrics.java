@@ -0,0 +1,89 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import com.hxuanyu.jdolt.metrics.DoltMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将 Dolt 操作指标注册到 Micrometer 的 {@link DoltMetrics} 实现。
+ * <p>
+ * 每个（操作名称，分支）组合对应以下指标，标签为 {@code operation}、{@code branch}：
+ * <ul>
+ *     <li>{@code jdolt.operation}：操作耗时，额外带 {@code outcome} 标签（success/failure）</li>
+ *     <li>{@code jdolt.operation.rows}：成功操作读取或影响的行数</li>
+ *     <li>{@code jdolt.operation.active}：正在执行的操作</li>
+ * </ul>
+ * 指标在第一次出现对应组合时注册并缓存，采样路径上不再查找注册表，注册后不会移除，
+ * 因此带分支标签只适合分支数量有限的场景。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class MicrometerDoltMetrics implements DoltMetrics {
+    private static final String NO_BRANCH = "none";
+
+    private final MeterRegistry registry;
+    private final boolean branchTag;
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry  指标注册表
+     * @param branchTag 是否带分支标签，为 false 时所有分支的同名操作合并统计
+     */
+    public MicrometerDoltMetrics(MeterRegistry registry, boolean branchTag) {
+        if (registry == null) {
+            throw new IllegalArgumentException("registry 不能为空");
+        }
+        this.registry = registry;
+        this.branchTag = branchTag;
+    }
+
+    @Override
+    public Sample start(String operation, String branch) {
+        Key key = new Key(operation == null ? "unknown" : operation,
+                !branchTag || branch == null ? NO_BRANCH : branch);
+        Meters meter = meters.computeIfAbsent(key, this::register);
+        LongTaskTimer.Sample active = meter.active.start();
+        long startNanos = System.nanoTime();
+        return new Sample() {
+            @Override
+            public void success(long rows) {
+                active.stop();
+                meter.success.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                meter.rows.record(rows);
+            }
+
+            @Override
+            public void failure(Throwable error) {
+                active.stop();
+                meter.failure.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private Meters register(Key key) {
+        Tags tags = Tags.of("operation", key.operation(), "branch", key.branch());
+        return new Meters(
+                Timer.builder("jdolt.operation").description("Dolt 操作耗时")
+                        .tags(tags).tag("outcome", "success").register(registry),
+                Timer.builder("jdolt.operation").description("Dolt 操作耗时")
+                        .tags(tags).tag("outcome", "failure").register(registry),
+                DistributionSummary.builder("jdolt.operation.rows").description("Dolt 操作读取或影响的行数")
+                        .baseUnit("rows").tags(tags).register(registry),
+                LongTaskTimer.builder("jdolt.operation.active").description("正在执行的 Dolt 操作")
+                        .tags(tags).register(registry));
+    }
+
+    private record Key(String operation, String branch) {
+    }
+
+    private record Meters(Timer success, Timer failure, DistributionSummary rows, LongTaskTimer active) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 只读副本数据源，每个副本对应一个只读连接池。
+ * <p>
+ * 副本不注册为 {@link DataSource} 类型的 bean，避免与主库数据源竞争依赖注入，
+ * 需要读写分离的组件注入本类后自行选择副本。上下文关闭时关闭所有副本连接池。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class ReplicaDataSources implements AutoCloseable {
+    private final List<DataSource> dataSources;
+
+    public ReplicaDataSources(List<? extends DataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    public boolean isEmpty() {
+        return dataSources.isEmpty();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.hxuanyu.jdolt.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hxuanyu.jdolt.autoconfigure.JDoltProperties;
+import com.hxuanyu.jdolt.core.api.CommonSqlExecutor;
+import com.hxuanyu.jdolt.core.api.DoltClient;
+import com.hxuanyu.jdolt.exception.DoltException;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.model.WhereCondition;
+import com.hxuanyu.jdolt.repository.DoltCursor;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dolt 历史数据的流式查询接口。
+ * <p>
+ * 查询以流式游标执行，结果行从 ResultSet 读出后立即写入响应（{@link RowStreamWriter}），
+ * 服务端不缓存整个结果集。所有接口都支持以下参数：
+ * <ul>
+ *     <li>{@code filter}：过滤条件，可重复，格式见 {@link QueryFilters}</li>
+ *     <li>{@code columns}：要返回的列，逗号分隔或重复，为空时返回全部列</li>
+ *     <li>{@code limit}：最多返回的行数，不能超过 {@code jdolt.web.max-limit}</li>
+ *     <li>{@code format}：{@code ndjson}（默认）或 {@code json}</li>
+ * </ul>
+ * 参数错误在开始流式输出之前返回 400；查询在响应体中执行，此时还未写出数据，执行失败交给异常处理返回错误状态，
+ * 开始写出后的错误见 {@link RowStreamWriter}。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/dolt")
+@ConditionalOnProperty(prefix = "jdolt.web", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DoltStreamController {
+    private static final Logger logger = LoggerFactory.getLogger(DoltStreamController.class);
+
+    private final DoltClient doltClient;
+    private final JDoltProperties.Web web;
+    private final RowStreamWriter writer;
+
+    public DoltStreamController(DoltClient doltClient, ObjectProvider<JDoltProperties> properties, ObjectMapper objectMapper) {
+        this.doltClient = doltClient;
+        // 关闭自动配置（jdolt.enabled=false）时没有配置项 bean，使用默认配置
+        this.web = properties.getIfAvailable(JDoltProperties::new).getWeb();
+        this.writer = new RowStreamWriter(objectMapper, web.getFlushRows());
+    }
+
+    /**
+     * 提交日志：{@code dolt_log([revision])}
+     */
+    @GetMapping("/log")
+    public ResponseEntity<StreamingResponseBody> log(@RequestParam(required = false) String revision,
+                                                     @RequestParam(required = false) List<String> filter,
+                                                     @RequestParam(required = false) List<String> columns,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String format) {
+        SqlBuilder builder = SqlBuilder.select(QueryFilters.columns(columns)).fromFunction("dolt_log");
+        if (revision != null && !revision.isBlank()) {
+            builder.withParam(revision);
+        }
+        return stream(rootManager(), builder, filter, limit, format);
+    }
+
+    /**
+     * 表在两个修订版本之间的行级差异：{@code dolt_diff(from, to, table)}
+     */
+    @GetMapping("/diff")
+    public ResponseEntity<StreamingResponseBody> diff(@RequestParam String from,
+                                                      @RequestParam String to,
+                                                      @RequestParam String table,
+                                                      @RequestParam(required = false) List<String> filter,
+                                                      @RequestParam(required = false) List<String> columns,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String format) {
+        SqlBuilder builder = SqlBuilder.select(QueryFilters.columns(columns)).fromFunction("dolt_diff")
+                .withParams(from, to, table);
+        return stream(rootManager(), builder, filter, limit, format);
+    }
+
+    /**
+     * 两个修订版本之间的 SQL 补丁：{@code dolt_patch(from, to[, table])}
+     */
+    @GetMapping("/patch")
+    public ResponseEntity<StreamingResponseBody> patch(@RequestParam String from,
+                                                       @RequestParam String to,
+                                                       @RequestParam(required = false) String table,
+                                                       @RequestParam(required = false) List<String> filter,
+                                                       @RequestParam(required = false) List<String> columns,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String format) {
+        SqlBuilder builder = SqlBuilder.select(QueryFilters.columns(columns)).fromFunction("dolt_patch")
+                .withParams(from, to);
+        if (table != null && !table.isBlank()) {
+            builder.withParam(table);
+        }
+        return stream(rootManager(), builder, filter, limit, format);
+    }
+
+    /**
+     * 每一行当前值的最后修改提交：{@code dolt_blame_$table}，在指定分支上读取
+     */
+    @GetMapping("/blame/{table}")
+    public ResponseEntity<StreamingResponseBody> blame(@PathVariable String table,
+                                                       @RequestParam(required = false) String branch,
+                                                       @RequestParam(required = false) List<String> filter,
+                                                       @RequestParam(required = false) List<String> columns,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String format) {
+        SqlBuilder builder = SqlBuilder.select(QueryFilters.columns(columns))
+                .from("dolt_blame_" + QueryFilters.identifier(table));
+        DoltConnectionManager manager = branch == null || branch.isBlank() ? rootManager() : rootManager().forBranch(branch);
+        return stream(manager, builder, filter, limit, format);
+    }
+
+    /**
+     * 分支列表：{@code dolt_branches}
+     */
+    @GetMapping("/branches")
+    public ResponseEntity<StreamingResponseBody> branches(@RequestParam(required = false) List<String> filter,
+                                                          @RequestParam(required = false) List<String> columns,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String format) {
+        SqlBuilder builder = SqlBuilder.select(QueryFilters.columns(columns)).from("dolt_branches");
+        return stream(rootManager(), builder, filter, limit, format);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(DoltException.class)
+    public ResponseEntity<Map<String, String>> handleDoltException(DoltException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(DoltConnectionManager manager, SqlBuilder builder,
+                                                         List<String> filters, Integer limit, String format) {
+        RowFormat rowFormat = RowFormat.of(format);
+        for (WhereCondition condition : QueryFilters.parse(filters)) {
+            builder.where(condition);
+        }
+        Integer effectiveLimit = effectiveLimit(limit, web.getMaxLimit());
+        if (effectiveLimit != null) {
+            builder.limit(effectiveLimit);
+        }
+        // 参数在返回响应之前校验并生成 SQL，错误映射为 400；游标在响应体内打开，响应体未执行时不会占用连接
+        SqlBuilder.SqlTemplate template = builder.build();
+        CommonSqlExecutor executor = CommonSqlExecutor.getInstance(manager);
+        StreamingResponseBody body = out -> {
+            try (DoltCursor cursor = executor.executeQueryAsCursor(template)) {
+                long rows = writer.write(rowFormat, cursor.getColumnNames(), values(cursor), out);
+                logger.debug("streamed {} rows", rows);
+            }
+        };
+        return ResponseEntity.ok().contentType(rowFormat.getMediaType()).body(body);
+    }
+
+    /**
+     * 实际使用的 limit：请求的 limit 不能超过上限，未指定时使用上限
+     *
+     * @param requested 请求的 limit，可以为 null
+     * @param maxLimit  上限，为 0 时不限制
+     * @return limit，为 null 时不限制
+     */
+    static Integer effectiveLimit(Integer requested, int maxLimit) {
+        if (requested != null && requested <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        if (maxLimit <= 0) {
+            return requested;
+        }
+        return requested == null ? maxLimit : Math.min(requested, maxLimit);
+    }
+
+    private DoltConnectionManager rootManager() {
+        return doltClient.versionControl().getConnectionManager();
+    }
+
+    private static Iterator<Object[]> values(DoltCursor cursor) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return cursor.nextValues();
+            }
+        };
+    }
+}
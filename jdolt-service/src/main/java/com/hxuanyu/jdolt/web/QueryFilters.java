@@ -0,0 +1,105 @@
+package com.hxuanyu.jdolt.web;
+
+import com.hxuanyu.jdolt.model.WhereCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 解析流式接口的 {@code filter} 与 {@code columns} 请求参数。
+ * <p>
+ * 每个 {@code filter} 形如 {@code column<op>value}，操作符为 {@code =}、{@code !=}、{@code >=}、{@code <=}、
+ * {@code >}、{@code <}，以及表示 LIKE 的 {@code ~}，例如 {@code committer=alice}、{@code message~%fix%}。
+ * 列名直接拼接到 SQL 中，只允许字母、数字和下划线；值作为绑定参数传递。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public final class QueryFilters {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * 按匹配优先级排列，两个字符的操作符在前
+     */
+    private static final String[] OPERATORS = {"!=", ">=", "<=", "=", ">", "<", "~"};
+
+    private QueryFilters() {
+    }
+
+    /**
+     * 解析过滤条件
+     *
+     * @param filters 请求参数，可以为 null
+     * @return WHERE 条件
+     */
+    public static List<WhereCondition> parse(List<String> filters) {
+        List<WhereCondition> conditions = new ArrayList<>();
+        if (filters == null) {
+            return conditions;
+        }
+        for (String filter : filters) {
+            conditions.add(parse(filter));
+        }
+        return conditions;
+    }
+
+    static WhereCondition parse(String filter) {
+        int index = -1;
+        String operator = null;
+        for (int i = 0; i < filter.length() && operator == null; i++) {
+            for (String candidate : OPERATORS) {
+                if (filter.startsWith(candidate, i)) {
+                    index = i;
+                    operator = candidate;
+                    break;
+                }
+            }
+        }
+        if (operator == null) {
+            throw new IllegalArgumentException("invalid filter: " + filter + ", expected column<op>value");
+        }
+        String column = identifier(filter.substring(0, index).trim());
+        String value = filter.substring(index + operator.length());
+        return new WhereCondition(column, operator(operator), value);
+    }
+
+    /**
+     * 校验列名或表名
+     *
+     * @param name 名称
+     * @return 原名称
+     */
+    public static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("invalid identifier: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * 校验要返回的列，为空时返回空数组，表示返回全部列
+     *
+     * @param columns 请求参数，可以为 null
+     * @return 列名
+     */
+    public static String[] columns(List<String> columns) {
+        if (columns == null) {
+            return new String[0];
+        }
+        return columns.stream().map(String::trim).filter(column -> !column.isEmpty())
+                .map(QueryFilters::identifier).toArray(String[]::new);
+    }
+
+    private static WhereCondition.Operator operator(String symbol) {
+        return switch (symbol) {
+            case "!=" -> WhereCondition.Operator.NOT_EQUALS;
+            case ">=" -> WhereCondition.Operator.GREATER_THAN_OR_EQUAL;
+            case "<=" -> WhereCondition.Operator.LESS_THAN_OR_EQUAL;
+            case ">" -> WhereCondition.Operator.GREATER_THAN;
+            case "<" -> WhereCondition.Operator.LESS_THAN;
+            case "~" -> WhereCondition.Operator.LIKE;
+            default -> WhereCondition.Operator.EQUALS;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.hxuanyu.jdolt.web;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * 流式接口的响应格式
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public enum RowFormat {
+    /**
+     * 每行一个 JSON 对象，以换行分隔（{@code application/x-ndjson}）
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    /**
+     * 单个 JSON 文档：{@code {"columns":[...],"rows":[[...],...],"rowCount":n}}，行以数组表示，分块写出
+     */
+    JSON(MediaType.APPLICATION_JSON);
+
+    private final MediaType mediaType;
+
+    RowFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 按请求参数解析格式，忽略大小写，为空时使用 NDJSON
+     *
+     * @param value 请求参数
+     * @return 响应格式
+     */
+    public static RowFormat of(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported format: " + value + ", expected ndjson or json");
+        }
+    }
+}
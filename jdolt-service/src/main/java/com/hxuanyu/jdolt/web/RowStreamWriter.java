@@ -0,0 +1,123 @@
+package com.hxuanyu.jdolt.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * 将查询结果逐行写为 NDJSON 或 JSON。
+ * <p>
+ * 每读取一行就写出一行，每 {@code flushRows} 行刷新一次输出流，内存中不保留已写出的行。
+ * 开始写出后响应状态已经提交，读取过程中出现的错误以 {@code error} 字段写在响应末尾：
+ * NDJSON 为最后一行 {@code {"error":"..."}}，JSON 为文档中与 {@code rows} 同级的 {@code error} 字段。
+ *
+ * @author hanxuanyu
+ * @version 1.0
+ */
+public class RowStreamWriter {
+    private static final Logger logger = LoggerFactory.getLogger(RowStreamWriter.class);
+
+    private final ObjectMapper objectMapper;
+    private final int flushRows;
+
+    /**
+     * @param objectMapper 序列化列值使用的 ObjectMapper
+     * @param flushRows    每写出多少行刷新一次输出流
+     */
+    public RowStreamWriter(ObjectMapper objectMapper, int flushRows) {
+        if (flushRows <= 0) {
+            throw new IllegalArgumentException("flushRows must be greater than 0");
+        }
+        this.objectMapper = objectMapper;
+        this.flushRows = flushRows;
+    }
+
+    /**
+     * 写出所有行，输出流由调用方关闭
+     *
+     * @param format  响应格式
+     * @param columns 列名
+     * @param rows    按列顺序排列的行数据
+     * @param out     输出流
+     * @return 写出的行数
+     * @throws IOException 写出失败，通常是客户端断开了连接
+     */
+    public long write(RowFormat format, String[] columns, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // 输出流属于容器，由调用方关闭
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // NDJSON 的行之间只用换行分隔，不使用默认的空格分隔符
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        if (format == RowFormat.JSON) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("columns");
+            for (String column : columns) {
+                generator.writeString(column);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("rows");
+        }
+        RuntimeException failure = null;
+        try {
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                if (format == RowFormat.JSON) {
+                    writeArray(generator, row);
+                } else {
+                    writeObject(generator, columns, row);
+                    generator.writeRaw('\n');
+                }
+                if (++count % flushRows == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("stream rows failed after {} rows", count, e);
+            failure = e;
+        }
+        if (format == RowFormat.JSON) {
+            generator.writeEndArray();
+            generator.writeNumberField("rowCount", count);
+            if (failure != null) {
+                generator.writeStringField("error", message(failure));
+            }
+            generator.writeEndObject();
+        } else if (failure != null) {
+            generator.writeStartObject();
+            generator.writeStringField("error", message(failure));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.close();
+        return count;
+    }
+
+    private void writeObject(JsonGenerator generator, String[] columns, Object[] row) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            generator.writeFieldName(columns[i]);
+            generator.writeObject(row[i]);
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeArray(JsonGenerator generator, Object[] row) throws IOException {
+        generator.writeStartArray();
+        for (Object value : row) {
+            generator.writeObject(value);
+        }
+        generator.writeEndArray();
+    }
+
+    private static String message(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+}
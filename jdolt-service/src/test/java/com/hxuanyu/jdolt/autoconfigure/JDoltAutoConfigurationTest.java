@@ -0,0 +1,109 @@
+package com.hxuanyu.jdolt.autoconfigure;
+
+import com.hxuanyu.jdolt.core.api.DoltClient;
+import com.hxuanyu.jdolt.manager.DoltAsyncExecutor;
+import com.hxuanyu.jdolt.manager.DoltConnectionManager;
+import com.hxuanyu.jdolt.manager.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自动配置测试，连接池在第一次获取连接时才访问数据库，因此不需要可用的 Dolt 服务
+ */
+class JDoltAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JDoltAutoConfiguration.class))
+            .withPropertyValues(
+                    "jdolt.url=jdbc:mysql://localhost:3306/testDatabase",
+                    "jdolt.username=root",
+                    "jdolt.password=secret");
+
+    @Test
+    void testSizesPoolForBranchConnections() {
+        runner.withPropertyValues("jdolt.pool.size=6", "jdolt.branch-pool.max-total-connections=4",
+                        "jdolt.properties.prepStmtCacheSize=500")
+                .run(context -> {
+                    HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+                    assertEquals(10, dataSource.getMaximumPoolSize());
+                    assertEquals(10, dataSource.getMinimumIdle());
+                    assertFalse(dataSource.isRunning());
+                    assertEquals("true", dataSource.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+                    assertEquals("500", dataSource.getDataSourceProperties().getProperty("prepStmtCacheSize"));
+
+                    DoltConnectionManager manager = context.getBean(DoltClient.class).versionControl().getConnectionManager();
+                    assertEquals(4, manager.getBranchPools().getConfig().getMaxTotalConnections());
+                    assertEquals(6, ((DoltAsyncExecutor) manager.getAsyncExecutor()).getMaxConcurrency());
+                    assertTrue(context.getBean(ReplicaDataSources.class).isEmpty());
+                    assertNull(manager.getReplicaRouter());
+                });
+    }
+
+    @Test
+    void testReplicaPoolsAreReadOnly() {
+        runner.withPropertyValues("jdolt.replica.urls[0]=jdbc:mysql://replica-1:3306/testDatabase",
+                        "jdolt.replica.urls[1]=jdbc:mysql://replica-2:3306/testDatabase",
+                        "jdolt.replica.pool-size=3",
+                        "jdolt.replica.strategy=least-loaded")
+                .run(context -> {
+                    ReplicaDataSources replicas = context.getBean(ReplicaDataSources.class);
+                    assertEquals(2, replicas.getDataSources().size());
+                    HikariDataSource replica = (HikariDataSource) replicas.getDataSources().get(1);
+                    assertTrue(replica.isReadOnly());
+                    assertEquals(3, replica.getMaximumPoolSize());
+                    assertEquals("jdolt-replica-1", replica.getPoolName());
+                    assertEquals("secret", replica.getPassword());
+                    // 副本不作为 DataSource 注册，主库仍是唯一的 DataSource
+                    assertEquals(1, context.getBeansOfType(DataSource.class).size());
+
+                    ReplicaRouter router = context.getBean(DoltClient.class).versionControl().getConnectionManager().getReplicaRouter();
+                    assertEquals(ReplicaRouter.Strategy.LEAST_LOADED, router.getStrategy());
+                    assertEquals(replicas.getDataSources(), router.getReplicas());
+                });
+    }
+
+    @Test
+    void testRegistersMetricsWithMeterRegistry() {
+        runner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> {
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertSame(registry, context.getBean(HikariDataSource.class).getMetricRegistry());
+                    assertNotNull(registry.find("jdolt.branch.pools").gauge());
+                    assertNotNull(registry.find("jdolt.cache.requests").tag("cache", "head").functionCounter());
+
+                    DoltConnectionManager manager = context.getBean(DoltClient.class).versionControl().getConnectionManager();
+                    assertInstanceOf(MicrometerDoltMetrics.class, manager.getMetrics());
+                    manager.getMetrics().start("dolt_log", "main").success(3);
+                    // 默认不带分支标签
+                    assertEquals(1, registry.get("jdolt.operation").tag("operation", "dolt_log")
+                            .tag("outcome", "success").tag("branch", "none").timer().count());
+                });
+    }
+
+    @Test
+    void testKeepsUserDataSource() {
+        HikariDataSource own = new HikariDataSource();
+        own.setPoolName("custom");
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JDoltAutoConfiguration.class))
+                .withBean(DataSource.class, () -> own)
+                .run(context -> {
+                    assertSame(own, context.getBean(DataSource.class));
+                    assertNotNull(context.getBean(DoltClient.class));
+                });
+    }
+
+    @Test
+    void testDisabled() {
+        runner.withPropertyValues("jdolt.enabled=false")
+                .run(context -> assertFalse(context.containsBean("doltClient")));
+    }
+}
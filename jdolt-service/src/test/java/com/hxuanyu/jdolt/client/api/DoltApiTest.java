@@ -1,6 +1,8 @@
 package com.hxuanyu.jdolt.client.api;
 
 import com.hxuanyu.jdolt.client.DoltClientTest;
+import com.hxuanyu.jdolt.core.api.BranchSession;
+import com.hxuanyu.jdolt.model.BatchResult;
 import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import com.hxuanyu.jdolt.model.api.BranchInfo;
 import com.hxuanyu.jdolt.model.api.CommitInfo;
@@ -44,6 +46,13 @@ public class DoltApiTest extends DoltClientTest {
         log.info("activeBranch:{}", activeBranch);
     }
 
+    @Test
+    public void testBranchSession() {
+        BranchSession session = doltClient.session("main");
+        log.info("session branch:{}, activeBranch:{}", session.branch(), session.api().activeBranch());
+        log.info("session logs:{}", session.versionControl().function().doltLog().prepare().execute().getRowCount());
+    }
+
     @Test
     public void testDoltLogs() {
         List<DoltLogInfo> logs = doltClient.api("main").logs("main");
@@ -62,4 +71,15 @@ public class DoltApiTest extends DoltClientTest {
 
     }
 
+    @Test
+    public void testCommonBatch() {
+        SqlBuilder insert = SqlBuilder.insertInto("products").columns("name", "price");
+        for (int i = 0; i < 10; i++) {
+            insert.values("batch-product-" + i, i);
+        }
+
+        BatchResult result = doltClient.session("main").api().commonBatch(insert.buildChunks(5));
+        log.info("batch result:{}", result);
+    }
+
 }
@@ -5,6 +5,9 @@ import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.stream.Stream;
+
 @Slf4j
 public class DoltDiffTest extends DoltMergeBaseTest {
 
@@ -39,4 +42,16 @@ public class DoltDiffTest extends DoltMergeBaseTest {
                 .execute();
         log.info("execute: {}", execute);
     }
+
+    @Test
+    public void testStreamDoltDiff() {
+        DoltDiff doltDiff = versionControl.function().doltDiff();
+        try (Stream<Map<String, Object>> rows = doltDiff.prepare()
+                .twoDot("oqo3l2g7adr83a38q6i7ccd7d9a0i5ms", "HEAD")
+                .withTable("products")
+                .stream()) {
+            long count = rows.peek(row -> log.debug("row: {}", row)).count();
+            log.info("streamed rows: {}", count);
+        }
+    }
 }
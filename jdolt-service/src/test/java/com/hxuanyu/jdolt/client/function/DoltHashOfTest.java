@@ -1,9 +1,12 @@
 package com.hxuanyu.jdolt.client.function;
 
 import com.hxuanyu.jdolt.client.DoltClientTest;
+import com.hxuanyu.jdolt.model.SqlExecuteResult;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 public class DoltHashOfTest extends DoltClientTest {
     @Test
@@ -13,4 +16,15 @@ public class DoltHashOfTest extends DoltClientTest {
                 .withBranch("testAddData").execute();
 
     }
+
+    @Test
+    public void testHashAsync() {
+        CompletableFuture<SqlExecuteResult> main = versionControl.function().doltHashOf().prepare()
+                .withBranch("main").executeAsync();
+        CompletableFuture<SqlExecuteResult> logs = versionControl.function().doltLog().prepare()
+                .executeAsync();
+
+        CompletableFuture.allOf(main, logs).join();
+        log.info("hash: {}, logs: {}", main.join().getData(), logs.join().getRowCount());
+    }
 }
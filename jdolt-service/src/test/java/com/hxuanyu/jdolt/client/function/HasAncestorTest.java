@@ -1,6 +1,7 @@
 package com.hxuanyu.jdolt.client.function;
 
 import com.hxuanyu.jdolt.client.DoltClientTest;
+import com.hxuanyu.jdolt.graph.CommitGraphIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -15,4 +16,12 @@ public class HasAncestorTest extends DoltClientTest {
                 .execute();
 
     }
+
+    @Test
+    public void testHasAncestorWithCommitGraph() {
+        CommitGraphIndex commitGraph = doltClient.commitGraph();
+        boolean merged = commitGraph.hasAncestor("main", "testAddData");
+        log.info("main has testAddData: {}, merge base: {}, ahead/behind: {}", merged,
+                commitGraph.mergeBase("main", "testAddData"), commitGraph.aheadBehind("main", "testAddData"));
+    }
 }
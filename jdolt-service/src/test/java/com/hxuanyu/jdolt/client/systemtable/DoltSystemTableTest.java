@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  *
@@ -77,6 +79,15 @@ public class DoltSystemTableTest extends DoltClientTest {
                 .execute().print();
     }
 
+    @Test
+    public void testStreamDoltHistory() {
+        try (Stream<Map<String, Object>> rows = versionControl.systemTable().history().prepare()
+                .withTableNameSuffix("orders")
+                .stream()) {
+            rows.limit(10).forEach(row -> System.out.println("[DEBUG_LOG] history row: " + row));
+        }
+    }
+
     @Test
     public void testDoltColumnDiff() {
         versionControl.systemTable().columnDiff().prepare().execute().print();
@@ -0,0 +1,57 @@
+package com.hxuanyu.jdolt.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hxuanyu.jdolt.autoconfigure.JDoltProperties;
+import com.hxuanyu.jdolt.core.api.DoltClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoltStreamControllerTest {
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private DoltStreamController controller() {
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        connections.incrementAndGet();
+                        throw new SQLException("database unavailable");
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new DoltStreamController(DoltClient.initialize(dataSource),
+                new DefaultListableBeanFactory().getBeanProvider(JDoltProperties.class), new ObjectMapper());
+    }
+
+    @Test
+    void testCursorOpenedInsideBody() {
+        DoltStreamController controller = controller();
+
+        ResponseEntity<StreamingResponseBody> response = controller.branches(List.of("name=main"), null, 10, null);
+
+        // 响应体没有执行时不借用连接
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, connections.get());
+    }
+
+    @Test
+    void testInvalidParametersRejectedBeforeStreaming() {
+        DoltStreamController controller = controller();
+
+        assertThrows(IllegalArgumentException.class, () -> controller.branches(List.of("name"), null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> controller.branches(null, null, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> controller.branches(null, null, null, "xml"));
+        assertEquals(0, connections.get());
+    }
+}
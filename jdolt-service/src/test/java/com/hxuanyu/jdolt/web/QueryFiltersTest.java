@@ -0,0 +1,70 @@
+package com.hxuanyu.jdolt.web;
+
+import com.hxuanyu.jdolt.model.WhereCondition;
+import com.hxuanyu.jdolt.util.builder.SqlBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryFiltersTest {
+
+    @Test
+    void testParseOperators() {
+        List<WhereCondition> conditions = QueryFilters.parse(List.of(
+                "committer=alice", "date>=2024-01-01", "message~%fix%", "diff_type!=removed", "to_id<10"));
+
+        assertEquals(WhereCondition.Operator.EQUALS, conditions.get(0).getOperator());
+        assertEquals("alice", conditions.get(0).getValue());
+        assertEquals(WhereCondition.Operator.GREATER_THAN_OR_EQUAL, conditions.get(1).getOperator());
+        assertEquals("2024-01-01", conditions.get(1).getValue());
+        assertEquals(WhereCondition.Operator.LIKE, conditions.get(2).getOperator());
+        assertEquals(WhereCondition.Operator.NOT_EQUALS, conditions.get(3).getOperator());
+        assertEquals("to_id", conditions.get(4).getColumn());
+        assertEquals(WhereCondition.Operator.LESS_THAN, conditions.get(4).getOperator());
+    }
+
+    @Test
+    void testValueMayContainOperators() {
+        WhereCondition condition = QueryFilters.parse("message=a=b>c");
+        assertEquals("message", condition.getColumn());
+        assertEquals("a=b>c", condition.getValue());
+    }
+
+    @Test
+    void testValuesAreBoundParameters() {
+        SqlBuilder builder = SqlBuilder.select("commit_hash").fromFunction("dolt_log").withParam("main");
+        QueryFilters.parse(List.of("committer=x' OR '1'='1")).forEach(builder::where);
+        SqlBuilder.SqlTemplate template = builder.limit(10).build();
+
+        assertEquals("SELECT commit_hash FROM dolt_log(?) WHERE committer = ? LIMIT ?", template.sql());
+        assertEquals(List.of("main", "x' OR '1'='1", 10), template.parameters());
+    }
+
+    @Test
+    void testRejectsInvalidIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.parse("1=1 OR x=1"));
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.parse("committer"));
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.columns(List.of("commit_hash", "*")));
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.identifier("products; DROP TABLE x"));
+        assertArrayEquals(new String[]{"commit_hash", "date"}, QueryFilters.columns(List.of("commit_hash", " date ", "")));
+        assertEquals(0, QueryFilters.columns(null).length);
+    }
+
+    @Test
+    void testEffectiveLimit() {
+        assertEquals(100, DoltStreamController.effectiveLimit(null, 100));
+        assertEquals(10, DoltStreamController.effectiveLimit(10, 100));
+        assertEquals(100, DoltStreamController.effectiveLimit(1000, 100));
+        assertNull(DoltStreamController.effectiveLimit(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> DoltStreamController.effectiveLimit(0, 100));
+    }
+
+    @Test
+    void testRowFormat() {
+        assertEquals(RowFormat.NDJSON, RowFormat.of(null));
+        assertEquals(RowFormat.JSON, RowFormat.of("Json"));
+        assertThrows(IllegalArgumentException.class, () -> RowFormat.of("xml"));
+    }
+}
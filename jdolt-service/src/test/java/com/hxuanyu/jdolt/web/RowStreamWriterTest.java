@@ -0,0 +1,109 @@
+package com.hxuanyu.jdolt.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowStreamWriterTest {
+    private static final String[] COLUMNS = {"commit_hash", "committer", "rows"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"h" + i, i % 2 == 0 ? "alice" : null, (long) i});
+        }
+        return rows;
+    }
+
+    /**
+     * 记录 flush 次数的输出流
+     */
+    private static class CountingStream extends ByteArrayOutputStream {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    @Test
+    void testNdjsonWritesOneObjectPerLine() throws IOException {
+        CountingStream out = new CountingStream();
+        long count = new RowStreamWriter(objectMapper, 2).write(RowFormat.NDJSON, COLUMNS, rows(5).iterator(), out);
+
+        assertEquals(5, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("{\"commit_hash\":\"h0\",\"committer\":\"alice\",\"rows\":0}", lines[0]);
+        assertTrue(objectMapper.readTree(lines[1]).get("committer").isNull());
+        // 每两行刷新一次，关闭时再刷新一次
+        assertTrue(out.flushes >= 2);
+    }
+
+    @Test
+    void testJsonDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RowStreamWriter(objectMapper, 100).write(RowFormat.JSON, COLUMNS, rows(3).iterator(), out);
+
+        JsonNode document = objectMapper.readTree(out.toByteArray());
+        assertEquals("committer", document.get("columns").get(1).asText());
+        assertEquals(3, document.get("rows").size());
+        assertEquals("h2", document.get("rows").get(2).get(0).asText());
+        assertEquals(3, document.get("rowCount").asInt());
+        assertNull(document.get("error"));
+    }
+
+    @Test
+    void testFailureIsWrittenAsTrailer() throws IOException {
+        Iterator<Object[]> source = rows(3).iterator();
+        Iterator<Object[]> failing = new Iterator<>() {
+            int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 2) {
+                    throw new IllegalStateException("connection lost");
+                }
+                return source.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                read++;
+                return source.next();
+            }
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, new RowStreamWriter(objectMapper, 100).write(RowFormat.NDJSON, COLUMNS, failing, out));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("connection lost", objectMapper.readTree(lines[2]).get("error").asText());
+    }
+
+    @Test
+    void testDoesNotCloseOutputStream() throws IOException {
+        boolean[] closed = new boolean[1];
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        new RowStreamWriter(objectMapper, 1).write(RowFormat.JSON, COLUMNS, rows(1).iterator(), out);
+        assertFalse(closed[0]);
+    }
+}